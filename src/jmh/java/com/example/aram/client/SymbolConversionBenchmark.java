@@ -0,0 +1,90 @@
+package com.example.aram.client;
+
+import com.example.aram.client.impl.BinanceClient;
+import com.example.aram.client.impl.BybitClient;
+import com.example.aram.client.impl.CoinbaseClient;
+import com.example.aram.client.impl.KrakenClient;
+import com.example.aram.client.impl.KuCoinClient;
+import com.example.aram.client.impl.OKXClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Symbol conversion in each exchange client, measured over a fixed set of standard symbols.
+ * Lives in the client package to reach the protected conversion methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SymbolConversionBenchmark {
+    
+    private static final String[] SYMBOLS = {
+            "BTC/USDT", "ETH/USDT", "SOL/USDT", "XRP/USDT", "ETH/BTC", "LINK/BTC", "DOGE/USDT", "ADA/USDT"
+    };
+    
+    @Param({"BINANCE", "OKX", "KUCOIN", "BYBIT", "KRAKEN", "COINBASE"})
+    private String exchange;
+    
+    private BaseExchangeClient client;
+    private String[] exchangeSymbols;
+    
+    @Setup
+    public void setUp() {
+        // Feign clients are never called by the conversion methods
+        switch (exchange) {
+            case "BINANCE":
+                client = new BinanceClient(null);
+                break;
+            case "OKX":
+                client = new OKXClient(null);
+                break;
+            case "KUCOIN":
+                client = new KuCoinClient(null);
+                break;
+            case "BYBIT":
+                client = new BybitClient(null);
+                break;
+            case "KRAKEN":
+                client = new KrakenClient(null);
+                break;
+            case "COINBASE":
+                client = new CoinbaseClient(null);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported exchange: " + exchange);
+        }
+        exchangeSymbols = new String[SYMBOLS.length];
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            exchangeSymbols[i] = client.convertToExchangeSymbol(SYMBOLS[i]);
+        }
+    }
+    
+    @Benchmark
+    public void toExchangeSymbol(Blackhole blackhole) {
+        for (String symbol : SYMBOLS) {
+            blackhole.consume(client.convertToExchangeSymbol(symbol));
+        }
+    }
+    
+    @Benchmark
+    public void fromExchangeSymbol(Blackhole blackhole) {
+        for (String exchangeSymbol : exchangeSymbols) {
+            blackhole.consume(client.convertFromExchangeSymbol(exchangeSymbol));
+        }
+    }
+}
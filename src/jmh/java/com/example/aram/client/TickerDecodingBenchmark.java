@@ -0,0 +1,78 @@
+package com.example.aram.client;
+
+import com.example.aram.client.impl.BinanceClient;
+import com.example.aram.client.impl.KuCoinClient;
+import com.example.aram.client.impl.OKXClient;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON decoding of the all-tickers responses into the clients' response classes.
+ * Payloads under src/jmh/resources/payloads follow each exchange's documented response format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickerDecodingBenchmark {
+    
+    private static final TypeReference<List<BinanceClient.BinanceTickerResponse>> BINANCE_TICKERS = 
+            new TypeReference<List<BinanceClient.BinanceTickerResponse>>() {};
+    
+    private final ObjectMapper mapper = new ObjectMapper();
+    
+    private byte[] binancePayload;
+    private byte[] okxPayload;
+    private byte[] kuCoinPayload;
+    
+    @Setup
+    public void setUp() {
+        binancePayload = load("binance-book-tickers.json");
+        okxPayload = load("okx-tickers.json");
+        kuCoinPayload = load("kucoin-all-tickers.json");
+    }
+    
+    @Benchmark
+    public List<BinanceClient.BinanceTickerResponse> binance() throws IOException {
+        return mapper.readValue(binancePayload, BINANCE_TICKERS);
+    }
+    
+    @Benchmark
+    public OKXClient.OKXTickerResponse okx() throws IOException {
+        return mapper.readValue(okxPayload, OKXClient.OKXTickerResponse.class);
+    }
+    
+    @Benchmark
+    public KuCoinClient.KuCoinAllTickersResponse kuCoin() throws IOException {
+        return mapper.readValue(kuCoinPayload, KuCoinClient.KuCoinAllTickersResponse.class);
+    }
+    
+    private static byte[] load(String name) {
+        try (InputStream in = TickerDecodingBenchmark.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing payload: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
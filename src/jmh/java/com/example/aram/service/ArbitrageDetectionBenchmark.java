@@ -0,0 +1,107 @@
+package com.example.aram.service;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.market.OrderBookStore;
+import com.example.aram.market.QuoteStore;
+import com.example.aram.market.ScaledQuote;
+import com.example.aram.model.ArbitrageOpportunity;
+import com.example.aram.util.ArbitrageCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pairwise comparison and the best-price walk over one symbol's quotes as the number of exchanges grows.
+ * Quotes beyond the six real exchanges reuse exchange types, which does not change the comparison cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArbitrageDetectionBenchmark {
+    
+    private static final String SYMBOL = "BTC/USDT";
+    
+    @Param({"6", "20", "50"})
+    private int exchanges;
+    
+    /**
+     * Whether prices fit the fixed-point path; false forces the BigDecimal fallback
+     */
+    @Param({"true", "false"})
+    private boolean fixedPoint;
+    
+    /**
+     * Profit threshold in percent; high values measure the no-opportunity case
+     */
+    @Param({"0.005", "100"})
+    private String minProfitPercentage;
+    
+    private ArbitrageDetectionService detectionService;
+    private ScaledQuote[] quotes;
+    private ScaledQuote[] byBid;
+    private ScaledQuote[] byAsk;
+    private BigDecimal minProfit;
+    
+    @Setup
+    public void setUp() {
+        // Only the pure comparison is measured, so the repository is never touched
+        ArbitrageConfig config = new ArbitrageConfig();
+        detectionService = new ArbitrageDetectionService(
+                new QuoteStore(), null, new ArbitrageCalculator(), config, new ExchangeFeeCache(null, config), 
+                new OrderBookStore(config));
+        minProfit = new BigDecimal(minProfitPercentage);
+        
+        Random random = new Random(42);
+        ExchangeType[] types = ExchangeType.values();
+        quotes = new ScaledQuote[exchanges];
+        for (int i = 0; i < exchanges; i++) {
+            BigDecimal mid = BigDecimal.valueOf(6_700_000_000_000L + random.nextInt(600_000_000), 8);
+            if (!fixedPoint) {
+                mid = mid.add(new BigDecimal("0.000000001"));
+            }
+            BigDecimal spread = BigDecimal.valueOf(random.nextInt(2_000_000), 8);
+            PriceDto price = PriceDto.builder()
+                    .exchange(types[i % types.length])
+                    .symbol(SYMBOL)
+                    .bidPrice(mid.subtract(spread))
+                    .askPrice(mid.add(spread))
+                    .timestamp(LocalDateTime.now())
+                    .build();
+            quotes[i] = ScaledQuote.of(price);
+        }
+        byBid = quotes.clone();
+        Arrays.sort(byBid, (a, b) -> ScaledQuote.compareBid(b, a));
+        byAsk = quotes.clone();
+        Arrays.sort(byAsk, ScaledQuote::compareAsk);
+    }
+    
+    @Benchmark
+    public List<ArbitrageOpportunity> pairwiseComparison() {
+        return detectionService.findSimpleOpportunities(SYMBOL, quotes, quotes.length, minProfit);
+    }
+    
+    @Benchmark
+    public List<ArbitrageOpportunity> bestPriceWalk() {
+        return detectionService.findCrossingOpportunities(SYMBOL, byBid, byBid.length, byAsk, byAsk.length, minProfit);
+    }
+}
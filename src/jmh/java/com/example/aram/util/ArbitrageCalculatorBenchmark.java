@@ -0,0 +1,90 @@
+package com.example.aram.util;
+
+import com.example.aram.market.OrderBook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the individual calculator methods used during detection and execution
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArbitrageCalculatorBenchmark {
+    
+    private final ArbitrageCalculator calculator = new ArbitrageCalculator();
+    
+    private BigDecimal buyPrice = new BigDecimal("67012.34000000");
+    private BigDecimal sellPrice = new BigDecimal("67140.91000000");
+    private BigDecimal amount = new BigDecimal("0.25000000");
+    private BigDecimal buyFee = new BigDecimal("0.001");
+    private BigDecimal sellFee = new BigDecimal("0.001");
+    private BigDecimal balance = new BigDecimal("10000.00");
+    private BigDecimal maxPercentageOfBalance = new BigDecimal("0.10");
+    
+    private long scaledBuyPrice = FixedPoint.toScaled(buyPrice);
+    private long scaledSellPrice = FixedPoint.toScaled(sellPrice);
+    
+    private final OrderBook buyBook = new OrderBook(20);
+    private final OrderBook sellBook = new OrderBook(20);
+    private final DepthFill fill = new DepthFill();
+    
+    @Setup
+    public void setUp() {
+        // Levels ten dollars apart, so about a dozen steps of the walk stay profitable after 0.01% per leg
+        for (int level = 0; level < 20; level++) {
+            buyBook.addAsk(scaledBuyPrice + level * 10 * FixedPoint.ONE, FixedPoint.ONE / 4);
+            sellBook.addBid(scaledSellPrice - level * 10 * FixedPoint.ONE, FixedPoint.ONE / 3);
+        }
+    }
+    
+    @Benchmark
+    public BigDecimal profitPercentage() {
+        return calculator.calculateProfitPercentage(buyPrice, sellPrice);
+    }
+    
+    @Benchmark
+    public long profitPercentageFixedPoint() {
+        return calculator.calculateProfitPercentage(scaledBuyPrice, scaledSellPrice);
+    }
+    
+    @Benchmark
+    public long netProfitPercentageFixedPoint() {
+        return calculator.calculateNetProfitPercentage(scaledBuyPrice, 1000, scaledSellPrice, 1000);
+    }
+    
+    @Benchmark
+    public long depthFill() {
+        calculator.fillAgainstDepth(buyBook, 100, sellBook, 100, fill);
+        return fill.getNetProfit();
+    }
+    
+    @Benchmark
+    public BigDecimal estimatedProfit() {
+        return calculator.calculateEstimatedProfit(buyPrice, sellPrice, amount);
+    }
+    
+    @Benchmark
+    public BigDecimal profitAfterFees() {
+        return calculator.calculateProfitAfterFees(buyPrice, sellPrice, amount, buyFee, sellFee);
+    }
+    
+    @Benchmark
+    public BigDecimal optimalAmount() {
+        return calculator.calculateOptimalAmount(balance, buyPrice, maxPercentageOfBalance);
+    }
+}
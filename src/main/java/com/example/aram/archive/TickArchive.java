@@ -0,0 +1,377 @@
+package com.example.aram.archive;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.market.QuoteListener;
+import com.example.aram.market.QuoteStore;
+import com.example.aram.util.FixedPoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only tick history in memory-mapped columnar segments, one directory per exchange and
+ * symbol and one or more segment files per day. Every top-of-book change in the quote store is
+ * appended here, which costs 36 bytes per tick; the prices table keeps recent, queryable rows.
+ * Retention drops whole day files.
+ * <p>
+ * Appends lock only their own exchange and symbol. Creating, mapping and flushing segment files happens on
+ * the archive's own thread: a tick that needs a new segment waits in memory until it is open, so the
+ * ingesting thread never does file I/O. The ticks waiting per exchange and symbol are capped, so a stalled
+ * disk drops ticks instead of filling the heap.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TickArchive implements QuoteListener {
+    
+    private static final String SUFFIX = ".ticks";
+    private static final long DROP_WARNING_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+    
+    private final ArbitrageConfig arbitrageConfig;
+    private final QuoteStore quoteStore;
+    
+    /**
+     * Append state per exchange and symbol
+     */
+    private final Map<String, KeyWriter> writers = new ConcurrentHashMap<>();
+    
+    private final ExecutorService roller = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("tick-archive-"));
+    
+    @PostConstruct
+    public void registerQuoteListener() {
+        if (arbitrageConfig.getArchive().getEnabled()) {
+            quoteStore.addListener(this);
+            log.info("Archiving ticks under {}", root().toAbsolutePath());
+        }
+    }
+    
+    /**
+     * Open the segments still waited for, then flush every active segment to disk
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        roller.shutdown();
+        if (!roller.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Tick archive stopped with segments still being opened");
+        }
+        for (KeyWriter writer : writers.values()) {
+            TickSegment segment = writer.segment();
+            if (segment != null) {
+                segment.force();
+            }
+        }
+    }
+    
+    @Override
+    public void onQuoteChanged(PriceDto quote) {
+        LocalDateTime timestamp = quote.getTimestamp() != null ? quote.getTimestamp() : LocalDateTime.now();
+        append(quote.getExchange(), quote.getSymbol(), timestamp, 
+                scaled(quote.getBidPrice()), scaled(quote.getAskPrice()), 
+                scaled(quote.getLastPrice()), scaled(quote.getVolume24h()));
+    }
+    
+    /**
+     * Append one tick. When the day changes or the current segment is full the tick is kept in memory and
+     * the next segment is opened on the archive thread, which then appends it.
+     */
+    public void append(ExchangeType exchange, String symbol, LocalDateTime timestamp, 
+                       long bid, long ask, long last, long volume) {
+        KeyWriter writer = writers.computeIfAbsent(exchange + ":" + symbol, key -> new KeyWriter(exchange, symbol));
+        LocalDate day = timestamp.toLocalDate();
+        long millis = toMillis(timestamp);
+        synchronized (writer) {
+            if (writer.waiting.isEmpty()) {
+                ActiveSegment active = writer.active;
+                if (active != null && day.isBefore(active.day)) {
+                    // Late tick from a day that has already been rolled over
+                    log.debug("Dropping late tick for {} on {} at {}", symbol, exchange, timestamp);
+                    return;
+                }
+                if (active != null && active.day.equals(day) 
+                        && active.segment.append(millis, bid, ask, last, volume)) {
+                    return;
+                }
+            }
+            if (writer.waiting.size() >= arbitrageConfig.getArchive().getMaxWaiting()) {
+                writer.dropped(timestamp);
+                return;
+            }
+            writer.waiting.add(new Tick(day, millis, bid, ask, last, volume));
+            if (writer.waiting.size() > 1) {
+                // The archive thread is already opening a segment and appends this tick after the others
+                return;
+            }
+        }
+        try {
+            roller.execute(() -> roll(writer));
+        } catch (RejectedExecutionException e) {
+            synchronized (writer) {
+                writer.waiting.clear();
+            }
+            log.warn("Tick archive is closed, dropping ticks for {} on {}", symbol, exchange);
+        }
+    }
+    
+    /**
+     * Open segments for a writer's waiting ticks and append them, until none are left
+     */
+    private void roll(KeyWriter writer) {
+        while (true) {
+            ActiveSegment previous;
+            LocalDate day;
+            synchronized (writer) {
+                previous = writer.active;
+                day = writer.waiting.getFirst().day;
+            }
+            ActiveSegment opened;
+            try {
+                opened = open(writer.exchange, writer.symbol, day, previous);
+            } catch (IOException e) {
+                synchronized (writer) {
+                    log.error("Error archiving {} ticks for {} on {}: {}", 
+                            writer.waiting.size(), writer.symbol, writer.exchange, e.getMessage());
+                    writer.waiting.clear();
+                }
+                return;
+            }
+            synchronized (writer) {
+                writer.active = opened;
+                while (!writer.waiting.isEmpty()) {
+                    Tick tick = writer.waiting.getFirst();
+                    if (tick.day.isBefore(opened.day)) {
+                        log.debug("Dropping late tick for {} on {}", writer.symbol, writer.exchange);
+                    } else if (!tick.day.equals(opened.day) 
+                            || !opened.segment.append(tick.millis, tick.bid, tick.ask, tick.last, tick.volume)) {
+                        break;
+                    }
+                    writer.waiting.removeFirst();
+                }
+                if (writer.waiting.isEmpty()) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Replay archived ticks for one exchange and symbol in time order without copying them
+     *
+     * @return number of ticks visited
+     */
+    public long replay(ExchangeType exchange, String symbol, LocalDateTime from, LocalDateTime to, 
+                       TickVisitor visitor) {
+        long fromMillis = toMillis(from);
+        long toMillis = toMillis(to);
+        long visited = 0;
+        for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+            for (Path file : segmentFiles(exchange, symbol, day)) {
+                try {
+                    visited += segmentFor(exchange, symbol, file).replay(fromMillis, toMillis, visitor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error reading tick segment " + file, e);
+                }
+            }
+        }
+        return visited;
+    }
+    
+    /**
+     * Delete day files older than the given number of days
+     *
+     * @return number of files deleted
+     */
+    public int deleteOlderThan(int daysToKeep) {
+        LocalDate cutoff = LocalDate.now().minusDays(daysToKeep);
+        Path root = root();
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (Stream<Path> walk = Files.walk(root)) {
+            List<Path> files = walk.filter(this::isSegmentFile).collect(Collectors.toList());
+            for (Path file : files) {
+                if (dayOf(file).isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error cleaning up tick archive: {}", e.getMessage());
+        }
+        for (KeyWriter writer : writers.values()) {
+            synchronized (writer) {
+                if (writer.active != null && writer.active.day.isBefore(cutoff)) {
+                    writer.active = null;
+                }
+            }
+        }
+        log.info("Deleted {} tick segments older than {}", deleted, cutoff);
+        return deleted;
+    }
+    
+    private ActiveSegment open(ExchangeType exchange, String symbol, LocalDate day, ActiveSegment previous) 
+            throws IOException {
+        if (previous != null) {
+            previous.segment.force();
+        }
+        int part = previous != null && previous.day.equals(day) ? previous.part + 1 : lastPart(exchange, symbol, day);
+        TickSegment segment = TickSegment.openForWrite(segmentFile(exchange, symbol, day, part), 
+                arbitrageConfig.getArchive().getSegmentCapacity(), toMillis(day.atStartOfDay()));
+        return new ActiveSegment(day, part, segment);
+    }
+    
+    private TickSegment segmentFor(ExchangeType exchange, String symbol, Path file) throws IOException {
+        KeyWriter writer = writers.get(exchange + ":" + symbol);
+        ActiveSegment active = null;
+        if (writer != null) {
+            synchronized (writer) {
+                active = writer.active;
+            }
+        }
+        if (active != null && file.equals(segmentFile(exchange, symbol, active.day, active.part))) {
+            return active.segment;
+        }
+        return TickSegment.openForRead(file);
+    }
+    
+    private int lastPart(ExchangeType exchange, String symbol, LocalDate day) {
+        List<Path> files = segmentFiles(exchange, symbol, day);
+        return files.isEmpty() ? 0 : files.size() - 1;
+    }
+    
+    private List<Path> segmentFiles(ExchangeType exchange, String symbol, LocalDate day) {
+        List<Path> files = new ArrayList<>();
+        for (int part = 0; ; part++) {
+            Path file = segmentFile(exchange, symbol, day, part);
+            if (!Files.exists(file)) {
+                return files;
+            }
+            files.add(file);
+        }
+    }
+    
+    private Path segmentFile(ExchangeType exchange, String symbol, LocalDate day, int part) {
+        String name = part == 0 ? day.toString() : day + "." + part;
+        return root().resolve(exchange.name()).resolve(symbol.replace('/', '-')).resolve(name + SUFFIX);
+    }
+    
+    private boolean isSegmentFile(Path file) {
+        return file.getFileName().toString().endsWith(SUFFIX);
+    }
+    
+    private static LocalDate dayOf(Path file) {
+        return LocalDate.parse(file.getFileName().toString().substring(0, 10));
+    }
+    
+    private Path root() {
+        return Paths.get(arbitrageConfig.getArchive().getDirectory());
+    }
+    
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Prices are stored with the scale of the price columns, so nothing is lost that the table would keep
+     */
+    private static long scaled(BigDecimal value) {
+        return value != null ? FixedPoint.toScaled(value.setScale(FixedPoint.SCALE, RoundingMode.HALF_UP)) 
+                : FixedPoint.UNREPRESENTABLE;
+    }
+    
+    /**
+     * Segment appended to for one exchange and symbol, and the ticks waiting for the next one to open
+     */
+    private static final class KeyWriter {
+        
+        private final ExchangeType exchange;
+        private final String symbol;
+        private final ArrayDeque<Tick> waiting = new ArrayDeque<>();
+        private ActiveSegment active;
+        private long dropped;
+        private long warnedAt = System.nanoTime() - DROP_WARNING_INTERVAL;
+        
+        private KeyWriter(ExchangeType exchange, String symbol) {
+            this.exchange = exchange;
+            this.symbol = symbol;
+        }
+        
+        /**
+         * Count a tick dropped because too many are waiting, warning at most once per interval
+         */
+        private void dropped(LocalDateTime timestamp) {
+            dropped++;
+            long now = System.nanoTime();
+            if (now - warnedAt >= DROP_WARNING_INTERVAL) {
+                log.warn("Tick archive is behind for {} on {}: dropped {} ticks up to {} with {} waiting for a segment",
+                        symbol, exchange, dropped, timestamp, waiting.size());
+                dropped = 0;
+                warnedAt = now;
+            }
+        }
+        
+        private synchronized TickSegment segment() {
+            return active != null ? active.segment : null;
+        }
+    }
+    
+    private static final class Tick {
+        
+        private final LocalDate day;
+        private final long millis;
+        private final long bid;
+        private final long ask;
+        private final long last;
+        private final long volume;
+        
+        private Tick(LocalDate day, long millis, long bid, long ask, long last, long volume) {
+            this.day = day;
+            this.millis = millis;
+            this.bid = bid;
+            this.ask = ask;
+            this.last = last;
+            this.volume = volume;
+        }
+    }
+    
+    private static final class ActiveSegment {
+        
+        private final LocalDate day;
+        private final int part;
+        private final TickSegment segment;
+        
+        private ActiveSegment(LocalDate day, int part, TickSegment segment) {
+            this.day = day;
+            this.part = part;
+            this.segment = segment;
+        }
+    }
+}
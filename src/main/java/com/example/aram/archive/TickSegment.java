@@ -0,0 +1,167 @@
+package com.example.aram.archive;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One memory-mapped, append-only file of ticks for a single exchange, symbol and day.
+ * <p>
+ * Layout: a 32-byte header (magic, version, capacity, count, base epoch millis) followed by
+ * one fixed-size column per field, each {@code capacity} entries long: int timestamp delta
+ * from the base, then long bid, ask, last and volume. A tick takes 36 bytes. The count is
+ * written after the columns, so a reader never sees a partially written tick.
+ */
+public final class TickSegment {
+    
+    private static final int MAGIC = 0x5449434B; // "TICK"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int COUNT_OFFSET = 12;
+    private static final int BASE_OFFSET = 16;
+    
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final long baseMillis;
+    private final int bidOffset;
+    private final int askOffset;
+    private final int lastOffset;
+    private final int volumeOffset;
+    private volatile int count;
+    
+    private TickSegment(MappedByteBuffer buffer, int capacity, long baseMillis, int count) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.baseMillis = baseMillis;
+        this.count = count;
+        this.bidOffset = HEADER_SIZE + capacity * Integer.BYTES;
+        this.askOffset = bidOffset + capacity * Long.BYTES;
+        this.lastOffset = askOffset + capacity * Long.BYTES;
+        this.volumeOffset = lastOffset + capacity * Long.BYTES;
+    }
+    
+    /**
+     * Open a segment for appending, creating it with the given capacity and base time if it does not exist
+     */
+    public static TickSegment openForWrite(Path file, int capacity, long baseMillis) throws IOException {
+        if (capacity <= 0 || fileSize(capacity) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment capacity out of range: " + capacity);
+        }
+        boolean exists = Files.exists(file);
+        if (!exists) {
+            Files.createDirectories(file.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(file, 
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (exists) {
+                return map(channel, FileChannel.MapMode.READ_WRITE, file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, capacity);
+            buffer.putInt(COUNT_OFFSET, 0);
+            buffer.putLong(BASE_OFFSET, baseMillis);
+            return new TickSegment(buffer, capacity, baseMillis, 0);
+        }
+    }
+    
+    /**
+     * Map an existing segment read-only
+     */
+    public static TickSegment openForRead(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return map(channel, FileChannel.MapMode.READ_ONLY, file);
+        }
+    }
+    
+    private static TickSegment map(FileChannel channel, FileChannel.MapMode mode, Path file) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, 0, channel.size());
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a tick segment: " + file);
+        }
+        int capacity = buffer.getInt(8);
+        if (channel.size() < fileSize(capacity)) {
+            throw new IOException("Truncated tick segment: " + file);
+        }
+        return new TickSegment(buffer, capacity, buffer.getLong(BASE_OFFSET), buffer.getInt(COUNT_OFFSET));
+    }
+    
+    private static long fileSize(int capacity) {
+        return HEADER_SIZE + (long) capacity * (Integer.BYTES + 4L * Long.BYTES);
+    }
+    
+    /**
+     * Append one tick
+     *
+     * @return false if the segment is full or the timestamp is outside its range
+     */
+    public synchronized boolean append(long timestampMillis, long bid, long ask, long last, long volume) {
+        long delta = timestampMillis - baseMillis;
+        int index = count;
+        if (index >= capacity || delta < 0 || delta > Integer.MAX_VALUE) {
+            return false;
+        }
+        buffer.putInt(HEADER_SIZE + index * Integer.BYTES, (int) delta);
+        buffer.putLong(bidOffset + index * Long.BYTES, bid);
+        buffer.putLong(askOffset + index * Long.BYTES, ask);
+        buffer.putLong(lastOffset + index * Long.BYTES, last);
+        buffer.putLong(volumeOffset + index * Long.BYTES, volume);
+        buffer.putInt(COUNT_OFFSET, index + 1);
+        count = index + 1;
+        return true;
+    }
+    
+    /**
+     * Visit the ticks with timestamps in [fromMillis, toMillis], reading straight from the mapping
+     *
+     * @return number of ticks visited
+     */
+    public int replay(long fromMillis, long toMillis, TickVisitor visitor) {
+        int size = count;
+        int visited = 0;
+        for (int i = 0; i < size; i++) {
+            long timestamp = timestamp(i);
+            if (timestamp < fromMillis || timestamp > toMillis) {
+                continue;
+            }
+            visitor.onTick(timestamp, bid(i), ask(i), last(i), volume(i));
+            visited++;
+        }
+        return visited;
+    }
+    
+    public int size() {
+        return count;
+    }
+    
+    public long timestamp(int index) {
+        return baseMillis + buffer.getInt(HEADER_SIZE + index * Integer.BYTES);
+    }
+    
+    public long bid(int index) {
+        return buffer.getLong(bidOffset + index * Long.BYTES);
+    }
+    
+    public long ask(int index) {
+        return buffer.getLong(askOffset + index * Long.BYTES);
+    }
+    
+    public long last(int index) {
+        return buffer.getLong(lastOffset + index * Long.BYTES);
+    }
+    
+    public long volume(int index) {
+        return buffer.getLong(volumeOffset + index * Long.BYTES);
+    }
+    
+    /**
+     * Flush written ticks to disk
+     */
+    public void force() {
+        buffer.force();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.aram.archive;
+
+/**
+ * Receives archived ticks during replay. Prices and volume are fixed-point longs
+ * (see {@link com.example.aram.util.FixedPoint}); missing values are
+ * {@link com.example.aram.util.FixedPoint#UNREPRESENTABLE}.
+ */
+public interface TickVisitor {
+    
+    void onTick(long timestampMillis, long bid, long ask, long last, long volume);
+}
@@ -0,0 +1,12 @@
+package com.example.aram.client;
+
+/**
+ * A signed call the exchange refused because of its API key: unknown, revoked or without the permission needed.
+ * The stored credentials are read again before the next signed call.
+ */
+public class ApiKeyRejectedException extends RuntimeException {
+    
+    public ApiKeyRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,13 +1,32 @@
 package com.example.aram.client;
 
+import com.example.aram.client.ratelimit.RateLimitException;
+import com.example.aram.dto.OrderDto;
 import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderType;
+import com.example.aram.market.OrderBook;
+import com.example.aram.model.Exchange;
+import com.example.aram.util.FixedPoint;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Base class for exchange clients with common functionality
@@ -19,6 +38,11 @@ public abstract class BaseExchangeClient implements ExchangeClient {
     protected final ExchangeType exchangeType;
     protected static final Duration TIMEOUT = Duration.ofSeconds(10);
     
+    /**
+     * Writes signed request bodies; the exact string sent is the one that was signed
+     */
+    protected static final ObjectMapper MAPPER = new ObjectMapper();
+    
     protected BaseExchangeClient(WebClient.Builder webClientBuilder, String baseUrl, ExchangeType exchangeType) {
         if (webClientBuilder != null && baseUrl != null) {
             this.webClient = webClientBuilder
@@ -47,6 +71,70 @@ public abstract class BaseExchangeClient implements ExchangeClient {
         }
     }
     
+    /**
+     * Exchanges without a usable bulk ticker endpoint fall back to one call per symbol
+     */
+    @Override
+    public List<PriceDto> fetchTickers(Set<String> symbols) {
+        return fetchPrices(new ArrayList<>(symbols));
+    }
+    
+    @Override
+    public boolean hasBulkTickers() {
+        return false;
+    }
+    
+    /**
+     * Exchanges without a depth endpoint report no order book
+     */
+    @Override
+    public boolean fetchOrderBook(String symbol, int depth, OrderBook into) {
+        into.clear();
+        return false;
+    }
+    
+    /**
+     * Load [price, size, ...] levels sent best first into one side of an order book.
+     * Prices with more than 8 decimals are rounded against us and sizes rounded down.
+     */
+    protected static void addLevels(List<List<String>> levels, boolean bids, OrderBook book) {
+        if (levels == null) {
+            return;
+        }
+        for (List<String> level : levels) {
+            if (level == null || level.size() < 2) {
+                continue;
+            }
+            long price = FixedPoint.toScaled(new BigDecimal(level.get(0))
+                    .setScale(FixedPoint.SCALE, bids ? RoundingMode.DOWN : RoundingMode.UP));
+            long size = FixedPoint.toScaled(new BigDecimal(level.get(1)).setScale(FixedPoint.SCALE, RoundingMode.DOWN));
+            if (bids) {
+                book.addBid(price, size);
+            } else {
+                book.addAsk(price, size);
+            }
+        }
+    }
+    
+    /**
+     * Stamp a freshly loaded order book and report whether it has any levels
+     */
+    protected static boolean completeOrderBook(OrderBook book) {
+        book.setTimestamp(System.currentTimeMillis());
+        return book.bidCount() > 0 || book.askCount() > 0;
+    }
+    
+    /**
+     * Map exchange-specific symbols back to the requested standard symbols
+     */
+    protected Map<String, String> toExchangeSymbols(Set<String> symbols) {
+        Map<String, String> exchangeSymbols = new HashMap<>();
+        for (String symbol : symbols) {
+            exchangeSymbols.put(convertToExchangeSymbol(symbol), symbol);
+        }
+        return exchangeSymbols;
+    }
+    
     /**
      * Convert exchange-specific symbol format to standard format (e.g., BTC/USDT)
      */
@@ -58,7 +146,7 @@ public abstract class BaseExchangeClient implements ExchangeClient {
     protected abstract String convertFromExchangeSymbol(String exchangeSymbol);
     
     /**
-     * Handle API errors with retry logic
+     * Handle API errors with retry logic; calls refused for the exchange's rate limit are not retried
      */
     protected <T> Mono<T> handleApiCall(Mono<T> apiCall) {
         if (apiCall == null) {
@@ -66,7 +154,7 @@ public abstract class BaseExchangeClient implements ExchangeClient {
         }
         return apiCall
                 .timeout(TIMEOUT)
-                .retry(2)
+                .retryWhen(Retry.max(2).filter(error -> !(error instanceof RateLimitException)))
                 .doOnError(error -> log.error("API call failed for {}: {}", exchangeType, error.getMessage()))
                 .onErrorReturn(null);
     }
@@ -81,5 +169,115 @@ public abstract class BaseExchangeClient implements ExchangeClient {
                 .timestamp(LocalDateTime.now())
                 .build();
     }
+    
+    /**
+     * Create an order DTO with timestamp
+     */
+    protected OrderDto.OrderDtoBuilder createOrderDto(String symbol, String orderId) {
+        return OrderDto.builder()
+                .exchange(exchangeType)
+                .symbol(symbol)
+                .orderId(orderId)
+                .timestamp(LocalDateTime.now());
+    }
+    
+    /**
+     * Fail before signing when the account has no API key or secret
+     */
+    protected void requireCredentials(Exchange account) {
+        if (account == null || isBlank(account.getApiKey()) || isBlank(account.getApiSecret())) {
+            throw new IllegalArgumentException("No API credentials configured for " + exchangeType);
+        }
+    }
+    
+    /**
+     * Passphrase of an account on an exchange that requires one
+     */
+    protected String requirePassphrase(Exchange account) {
+        requireCredentials(account);
+        if (isBlank(account.getApiPassphrase())) {
+            throw new IllegalArgumentException("No API passphrase configured for " + exchangeType);
+        }
+        return account.getApiPassphrase();
+    }
+    
+    /**
+     * Whether an order type is sent as a limit order; only market and limit orders are supported
+     */
+    protected static boolean isLimit(OrderType orderType) {
+        if (orderType == OrderType.MARKET) {
+            return false;
+        }
+        if (orderType == OrderType.LIMIT) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unsupported order type: " + orderType);
+    }
+    
+    /**
+     * Unique client order id of 32 hex characters, accepted by every exchange's length and charset rules
+     */
+    protected static String newClientOrderId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+    
+    /**
+     * Join parameters in iteration order as they are sent and signed. Values are not escaped,
+     * so they must be plain symbols, numbers and ids.
+     */
+    protected static String toQueryString(Map<String, String> params) {
+        return params.entrySet().stream()
+                .map(param -> param.getKey() + "=" + param.getValue())
+                .collect(Collectors.joining("&"));
+    }
+    
+    protected static String toJson(Map<String, String> body) {
+        try {
+            return MAPPER.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot write request body: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Decimal as exchanges expect it, without exponent or trailing zeros
+     */
+    protected static String toPlain(BigDecimal value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing order amount");
+        }
+        return value.stripTrailingZeros().toPlainString();
+    }
+    
+    protected static BigDecimal toDecimal(String value) {
+        return value == null || value.isEmpty() ? null : new BigDecimal(value);
+    }
+    
+    /**
+     * Quote amount divided by base amount, null when nothing has been filled
+     */
+    protected static BigDecimal averagePrice(BigDecimal quoteAmount, BigDecimal baseAmount) {
+        if (quoteAmount == null || baseAmount == null || baseAmount.signum() == 0) {
+            return null;
+        }
+        return quoteAmount.divide(baseAmount, FixedPoint.SCALE, RoundingMode.HALF_UP);
+    }
+    
+    protected static OrderSide toOrderSide(String side) {
+        if ("buy".equalsIgnoreCase(side)) {
+            return OrderSide.BUY;
+        }
+        return "sell".equalsIgnoreCase(side) ? OrderSide.SELL : null;
+    }
+    
+    protected static OrderType toOrderType(String type) {
+        if ("market".equalsIgnoreCase(type)) {
+            return OrderType.MARKET;
+        }
+        return "limit".equalsIgnoreCase(type) ? OrderType.LIMIT : null;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
 }
-
@@ -1,9 +1,17 @@
 package com.example.aram.client;
 
+import com.example.aram.dto.OrderDto;
 import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderType;
+import com.example.aram.market.OrderBook;
+import com.example.aram.model.Exchange;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Interface for exchange client implementations
@@ -26,7 +34,8 @@ public interface ExchangeClient {
     List<PriceDto> fetchPrices(List<String> symbols);
     
     /**
-     * Check if the exchange API is accessible
+     * Check if the exchange API is accessible with a live call. Callers that only need to know whether to
+     * use the exchange read its circuit from the health model instead.
      */
     boolean isHealthy();
     
@@ -34,5 +43,54 @@ public interface ExchangeClient {
      * Get ticker information for all supported pairs
      */
     List<PriceDto> fetchAllTickers();
+    
+    /**
+     * Fetch tickers for the given trading pairs with as few API calls as the exchange allows
+     */
+    List<PriceDto> fetchTickers(Set<String> symbols);
+    
+    /**
+     * Whether {@link #fetchTickers} answers with a single call; otherwise it makes one call per symbol
+     */
+    boolean hasBulkTickers();
+    
+    /**
+     * Fetch an order-book snapshot into a caller-owned book, replacing its contents
+     *
+     * @param depth maximum number of levels per side to request
+     * @return false if the exchange has no depth endpoint or the call failed
+     */
+    boolean fetchOrderBook(String symbol, int depth, OrderBook into);
+    
+    /**
+     * Place a spot order signed with the account's API credentials
+     *
+     * @param price limit price, ignored for market orders
+     * @param quantity amount of the base currency
+     * @return the order as acknowledged by the exchange, with at least its id
+     * @throws RuntimeException if the exchange rejects the order or cannot be reached
+     */
+    OrderDto placeOrder(Exchange account, String symbol, OrderType orderType, OrderSide orderSide,
+                        BigDecimal price, BigDecimal quantity);
+    
+    /**
+     * Cancel an open order
+     *
+     * @return true if the exchange accepted the cancellation
+     */
+    boolean cancelOrder(Exchange account, String symbol, String orderId);
+    
+    /**
+     * Fetch the current state of an order
+     *
+     * @throws RuntimeException if the order cannot be read
+     */
+    OrderDto getOrder(Exchange account, String symbol, String orderId);
+    
+    /**
+     * Fetch the balances available for trading, by standard currency code
+     *
+     * @throws RuntimeException if the balances cannot be read
+     */
+    Map<String, BigDecimal> getBalances(Exchange account);
 }
-
@@ -1,5 +1,6 @@
 package com.example.aram.client;
 
+import com.example.aram.client.health.ExchangeHealth;
 import com.example.aram.enums.ExchangeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +21,7 @@ import java.util.stream.Collectors;
 public class ExchangeClientFactory {
     
     private final List<ExchangeClient> exchangeClients;
+    private final ExchangeHealth exchangeHealth;
     private Map<ExchangeType, ExchangeClient> clientMap;
     
     /**
@@ -55,11 +57,14 @@ public class ExchangeClientFactory {
     }
     
     /**
-     * Get all healthy clients
+     * Get all healthy clients: those with a closed circuit, or when the health model is off, those that
+     * answer a live call
      */
     public List<ExchangeClient> getHealthyClients() {
         return getAllClients().stream()
-                .filter(ExchangeClient::isHealthy)
+                .filter(client -> exchangeHealth.isEnabled()
+                        ? exchangeHealth.isHealthy(client.getExchangeType())
+                        : client.isHealthy())
                 .collect(Collectors.toList());
     }
 }
@@ -1,11 +1,17 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.hedge.Hedged;
 import com.example.aram.client.impl.BinanceClient;
+import com.example.aram.client.json.RawJson;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Feign client interface for Binance API
@@ -23,6 +29,7 @@ public interface BinanceFeignClient {
      * @param symbol The trading pair symbol (e.g., BTCUSDT, ETHUSDT)
      * @return BinanceTickerResponse containing ticker data
      */
+    @Hedged
     @GetMapping("/api/v3/ticker/bookTicker")
     BinanceClient.BinanceTickerResponse getTicker(@RequestParam("symbol") String symbol);
     
@@ -30,6 +37,72 @@ public interface BinanceFeignClient {
      * Get ticker information for all trading pairs
      * @return List of BinanceTickerResponse containing all ticker data
      */
+    @Hedged
     @GetMapping("/api/v3/ticker/bookTicker")
     List<BinanceClient.BinanceTickerResponse> getAllTickers();
+    
+    /**
+     * Get ticker information for all trading pairs, undecoded for streaming
+     * @return RawJson with the JSON array of all tickers
+     */
+    @Hedged
+    @GetMapping("/api/v3/ticker/bookTicker")
+    RawJson getAllTickersJson();
+    
+    /**
+     * Get the listed trading pairs
+     * @return BinanceExchangeInfo with each symbol's base and quote asset and trading status
+     */
+    @GetMapping("/api/v3/exchangeInfo")
+    BinanceClient.BinanceExchangeInfo getExchangeInfo();
+    
+    /**
+     * Get an order-book snapshot for a trading pair
+     * @param symbol The trading pair symbol (e.g., BTCUSDT)
+     * @param limit Number of levels per side (5, 10, 20, 50, 100, ...)
+     * @return BinanceDepthResponse containing bids and asks, best first
+     */
+    @GetMapping("/api/v3/depth")
+    BinanceClient.BinanceDepthResponse getOrderBook(@RequestParam("symbol") String symbol, 
+                                                    @RequestParam("limit") int limit);
+    
+    /**
+     * Place a new order
+     * @param apiKey The account's API key
+     * @param params Order parameters ending with timestamp and signature, sent in this order
+     * @return BinanceOrderResponse with the order's id and fills so far
+     */
+    @PostMapping("/api/v3/order")
+    BinanceClient.BinanceOrderResponse placeOrder(@RequestHeader("X-MBX-APIKEY") String apiKey, 
+                                                  @RequestParam Map<String, String> params);
+    
+    /**
+     * Cancel an open order
+     * @param apiKey The account's API key
+     * @param params symbol and orderId, ending with timestamp and signature
+     * @return BinanceOrderResponse with the cancelled order
+     */
+    @DeleteMapping("/api/v3/order")
+    BinanceClient.BinanceOrderResponse cancelOrder(@RequestHeader("X-MBX-APIKEY") String apiKey, 
+                                                   @RequestParam Map<String, String> params);
+    
+    /**
+     * Get the current state of an order
+     * @param apiKey The account's API key
+     * @param params symbol and orderId, ending with timestamp and signature
+     * @return BinanceOrderResponse with the order's status and fills
+     */
+    @GetMapping("/api/v3/order")
+    BinanceClient.BinanceOrderResponse getOrder(@RequestHeader("X-MBX-APIKEY") String apiKey, 
+                                                @RequestParam Map<String, String> params);
+    
+    /**
+     * Get account information including balances
+     * @param apiKey The account's API key
+     * @param params timestamp and signature
+     * @return BinanceAccountResponse with free and locked amounts per asset
+     */
+    @GetMapping("/api/v3/account")
+    BinanceClient.BinanceAccountResponse getAccount(@RequestHeader("X-MBX-APIKEY") String apiKey, 
+                                                    @RequestParam Map<String, String> params);
 }
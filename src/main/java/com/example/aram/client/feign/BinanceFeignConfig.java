@@ -1,12 +1,27 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.ApiKeyRejectedException;
+import com.example.aram.client.json.RawJsonDecoder;
+import com.example.aram.client.ratelimit.ExchangeRateLimiter;
+import com.example.aram.client.ratelimit.RateLimits;
+import com.example.aram.client.transport.FeignTransports;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
 import feign.Logger;
 import feign.Request;
+import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,6 +43,14 @@ public class BinanceFeignConfig {
         );
     }
     
+    /**
+     * Pooled keep-alive transport for Binance API calls
+     */
+    @Bean("binanceFeignTransport")
+    public Client feignClient(FeignTransports feignTransports) {
+        return feignTransports.client(ExchangeType.BINANCE, requestOptions());
+    }
+    
     /**
      * Configure logging level for Feign client
      */
@@ -40,8 +63,44 @@ public class BinanceFeignConfig {
      * Custom error decoder for handling Binance API errors
      */
     @Bean("binanceErrorDecoder")
-    public ErrorDecoder errorDecoder() {
-        return new BinanceErrorDecoder();
+    public ErrorDecoder errorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+        return new BinanceErrorDecoder(exchangeRateLimiter);
+    }
+    
+    /**
+     * Default decoder that also hands back RawJson bodies undecoded
+     */
+    @Bean("binanceDecoder")
+    public Decoder decoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                           ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        return new RawJsonDecoder(messageConverters, customizers);
+    }
+    
+    /**
+     * Request weight per IP per minute, new orders per account per 10 s, and each endpoint's weight
+     */
+    @Bean("binanceRateLimits")
+    public RateLimits rateLimits() {
+        return RateLimits.builder(ExchangeType.BINANCE, "binance-client")
+                .window("weight", 6000, Duration.ofMinutes(1))
+                .window("orders", 50, Duration.ofSeconds(10))
+                .endpoint("GET", "/api/v3/ticker/bookTicker", "weight",
+                        queries -> queries.containsKey("symbol") ? 2 : 4)
+                .endpoint("GET", "/api/v3/depth", "weight", BinanceFeignConfig::depthWeight)
+                .endpoint("GET", "/api/v3/exchangeInfo", "weight", 20)
+                .endpoint("POST", "/api/v3/order", "weight", 1)
+                .endpoint("POST", "/api/v3/order", "orders", 1)
+                .endpoint("DELETE", "/api/v3/order", "weight", 1)
+                .endpoint("GET", "/api/v3/order", "weight", 4)
+                .endpoint("GET", "/api/v3/account", "weight", 20)
+                .otherwise("weight", 1)
+                .build();
+    }
+    
+    private static int depthWeight(Map<String, Collection<String>> queries) {
+        Collection<String> limit = queries.get("limit");
+        int levels = limit != null && !limit.isEmpty() ? Integer.parseInt(limit.iterator().next()) : 100;
+        return levels <= 100 ? 5 : levels <= 500 ? 25 : levels <= 1000 ? 50 : 250;
     }
     
     /**
@@ -50,6 +109,11 @@ public class BinanceFeignConfig {
     public static class BinanceErrorDecoder implements ErrorDecoder {
         
         private final ErrorDecoder defaultErrorDecoder = new Default();
+        private final ExchangeRateLimiter exchangeRateLimiter;
+        
+        public BinanceErrorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+            this.exchangeRateLimiter = exchangeRateLimiter;
+        }
         
         @Override
         public Exception decode(String methodKey, feign.Response response) {
@@ -61,11 +125,12 @@ public class BinanceFeignConfig {
                 case 400:
                     return new RuntimeException("Bad Request - Invalid parameters");
                 case 401:
-                    return new RuntimeException("Unauthorized - Invalid API key");
+                    return new ApiKeyRejectedException("Unauthorized - Invalid API key");
                 case 403:
-                    return new RuntimeException("Forbidden - API key doesn't have required permissions");
+                    return new ApiKeyRejectedException("Forbidden - API key doesn't have required permissions");
+                case 418: // IP banned after repeated 429s
                 case 429:
-                    return new RuntimeException("Rate limit exceeded");
+                    return exchangeRateLimiter.rejected(ExchangeType.BINANCE, response);
                 case 500:
                     return new RuntimeException("Internal server error");
                 case 502:
@@ -1,10 +1,18 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.hedge.Hedged;
 import com.example.aram.client.impl.BybitClient;
+import com.example.aram.client.json.RawJson;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Map;
+
 /**
  * Feign client interface for Bybit API
  * API Documentation: https://bybit-exchange.github.io/docs/
@@ -22,6 +30,7 @@ public interface BybitFeignClient {
      * @param symbol The trading pair symbol (e.g., BTCUSDT, ETHUSDT)
      * @return BybitTickerResponse containing ticker data
      */
+    @Hedged
     @GetMapping("/v5/market/tickers")
     BybitClient.BybitTickerResponse getTicker(@RequestParam("category") String category, 
                                              @RequestParam("symbol") String symbol);
@@ -31,6 +40,76 @@ public interface BybitFeignClient {
      * @param category The category (spot, linear, inverse)
      * @return BybitTickerResponse containing all ticker data
      */
+    @Hedged
     @GetMapping("/v5/market/tickers")
     BybitClient.BybitTickerResponse getAllTickers(@RequestParam("category") String category);
+    
+    /**
+     * Get ticker information for all trading pairs in a category, undecoded for streaming
+     * @param category The category (spot, linear, inverse)
+     * @return RawJson with the tickers under result.list
+     */
+    @Hedged
+    @GetMapping("/v5/market/tickers")
+    RawJson getAllTickersJson(@RequestParam("category") String category);
+    
+    /**
+     * Get an order-book snapshot for a trading pair
+     * @param category The category (spot, linear, inverse)
+     * @param symbol The trading pair symbol (e.g., BTCUSDT)
+     * @param limit Number of levels per side (1-200 for spot)
+     * @return BybitOrderBookResponse containing bids and asks, best first
+     */
+    @GetMapping("/v5/market/orderbook")
+    BybitClient.BybitOrderBookResponse getOrderBook(@RequestParam("category") String category, 
+                                                    @RequestParam("symbol") String symbol, 
+                                                    @RequestParam("limit") int limit);
+    
+    /**
+     * Place a new order
+     * @param headers Signed X-BAPI-* authentication headers
+     * @param body JSON order, sent exactly as signed
+     * @return BybitOrderResponse with the order's id
+     */
+    @PostMapping(value = "/v5/order/create", consumes = MediaType.APPLICATION_JSON_VALUE)
+    BybitClient.BybitOrderResponse placeOrder(@RequestHeader Map<String, String> headers, @RequestBody String body);
+    
+    /**
+     * Cancel an open order
+     * @param headers Signed X-BAPI-* authentication headers
+     * @param body JSON with category, symbol and orderId, sent exactly as signed
+     * @return BybitOrderResponse with the cancelled order's id
+     */
+    @PostMapping(value = "/v5/order/cancel", consumes = MediaType.APPLICATION_JSON_VALUE)
+    BybitClient.BybitOrderResponse cancelOrder(@RequestHeader Map<String, String> headers, @RequestBody String body);
+    
+    /**
+     * Get open and recently closed orders
+     * @param headers Signed X-BAPI-* authentication headers
+     * @param params category and orderId, sent in this order
+     * @return BybitOrderListResponse with the matching orders
+     */
+    @GetMapping("/v5/order/realtime")
+    BybitClient.BybitOrderListResponse getOrders(@RequestHeader Map<String, String> headers, 
+                                                 @RequestParam Map<String, String> params);
+    
+    /**
+     * Get order history, for orders no longer returned by the realtime endpoint
+     * @param headers Signed X-BAPI-* authentication headers
+     * @param params category and orderId, sent in this order
+     * @return BybitOrderListResponse with the matching orders
+     */
+    @GetMapping("/v5/order/history")
+    BybitClient.BybitOrderListResponse getOrderHistory(@RequestHeader Map<String, String> headers, 
+                                                       @RequestParam Map<String, String> params);
+    
+    /**
+     * Get wallet balances
+     * @param headers Signed X-BAPI-* authentication headers
+     * @param params accountType
+     * @return BybitWalletResponse with balances per coin
+     */
+    @GetMapping("/v5/account/wallet-balance")
+    BybitClient.BybitWalletResponse getWalletBalance(@RequestHeader Map<String, String> headers, 
+                                                     @RequestParam Map<String, String> params);
 }
@@ -1,12 +1,25 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.ApiKeyRejectedException;
+import com.example.aram.client.json.RawJsonDecoder;
+import com.example.aram.client.ratelimit.ExchangeRateLimiter;
+import com.example.aram.client.ratelimit.RateLimits;
+import com.example.aram.client.transport.FeignTransports;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
 import feign.Logger;
 import feign.Request;
+import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,6 +41,14 @@ public class BybitFeignConfig {
         );
     }
     
+    /**
+     * Pooled keep-alive transport for Bybit API calls
+     */
+    @Bean("bybitFeignTransport")
+    public Client feignClient(FeignTransports feignTransports) {
+        return feignTransports.client(ExchangeType.BYBIT, requestOptions());
+    }
+    
     /**
      * Configure logging level for Feign client
      */
@@ -40,8 +61,42 @@ public class BybitFeignConfig {
      * Custom error decoder for handling Bybit API errors
      */
     @Bean("bybitErrorDecoder")
-    public ErrorDecoder errorDecoder() {
-        return new BybitErrorDecoder();
+    public ErrorDecoder errorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+        return new BybitErrorDecoder(exchangeRateLimiter);
+    }
+    
+    /**
+     * Default decoder that also hands back RawJson bodies undecoded
+     */
+    @Bean("bybitDecoder")
+    public Decoder decoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                           ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        return new RawJsonDecoder(messageConverters, customizers);
+    }
+    
+    /**
+     * Requests per IP per 5 s, and the per-account limits of the trade and account endpoints
+     */
+    @Bean("bybitRateLimits")
+    public RateLimits rateLimits() {
+        return RateLimits.builder(ExchangeType.BYBIT, "bybit-client")
+                .window("ip", 600, Duration.ofSeconds(5))
+                .window("create", 10, Duration.ofSeconds(1))
+                .window("cancel", 10, Duration.ofSeconds(1))
+                .window("query", 50, Duration.ofSeconds(1))
+                .window("wallet", 50, Duration.ofSeconds(1))
+                .endpoint("POST", "/v5/order/create", "ip", 1)
+                .endpoint("POST", "/v5/order/create", "create", 1)
+                .endpoint("POST", "/v5/order/cancel", "ip", 1)
+                .endpoint("POST", "/v5/order/cancel", "cancel", 1)
+                .endpoint("GET", "/v5/order/realtime", "ip", 1)
+                .endpoint("GET", "/v5/order/realtime", "query", 1)
+                .endpoint("GET", "/v5/order/history", "ip", 1)
+                .endpoint("GET", "/v5/order/history", "query", 1)
+                .endpoint("GET", "/v5/account/wallet-balance", "ip", 1)
+                .endpoint("GET", "/v5/account/wallet-balance", "wallet", 1)
+                .otherwise("ip", 1)
+                .build();
     }
     
     /**
@@ -50,6 +105,11 @@ public class BybitFeignConfig {
     public static class BybitErrorDecoder implements ErrorDecoder {
         
         private final ErrorDecoder defaultErrorDecoder = new Default();
+        private final ExchangeRateLimiter exchangeRateLimiter;
+        
+        public BybitErrorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+            this.exchangeRateLimiter = exchangeRateLimiter;
+        }
         
         @Override
         public Exception decode(String methodKey, feign.Response response) {
@@ -61,11 +121,11 @@ public class BybitFeignConfig {
                 case 400:
                     return new RuntimeException("Bad Request - Invalid parameters");
                 case 401:
-                    return new RuntimeException("Unauthorized - Invalid API key");
+                    return new ApiKeyRejectedException("Unauthorized - Invalid API key");
                 case 403:
-                    return new RuntimeException("Forbidden - API key doesn't have required permissions");
+                    return new ApiKeyRejectedException("Forbidden - API key doesn't have required permissions");
                 case 429:
-                    return new RuntimeException("Rate limit exceeded");
+                    return exchangeRateLimiter.rejected(ExchangeType.BYBIT, response);
                 case 500:
                     return new RuntimeException("Internal server error");
                 case 502:
@@ -1,11 +1,19 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.hedge.Hedged;
 import com.example.aram.client.impl.CoinbaseClient;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Feign client interface for Coinbase Pro API
@@ -23,6 +31,7 @@ public interface CoinbaseFeignClient {
      * @param symbol The trading pair symbol (e.g., BTC-USD, ETH-USD)
      * @return CoinbaseTickerResponse containing ticker data
      */
+    @Hedged
     @GetMapping("/products/{symbol}/ticker")
     CoinbaseClient.CoinbaseTickerResponse getTicker(@PathVariable("symbol") String symbol);
     
@@ -32,4 +41,53 @@ public interface CoinbaseFeignClient {
      */
     @GetMapping("/products")
     List<CoinbaseClient.CoinbaseProductResponse> getProducts();
+    
+    /**
+     * Get the aggregated order book for a trading pair
+     * @param symbol The trading pair symbol (e.g., BTC-USD)
+     * @param level 2 for the full aggregated book
+     * @return CoinbaseBookResponse containing bids and asks, best first
+     */
+    @GetMapping("/products/{symbol}/book")
+    CoinbaseClient.CoinbaseBookResponse getOrderBook(@PathVariable("symbol") String symbol, 
+                                                     @RequestParam("level") int level);
+    
+    /**
+     * Place a new order
+     * @param headers Signed CB-ACCESS-* authentication headers
+     * @param body JSON order, sent exactly as signed
+     * @return CoinbaseOrderResponse with the order
+     */
+    @PostMapping(value = "/orders", consumes = MediaType.APPLICATION_JSON_VALUE)
+    CoinbaseClient.CoinbaseOrderResponse placeOrder(@RequestHeader Map<String, String> headers, 
+                                                    @RequestBody String body);
+    
+    /**
+     * Cancel an open order
+     * @param headers Signed CB-ACCESS-* authentication headers
+     * @param orderId The exchange's order id
+     * @param productId The trading pair, which speeds up the cancel
+     * @return The id of the cancelled order
+     */
+    @DeleteMapping("/orders/{orderId}")
+    String cancelOrder(@RequestHeader Map<String, String> headers, @PathVariable("orderId") String orderId, 
+                       @RequestParam("product_id") String productId);
+    
+    /**
+     * Get the current state of an order
+     * @param headers Signed CB-ACCESS-* authentication headers
+     * @param orderId The exchange's order id
+     * @return CoinbaseOrderResponse with the order
+     */
+    @GetMapping("/orders/{orderId}")
+    CoinbaseClient.CoinbaseOrderResponse getOrder(@RequestHeader Map<String, String> headers, 
+                                                  @PathVariable("orderId") String orderId);
+    
+    /**
+     * List the profile's accounts
+     * @param headers Signed CB-ACCESS-* authentication headers
+     * @return List of CoinbaseAccountResponse, one per currency
+     */
+    @GetMapping("/accounts")
+    List<CoinbaseClient.CoinbaseAccountResponse> getAccounts(@RequestHeader Map<String, String> headers);
 }
@@ -1,12 +1,25 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.ApiKeyRejectedException;
+import com.example.aram.client.json.RawJsonDecoder;
+import com.example.aram.client.ratelimit.ExchangeRateLimiter;
+import com.example.aram.client.ratelimit.RateLimits;
+import com.example.aram.client.transport.FeignTransports;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
 import feign.Logger;
 import feign.Request;
+import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,6 +41,14 @@ public class CoinbaseFeignConfig {
         );
     }
     
+    /**
+     * Pooled keep-alive transport for Coinbase API calls
+     */
+    @Bean("coinbaseFeignTransport")
+    public Client feignClient(FeignTransports feignTransports) {
+        return feignTransports.client(ExchangeType.COINBASE, requestOptions());
+    }
+    
     /**
      * Configure logging level for Feign client
      */
@@ -40,8 +61,33 @@ public class CoinbaseFeignConfig {
      * Custom error decoder for handling Coinbase API errors
      */
     @Bean("coinbaseErrorDecoder")
-    public ErrorDecoder errorDecoder() {
-        return new CoinbaseErrorDecoder();
+    public ErrorDecoder errorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+        return new CoinbaseErrorDecoder(exchangeRateLimiter);
+    }
+    
+    /**
+     * Default decoder that also hands back RawJson bodies undecoded
+     */
+    @Bean("coinbaseDecoder")
+    public Decoder decoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                           ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        return new RawJsonDecoder(messageConverters, customizers);
+    }
+    
+    /**
+     * Public and private request rates, each with the burst Coinbase allows on top
+     */
+    @Bean("coinbaseRateLimits")
+    public RateLimits rateLimits() {
+        return RateLimits.builder(ExchangeType.COINBASE, "coinbase-client")
+                .counter("public", 15, Duration.ofMillis(100))
+                .counter("private", 30, Duration.ofNanos(TimeUnit.SECONDS.toNanos(1) / 15))
+                .endpoint("POST", "/orders", "private", 1)
+                .endpoint("DELETE", "/orders/{orderId}", "private", 1)
+                .endpoint("GET", "/orders/{orderId}", "private", 1)
+                .endpoint("GET", "/accounts", "private", 1)
+                .otherwise("public", 1)
+                .build();
     }
     
     /**
@@ -50,6 +96,11 @@ public class CoinbaseFeignConfig {
     public static class CoinbaseErrorDecoder implements ErrorDecoder {
         
         private final ErrorDecoder defaultErrorDecoder = new Default();
+        private final ExchangeRateLimiter exchangeRateLimiter;
+        
+        public CoinbaseErrorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+            this.exchangeRateLimiter = exchangeRateLimiter;
+        }
         
         @Override
         public Exception decode(String methodKey, feign.Response response) {
@@ -61,11 +112,11 @@ public class CoinbaseFeignConfig {
                 case 400:
                     return new RuntimeException("Bad Request - Invalid parameters");
                 case 401:
-                    return new RuntimeException("Unauthorized - Invalid API key");
+                    return new ApiKeyRejectedException("Unauthorized - Invalid API key");
                 case 403:
-                    return new RuntimeException("Forbidden - API key doesn't have required permissions");
+                    return new ApiKeyRejectedException("Forbidden - API key doesn't have required permissions");
                 case 429:
-                    return new RuntimeException("Rate limit exceeded");
+                    return exchangeRateLimiter.rejected(ExchangeType.COINBASE, response);
                 case 500:
                     return new RuntimeException("Internal server error");
                 case 502:
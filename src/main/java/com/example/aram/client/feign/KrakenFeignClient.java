@@ -1,10 +1,17 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.hedge.Hedged;
 import com.example.aram.client.impl.KrakenClient;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Map;
+
 /**
  * Feign client interface for Kraken API
  * API Documentation: https://docs.kraken.com/rest/
@@ -21,6 +28,54 @@ public interface KrakenFeignClient {
      * @param pair The trading pair symbol (e.g., XBTUSDT, ETHUSDT)
      * @return KrakenTickerResponse containing ticker data
      */
+    @Hedged
     @GetMapping("/0/public/Ticker")
     KrakenClient.KrakenTickerResponse getTicker(@RequestParam("pair") String pair);
+    
+    /**
+     * Get an order-book snapshot for a trading pair
+     * @param pair The trading pair symbol (e.g., XBTUSDT)
+     * @param count Number of levels per side (1-500)
+     * @return KrakenDepthResponse keyed by Kraken's pair name
+     */
+    @GetMapping("/0/public/Depth")
+    KrakenClient.KrakenDepthResponse getOrderBook(@RequestParam("pair") String pair, @RequestParam("count") int count);
+    
+    /**
+     * Place a new order
+     * @param headers Signed API-Key and API-Sign headers
+     * @param body Form-encoded order starting with the nonce, sent exactly as signed
+     * @return KrakenAddOrderResponse with the order's transaction id
+     */
+    @PostMapping(value = "/0/private/AddOrder", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    KrakenClient.KrakenAddOrderResponse addOrder(@RequestHeader Map<String, String> headers, @RequestBody String body);
+    
+    /**
+     * Cancel an open order
+     * @param headers Signed API-Key and API-Sign headers
+     * @param body Form-encoded nonce and txid, sent exactly as signed
+     * @return KrakenCancelResponse with the number of cancelled orders
+     */
+    @PostMapping(value = "/0/private/CancelOrder", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    KrakenClient.KrakenCancelResponse cancelOrder(@RequestHeader Map<String, String> headers, @RequestBody String body);
+    
+    /**
+     * Query orders by transaction id
+     * @param headers Signed API-Key and API-Sign headers
+     * @param body Form-encoded nonce and txid, sent exactly as signed
+     * @return KrakenQueryOrdersResponse keyed by transaction id
+     */
+    @PostMapping(value = "/0/private/QueryOrders", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    KrakenClient.KrakenQueryOrdersResponse queryOrders(@RequestHeader Map<String, String> headers, 
+                                                       @RequestBody String body);
+    
+    /**
+     * Get balances with the amounts held by open orders
+     * @param headers Signed API-Key and API-Sign headers
+     * @param body Form-encoded nonce, sent exactly as signed
+     * @return KrakenBalanceResponse keyed by Kraken asset name
+     */
+    @PostMapping(value = "/0/private/BalanceEx", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    KrakenClient.KrakenBalanceResponse getBalances(@RequestHeader Map<String, String> headers, 
+                                                   @RequestBody String body);
 }
@@ -1,12 +1,25 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.ApiKeyRejectedException;
+import com.example.aram.client.json.RawJsonDecoder;
+import com.example.aram.client.ratelimit.ExchangeRateLimiter;
+import com.example.aram.client.ratelimit.RateLimits;
+import com.example.aram.client.transport.FeignTransports;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
 import feign.Logger;
 import feign.Request;
+import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,6 +41,14 @@ public class KrakenFeignConfig {
         );
     }
     
+    /**
+     * Pooled keep-alive transport for Kraken API calls
+     */
+    @Bean("krakenFeignTransport")
+    public Client feignClient(FeignTransports feignTransports) {
+        return feignTransports.client(ExchangeType.KRAKEN, requestOptions());
+    }
+    
     /**
      * Configure logging level for Feign client
      */
@@ -40,8 +61,36 @@ public class KrakenFeignConfig {
      * Custom error decoder for handling Kraken API errors
      */
     @Bean("krakenErrorDecoder")
-    public ErrorDecoder errorDecoder() {
-        return new KrakenErrorDecoder();
+    public ErrorDecoder errorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+        return new KrakenErrorDecoder(exchangeRateLimiter);
+    }
+    
+    /**
+     * Default decoder that also hands back RawJson bodies undecoded
+     */
+    @Bean("krakenDecoder")
+    public Decoder decoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                           ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        return new RawJsonDecoder(messageConverters, customizers);
+    }
+    
+    /**
+     * Kraken's decaying counters: about one public call per second, the private REST counter (15, down one
+     * every 3 s) and the trading counter that orders and cancels count against instead
+     */
+    @Bean("krakenRateLimits")
+    public RateLimits rateLimits() {
+        return RateLimits.builder(ExchangeType.KRAKEN, "kraken-client")
+                .counter("public", 1, Duration.ofSeconds(1))
+                .counter("private", 15, Duration.ofSeconds(3))
+                .counter("trading", 60, Duration.ofSeconds(1))
+                .endpoint("POST", "/0/private/AddOrder", "trading", 1)
+                // Cancelling an order younger than five seconds costs the most
+                .endpoint("POST", "/0/private/CancelOrder", "trading", 8)
+                .endpoint("POST", "/0/private/QueryOrders", "private", 1)
+                .endpoint("POST", "/0/private/BalanceEx", "private", 1)
+                .otherwise("public", 1)
+                .build();
     }
     
     /**
@@ -50,6 +99,11 @@ public class KrakenFeignConfig {
     public static class KrakenErrorDecoder implements ErrorDecoder {
         
         private final ErrorDecoder defaultErrorDecoder = new Default();
+        private final ExchangeRateLimiter exchangeRateLimiter;
+        
+        public KrakenErrorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+            this.exchangeRateLimiter = exchangeRateLimiter;
+        }
         
         @Override
         public Exception decode(String methodKey, feign.Response response) {
@@ -61,11 +115,11 @@ public class KrakenFeignConfig {
                 case 400:
                     return new RuntimeException("Bad Request - Invalid parameters");
                 case 401:
-                    return new RuntimeException("Unauthorized - Invalid API key");
+                    return new ApiKeyRejectedException("Unauthorized - Invalid API key");
                 case 403:
-                    return new RuntimeException("Forbidden - API key doesn't have required permissions");
+                    return new ApiKeyRejectedException("Forbidden - API key doesn't have required permissions");
                 case 429:
-                    return new RuntimeException("Rate limit exceeded");
+                    return exchangeRateLimiter.rejected(ExchangeType.KRAKEN, response);
                 case 500:
                     return new RuntimeException("Internal server error");
                 case 502:
@@ -1,10 +1,21 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.hedge.Hedged;
 import com.example.aram.client.impl.KuCoinClient;
+import com.example.aram.client.json.RawJson;
+import com.example.aram.client.stream.KuCoinStreamingClient;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Map;
+
 /**
  * Feign client interface for KuCoin API
  * API Documentation: https://docs.kucoin.com/
@@ -21,6 +32,7 @@ public interface KuCoinFeignClient {
      * @param symbol The trading pair symbol (e.g., BTC-USDT, ETH-USDT)
      * @return KuCoinTickerResponse containing ticker data
      */
+    @Hedged
     @GetMapping("/api/v1/market/orderbook/level1")
     KuCoinClient.KuCoinTickerResponse getTicker(@RequestParam("symbol") String symbol);
     
@@ -28,6 +40,71 @@ public interface KuCoinFeignClient {
      * Get all tickers
      * @return KuCoinAllTickersResponse containing all ticker data
      */
+    @Hedged
     @GetMapping("/api/v1/market/allTickers")
     KuCoinClient.KuCoinAllTickersResponse getAllTickers();
+    
+    /**
+     * Get all tickers, undecoded for streaming
+     * @return RawJson with the tickers under data.ticker
+     */
+    @Hedged
+    @GetMapping("/api/v1/market/allTickers")
+    RawJson getAllTickersJson();
+    
+    /**
+     * Get a partial order-book snapshot
+     * @param levels Number of levels per side, 20 or 100
+     * @param symbol The trading pair symbol (e.g., BTC-USDT)
+     * @return KuCoinOrderBookResponse containing bids and asks, best first
+     */
+    @GetMapping("/api/v1/market/orderbook/level2_{levels}")
+    KuCoinClient.KuCoinOrderBookResponse getOrderBook(@PathVariable("levels") int levels, 
+                                                      @RequestParam("symbol") String symbol);
+    
+    /**
+     * Get a connection token and endpoint for the public WebSocket feed
+     * @return KuCoinBulletResponse containing the token and instance servers
+     */
+    @PostMapping("/api/v1/bullet-public")
+    KuCoinStreamingClient.KuCoinBulletResponse getPublicBullet();
+    
+    /**
+     * Place a new order
+     * @param headers Signed KC-API-* authentication headers
+     * @param body JSON order, sent exactly as signed
+     * @return KuCoinOrderResponse with the order's id
+     */
+    @PostMapping(value = "/api/v1/orders", consumes = MediaType.APPLICATION_JSON_VALUE)
+    KuCoinClient.KuCoinOrderResponse placeOrder(@RequestHeader Map<String, String> headers, @RequestBody String body);
+    
+    /**
+     * Cancel an open order
+     * @param headers Signed KC-API-* authentication headers
+     * @param orderId The exchange's order id
+     * @return KuCoinCancelResponse with the ids of the cancelled orders
+     */
+    @DeleteMapping("/api/v1/orders/{orderId}")
+    KuCoinClient.KuCoinCancelResponse cancelOrder(@RequestHeader Map<String, String> headers, 
+                                                  @PathVariable("orderId") String orderId);
+    
+    /**
+     * Get the current state of an order
+     * @param headers Signed KC-API-* authentication headers
+     * @param orderId The exchange's order id
+     * @return KuCoinOrderDetailsResponse with the order
+     */
+    @GetMapping("/api/v1/orders/{orderId}")
+    KuCoinClient.KuCoinOrderDetailsResponse getOrder(@RequestHeader Map<String, String> headers, 
+                                                     @PathVariable("orderId") String orderId);
+    
+    /**
+     * List accounts of one type
+     * @param headers Signed KC-API-* authentication headers
+     * @param type The account type (main, trade, margin)
+     * @return KuCoinAccountsResponse with balances per currency
+     */
+    @GetMapping("/api/v1/accounts")
+    KuCoinClient.KuCoinAccountsResponse getAccounts(@RequestHeader Map<String, String> headers, 
+                                                    @RequestParam("type") String type);
 }
@@ -1,12 +1,25 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.ApiKeyRejectedException;
+import com.example.aram.client.json.RawJsonDecoder;
+import com.example.aram.client.ratelimit.ExchangeRateLimiter;
+import com.example.aram.client.ratelimit.RateLimits;
+import com.example.aram.client.transport.FeignTransports;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
 import feign.Logger;
 import feign.Request;
+import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,6 +41,14 @@ public class KuCoinFeignConfig {
         );
     }
     
+    /**
+     * Pooled keep-alive transport for KuCoin API calls
+     */
+    @Bean("kucoinFeignTransport")
+    public Client feignClient(FeignTransports feignTransports) {
+        return feignTransports.client(ExchangeType.KUCOIN, requestOptions());
+    }
+    
     /**
      * Configure logging level for Feign client
      */
@@ -40,8 +61,39 @@ public class KuCoinFeignConfig {
      * Custom error decoder for handling KuCoin API errors
      */
     @Bean("kucoinErrorDecoder")
-    public ErrorDecoder errorDecoder() {
-        return new KuCoinErrorDecoder();
+    public ErrorDecoder errorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+        return new KuCoinErrorDecoder(exchangeRateLimiter);
+    }
+    
+    /**
+     * Default decoder that also hands back RawJson bodies undecoded
+     */
+    @Bean("kucoinDecoder")
+    public Decoder decoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                           ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        return new RawJsonDecoder(messageConverters, customizers);
+    }
+    
+    /**
+     * Weight per 30 s in KuCoin's public, spot and management resource pools, and each endpoint's weight
+     */
+    @Bean("kucoinRateLimits")
+    public RateLimits rateLimits() {
+        return RateLimits.builder(ExchangeType.KUCOIN, "kucoin-client")
+                .window("public", 2000, Duration.ofSeconds(30))
+                .window("spot", 4000, Duration.ofSeconds(30))
+                .window("management", 2000, Duration.ofSeconds(30))
+                .endpoint("GET", "/api/v1/market/orderbook/level1", "public", 2)
+                .endpoint("GET", "/api/v1/market/allTickers", "public", 15)
+                .endpoint("GET", "/api/v1/market/orderbook/level2_20", "public", 2)
+                .endpoint("GET", "/api/v1/market/orderbook/level2_100", "public", 4)
+                .endpoint("POST", "/api/v1/bullet-public", "public", 10)
+                .endpoint("POST", "/api/v1/orders", "spot", 2)
+                .endpoint("DELETE", "/api/v1/orders/{orderId}", "spot", 3)
+                .endpoint("GET", "/api/v1/orders/{orderId}", "spot", 2)
+                .endpoint("GET", "/api/v1/accounts", "management", 5)
+                .otherwise("public", 1)
+                .build();
     }
     
     /**
@@ -50,6 +102,11 @@ public class KuCoinFeignConfig {
     public static class KuCoinErrorDecoder implements ErrorDecoder {
         
         private final ErrorDecoder defaultErrorDecoder = new Default();
+        private final ExchangeRateLimiter exchangeRateLimiter;
+        
+        public KuCoinErrorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+            this.exchangeRateLimiter = exchangeRateLimiter;
+        }
         
         @Override
         public Exception decode(String methodKey, feign.Response response) {
@@ -61,11 +118,11 @@ public class KuCoinFeignConfig {
                 case 400:
                     return new RuntimeException("Bad Request - Invalid parameters");
                 case 401:
-                    return new RuntimeException("Unauthorized - Invalid API key");
+                    return new ApiKeyRejectedException("Unauthorized - Invalid API key");
                 case 403:
-                    return new RuntimeException("Forbidden - API key doesn't have required permissions");
+                    return new ApiKeyRejectedException("Forbidden - API key doesn't have required permissions");
                 case 429:
-                    return new RuntimeException("Rate limit exceeded");
+                    return exchangeRateLimiter.rejected(ExchangeType.KUCOIN, response);
                 case 500:
                     return new RuntimeException("Internal server error");
                 case 502:
@@ -1,10 +1,18 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.hedge.Hedged;
 import com.example.aram.client.impl.OKXClient;
+import com.example.aram.client.json.RawJson;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Map;
+
 /**
  * Feign client interface for OKX API
  * API Documentation: https://www.okx.com/docs-v5/en/
@@ -21,6 +29,7 @@ public interface OKXFeignClient {
      * @param instId The trading pair symbol (e.g., BTC-USDT, ETH-USDT)
      * @return OKXTickerResponse containing ticker data
      */
+    @Hedged
     @GetMapping("/api/v5/market/ticker")
     OKXClient.OKXTickerResponse getTicker(@RequestParam("instId") String instId);
     
@@ -29,6 +38,61 @@ public interface OKXFeignClient {
      * @param instType The instrument type (SPOT, FUTURES, etc.)
      * @return OKXTickerResponse containing all ticker data
      */
+    @Hedged
     @GetMapping("/api/v5/market/tickers")
     OKXClient.OKXTickerResponse getAllTickers(@RequestParam("instType") String instType);
+    
+    /**
+     * Get ticker information for all trading pairs, undecoded for streaming
+     * @param instType The instrument type (SPOT, FUTURES, etc.)
+     * @return RawJson with the tickers under data
+     */
+    @Hedged
+    @GetMapping("/api/v5/market/tickers")
+    RawJson getAllTickersJson(@RequestParam("instType") String instType);
+    
+    /**
+     * Get an order-book snapshot for a trading pair
+     * @param instId The trading pair symbol (e.g., BTC-USDT)
+     * @param sz Number of levels per side (up to 400)
+     * @return OKXOrderBookResponse containing bids and asks, best first
+     */
+    @GetMapping("/api/v5/market/books")
+    OKXClient.OKXOrderBookResponse getOrderBook(@RequestParam("instId") String instId, @RequestParam("sz") int sz);
+    
+    /**
+     * Place a new order
+     * @param headers Signed OK-ACCESS-* authentication headers
+     * @param body JSON order, sent exactly as signed
+     * @return OKXOrderResponse with the order's id or the reason it was refused
+     */
+    @PostMapping(value = "/api/v5/trade/order", consumes = MediaType.APPLICATION_JSON_VALUE)
+    OKXClient.OKXOrderResponse placeOrder(@RequestHeader Map<String, String> headers, @RequestBody String body);
+    
+    /**
+     * Cancel an open order
+     * @param headers Signed OK-ACCESS-* authentication headers
+     * @param body JSON with instId and ordId, sent exactly as signed
+     * @return OKXOrderResponse with the result per order
+     */
+    @PostMapping(value = "/api/v5/trade/cancel-order", consumes = MediaType.APPLICATION_JSON_VALUE)
+    OKXClient.OKXOrderResponse cancelOrder(@RequestHeader Map<String, String> headers, @RequestBody String body);
+    
+    /**
+     * Get the current state of an order
+     * @param headers Signed OK-ACCESS-* authentication headers
+     * @param params instId and ordId, sent in this order
+     * @return OKXOrderDetailsResponse with the order
+     */
+    @GetMapping("/api/v5/trade/order")
+    OKXClient.OKXOrderDetailsResponse getOrder(@RequestHeader Map<String, String> headers, 
+                                               @RequestParam Map<String, String> params);
+    
+    /**
+     * Get trading account balances
+     * @param headers Signed OK-ACCESS-* authentication headers
+     * @return OKXBalanceResponse with balances per currency
+     */
+    @GetMapping("/api/v5/account/balance")
+    OKXClient.OKXBalanceResponse getBalance(@RequestHeader Map<String, String> headers);
 }
@@ -1,12 +1,25 @@
 package com.example.aram.client.feign;
 
+import com.example.aram.client.ApiKeyRejectedException;
+import com.example.aram.client.json.RawJsonDecoder;
+import com.example.aram.client.ratelimit.ExchangeRateLimiter;
+import com.example.aram.client.ratelimit.RateLimits;
+import com.example.aram.client.transport.FeignTransports;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
 import feign.Logger;
 import feign.Request;
+import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,6 +41,14 @@ public class OKXFeignConfig {
         );
     }
     
+    /**
+     * Pooled keep-alive transport for OKX API calls
+     */
+    @Bean("okxFeignTransport")
+    public Client feignClient(FeignTransports feignTransports) {
+        return feignTransports.client(ExchangeType.OKX, requestOptions());
+    }
+    
     /**
      * Configure logging level for Feign client
      */
@@ -40,8 +61,40 @@ public class OKXFeignConfig {
      * Custom error decoder for handling OKX API errors
      */
     @Bean("okxErrorDecoder")
-    public ErrorDecoder errorDecoder() {
-        return new OKXErrorDecoder();
+    public ErrorDecoder errorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+        return new OKXErrorDecoder(exchangeRateLimiter);
+    }
+    
+    /**
+     * Default decoder that also hands back RawJson bodies undecoded
+     */
+    @Bean("okxDecoder")
+    public Decoder decoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                           ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        return new RawJsonDecoder(messageConverters, customizers);
+    }
+    
+    /**
+     * OKX limits each endpoint separately, per 2 s
+     */
+    @Bean("okxRateLimits")
+    public RateLimits rateLimits() {
+        return RateLimits.builder(ExchangeType.OKX, "okx-client")
+                .window("ticker", 20, Duration.ofSeconds(2))
+                .window("tickers", 20, Duration.ofSeconds(2))
+                .window("books", 40, Duration.ofSeconds(2))
+                .window("order", 60, Duration.ofSeconds(2))
+                .window("cancel", 60, Duration.ofSeconds(2))
+                .window("query", 60, Duration.ofSeconds(2))
+                .window("balance", 10, Duration.ofSeconds(2))
+                .endpoint("GET", "/api/v5/market/ticker", "ticker", 1)
+                .endpoint("GET", "/api/v5/market/tickers", "tickers", 1)
+                .endpoint("GET", "/api/v5/market/books", "books", 1)
+                .endpoint("POST", "/api/v5/trade/order", "order", 1)
+                .endpoint("POST", "/api/v5/trade/cancel-order", "cancel", 1)
+                .endpoint("GET", "/api/v5/trade/order", "query", 1)
+                .endpoint("GET", "/api/v5/account/balance", "balance", 1)
+                .build();
     }
     
     /**
@@ -50,6 +103,11 @@ public class OKXFeignConfig {
     public static class OKXErrorDecoder implements ErrorDecoder {
         
         private final ErrorDecoder defaultErrorDecoder = new Default();
+        private final ExchangeRateLimiter exchangeRateLimiter;
+        
+        public OKXErrorDecoder(ExchangeRateLimiter exchangeRateLimiter) {
+            this.exchangeRateLimiter = exchangeRateLimiter;
+        }
         
         @Override
         public Exception decode(String methodKey, feign.Response response) {
@@ -61,11 +119,11 @@ public class OKXFeignConfig {
                 case 400:
                     return new RuntimeException("Bad Request - Invalid parameters");
                 case 401:
-                    return new RuntimeException("Unauthorized - Invalid API key");
+                    return new ApiKeyRejectedException("Unauthorized - Invalid API key");
                 case 403:
-                    return new RuntimeException("Forbidden - API key doesn't have required permissions");
+                    return new ApiKeyRejectedException("Forbidden - API key doesn't have required permissions");
                 case 429:
-                    return new RuntimeException("Rate limit exceeded");
+                    return exchangeRateLimiter.rejected(ExchangeType.OKX, response);
                 case 500:
                     return new RuntimeException("Internal server error");
                 case 502:
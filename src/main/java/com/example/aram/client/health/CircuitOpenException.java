@@ -0,0 +1,12 @@
+package com.example.aram.client.health;
+
+/**
+ * A call that was not sent because the exchange's circuit is open, or half-open with every trial permit
+ * taken
+ */
+public class CircuitOpenException extends RuntimeException {
+    
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
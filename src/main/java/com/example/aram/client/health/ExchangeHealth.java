@@ -0,0 +1,88 @@
+package com.example.aram.client.health;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.ExchangeHealthDto;
+import com.example.aram.enums.ExchangeType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Health model of every exchange, fed by the outcome of each REST call it serves. Reading it never calls an
+ * exchange, so listing healthy clients or gating a fetch costs a field read.
+ */
+@Component
+public class ExchangeHealth {
+    
+    private static final ThreadLocal<Boolean> ESSENTIAL = new ThreadLocal<>();
+    
+    private final ArbitrageConfig.Health settings;
+    private final Map<ExchangeType, HealthTracker> trackers = new EnumMap<>(ExchangeType.class);
+    
+    public ExchangeHealth(ArbitrageConfig arbitrageConfig) {
+        this.settings = arbitrageConfig.getHealth();
+        for (ExchangeType exchangeType : ExchangeType.values()) {
+            trackers.put(exchangeType, new HealthTracker(exchangeType, settings));
+        }
+    }
+    
+    /**
+     * Whether circuits are enforced and health is answered from the model
+     */
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(settings.getEnabled());
+    }
+    
+    public HealthTracker tracker(ExchangeType exchangeType) {
+        return trackers.get(exchangeType);
+    }
+    
+    /**
+     * Run work whose exchange calls must be sent whatever the circuit state, such as placing, checking or
+     * cancelling an order; their outcomes are still recorded
+     */
+    public static <T> T essential(Supplier<T> work) {
+        Boolean outer = ESSENTIAL.get();
+        ESSENTIAL.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (outer == null) {
+                ESSENTIAL.remove();
+            }
+        }
+    }
+    
+    /**
+     * Whether work calling the exchange should start now, without taking a trial permit; always true when
+     * circuits are not enforced
+     */
+    public boolean admits(ExchangeType exchangeType) {
+        return !isEnabled() || trackers.get(exchangeType).admits();
+    }
+    
+    /**
+     * Whether one call may go to the exchange now, taking a trial permit from a half-open circuit; always true
+     * when circuits are not enforced and inside {@link #essential}
+     */
+    public boolean allowRequest(ExchangeType exchangeType) {
+        return !isEnabled() || Boolean.TRUE.equals(ESSENTIAL.get()) || trackers.get(exchangeType).allowRequest();
+    }
+    
+    /**
+     * Whether the exchange's circuit is closed
+     */
+    public boolean isHealthy(ExchangeType exchangeType) {
+        return trackers.get(exchangeType).isHealthy();
+    }
+    
+    public List<ExchangeHealthDto> snapshot() {
+        return trackers.values().stream()
+                .map(HealthTracker::snapshot)
+                .collect(Collectors.toList());
+    }
+}
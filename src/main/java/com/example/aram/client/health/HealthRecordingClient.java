@@ -0,0 +1,46 @@
+package com.example.aram.client.health;
+
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+
+/**
+ * Feign transport decorator that asks the exchange's circuit before every call and reports the latency and
+ * outcome of the calls it lets through to the exchange's {@link HealthTracker}. Server errors and transport
+ * failures count as failures; other error statuses mean the exchange answered and count as successes.
+ */
+public class HealthRecordingClient implements Client {
+    
+    private final Client delegate;
+    private final ExchangeHealth exchangeHealth;
+    private final ExchangeType exchangeType;
+    private final HealthTracker tracker;
+    
+    public HealthRecordingClient(Client delegate, ExchangeHealth exchangeHealth, ExchangeType exchangeType) {
+        this.delegate = delegate;
+        this.exchangeHealth = exchangeHealth;
+        this.exchangeType = exchangeType;
+        this.tracker = exchangeHealth.tracker(exchangeType);
+    }
+    
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!exchangeHealth.allowRequest(exchangeType)) {
+            throw new CircuitOpenException(String.format("%s %s not sent, circuit for %s is %s",
+                    request.httpMethod(), request.url(), exchangeType, tracker.getState()));
+        }
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = delegate.execute(request, options);
+        } catch (IOException | RuntimeException e) {
+            tracker.record(System.nanoTime() - start, true);
+            throw e;
+        }
+        tracker.record(System.nanoTime() - start, response.status() >= 500);
+        return response;
+    }
+}
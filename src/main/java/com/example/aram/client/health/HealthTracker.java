@@ -0,0 +1,217 @@
+package com.example.aram.client.health;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.ExchangeHealthDto;
+import com.example.aram.enums.CircuitState;
+import com.example.aram.enums.ExchangeType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling health of one exchange: outcome and latency of its most recent calls and the circuit state they
+ * drive. Checking a closed circuit is a single volatile read; outcomes are recorded under the tracker's lock,
+ * which is cheap next to the HTTP call that produced them.
+ */
+@Slf4j
+public class HealthTracker {
+    
+    private final ExchangeType exchangeType;
+    private final ArbitrageConfig.Health settings;
+    private final long slowCall;
+    private final long[] latencies;
+    private final boolean[] failed;
+    private int next;
+    private int count;
+    private int failures;
+    private int timesOpened;
+    private int trialPermits;
+    private int trialSuccesses;
+    private long stateChangedAt;
+    private volatile CircuitState state = CircuitState.CLOSED;
+    private volatile long openUntil;
+    private volatile long lastCallAt;
+    
+    HealthTracker(ExchangeType exchangeType, ArbitrageConfig.Health settings) {
+        this.exchangeType = exchangeType;
+        this.settings = settings;
+        this.slowCall = TimeUnit.MILLISECONDS.toNanos(settings.getSlowCallThreshold());
+        this.latencies = new long[settings.getWindowSize()];
+        this.failed = new boolean[settings.getWindowSize()];
+        // Counts as idle from the start, so the first probe round covers every exchange
+        this.lastCallAt = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(settings.getProbeInterval());
+        this.stateChangedAt = System.nanoTime();
+    }
+    
+    public CircuitState getState() {
+        return state;
+    }
+    
+    /**
+     * Whether the circuit is closed
+     */
+    public boolean isHealthy() {
+        return state == CircuitState.CLOSED;
+    }
+    
+    /**
+     * Whether the circuit would let a call through now, without taking a trial permit; for deciding whether
+     * to start work whose calls then ask {@link #allowRequest} one by one
+     */
+    public boolean admits() {
+        if (state == CircuitState.CLOSED) {
+            return true;
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (state == CircuitState.OPEN) {
+                return now - openUntil >= 0;
+            }
+            return state != CircuitState.HALF_OPEN || trialPermits > 0 || trialExpired(now);
+        }
+    }
+    
+    /**
+     * Whether a call may go to the exchange now. A closed circuit admits every call and an open one none until
+     * its open period ends; after that a half-open circuit admits a few trial calls, each taking a permit.
+     */
+    public boolean allowRequest() {
+        if (state == CircuitState.CLOSED) {
+            return true;
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (state == CircuitState.OPEN) {
+                if (now - openUntil < 0) {
+                    return false;
+                }
+                halfOpen(now);
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (trialPermits == 0 && trialExpired(now)) {
+                    halfOpen(now);
+                }
+                if (trialPermits == 0) {
+                    return false;
+                }
+                trialPermits--;
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Whether the exchange has seen no call for the given time and would admit one
+     */
+    public boolean needsProbe(long idleMillis) {
+        return System.nanoTime() - lastCallAt > TimeUnit.MILLISECONDS.toNanos(idleMillis) && admits();
+    }
+    
+    /**
+     * Trials whose outcome never came back, such as calls that made no request, are handed out again once an
+     * open period has passed
+     */
+    private boolean trialExpired(long now) {
+        return now - stateChangedAt > TimeUnit.MILLISECONDS.toNanos(settings.getOpenDuration());
+    }
+    
+    /**
+     * Record the outcome of a call; calls slower than the slow-call threshold count as failures. Only calls
+     * started after the circuit turned half-open are trials: one already in flight when it opened still goes
+     * into the window but cannot close or reopen it.
+     */
+    public synchronized void record(long latencyNanos, boolean error) {
+        long now = System.nanoTime();
+        lastCallAt = now;
+        boolean failure = error || latencyNanos > slowCall;
+        if (count == latencies.length) {
+            failures -= failed[next] ? 1 : 0;
+        } else {
+            count++;
+        }
+        latencies[next] = latencyNanos;
+        failed[next] = failure;
+        failures += failure ? 1 : 0;
+        next = (next + 1) % latencies.length;
+        
+        if (state == CircuitState.HALF_OPEN) {
+            if (now - latencyNanos - stateChangedAt < 0) {
+                return;
+            }
+            if (failure) {
+                open(now);
+            } else if (++trialSuccesses >= settings.getHalfOpenCalls()) {
+                close(now);
+            }
+        } else if (state == CircuitState.CLOSED && count >= settings.getMinimumCalls()
+                && failures >= settings.getFailureRateThreshold().doubleValue() * count) {
+            open(now);
+        }
+    }
+    
+    /**
+     * Error rate and latency percentiles over the window, and a score from 0 to 1 that falls with both:
+     * an exchange whose 95th percentile equals the slow-call threshold scores half of its success rate
+     */
+    public synchronized ExchangeHealthDto snapshot() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        double errorRate = count > 0 ? (double) failures / count : 0;
+        long p95 = percentile(sorted, 0.95);
+        double score = state == CircuitState.OPEN ? 0 : (1 - errorRate) * slowCall / (slowCall + (double) p95);
+        long remaining = state == CircuitState.OPEN ? Math.max(0, openUntil - System.nanoTime()) : 0;
+        return ExchangeHealthDto.builder()
+                .exchange(exchangeType)
+                .state(state)
+                .calls(count)
+                .errorRate(errorRate)
+                .latencyP50(TimeUnit.NANOSECONDS.toMillis(percentile(sorted, 0.5)))
+                .latencyP95(TimeUnit.NANOSECONDS.toMillis(p95))
+                .latencyP99(TimeUnit.NANOSECONDS.toMillis(percentile(sorted, 0.99)))
+                .score(score)
+                .openForMillis(TimeUnit.NANOSECONDS.toMillis(remaining))
+                .build();
+    }
+    
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+    
+    /**
+     * Each time the circuit opens again without having closed, it stays open twice as long
+     */
+    private void open(long now) {
+        timesOpened++;
+        long duration = Math.min(settings.getOpenDuration() << Math.min(timesOpened - 1, 16),
+                settings.getMaxOpenDuration());
+        openUntil = now + TimeUnit.MILLISECONDS.toNanos(duration);
+        stateChangedAt = now;
+        state = CircuitState.OPEN;
+        log.warn("Circuit for {} opened for {} ms: {} of the last {} calls failed or were slow",
+                exchangeType, duration, failures, count);
+    }
+    
+    private void halfOpen(long now) {
+        trialPermits = settings.getHalfOpenCalls();
+        trialSuccesses = 0;
+        stateChangedAt = now;
+        state = CircuitState.HALF_OPEN;
+    }
+    
+    /**
+     * Closing starts a fresh window, so the failures that opened the circuit cannot open it again
+     */
+    private void close(long now) {
+        timesOpened = 0;
+        count = 0;
+        failures = 0;
+        next = 0;
+        stateChangedAt = now;
+        state = CircuitState.CLOSED;
+        log.info("Circuit for {} closed after {} successful trial calls", exchangeType, settings.getHalfOpenCalls());
+    }
+}
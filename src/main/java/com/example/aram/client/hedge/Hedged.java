@@ -0,0 +1,15 @@
+package com.example.aram.client.hedge;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Feign method as a read-only market data call that may be sent a second time when the first is
+ * slower than usual; whichever answer arrives first is used
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+}
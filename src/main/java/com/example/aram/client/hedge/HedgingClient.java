@@ -0,0 +1,208 @@
+package com.example.aram.client.hedge;
+
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Feign transport decorator sending {@link Hedged} calls on the hedge executor while the caller waits for the
+ * exchange's hedge delay. A call still unanswered by then is sent again if the {@link RequestHedging} policy
+ * allows it; the first answer is returned and the other one closed when it arrives. Each hedged call holds a
+ * slot with a thread for both copies, and calls finding every slot taken are sent on the caller's thread.
+ */
+class HedgingClient implements Client {
+    
+    private final Client delegate;
+    private final RequestHedging hedging;
+    private final ExchangeType exchangeType;
+    
+    HedgingClient(Client delegate, RequestHedging hedging, ExchangeType exchangeType) {
+        this.delegate = delegate;
+        this.hedging = hedging;
+        this.exchangeType = exchangeType;
+    }
+    
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!hedging.isEnabled() || !isHedged(request)) {
+            return delegate.execute(request, options);
+        }
+        hedging.called(exchangeType);
+        long delay = hedging.delayNanos(exchangeType);
+        if (delay < 0 || !hedging.takeSlot()) {
+            return timed(request, options);
+        }
+        Slot slot = new Slot();
+        try {
+            return hedged(request, options, delay, slot);
+        } finally {
+            slot.leave();
+        }
+    }
+    
+    private Response hedged(Request request, Request.Options options, long delay, Slot slot) throws IOException {
+        CompletableFuture<Response> primary = slot.send(request, options);
+        if (primary == null) {
+            return timed(request, options);
+        }
+        try {
+            return primary.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Slower than usual; hedge below
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            throw interrupted(primary);
+        }
+        if (!hedging.tryHedge(exchangeType, request)) {
+            return await(primary);
+        }
+        CompletableFuture<Response> hedge = slot.send(request, options);
+        if (hedge == null) {
+            hedging.hedgeNotSent(exchangeType);
+            return await(primary);
+        }
+        hedging.hedgeSent(exchangeType);
+        Response winner;
+        try {
+            winner = await(firstAnswer(primary, hedge));
+        } catch (InterruptedIOException e) {
+            closeUnless(primary, null);
+            closeUnless(hedge, null);
+            throw e;
+        }
+        if (!hedge.isCompletedExceptionally() && hedge.getNow(null) == winner) {
+            hedging.hedgeWon(exchangeType);
+        }
+        closeUnless(primary, winner);
+        closeUnless(hedge, winner);
+        return winner;
+    }
+    
+    private static boolean isHedged(Request request) {
+        if (request.requestTemplate() == null) {
+            return false;
+        }
+        MethodMetadata metadata = request.requestTemplate().methodMetadata();
+        return metadata != null && metadata.method() != null && metadata.method().isAnnotationPresent(Hedged.class);
+    }
+    
+    /**
+     * Send one copy of the call on the hedge executor, or null when it no longer takes work
+     */
+    private CompletableFuture<Response> send(Request request, Request.Options options) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return timed(request, options);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, hedging.executor());
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+    
+    private Response timed(Request request, Request.Options options) throws IOException {
+        long start = System.nanoTime();
+        Response response = delegate.execute(request, options);
+        hedging.answered(exchangeType, System.nanoTime() - start);
+        return response;
+    }
+    
+    /**
+     * Completes with whichever copy answers first, or fails once both have failed
+     */
+    private static CompletableFuture<Response> firstAnswer(CompletableFuture<Response> primary,
+                                                           CompletableFuture<Response> hedge) {
+        CompletableFuture<Response> first = new CompletableFuture<>();
+        BiConsumer<Response, Throwable> settle = (response, error) -> {
+            if (error == null) {
+                first.complete(response);
+            } else if (primary.isCompletedExceptionally() && hedge.isCompletedExceptionally()) {
+                first.completeExceptionally(error);
+            }
+        };
+        primary.whenComplete(settle);
+        hedge.whenComplete(settle);
+        return first;
+    }
+    
+    private static Response await(CompletableFuture<Response> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            throw interrupted(future);
+        }
+    }
+    
+    private static void closeUnless(CompletableFuture<Response> copy, Response winner) {
+        copy.thenAccept(response -> {
+            if (response != winner) {
+                response.close();
+            }
+        });
+    }
+    
+    private static IOException interrupted(CompletableFuture<Response> pending) {
+        Thread.currentThread().interrupt();
+        pending.thenAccept(Response::close);
+        return new InterruptedIOException("Interrupted while waiting for a hedged call");
+    }
+    
+    /**
+     * One of the hedge executor's call slots, held by the caller and by each copy it sends until all of them
+     * are done; a losing copy keeps its thread busy until it answers, so it keeps the slot too
+     */
+    private final class Slot {
+        
+        private final AtomicInteger holders = new AtomicInteger(1);
+        
+        private CompletableFuture<Response> send(Request request, Request.Options options) {
+            holders.incrementAndGet();
+            CompletableFuture<Response> copy = HedgingClient.this.send(request, options);
+            if (copy == null) {
+                leave();
+                return null;
+            }
+            copy.whenComplete((response, error) -> leave());
+            return copy;
+        }
+        
+        private void leave() {
+            if (holders.decrementAndGet() == 0) {
+                hedging.releaseSlot();
+            }
+        }
+    }
+    
+    private static IOException rethrow(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+}
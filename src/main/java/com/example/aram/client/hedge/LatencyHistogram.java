@@ -0,0 +1,112 @@
+package com.example.aram.client.hedge;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencies of recent calls in logarithmic buckets, four per doubling (about 19% apart) from 1 ms to 65 s.
+ * Recording is one atomic increment. Two halves take turns each period and quantiles read both, so they cover
+ * the last one to two periods and follow an exchange that slows down or recovers.
+ */
+public class LatencyHistogram {
+    
+    private static final int BUCKETS_PER_DOUBLING = 4;
+    private static final int BUCKETS = 16 * BUCKETS_PER_DOUBLING + 1;
+    
+    private final long period;
+    private final AtomicLongArray[] halves = {new AtomicLongArray(BUCKETS), new AtomicLongArray(BUCKETS)};
+    private volatile int current;
+    private volatile long rotatedAt = System.nanoTime();
+    
+    /**
+     * @param periodMillis how long each half records before the older one is cleared
+     */
+    public LatencyHistogram(long periodMillis) {
+        this.period = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+    }
+    
+    public void record(long latencyNanos) {
+        rotateIfDue();
+        halves[current].incrementAndGet(bucket(latencyNanos));
+    }
+    
+    /**
+     * Number of latencies the quantiles are read from
+     */
+    public long count() {
+        rotateIfDue();
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += halves[0].get(i) + halves[1].get(i);
+        }
+        return count;
+    }
+    
+    /**
+     * Upper bound of the bucket holding the given quantile, or 0 with nothing recorded
+     */
+    public long quantileNanos(double quantile) {
+        rotateIfDue();
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = halves[0].get(i) + halves[1].get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+    
+    private static int bucket(long latencyNanos) {
+        double millis = latencyNanos / 1e6;
+        if (millis <= 1) {
+            return 0;
+        }
+        int bucket = (int) Math.ceil(Math.log(millis) / Math.log(2) * BUCKETS_PER_DOUBLING);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+    
+    private static long upperBound(int bucket) {
+        return (long) (Math.pow(2, (double) bucket / BUCKETS_PER_DOUBLING) * 1e6);
+    }
+    
+    /**
+     * Clear the older half and record into it from now on. A latency recorded while the half is being
+     * cleared may be lost, which does not matter to a quantile.
+     */
+    private void rotateIfDue() {
+        long now = System.nanoTime();
+        if (now - rotatedAt < period) {
+            return;
+        }
+        synchronized (this) {
+            long elapsed = now - rotatedAt;
+            if (elapsed < period) {
+                return;
+            }
+            int next = 1 - current;
+            clear(halves[next]);
+            if (elapsed >= 2 * period) {
+                clear(halves[current]);
+            }
+            current = next;
+            rotatedAt = now;
+        }
+    }
+    
+    private static void clear(AtomicLongArray half) {
+        for (int i = 0; i < BUCKETS; i++) {
+            half.set(i, 0);
+        }
+    }
+}
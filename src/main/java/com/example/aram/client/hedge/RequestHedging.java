@@ -0,0 +1,177 @@
+package com.example.aram.client.hedge;
+
+import com.example.aram.client.ratelimit.ExchangeRateLimiter;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.HedgingStatsDto;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Hedging policy for the market data calls marked {@link Hedged}. A call that has not answered by the
+ * exchange's observed latency quantile is sent a second time and the first answer wins. Hedges are paid from
+ * a budget each call adds a fraction to, so at most a set share of calls is sent twice, and only when the
+ * exchange's rate limits have a turn free right away.
+ */
+@Component
+public class RequestHedging {
+    
+    private static final long HEDGE_COST = 1000;
+    private static final long MAX_BUDGET = 10 * HEDGE_COST;
+    
+    private final ArbitrageConfig.Hedging settings;
+    private final ExchangeRateLimiter exchangeRateLimiter;
+    private final ExecutorService exchangeHedgeExecutor;
+    private final Semaphore slots;
+    private final Map<ExchangeType, Policy> policies = new EnumMap<>(ExchangeType.class);
+    
+    public RequestHedging(ArbitrageConfig arbitrageConfig, ExchangeRateLimiter exchangeRateLimiter,
+                          @Qualifier("exchangeHedgeExecutor") ExecutorService exchangeHedgeExecutor) {
+        this.settings = arbitrageConfig.getHedging();
+        this.exchangeRateLimiter = exchangeRateLimiter;
+        this.exchangeHedgeExecutor = exchangeHedgeExecutor;
+        this.slots = new Semaphore(settings.getThreads());
+        for (ExchangeType exchangeType : ExchangeType.values()) {
+            policies.put(exchangeType, new Policy(settings.getPeriod()));
+        }
+    }
+    
+    /**
+     * Wrap an exchange's transport so its {@link Hedged} calls are hedged
+     */
+    public Client decorate(ExchangeType exchangeType, Client delegate) {
+        return new HedgingClient(delegate, this, exchangeType);
+    }
+    
+    /**
+     * Latencies, hedge delay and hedge counts of every exchange
+     */
+    public List<HedgingStatsDto> stats() {
+        return policies.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey(), delayNanos(entry.getKey())))
+                .collect(Collectors.toList());
+    }
+    
+    boolean isEnabled() {
+        return Boolean.TRUE.equals(settings.getEnabled());
+    }
+    
+    ExecutorService executor() {
+        return exchangeHedgeExecutor;
+    }
+    
+    /**
+     * Take a slot for a call sent on the hedge executor, or none when every slot is taken; the executor has
+     * two threads per slot, so a call holding one always finds a thread for its primary and its hedge
+     */
+    boolean takeSlot() {
+        return slots.tryAcquire();
+    }
+    
+    void releaseSlot() {
+        slots.release();
+    }
+    
+    /**
+     * How long to wait for an answer before hedging, or -1 while too few latencies are known
+     */
+    long delayNanos(ExchangeType exchangeType) {
+        LatencyHistogram latencies = policies.get(exchangeType).latencies;
+        if (latencies.count() < settings.getMinSamples()) {
+            return -1;
+        }
+        return Math.max(TimeUnit.MILLISECONDS.toNanos(settings.getMinDelay()),
+                latencies.quantileNanos(settings.getQuantile().doubleValue()));
+    }
+    
+    /**
+     * A hedgeable call is about to be sent; it adds its share to the hedge budget
+     */
+    void called(ExchangeType exchangeType) {
+        Policy policy = policies.get(exchangeType);
+        policy.calls.increment();
+        long share = (long) (settings.getMaxShare().doubleValue() * HEDGE_COST);
+        policy.budget.accumulateAndGet(share, (budget, added) -> Math.min(MAX_BUDGET, budget + added));
+    }
+    
+    /**
+     * One copy of a call answered after the given time
+     */
+    void answered(ExchangeType exchangeType, long latencyNanos) {
+        policies.get(exchangeType).latencies.record(latencyNanos);
+    }
+    
+    /**
+     * Take a hedge from the budget and a turn from the exchange's rate limits, or neither; the hedge is only
+     * counted once {@link #hedgeSent} confirms it went out
+     */
+    boolean tryHedge(ExchangeType exchangeType, Request request) {
+        Policy policy = policies.get(exchangeType);
+        if (policy.budget.getAndUpdate(budget -> budget >= HEDGE_COST ? budget - HEDGE_COST : budget) < HEDGE_COST) {
+            return false;
+        }
+        RequestTemplate template = request.requestTemplate();
+        if (template != null && template.feignTarget() != null && !exchangeRateLimiter.tryAcquire(
+                template.feignTarget().name(), template.method(), template.path(), template.queries())) {
+            policy.budget.addAndGet(HEDGE_COST);
+            return false;
+        }
+        return true;
+    }
+    
+    void hedgeSent(ExchangeType exchangeType) {
+        policies.get(exchangeType).hedges.increment();
+    }
+    
+    /**
+     * The executor refused a hedge taken with {@link #tryHedge}, which only happens while it shuts down; the
+     * budget is given back, the rate limit turn is spent
+     */
+    void hedgeNotSent(ExchangeType exchangeType) {
+        policies.get(exchangeType).budget.addAndGet(HEDGE_COST);
+    }
+    
+    void hedgeWon(ExchangeType exchangeType) {
+        policies.get(exchangeType).hedgeWins.increment();
+    }
+    
+    private static final class Policy {
+        
+        private final LatencyHistogram latencies;
+        private final AtomicLong budget = new AtomicLong(MAX_BUDGET);
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder hedges = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+        
+        private Policy(long periodMillis) {
+            this.latencies = new LatencyHistogram(periodMillis);
+        }
+        
+        private HedgingStatsDto snapshot(ExchangeType exchangeType, long delayNanos) {
+            return HedgingStatsDto.builder()
+                    .exchange(exchangeType)
+                    .samples(latencies.count())
+                    .latencyP50(TimeUnit.NANOSECONDS.toMillis(latencies.quantileNanos(0.5)))
+                    .latencyP95(TimeUnit.NANOSECONDS.toMillis(latencies.quantileNanos(0.95)))
+                    .latencyP99(TimeUnit.NANOSECONDS.toMillis(latencies.quantileNanos(0.99)))
+                    .hedgeDelay(delayNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(delayNanos))
+                    .calls(calls.sum())
+                    .hedges(hedges.sum())
+                    .hedgeWins(hedgeWins.sum())
+                    .build();
+        }
+    }
+}
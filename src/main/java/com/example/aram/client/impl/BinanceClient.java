@@ -2,8 +2,17 @@ package com.example.aram.client.impl;
 
 import com.example.aram.client.BaseExchangeClient;
 import com.example.aram.client.feign.BinanceFeignClient;
+import com.example.aram.client.json.BulkTickerReader;
+import com.example.aram.client.ratelimit.RateLimitException;
+import com.example.aram.dto.OrderDto;
 import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderStatus;
+import com.example.aram.enums.OrderType;
+import com.example.aram.market.OrderBook;
+import com.example.aram.model.Exchange;
+import com.example.aram.util.HmacSigner;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
@@ -13,7 +22,12 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -24,8 +38,23 @@ import java.util.stream.Collectors;
 @Slf4j
 public class BinanceClient extends BaseExchangeClient {
     
+    private static final String RECV_WINDOW = "5000";
+    private static final long SYMBOLS_REFRESH_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final BulkTickerReader TICKER_READER = BulkTickerReader.builder(ExchangeType.BINANCE, "symbol")
+            .field("bidPrice", PriceDto.PriceDtoBuilder::bidPrice)
+            .field("askPrice", PriceDto.PriceDtoBuilder::askPrice)
+            .field("bidQty", PriceDto.PriceDtoBuilder::bidQuantity)
+            .field("askQty", PriceDto.PriceDtoBuilder::askQuantity)
+            .build();
+    
     private final BinanceFeignClient binanceFeignClient;
     
+    /**
+     * Standard symbols of the pairs trading on Binance, keyed by Binance symbol
+     */
+    private volatile Map<String, String> listedSymbols = Map.of();
+    private volatile long listedSymbolsLoadedAt;
+    
     public BinanceClient(BinanceFeignClient binanceFeignClient) {
         super(null, null, ExchangeType.BINANCE);
         this.binanceFeignClient = binanceFeignClient;
@@ -39,14 +68,7 @@ public class BinanceClient extends BaseExchangeClient {
             BinanceTickerResponse response = binanceFeignClient.getTicker(binanceSymbol);
             
             if (response != null) {
-                return PriceDto.builder()
-                        .exchange(ExchangeType.BINANCE)
-                        .symbol(symbol)
-                        .bidPrice(new BigDecimal(response.getBidPrice()))
-                        .askPrice(new BigDecimal(response.getAskPrice()))
-                        .lastPrice(new BigDecimal(response.getBidPrice()).add(new BigDecimal(response.getAskPrice())).divide(BigDecimal.valueOf(2)))
-                        .timestamp(LocalDateTime.now())
-                        .build();
+                return toPriceDto(response, symbol);
             }
         } catch (Exception e) {
             log.error("Error fetching price from Binance for {}: {}", symbol, e.getMessage());
@@ -66,21 +88,19 @@ public class BinanceClient extends BaseExchangeClient {
         return prices;
     }
     
+    /**
+     * Tickers of every pair trading on Binance, named after the base and quote assets in exchangeInfo
+     */
     @Override
     public List<PriceDto> fetchAllTickers() {
         try {
+            Map<String, String> symbols = listedSymbols();
             List<BinanceTickerResponse> responses = binanceFeignClient.getAllTickers();
             
             if (responses != null) {
                 return responses.stream()
-                        .map(response -> PriceDto.builder()
-                                .exchange(ExchangeType.BINANCE)
-                                .symbol(convertFromExchangeSymbol(response.getSymbol()))
-                                .bidPrice(new BigDecimal(response.getBidPrice()))
-                                .askPrice(new BigDecimal(response.getAskPrice()))
-                                .lastPrice(new BigDecimal(response.getBidPrice()).add(new BigDecimal(response.getAskPrice())).divide(BigDecimal.valueOf(2)))
-                                .timestamp(LocalDateTime.now())
-                                .build())
+                        .filter(response -> symbols.containsKey(response.getSymbol()))
+                        .map(response -> toPriceDto(response, symbols.get(response.getSymbol())))
                         .collect(Collectors.toList());
             }
         } catch (Exception e) {
@@ -89,25 +109,221 @@ public class BinanceClient extends BaseExchangeClient {
         return new ArrayList<>();
     }
     
+    /**
+     * Streams the bulk book ticker, building prices only for the requested symbols
+     */
+    @Override
+    public List<PriceDto> fetchTickers(Set<String> symbols) {
+        try {
+            List<PriceDto> prices = TICKER_READER.read(binanceFeignClient.getAllTickersJson(), 
+                    toExchangeSymbols(symbols));
+            for (PriceDto price : prices) {
+                if (price.getBidPrice() != null && price.getAskPrice() != null) {
+                    price.setLastPrice(price.getBidPrice().add(price.getAskPrice()).divide(BigDecimal.valueOf(2)));
+                }
+            }
+            return prices;
+        } catch (Exception e) {
+            log.error("Error fetching tickers from Binance: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+    
+    @Override
+    public boolean hasBulkTickers() {
+        return true;
+    }
+    
+    private PriceDto toPriceDto(BinanceTickerResponse response, String symbol) {
+        BigDecimal bidPrice = new BigDecimal(response.getBidPrice());
+        BigDecimal askPrice = new BigDecimal(response.getAskPrice());
+        return PriceDto.builder()
+                .exchange(ExchangeType.BINANCE)
+                .symbol(symbol)
+                .bidPrice(bidPrice)
+                .askPrice(askPrice)
+                .bidQuantity(response.getBidQty() != null ? new BigDecimal(response.getBidQty()) : null)
+                .askQuantity(response.getAskQty() != null ? new BigDecimal(response.getAskQty()) : null)
+                .lastPrice(bidPrice.add(askPrice).divide(BigDecimal.valueOf(2)))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+    
+    @Override
+    public boolean fetchOrderBook(String symbol, int depth, OrderBook into) {
+        into.clear();
+        try {
+            BinanceDepthResponse response = binanceFeignClient.getOrderBook(convertToExchangeSymbol(symbol), depth);
+            if (response != null) {
+                addLevels(response.getBids(), true, into);
+                addLevels(response.getAsks(), false, into);
+                return completeOrderBook(into);
+            }
+        } catch (RateLimitException e) {
+            log.debug("Order book from Binance for {} not fetched: {}", symbol, e.getMessage());
+        } catch (Exception e) {
+            log.error("Error fetching order book from Binance for {}: {}", symbol, e.getMessage());
+        }
+        return false;
+    }
+    
+    @Override
+    public OrderDto placeOrder(Exchange account, String symbol, OrderType orderType, OrderSide orderSide,
+                               BigDecimal price, BigDecimal quantity) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("symbol", convertToExchangeSymbol(symbol));
+        params.put("side", orderSide.name());
+        params.put("type", orderType.name());
+        if (isLimit(orderType)) {
+            params.put("timeInForce", "GTC");
+            params.put("price", toPlain(price));
+        }
+        params.put("quantity", toPlain(quantity));
+        params.put("newClientOrderId", newClientOrderId());
+        params.put("newOrderRespType", "FULL");
+        
+        BinanceOrderResponse response = binanceFeignClient.placeOrder(account.getApiKey(), sign(account, params));
+        if (response == null || response.getOrderId() == null) {
+            throw new RuntimeException("Binance returned no order id for " + symbol);
+        }
+        return toOrderDto(response, symbol);
+    }
+    
+    @Override
+    public boolean cancelOrder(Exchange account, String symbol, String orderId) {
+        BinanceOrderResponse response = binanceFeignClient.cancelOrder(account.getApiKey(), 
+                sign(account, orderParams(symbol, orderId)));
+        return response != null && "CANCELED".equals(response.getStatus());
+    }
+    
+    @Override
+    public OrderDto getOrder(Exchange account, String symbol, String orderId) {
+        BinanceOrderResponse response = binanceFeignClient.getOrder(account.getApiKey(), 
+                sign(account, orderParams(symbol, orderId)));
+        if (response == null || response.getOrderId() == null) {
+            throw new RuntimeException("Binance returned no order " + orderId);
+        }
+        return toOrderDto(response, symbol);
+    }
+    
+    @Override
+    public Map<String, BigDecimal> getBalances(Exchange account) {
+        BinanceAccountResponse response = binanceFeignClient.getAccount(account.getApiKey(), 
+                sign(account, new LinkedHashMap<>()));
+        Map<String, BigDecimal> balances = new HashMap<>();
+        if (response != null && response.getBalances() != null) {
+            for (BinanceBalance balance : response.getBalances()) {
+                BigDecimal free = toDecimal(balance.getFree());
+                if (free != null && free.signum() > 0) {
+                    balances.put(balance.getAsset(), free);
+                }
+            }
+        }
+        return balances;
+    }
+    
+    private Map<String, String> orderParams(String symbol, String orderId) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("symbol", convertToExchangeSymbol(symbol));
+        params.put("orderId", orderId);
+        return params;
+    }
+    
+    /**
+     * Append the receive window, timestamp and the HMAC-SHA256 signature of the query string
+     */
+    private Map<String, String> sign(Exchange account, Map<String, String> params) {
+        requireCredentials(account);
+        params.put("recvWindow", RECV_WINDOW);
+        params.put("timestamp", String.valueOf(System.currentTimeMillis()));
+        params.put("signature", HmacSigner.sha256Hex(account.getApiSecret(), toQueryString(params)));
+        return params;
+    }
+    
+    private OrderDto toOrderDto(BinanceOrderResponse response, String symbol) {
+        OrderType type = toOrderType(response.getType());
+        BigDecimal executed = toDecimal(response.getExecutedQty());
+        return createOrderDto(symbol, String.valueOf(response.getOrderId()))
+                .clientOrderId(response.getClientOrderId())
+                .side(toOrderSide(response.getSide()))
+                .type(type)
+                .price(type == OrderType.LIMIT ? toDecimal(response.getPrice()) : null)
+                .quantity(toDecimal(response.getOrigQty()))
+                .executedQuantity(executed)
+                .averagePrice(averagePrice(toDecimal(response.getCummulativeQuoteQty()), executed))
+                .status(toOrderStatus(response.getStatus()))
+                .build();
+    }
+    
+    private static OrderStatus toOrderStatus(String status) {
+        if (status == null) {
+            return OrderStatus.UNKNOWN;
+        }
+        switch (status) {
+            case "NEW":
+            case "PENDING_NEW":
+                return OrderStatus.NEW;
+            case "PARTIALLY_FILLED":
+                return OrderStatus.PARTIALLY_FILLED;
+            case "FILLED":
+                return OrderStatus.FILLED;
+            case "CANCELED":
+            case "PENDING_CANCEL":
+            case "EXPIRED":
+            case "EXPIRED_IN_MATCH":
+                return OrderStatus.CANCELED;
+            case "REJECTED":
+                return OrderStatus.REJECTED;
+            default:
+                return OrderStatus.UNKNOWN;
+        }
+    }
+    
     @Override
     protected String convertToExchangeSymbol(String symbol) {
         // Convert BTC/USDT to BTCUSDT
         return symbol.replace("/", "");
     }
     
+    /**
+     * Convert BTCUSDT to BTC/USDT using the listed base and quote assets, or null for a symbol not trading
+     */
     @Override
     protected String convertFromExchangeSymbol(String exchangeSymbol) {
-        // Convert BTCUSDT to BTC/USDT
-        // This is a simplified version - you may need more sophisticated logic
-        if (exchangeSymbol.endsWith("USDT")) {
-            String base = exchangeSymbol.substring(0, exchangeSymbol.length() - 4);
-            return base + "/USDT";
+        return listedSymbols().get(exchangeSymbol);
+    }
+    
+    /**
+     * Trading pairs from exchangeInfo, reloaded hourly. Binance symbols have no separator and quote assets of
+     * three to five letters, so they cannot be split reliably without it. A failed load keeps the pairs loaded
+     * before and is retried on the next call.
+     */
+    private Map<String, String> listedSymbols() {
+        if (System.currentTimeMillis() - listedSymbolsLoadedAt < SYMBOLS_REFRESH_MILLIS) {
+            return listedSymbols;
         }
-        if (exchangeSymbol.endsWith("BTC")) {
-            String base = exchangeSymbol.substring(0, exchangeSymbol.length() - 3);
-            return base + "/BTC";
+        synchronized (this) {
+            if (System.currentTimeMillis() - listedSymbolsLoadedAt >= SYMBOLS_REFRESH_MILLIS) {
+                try {
+                    BinanceExchangeInfo info = binanceFeignClient.getExchangeInfo();
+                    Map<String, String> symbols = new HashMap<>();
+                    if (info != null && info.getSymbols() != null) {
+                        for (BinanceSymbol symbol : info.getSymbols()) {
+                            if ("TRADING".equals(symbol.getStatus())) {
+                                symbols.put(symbol.getSymbol(), symbol.getBaseAsset() + "/" + symbol.getQuoteAsset());
+                            }
+                        }
+                    }
+                    if (!symbols.isEmpty()) {
+                        listedSymbols = symbols;
+                        listedSymbolsLoadedAt = System.currentTimeMillis();
+                    }
+                } catch (Exception e) {
+                    log.error("Error loading trading pairs from Binance: {}", e.getMessage());
+                }
+            }
+            return listedSymbols;
         }
-        return exchangeSymbol;
     }
     
     @Data
@@ -127,5 +343,56 @@ public class BinanceClient extends BaseExchangeClient {
         @JsonProperty("askQty")
         private String askQty;
     }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BinanceExchangeInfo {
+        private List<BinanceSymbol> symbols;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BinanceSymbol {
+        private String symbol;
+        private String status;
+        private String baseAsset;
+        private String quoteAsset;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BinanceDepthResponse {
+        private Long lastUpdateId;
+        private List<List<String>> bids; // [price, quantity]
+        private List<List<String>> asks;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BinanceOrderResponse {
+        private String symbol;
+        private Long orderId;
+        private String clientOrderId;
+        private String price;
+        private String origQty;
+        private String executedQty;
+        private String cummulativeQuoteQty; // sic, quote amount filled so far
+        private String status;
+        private String type;
+        private String side;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BinanceAccountResponse {
+        private List<BinanceBalance> balances;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BinanceBalance {
+        private String asset;
+        private String free;
+        private String locked;
+    }
 }
-
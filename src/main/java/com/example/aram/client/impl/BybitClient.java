@@ -2,9 +2,19 @@ package com.example.aram.client.impl;
 
 import com.example.aram.client.BaseExchangeClient;
 import com.example.aram.client.feign.BybitFeignClient;
+import com.example.aram.client.json.BulkTickerReader;
+import com.example.aram.client.ratelimit.RateLimitException;
+import com.example.aram.dto.OrderDto;
 import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderStatus;
+import com.example.aram.enums.OrderType;
+import com.example.aram.market.OrderBook;
+import com.example.aram.model.Exchange;
+import com.example.aram.util.HmacSigner;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -12,7 +22,11 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -23,6 +37,18 @@ import java.util.stream.Collectors;
 @Slf4j
 public class BybitClient extends BaseExchangeClient {
     
+    private static final String CATEGORY = "spot";
+    private static final String RECV_WINDOW = "5000";
+    private static final BulkTickerReader TICKER_READER = BulkTickerReader.builder(ExchangeType.BYBIT, "symbol")
+            .path("result", "list")
+            .field("bid1Price", PriceDto.PriceDtoBuilder::bidPrice)
+            .field("ask1Price", PriceDto.PriceDtoBuilder::askPrice)
+            .field("bid1Size", PriceDto.PriceDtoBuilder::bidQuantity)
+            .field("ask1Size", PriceDto.PriceDtoBuilder::askQuantity)
+            .field("lastPrice", PriceDto.PriceDtoBuilder::lastPrice)
+            .field("volume24h", PriceDto.PriceDtoBuilder::volume24h)
+            .build();
+    
     private final BybitFeignClient bybitFeignClient;
     
     public BybitClient(BybitFeignClient bybitFeignClient) {
@@ -39,17 +65,7 @@ public class BybitClient extends BaseExchangeClient {
             
             if (response != null && response.getResult() != null && 
                 response.getResult().getList() != null && !response.getResult().getList().isEmpty()) {
-                BybitTicker ticker = response.getResult().getList().get(0);
-                
-                return PriceDto.builder()
-                        .exchange(ExchangeType.BYBIT)
-                        .symbol(symbol)
-                        .bidPrice(new BigDecimal(ticker.getBid1Price()))
-                        .askPrice(new BigDecimal(ticker.getAsk1Price()))
-                        .lastPrice(new BigDecimal(ticker.getLastPrice()))
-                        .volume24h(new BigDecimal(ticker.getVolume24h()))
-                        .timestamp(LocalDateTime.now())
-                        .build();
+                return toPriceDto(response.getResult().getList().get(0), symbol);
             }
         } catch (Exception e) {
             log.error("Error fetching price from Bybit for {}: {}", symbol, e.getMessage());
@@ -76,15 +92,7 @@ public class BybitClient extends BaseExchangeClient {
             
             if (response != null && response.getResult() != null && response.getResult().getList() != null) {
                 return response.getResult().getList().stream()
-                        .map(ticker -> PriceDto.builder()
-                                .exchange(ExchangeType.BYBIT)
-                                .symbol(convertFromExchangeSymbol(ticker.getSymbol()))
-                                .bidPrice(new BigDecimal(ticker.getBid1Price()))
-                                .askPrice(new BigDecimal(ticker.getAsk1Price()))
-                                .lastPrice(new BigDecimal(ticker.getLastPrice()))
-                                .volume24h(new BigDecimal(ticker.getVolume24h()))
-                                .timestamp(LocalDateTime.now())
-                                .build())
+                        .map(ticker -> toPriceDto(ticker, convertFromExchangeSymbol(ticker.getSymbol())))
                         .collect(Collectors.toList());
             }
         } catch (Exception e) {
@@ -93,6 +101,217 @@ public class BybitClient extends BaseExchangeClient {
         return new ArrayList<>();
     }
     
+    /**
+     * Streams the bulk spot tickers, building prices only for the requested symbols
+     */
+    @Override
+    public List<PriceDto> fetchTickers(Set<String> symbols) {
+        try {
+            return TICKER_READER.read(bybitFeignClient.getAllTickersJson(CATEGORY), toExchangeSymbols(symbols));
+        } catch (Exception e) {
+            log.error("Error fetching tickers from Bybit: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+    
+    @Override
+    public boolean hasBulkTickers() {
+        return true;
+    }
+    
+    private PriceDto toPriceDto(BybitTicker ticker, String symbol) {
+        return PriceDto.builder()
+                .exchange(ExchangeType.BYBIT)
+                .symbol(symbol)
+                .bidPrice(new BigDecimal(ticker.getBid1Price()))
+                .askPrice(new BigDecimal(ticker.getAsk1Price()))
+                .bidQuantity(ticker.getBid1Size() != null ? new BigDecimal(ticker.getBid1Size()) : null)
+                .askQuantity(ticker.getAsk1Size() != null ? new BigDecimal(ticker.getAsk1Size()) : null)
+                .lastPrice(new BigDecimal(ticker.getLastPrice()))
+                .volume24h(new BigDecimal(ticker.getVolume24h()))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+    
+    @Override
+    public boolean fetchOrderBook(String symbol, int depth, OrderBook into) {
+        into.clear();
+        try {
+            BybitOrderBookResponse response = 
+                    bybitFeignClient.getOrderBook("spot", convertToExchangeSymbol(symbol), depth);
+            if (response != null && response.getResult() != null) {
+                addLevels(response.getResult().getBids(), true, into);
+                addLevels(response.getResult().getAsks(), false, into);
+                return completeOrderBook(into);
+            }
+        } catch (RateLimitException e) {
+            log.debug("Order book from Bybit for {} not fetched: {}", symbol, e.getMessage());
+        } catch (Exception e) {
+            log.error("Error fetching order book from Bybit for {}: {}", symbol, e.getMessage());
+        }
+        return false;
+    }
+    
+    /**
+     * Market orders are sized in the base currency; Bybit would otherwise read a market buy's quantity in the quote
+     */
+    @Override
+    public OrderDto placeOrder(Exchange account, String symbol, OrderType orderType, OrderSide orderSide,
+                               BigDecimal price, BigDecimal quantity) {
+        boolean limit = isLimit(orderType);
+        Map<String, String> order = new LinkedHashMap<>();
+        order.put("category", CATEGORY);
+        order.put("symbol", convertToExchangeSymbol(symbol));
+        order.put("side", orderSide == OrderSide.BUY ? "Buy" : "Sell");
+        order.put("orderType", limit ? "Limit" : "Market");
+        order.put("qty", toPlain(quantity));
+        if (limit) {
+            order.put("price", toPlain(price));
+            order.put("timeInForce", "GTC");
+        } else {
+            order.put("marketUnit", "baseCoin");
+        }
+        order.put("orderLinkId", newClientOrderId());
+        
+        String body = toJson(order);
+        BybitOrderResponse response = bybitFeignClient.placeOrder(signedHeaders(account, body), body);
+        BybitOrderAck ack = checkOrderResponse(response, symbol);
+        return createOrderDto(symbol, ack.getOrderId())
+                .clientOrderId(ack.getOrderLinkId())
+                .side(orderSide)
+                .type(orderType)
+                .price(limit ? price : null)
+                .quantity(quantity)
+                .status(OrderStatus.NEW)
+                .build();
+    }
+    
+    @Override
+    public boolean cancelOrder(Exchange account, String symbol, String orderId) {
+        Map<String, String> request = new LinkedHashMap<>();
+        request.put("category", CATEGORY);
+        request.put("symbol", convertToExchangeSymbol(symbol));
+        request.put("orderId", orderId);
+        String body = toJson(request);
+        BybitOrderResponse response = bybitFeignClient.cancelOrder(signedHeaders(account, body), body);
+        return response != null && Integer.valueOf(0).equals(response.getRetCode());
+    }
+    
+    @Override
+    public OrderDto getOrder(Exchange account, String symbol, String orderId) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("category", CATEGORY);
+        params.put("orderId", orderId);
+        String query = toQueryString(params);
+        
+        BybitOrder order = firstOrder(bybitFeignClient.getOrders(signedHeaders(account, query), params));
+        if (order == null) {
+            order = firstOrder(bybitFeignClient.getOrderHistory(signedHeaders(account, query), params));
+        }
+        if (order == null) {
+            throw new RuntimeException("Bybit returned no order " + orderId);
+        }
+        BigDecimal executed = toDecimal(order.getCumExecQty());
+        OrderType type = toOrderType(order.getOrderType());
+        return createOrderDto(symbol, order.getOrderId())
+                .clientOrderId(order.getOrderLinkId())
+                .side(toOrderSide(order.getSide()))
+                .type(type)
+                .price(type == OrderType.LIMIT ? toDecimal(order.getPrice()) : null)
+                .quantity(toDecimal(order.getQty()))
+                .executedQuantity(executed)
+                .averagePrice(executed != null && executed.signum() > 0 ? toDecimal(order.getAvgPrice()) : null)
+                .status(toOrderStatus(order.getOrderStatus()))
+                .build();
+    }
+    
+    @Override
+    public Map<String, BigDecimal> getBalances(Exchange account) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("accountType", "UNIFIED");
+        BybitWalletResponse response = bybitFeignClient.getWalletBalance(
+                signedHeaders(account, toQueryString(params)), params);
+        if (response == null || !Integer.valueOf(0).equals(response.getRetCode())) {
+            throw new RuntimeException("Bybit balance request failed: " 
+                    + (response != null ? response.getRetMsg() : "no response"));
+        }
+        Map<String, BigDecimal> balances = new HashMap<>();
+        if (response.getResult() != null && response.getResult().getList() != null) {
+            for (BybitWallet wallet : response.getResult().getList()) {
+                if (wallet.getCoin() == null) {
+                    continue;
+                }
+                for (BybitCoinBalance coin : wallet.getCoin()) {
+                    BigDecimal total = toDecimal(coin.getWalletBalance());
+                    BigDecimal locked = toDecimal(coin.getLocked());
+                    BigDecimal free = total != null && locked != null ? total.subtract(locked) : total;
+                    if (free != null && free.signum() > 0) {
+                        balances.merge(coin.getCoin(), free, BigDecimal::add);
+                    }
+                }
+            }
+        }
+        return balances;
+    }
+    
+    /**
+     * X-BAPI-* headers signing timestamp, API key, receive window and the query string or JSON body
+     */
+    private Map<String, String> signedHeaders(Exchange account, String payload) {
+        requireCredentials(account);
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("X-BAPI-API-KEY", account.getApiKey());
+        headers.put("X-BAPI-TIMESTAMP", timestamp);
+        headers.put("X-BAPI-RECV-WINDOW", RECV_WINDOW);
+        headers.put("X-BAPI-SIGN", HmacSigner.sha256Hex(account.getApiSecret(),
+                timestamp + account.getApiKey() + RECV_WINDOW + payload));
+        return headers;
+    }
+    
+    private static BybitOrderAck checkOrderResponse(BybitOrderResponse response, String symbol) {
+        if (response == null || !Integer.valueOf(0).equals(response.getRetCode())) {
+            throw new RuntimeException("Bybit rejected order for " + symbol + ": " 
+                    + (response != null ? response.getRetMsg() : "no response"));
+        }
+        if (response.getResult() == null || response.getResult().getOrderId() == null) {
+            throw new RuntimeException("Bybit returned no order id for " + symbol);
+        }
+        return response.getResult();
+    }
+    
+    private static BybitOrder firstOrder(BybitOrderListResponse response) {
+        if (response == null || !Integer.valueOf(0).equals(response.getRetCode()) || response.getResult() == null
+                || response.getResult().getList() == null || response.getResult().getList().isEmpty()) {
+            return null;
+        }
+        return response.getResult().getList().get(0);
+    }
+    
+    private static OrderStatus toOrderStatus(String status) {
+        if (status == null) {
+            return OrderStatus.UNKNOWN;
+        }
+        switch (status) {
+            case "Created":
+            case "New":
+            case "Untriggered":
+                return OrderStatus.NEW;
+            case "PartiallyFilled":
+                return OrderStatus.PARTIALLY_FILLED;
+            case "Filled":
+                return OrderStatus.FILLED;
+            case "Cancelled":
+            case "PartiallyFilledCanceled":
+            case "Deactivated":
+                return OrderStatus.CANCELED;
+            case "Rejected":
+                return OrderStatus.REJECTED;
+            default:
+                return OrderStatus.UNKNOWN;
+        }
+    }
+    
     @Override
     protected String convertToExchangeSymbol(String symbol) {
         // Convert BTC/USDT to BTCUSDT
@@ -130,9 +349,103 @@ public class BybitClient extends BaseExchangeClient {
         private String symbol;
         private String lastPrice;
         private String bid1Price;
+        private String bid1Size;
         private String ask1Price;
+        private String ask1Size;
         private String volume24h;
     }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitOrderBookResponse {
+        private Integer retCode;
+        private String retMsg;
+        private BybitOrderBook result;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitOrderBook {
+        @JsonProperty("s")
+        private String symbol;
+        
+        @JsonProperty("b")
+        private List<List<String>> bids; // [price, size]
+        
+        @JsonProperty("a")
+        private List<List<String>> asks;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitOrderResponse {
+        private Integer retCode;
+        private String retMsg;
+        private BybitOrderAck result;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitOrderAck {
+        private String orderId;
+        private String orderLinkId;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitOrderListResponse {
+        private Integer retCode;
+        private String retMsg;
+        private BybitOrderList result;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitOrderList {
+        private List<BybitOrder> list;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitOrder {
+        private String orderId;
+        private String orderLinkId;
+        private String symbol;
+        private String side;
+        private String orderType;
+        private String price;
+        private String qty;
+        private String cumExecQty;
+        private String avgPrice;
+        private String orderStatus;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitWalletResponse {
+        private Integer retCode;
+        private String retMsg;
+        private BybitWalletList result;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitWalletList {
+        private List<BybitWallet> list;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitWallet {
+        private String accountType;
+        private List<BybitCoinBalance> coin;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BybitCoinBalance {
+        private String coin;
+        private String walletBalance;
+        private String locked;
+    }
 }
-
-
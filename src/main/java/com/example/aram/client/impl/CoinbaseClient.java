@@ -2,8 +2,16 @@ package com.example.aram.client.impl;
 
 import com.example.aram.client.BaseExchangeClient;
 import com.example.aram.client.feign.CoinbaseFeignClient;
+import com.example.aram.client.ratelimit.RateLimitException;
+import com.example.aram.dto.OrderDto;
 import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderStatus;
+import com.example.aram.enums.OrderType;
+import com.example.aram.market.OrderBook;
+import com.example.aram.model.Exchange;
+import com.example.aram.util.HmacSigner;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
@@ -13,7 +21,12 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Coinbase Pro API Client
@@ -89,6 +102,138 @@ public class CoinbaseClient extends BaseExchangeClient {
         return new ArrayList<>();
     }
     
+    /**
+     * Coinbase has no depth parameter; level 2 returns the whole aggregated book, of which
+     * only the first {@code depth} levels per side are kept
+     */
+    @Override
+    public boolean fetchOrderBook(String symbol, int depth, OrderBook into) {
+        into.clear();
+        try {
+            CoinbaseBookResponse response = coinbaseFeignClient.getOrderBook(convertToExchangeSymbol(symbol), 2);
+            if (response != null) {
+                addLevels(response.getBids(), true, into);
+                addLevels(response.getAsks(), false, into);
+                return completeOrderBook(into);
+            }
+        } catch (RateLimitException e) {
+            log.debug("Order book from Coinbase for {} not fetched: {}", symbol, e.getMessage());
+        } catch (Exception e) {
+            log.error("Error fetching order book from Coinbase for {}: {}", symbol, e.getMessage());
+        }
+        return false;
+    }
+    
+    @Override
+    public OrderDto placeOrder(Exchange account, String symbol, OrderType orderType, OrderSide orderSide,
+                               BigDecimal price, BigDecimal quantity) {
+        boolean limit = isLimit(orderType);
+        Map<String, String> order = new LinkedHashMap<>();
+        // Coinbase only accepts client order ids in UUID form
+        order.put("client_oid", UUID.randomUUID().toString());
+        order.put("product_id", convertToExchangeSymbol(symbol));
+        order.put("side", orderSide == OrderSide.BUY ? "buy" : "sell");
+        order.put("type", limit ? "limit" : "market");
+        order.put("size", toPlain(quantity));
+        if (limit) {
+            order.put("price", toPlain(price));
+            order.put("time_in_force", "GTC");
+        }
+        
+        String body = toJson(order);
+        CoinbaseOrderResponse response = coinbaseFeignClient.placeOrder(
+                signedHeaders(account, "POST", "/orders", body), body);
+        if (response == null || response.getId() == null) {
+            throw new RuntimeException("Coinbase returned no order id for " + symbol);
+        }
+        return toOrderDto(response, symbol);
+    }
+    
+    @Override
+    public boolean cancelOrder(Exchange account, String symbol, String orderId) {
+        String productId = convertToExchangeSymbol(symbol);
+        String cancelled = coinbaseFeignClient.cancelOrder(
+                signedHeaders(account, "DELETE", "/orders/" + orderId + "?product_id=" + productId, ""), 
+                orderId, productId);
+        return cancelled != null && cancelled.contains(orderId);
+    }
+    
+    @Override
+    public OrderDto getOrder(Exchange account, String symbol, String orderId) {
+        CoinbaseOrderResponse response = coinbaseFeignClient.getOrder(
+                signedHeaders(account, "GET", "/orders/" + orderId, ""), orderId);
+        if (response == null || response.getId() == null) {
+            throw new RuntimeException("Coinbase returned no order " + orderId);
+        }
+        return toOrderDto(response, symbol);
+    }
+    
+    @Override
+    public Map<String, BigDecimal> getBalances(Exchange account) {
+        List<CoinbaseAccountResponse> accounts = coinbaseFeignClient.getAccounts(
+                signedHeaders(account, "GET", "/accounts", ""));
+        Map<String, BigDecimal> balances = new HashMap<>();
+        if (accounts != null) {
+            for (CoinbaseAccountResponse coinbaseAccount : accounts) {
+                BigDecimal available = toDecimal(coinbaseAccount.getAvailable());
+                if (available != null && available.signum() > 0) {
+                    balances.merge(coinbaseAccount.getCurrency(), available, BigDecimal::add);
+                }
+            }
+        }
+        return balances;
+    }
+    
+    /**
+     * CB-ACCESS-* headers signing timestamp, method, request path and body with the Base64-decoded secret
+     */
+    private Map<String, String> signedHeaders(Exchange account, String method, String requestPath, String body) {
+        String passphrase = requirePassphrase(account);
+        String timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(account.getApiSecret());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Coinbase API secret is not Base64 encoded", e);
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("CB-ACCESS-KEY", account.getApiKey());
+        headers.put("CB-ACCESS-SIGN", HmacSigner.sha256Base64(key, timestamp + method + requestPath + body));
+        headers.put("CB-ACCESS-TIMESTAMP", timestamp);
+        headers.put("CB-ACCESS-PASSPHRASE", passphrase);
+        return headers;
+    }
+    
+    private OrderDto toOrderDto(CoinbaseOrderResponse response, String symbol) {
+        BigDecimal executed = toDecimal(response.getFilledSize());
+        OrderType type = toOrderType(response.getType());
+        return createOrderDto(symbol, response.getId())
+                .clientOrderId(response.getClientOid())
+                .side(toOrderSide(response.getSide()))
+                .type(type)
+                .price(type == OrderType.LIMIT ? toDecimal(response.getPrice()) : null)
+                .quantity(toDecimal(response.getSize()))
+                .executedQuantity(executed)
+                .averagePrice(averagePrice(toDecimal(response.getExecutedValue()), executed))
+                .status(toOrderStatus(response, executed))
+                .build();
+    }
+    
+    private static OrderStatus toOrderStatus(CoinbaseOrderResponse response, BigDecimal executed) {
+        boolean anyFilled = executed != null && executed.signum() > 0;
+        String status = response.getStatus();
+        if ("rejected".equals(status)) {
+            return OrderStatus.REJECTED;
+        }
+        if ("done".equals(status)) {
+            return "filled".equals(response.getDoneReason()) ? OrderStatus.FILLED : OrderStatus.CANCELED;
+        }
+        if ("pending".equals(status) || "open".equals(status) || "active".equals(status)) {
+            return anyFilled ? OrderStatus.PARTIALLY_FILLED : OrderStatus.NEW;
+        }
+        return OrderStatus.UNKNOWN;
+    }
+    
     @Override
     protected String convertToExchangeSymbol(String symbol) {
         // Convert BTC/USDT to BTC-USDT
@@ -122,5 +267,50 @@ public class CoinbaseClient extends BaseExchangeClient {
         @JsonProperty("quote_currency")
         private String quoteCurrency;
     }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CoinbaseBookResponse {
+        private Long sequence;
+        private List<List<String>> bids; // [price, size, order count]
+        private List<List<String>> asks;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CoinbaseOrderResponse {
+        private String id;
+        
+        @JsonProperty("client_oid")
+        private String clientOid;
+        
+        @JsonProperty("product_id")
+        private String productId;
+        
+        private String side;
+        private String type;
+        private String price;
+        private String size;
+        
+        @JsonProperty("filled_size")
+        private String filledSize;
+        
+        @JsonProperty("executed_value")
+        private String executedValue; // quote amount filled so far
+        
+        private String status;
+        
+        @JsonProperty("done_reason")
+        private String doneReason;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CoinbaseAccountResponse {
+        private String id;
+        private String currency;
+        private String balance;
+        private String available;
+        private String hold;
+    }
 }
-
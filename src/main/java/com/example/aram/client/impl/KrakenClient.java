@@ -2,16 +2,28 @@ package com.example.aram.client.impl;
 
 import com.example.aram.client.BaseExchangeClient;
 import com.example.aram.client.feign.KrakenFeignClient;
+import com.example.aram.client.ratelimit.RateLimitException;
+import com.example.aram.dto.OrderDto;
 import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderStatus;
+import com.example.aram.enums.OrderType;
+import com.example.aram.market.OrderBook;
+import com.example.aram.model.Exchange;
+import com.example.aram.util.HmacSigner;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 
 /**
  * Kraken API Client
@@ -30,8 +42,20 @@ public class KrakenClient extends BaseExchangeClient {
         SYMBOL_MAP.put("ETH/USD", "ETHUSD");
     }
     
+    // Legacy asset names used by balances, after the X/Z prefix is removed
+    private static final Map<String, String> ASSET_MAP = new HashMap<>();
+    static {
+        ASSET_MAP.put("XBT", "BTC");
+        ASSET_MAP.put("XDG", "DOGE");
+    }
+    
     private final KrakenFeignClient krakenFeignClient;
     
+    /**
+     * Last nonce sent; Kraken rejects a nonce that does not increase
+     */
+    private final AtomicLong nonce = new AtomicLong();
+    
     public KrakenClient(KrakenFeignClient krakenFeignClient) {
         super(null, null, ExchangeType.KRAKEN);
         this.krakenFeignClient = krakenFeignClient;
@@ -46,18 +70,7 @@ public class KrakenClient extends BaseExchangeClient {
             
             if (response != null && response.getResult() != null && !response.getResult().isEmpty()) {
                 // Kraken returns data with the pair name as key
-                Map.Entry<String, KrakenTicker> entry = response.getResult().entrySet().iterator().next();
-                KrakenTicker ticker = entry.getValue();
-                
-                return PriceDto.builder()
-                        .exchange(ExchangeType.KRAKEN)
-                        .symbol(symbol)
-                        .bidPrice(new BigDecimal(ticker.getBid().get(0)))
-                        .askPrice(new BigDecimal(ticker.getAsk().get(0)))
-                        .lastPrice(new BigDecimal(ticker.getLastPrice().get(0)))
-                        .volume24h(new BigDecimal(ticker.getVolume().get(1)))
-                        .timestamp(LocalDateTime.now())
-                        .build();
+                return toPriceDto(response.getResult().values().iterator().next(), symbol);
             }
         } catch (Exception e) {
             log.error("Error fetching price from Kraken for {}: {}", symbol, e.getMessage());
@@ -79,10 +92,243 @@ public class KrakenClient extends BaseExchangeClient {
     
     @Override
     public List<PriceDto> fetchAllTickers() {
-        // Kraken doesn't have a single endpoint for all tickers in the same way
-        // We'll fetch common pairs
-        List<String> commonPairs = Arrays.asList("BTC/USDT", "ETH/USDT", "BTC/USD", "ETH/USD");
-        return fetchPrices(commonPairs);
+        // Kraken has no endpoint for all tickers; fetch the common pairs in one call
+        return fetchTickers(new LinkedHashSet<>(SYMBOL_MAP.keySet()));
+    }
+    
+    /**
+     * The ticker endpoint takes a comma-separated list of pairs and answers them all in one call.
+     * Kraken rejects the whole list when one pair is unknown; the pairs are then fetched one by one.
+     */
+    @Override
+    public List<PriceDto> fetchTickers(Set<String> symbols) {
+        List<PriceDto> prices = new ArrayList<>();
+        if (symbols.isEmpty()) {
+            return prices;
+        }
+        try {
+            Map<String, String> wanted = toExchangeSymbols(symbols);
+            KrakenTickerResponse response = krakenFeignClient.getTicker(String.join(",", wanted.keySet()));
+            
+            if (response == null || response.getResult() == null || response.getResult().isEmpty()) {
+                log.warn("Kraken answered no tickers for {} pairs ({}), fetching them one by one", symbols.size(),
+                        response != null ? response.getError() : null);
+                return fetchPrices(new ArrayList<>(symbols));
+            }
+            for (Map.Entry<String, KrakenTicker> entry : response.getResult().entrySet()) {
+                String symbol = wanted.get(entry.getKey());
+                if (symbol == null) {
+                    symbol = wanted.get(toAlternativeName(entry.getKey()));
+                }
+                if (symbol != null) {
+                    prices.add(toPriceDto(entry.getValue(), symbol));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error fetching tickers from Kraken: {}", e.getMessage());
+        }
+        return prices;
+    }
+    
+    @Override
+    public boolean hasBulkTickers() {
+        return true;
+    }
+    
+    private PriceDto toPriceDto(KrakenTicker ticker, String symbol) {
+        return PriceDto.builder()
+                .exchange(ExchangeType.KRAKEN)
+                .symbol(symbol)
+                .bidPrice(new BigDecimal(ticker.getBid().get(0)))
+                .askPrice(new BigDecimal(ticker.getAsk().get(0)))
+                .bidQuantity(ticker.getBid().size() > 2 ? new BigDecimal(ticker.getBid().get(2)) : null)
+                .askQuantity(ticker.getAsk().size() > 2 ? new BigDecimal(ticker.getAsk().get(2)) : null)
+                .lastPrice(new BigDecimal(ticker.getLastPrice().get(0)))
+                .volume24h(new BigDecimal(ticker.getVolume().get(1)))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+    
+    /**
+     * Kraken keys results by its own pair name, which for older pairs is the X/Z-prefixed legacy form of the
+     * name requested, e.g. XXBTZUSD for XBTUSD
+     */
+    private static String toAlternativeName(String pair) {
+        if (pair.length() == 8 && pair.charAt(0) == 'X' && (pair.charAt(4) == 'Z' || pair.charAt(4) == 'X')) {
+            return pair.substring(1, 4) + pair.substring(5);
+        }
+        return pair;
+    }
+    
+    @Override
+    public boolean fetchOrderBook(String symbol, int depth, OrderBook into) {
+        into.clear();
+        try {
+            KrakenDepthResponse response = krakenFeignClient.getOrderBook(convertToExchangeSymbol(symbol), depth);
+            if (response != null && response.getResult() != null && !response.getResult().isEmpty()) {
+                // Kraken returns data with the pair name as key
+                KrakenDepth book = response.getResult().values().iterator().next();
+                addLevels(book.getBids(), true, into);
+                addLevels(book.getAsks(), false, into);
+                return completeOrderBook(into);
+            }
+        } catch (RateLimitException e) {
+            log.debug("Order book from Kraken for {} not fetched: {}", symbol, e.getMessage());
+        } catch (Exception e) {
+            log.error("Error fetching order book from Kraken for {}: {}", symbol, e.getMessage());
+        }
+        return false;
+    }
+    
+    @Override
+    public OrderDto placeOrder(Exchange account, String symbol, OrderType orderType, OrderSide orderSide,
+                               BigDecimal price, BigDecimal quantity) {
+        boolean limit = isLimit(orderType);
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("ordertype", limit ? "limit" : "market");
+        params.put("type", orderSide == OrderSide.BUY ? "buy" : "sell");
+        params.put("volume", toPlain(quantity));
+        params.put("pair", convertToExchangeSymbol(symbol));
+        if (limit) {
+            params.put("price", toPlain(price));
+        }
+        
+        KrakenAddOrderResponse response = callPrivate(account, "/0/private/AddOrder", params, 
+                krakenFeignClient::addOrder);
+        checkErrors(response != null ? response.getError() : null, "order for " + symbol);
+        if (response.getResult() == null || response.getResult().getTxid() == null 
+                || response.getResult().getTxid().isEmpty()) {
+            throw new RuntimeException("Kraken returned no order id for " + symbol);
+        }
+        return createOrderDto(symbol, response.getResult().getTxid().get(0))
+                .side(orderSide)
+                .type(orderType)
+                .price(limit ? price : null)
+                .quantity(quantity)
+                .status(OrderStatus.NEW)
+                .build();
+    }
+    
+    @Override
+    public boolean cancelOrder(Exchange account, String symbol, String orderId) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("txid", orderId);
+        KrakenCancelResponse response = callPrivate(account, "/0/private/CancelOrder", params, 
+                krakenFeignClient::cancelOrder);
+        return response != null && (response.getError() == null || response.getError().isEmpty()) 
+                && response.getResult() != null && response.getResult().getCount() != null 
+                && response.getResult().getCount() > 0;
+    }
+    
+    @Override
+    public OrderDto getOrder(Exchange account, String symbol, String orderId) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("txid", orderId);
+        KrakenQueryOrdersResponse response = callPrivate(account, "/0/private/QueryOrders", params, 
+                krakenFeignClient::queryOrders);
+        checkErrors(response != null ? response.getError() : null, "order query " + orderId);
+        KrakenOrder order = response.getResult() != null ? response.getResult().get(orderId) : null;
+        if (order == null) {
+            throw new RuntimeException("Kraken returned no order " + orderId);
+        }
+        BigDecimal executed = toDecimal(order.getVolumeExecuted());
+        KrakenOrderDescription description = order.getDescription();
+        OrderType type = description != null ? toOrderType(description.getOrderType()) : null;
+        return createOrderDto(symbol, orderId)
+                .side(description != null ? toOrderSide(description.getType()) : null)
+                .type(type)
+                .price(type == OrderType.LIMIT ? toDecimal(description.getPrice()) : null)
+                .quantity(toDecimal(order.getVolume()))
+                .executedQuantity(executed)
+                .averagePrice(executed != null && executed.signum() > 0 ? toDecimal(order.getPrice()) : null)
+                .status(toOrderStatus(order.getStatus(), executed))
+                .build();
+    }
+    
+    @Override
+    public Map<String, BigDecimal> getBalances(Exchange account) {
+        KrakenBalanceResponse response = callPrivate(account, "/0/private/BalanceEx", new LinkedHashMap<>(), 
+                krakenFeignClient::getBalances);
+        checkErrors(response != null ? response.getError() : null, "balance request");
+        Map<String, BigDecimal> balances = new HashMap<>();
+        if (response.getResult() != null) {
+            for (Map.Entry<String, KrakenBalance> entry : response.getResult().entrySet()) {
+                BigDecimal total = toDecimal(entry.getValue().getBalance());
+                BigDecimal held = toDecimal(entry.getValue().getHoldTrade());
+                BigDecimal free = total != null && held != null ? total.subtract(held) : total;
+                if (free != null && free.signum() > 0) {
+                    balances.merge(toStandardAsset(entry.getKey()), free, BigDecimal::add);
+                }
+            }
+        }
+        return balances;
+    }
+    
+    /**
+     * Send a private call as a form body starting with a fresh nonce. API-Sign is the HMAC-SHA512 of the
+     * URI path followed by SHA-256(nonce + body), keyed by the Base64-decoded secret.
+     */
+    private <T> T callPrivate(Exchange account, String path, Map<String, String> params, 
+                              BiFunction<Map<String, String>, String, T> call) {
+        requireCredentials(account);
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(account.getApiSecret());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Kraken API secret is not Base64 encoded", e);
+        }
+        String nonceValue = String.valueOf(nonce.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis())));
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("nonce", nonceValue);
+        form.putAll(params);
+        String body = toQueryString(form);
+        
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        byte[] digest = HmacSigner.sha256((nonceValue + body).getBytes(StandardCharsets.UTF_8));
+        byte[] message = Arrays.copyOf(pathBytes, pathBytes.length + digest.length);
+        System.arraycopy(digest, 0, message, pathBytes.length, digest.length);
+        
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("API-Key", account.getApiKey());
+        headers.put("API-Sign", HmacSigner.sha512Base64(key, message));
+        return call.apply(headers, body);
+    }
+    
+    private static void checkErrors(List<String> errors, String request) {
+        if (errors != null && !errors.isEmpty()) {
+            throw new RuntimeException("Kraken rejected " + request + ": " + String.join(", ", errors));
+        }
+    }
+    
+    /**
+     * Standard code for a Kraken asset: legacy four-letter names drop their X or Z prefix, then XBT and XDG
+     * are renamed
+     */
+    private static String toStandardAsset(String asset) {
+        String name = asset;
+        if (name.length() == 4 && (name.charAt(0) == 'X' || name.charAt(0) == 'Z')) {
+            name = name.substring(1);
+        }
+        return ASSET_MAP.getOrDefault(name, name);
+    }
+    
+    private static OrderStatus toOrderStatus(String status, BigDecimal executed) {
+        boolean anyFilled = executed != null && executed.signum() > 0;
+        if (status == null) {
+            return OrderStatus.UNKNOWN;
+        }
+        switch (status) {
+            case "pending":
+            case "open":
+                return anyFilled ? OrderStatus.PARTIALLY_FILLED : OrderStatus.NEW;
+            case "closed":
+                return OrderStatus.FILLED;
+            case "canceled":
+            case "expired":
+                return OrderStatus.CANCELED;
+            default:
+                return OrderStatus.UNKNOWN;
+        }
     }
     
     @Override
@@ -111,7 +357,10 @@ public class KrakenClient extends BaseExchangeClient {
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class KrakenTicker {
+        @JsonProperty("b")
         private List<String> bid;  // [price, whole lot volume, lot volume]
+        
+        @JsonProperty("a")
         private List<String> ask;
         
         @com.fasterxml.jackson.annotation.JsonProperty("c")
@@ -120,5 +369,96 @@ public class KrakenClient extends BaseExchangeClient {
         @com.fasterxml.jackson.annotation.JsonProperty("v")
         private List<String> volume;
     }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenDepthResponse {
+        private List<String> error;
+        private Map<String, KrakenDepth> result;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenDepth {
+        private List<List<String>> bids; // [price, volume, timestamp]
+        private List<List<String>> asks;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenAddOrderResponse {
+        private List<String> error;
+        private KrakenAddOrderResult result;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenAddOrderResult {
+        private List<String> txid;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenCancelResponse {
+        private List<String> error;
+        private KrakenCancelResult result;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenCancelResult {
+        private Integer count;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenQueryOrdersResponse {
+        private List<String> error;
+        private Map<String, KrakenOrder> result;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenOrder {
+        private String status;
+        
+        @JsonProperty("vol")
+        private String volume;
+        
+        @JsonProperty("vol_exec")
+        private String volumeExecuted;
+        
+        private String price; // average fill price
+        
+        @JsonProperty("descr")
+        private KrakenOrderDescription description;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenOrderDescription {
+        private String pair;
+        private String type;
+        
+        @JsonProperty("ordertype")
+        private String orderType;
+        
+        private String price; // limit price
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenBalanceResponse {
+        private List<String> error;
+        private Map<String, KrakenBalance> result;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KrakenBalance {
+        private String balance;
+        
+        @JsonProperty("hold_trade")
+        private String holdTrade;
+    }
 }
-
@@ -2,8 +2,17 @@ package com.example.aram.client.impl;
 
 import com.example.aram.client.BaseExchangeClient;
 import com.example.aram.client.feign.KuCoinFeignClient;
+import com.example.aram.client.json.BulkTickerReader;
+import com.example.aram.client.ratelimit.RateLimitException;
+import com.example.aram.dto.OrderDto;
 import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderStatus;
+import com.example.aram.enums.OrderType;
+import com.example.aram.market.OrderBook;
+import com.example.aram.model.Exchange;
+import com.example.aram.util.HmacSigner;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -12,7 +21,11 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -23,6 +36,16 @@ import java.util.stream.Collectors;
 @Slf4j
 public class KuCoinClient extends BaseExchangeClient {
     
+    private static final String SUCCESS = "200000";
+    private static final String TRADE_ACCOUNT = "trade";
+    private static final BulkTickerReader TICKER_READER = BulkTickerReader.builder(ExchangeType.KUCOIN, "symbol")
+            .path("data", "ticker")
+            .field("buy", PriceDto.PriceDtoBuilder::bidPrice)
+            .field("sell", PriceDto.PriceDtoBuilder::askPrice)
+            .field("last", PriceDto.PriceDtoBuilder::lastPrice)
+            .field("vol", PriceDto.PriceDtoBuilder::volume24h)
+            .build();
+    
     private final KuCoinFeignClient kuCoinFeignClient;
     
     public KuCoinClient(KuCoinFeignClient kuCoinFeignClient) {
@@ -44,6 +67,8 @@ public class KuCoinClient extends BaseExchangeClient {
                         .symbol(symbol)
                         .bidPrice(new BigDecimal(data.getBestBid()))
                         .askPrice(new BigDecimal(data.getBestAsk()))
+                        .bidQuantity(data.getBestBidSize() != null ? new BigDecimal(data.getBestBidSize()) : null)
+                        .askQuantity(data.getBestAskSize() != null ? new BigDecimal(data.getBestAskSize()) : null)
                         .lastPrice(new BigDecimal(data.getPrice()))
                         .timestamp(LocalDateTime.now())
                         .build();
@@ -73,15 +98,7 @@ public class KuCoinClient extends BaseExchangeClient {
             
             if (response != null && response.getData() != null && response.getData().getTicker() != null) {
                 return response.getData().getTicker().stream()
-                        .map(ticker -> PriceDto.builder()
-                                .exchange(ExchangeType.KUCOIN)
-                                .symbol(convertFromExchangeSymbol(ticker.getSymbol()))
-                                .bidPrice(ticker.getBuy() != null ? new BigDecimal(ticker.getBuy()) : null)
-                                .askPrice(ticker.getSell() != null ? new BigDecimal(ticker.getSell()) : null)
-                                .lastPrice(ticker.getLast() != null ? new BigDecimal(ticker.getLast()) : null)
-                                .volume24h(ticker.getVol() != null ? new BigDecimal(ticker.getVol()) : null)
-                                .timestamp(LocalDateTime.now())
-                                .build())
+                        .map(ticker -> toPriceDto(ticker, convertFromExchangeSymbol(ticker.getSymbol())))
                         .collect(Collectors.toList());
             }
         } catch (Exception e) {
@@ -90,6 +107,165 @@ public class KuCoinClient extends BaseExchangeClient {
         return new ArrayList<>();
     }
     
+    /**
+     * Streams the bulk tickers, building prices only for the requested symbols
+     */
+    @Override
+    public List<PriceDto> fetchTickers(Set<String> symbols) {
+        try {
+            return TICKER_READER.read(kuCoinFeignClient.getAllTickersJson(), toExchangeSymbols(symbols));
+        } catch (Exception e) {
+            log.error("Error fetching tickers from KuCoin: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+    
+    @Override
+    public boolean hasBulkTickers() {
+        return true;
+    }
+    
+    private PriceDto toPriceDto(KuCoinTickerItem ticker, String symbol) {
+        return PriceDto.builder()
+                .exchange(ExchangeType.KUCOIN)
+                .symbol(symbol)
+                .bidPrice(ticker.getBuy() != null ? new BigDecimal(ticker.getBuy()) : null)
+                .askPrice(ticker.getSell() != null ? new BigDecimal(ticker.getSell()) : null)
+                .lastPrice(ticker.getLast() != null ? new BigDecimal(ticker.getLast()) : null)
+                .volume24h(ticker.getVol() != null ? new BigDecimal(ticker.getVol()) : null)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+    
+    @Override
+    public boolean fetchOrderBook(String symbol, int depth, OrderBook into) {
+        into.clear();
+        try {
+            // Only 20 and 100 level snapshots are public
+            KuCoinOrderBookResponse response = kuCoinFeignClient.getOrderBook(depth <= 20 ? 20 : 100, 
+                    convertToExchangeSymbol(symbol));
+            if (response != null && response.getData() != null) {
+                addLevels(response.getData().getBids(), true, into);
+                addLevels(response.getData().getAsks(), false, into);
+                return completeOrderBook(into);
+            }
+        } catch (RateLimitException e) {
+            log.debug("Order book from KuCoin for {} not fetched: {}", symbol, e.getMessage());
+        } catch (Exception e) {
+            log.error("Error fetching order book from KuCoin for {}: {}", symbol, e.getMessage());
+        }
+        return false;
+    }
+    
+    @Override
+    public OrderDto placeOrder(Exchange account, String symbol, OrderType orderType, OrderSide orderSide,
+                               BigDecimal price, BigDecimal quantity) {
+        boolean limit = isLimit(orderType);
+        Map<String, String> order = new LinkedHashMap<>();
+        order.put("clientOid", newClientOrderId());
+        order.put("side", orderSide == OrderSide.BUY ? "buy" : "sell");
+        order.put("symbol", convertToExchangeSymbol(symbol));
+        order.put("type", limit ? "limit" : "market");
+        order.put("size", toPlain(quantity));
+        if (limit) {
+            order.put("price", toPlain(price));
+        }
+        
+        String body = toJson(order);
+        KuCoinOrderResponse response = kuCoinFeignClient.placeOrder(
+                signedHeaders(account, "POST", "/api/v1/orders", body), body);
+        if (response == null || !SUCCESS.equals(response.getCode()) || response.getData() == null 
+                || response.getData().getOrderId() == null) {
+            throw new RuntimeException("KuCoin rejected order for " + symbol + ": " 
+                    + (response != null ? response.getMsg() : "no response"));
+        }
+        return createOrderDto(symbol, response.getData().getOrderId())
+                .clientOrderId(order.get("clientOid"))
+                .side(orderSide)
+                .type(orderType)
+                .price(limit ? price : null)
+                .quantity(quantity)
+                .status(OrderStatus.NEW)
+                .build();
+    }
+    
+    @Override
+    public boolean cancelOrder(Exchange account, String symbol, String orderId) {
+        KuCoinCancelResponse response = kuCoinFeignClient.cancelOrder(
+                signedHeaders(account, "DELETE", "/api/v1/orders/" + orderId, ""), orderId);
+        return response != null && SUCCESS.equals(response.getCode());
+    }
+    
+    @Override
+    public OrderDto getOrder(Exchange account, String symbol, String orderId) {
+        KuCoinOrderDetailsResponse response = kuCoinFeignClient.getOrder(
+                signedHeaders(account, "GET", "/api/v1/orders/" + orderId, ""), orderId);
+        if (response == null || !SUCCESS.equals(response.getCode()) || response.getData() == null) {
+            throw new RuntimeException("KuCoin returned no order " + orderId);
+        }
+        KuCoinOrder order = response.getData();
+        BigDecimal executed = toDecimal(order.getDealSize());
+        OrderType type = toOrderType(order.getType());
+        return createOrderDto(symbol, order.getId())
+                .clientOrderId(order.getClientOid())
+                .side(toOrderSide(order.getSide()))
+                .type(type)
+                .price(type == OrderType.LIMIT ? toDecimal(order.getPrice()) : null)
+                .quantity(toDecimal(order.getSize()))
+                .executedQuantity(executed)
+                .averagePrice(averagePrice(toDecimal(order.getDealFunds()), executed))
+                .status(toOrderStatus(order, executed))
+                .build();
+    }
+    
+    @Override
+    public Map<String, BigDecimal> getBalances(Exchange account) {
+        KuCoinAccountsResponse response = kuCoinFeignClient.getAccounts(
+                signedHeaders(account, "GET", "/api/v1/accounts?type=" + TRADE_ACCOUNT, ""), TRADE_ACCOUNT);
+        if (response == null || !SUCCESS.equals(response.getCode())) {
+            throw new RuntimeException("KuCoin balance request failed: " 
+                    + (response != null ? response.getMsg() : "no response"));
+        }
+        Map<String, BigDecimal> balances = new HashMap<>();
+        if (response.getData() != null) {
+            for (KuCoinAccount kuCoinAccount : response.getData()) {
+                BigDecimal available = toDecimal(kuCoinAccount.getAvailable());
+                if (available != null && available.signum() > 0) {
+                    balances.merge(kuCoinAccount.getCurrency(), available, BigDecimal::add);
+                }
+            }
+        }
+        return balances;
+    }
+    
+    /**
+     * KC-API-* headers for API key version 2: the prehash of timestamp, method, endpoint with query and body
+     * is signed, and so is the passphrase
+     */
+    private Map<String, String> signedHeaders(Exchange account, String method, String endpoint, String body) {
+        String passphrase = requirePassphrase(account);
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("KC-API-KEY", account.getApiKey());
+        headers.put("KC-API-SIGN", HmacSigner.sha256Base64(account.getApiSecret(), 
+                timestamp + method + endpoint + body));
+        headers.put("KC-API-TIMESTAMP", timestamp);
+        headers.put("KC-API-PASSPHRASE", HmacSigner.sha256Base64(account.getApiSecret(), passphrase));
+        headers.put("KC-API-KEY-VERSION", "2");
+        return headers;
+    }
+    
+    private static OrderStatus toOrderStatus(KuCoinOrder order, BigDecimal executed) {
+        boolean anyFilled = executed != null && executed.signum() > 0;
+        if (Boolean.TRUE.equals(order.getIsActive())) {
+            return anyFilled ? OrderStatus.PARTIALLY_FILLED : OrderStatus.NEW;
+        }
+        if (Boolean.TRUE.equals(order.getCancelExist())) {
+            return OrderStatus.CANCELED;
+        }
+        return anyFilled ? OrderStatus.FILLED : OrderStatus.UNKNOWN;
+    }
+    
     @Override
     protected String convertToExchangeSymbol(String symbol) {
         // Convert BTC/USDT to BTC-USDT
@@ -113,7 +289,9 @@ public class KuCoinClient extends BaseExchangeClient {
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class KuCoinTickerData {
         private String bestBid;
+        private String bestBidSize;
         private String bestAsk;
+        private String bestAskSize;
         private String price;
         private String size;
     }
@@ -141,5 +319,89 @@ public class KuCoinClient extends BaseExchangeClient {
         private String last;
         private String vol;
     }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinOrderBookResponse {
+        private String code;
+        private KuCoinOrderBookData data;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinOrderBookData {
+        private String sequence;
+        private Long time;
+        private List<List<String>> bids; // [price, size]
+        private List<List<String>> asks;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinOrderResponse {
+        private String code;
+        private String msg;
+        private KuCoinOrderAck data;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinOrderAck {
+        private String orderId;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinCancelResponse {
+        private String code;
+        private String msg;
+        private KuCoinCancelData data;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinCancelData {
+        private List<String> cancelledOrderIds;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinOrderDetailsResponse {
+        private String code;
+        private String msg;
+        private KuCoinOrder data;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinOrder {
+        private String id;
+        private String clientOid;
+        private String symbol;
+        private String side;
+        private String type;
+        private String price;
+        private String size;
+        private String dealSize;
+        private String dealFunds; // quote amount filled so far
+        private Boolean isActive;
+        private Boolean cancelExist;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinAccountsResponse {
+        private String code;
+        private String msg;
+        private List<KuCoinAccount> data;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinAccount {
+        private String currency;
+        private String type;
+        private String balance;
+        private String available;
+    }
 }
-
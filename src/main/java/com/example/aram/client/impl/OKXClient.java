@@ -2,17 +2,34 @@ package com.example.aram.client.impl;
 
 import com.example.aram.client.BaseExchangeClient;
 import com.example.aram.client.feign.OKXFeignClient;
+import com.example.aram.client.json.BulkTickerReader;
+import com.example.aram.client.ratelimit.RateLimitException;
+import com.example.aram.dto.OrderDto;
 import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderStatus;
+import com.example.aram.enums.OrderType;
+import com.example.aram.market.OrderBook;
+import com.example.aram.model.Exchange;
+import com.example.aram.util.HmacSigner;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -23,6 +40,19 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OKXClient extends BaseExchangeClient {
     
+    private static final String SUCCESS = "0";
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = 
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+    private static final BulkTickerReader TICKER_READER = BulkTickerReader.builder(ExchangeType.OKX, "instId")
+            .path("data")
+            .field("bidPx", PriceDto.PriceDtoBuilder::bidPrice)
+            .field("askPx", PriceDto.PriceDtoBuilder::askPrice)
+            .field("bidSz", PriceDto.PriceDtoBuilder::bidQuantity)
+            .field("askSz", PriceDto.PriceDtoBuilder::askQuantity)
+            .field("last", PriceDto.PriceDtoBuilder::lastPrice)
+            .field("vol24h", PriceDto.PriceDtoBuilder::volume24h)
+            .build();
+    
     private final OKXFeignClient okxFeignClient;
     
     public OKXClient(OKXFeignClient okxFeignClient) {
@@ -38,17 +68,7 @@ public class OKXClient extends BaseExchangeClient {
             OKXTickerResponse response = okxFeignClient.getTicker(okxSymbol);
             
             if (response != null && response.getData() != null && !response.getData().isEmpty()) {
-                OKXTicker ticker = response.getData().get(0);
-                
-                return PriceDto.builder()
-                        .exchange(ExchangeType.OKX)
-                        .symbol(symbol)
-                        .bidPrice(new BigDecimal(ticker.getBidPx()))
-                        .askPrice(new BigDecimal(ticker.getAskPx()))
-                        .lastPrice(new BigDecimal(ticker.getLast()))
-                        .volume24h(new BigDecimal(ticker.getVol24h()))
-                        .timestamp(LocalDateTime.now())
-                        .build();
+                return toPriceDto(response.getData().get(0), symbol);
             }
         } catch (Exception e) {
             log.error("Error fetching price from OKX for {}: {}", symbol, e.getMessage());
@@ -75,15 +95,7 @@ public class OKXClient extends BaseExchangeClient {
             
             if (response != null && response.getData() != null) {
                 return response.getData().stream()
-                        .map(ticker -> PriceDto.builder()
-                                .exchange(ExchangeType.OKX)
-                                .symbol(convertFromExchangeSymbol(ticker.getInstId()))
-                                .bidPrice(new BigDecimal(ticker.getBidPx()))
-                                .askPrice(new BigDecimal(ticker.getAskPx()))
-                                .lastPrice(new BigDecimal(ticker.getLast()))
-                                .volume24h(new BigDecimal(ticker.getVol24h()))
-                                .timestamp(LocalDateTime.now())
-                                .build())
+                        .map(ticker -> toPriceDto(ticker, convertFromExchangeSymbol(ticker.getInstId())))
                         .collect(Collectors.toList());
             }
         } catch (Exception e) {
@@ -92,6 +104,206 @@ public class OKXClient extends BaseExchangeClient {
         return new ArrayList<>();
     }
     
+    /**
+     * Streams the bulk spot tickers, building prices only for the requested symbols
+     */
+    @Override
+    public List<PriceDto> fetchTickers(Set<String> symbols) {
+        try {
+            return TICKER_READER.read(okxFeignClient.getAllTickersJson("SPOT"), toExchangeSymbols(symbols));
+        } catch (Exception e) {
+            log.error("Error fetching tickers from OKX: {}", e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+    
+    @Override
+    public boolean hasBulkTickers() {
+        return true;
+    }
+    
+    private PriceDto toPriceDto(OKXTicker ticker, String symbol) {
+        return PriceDto.builder()
+                .exchange(ExchangeType.OKX)
+                .symbol(symbol)
+                .bidPrice(new BigDecimal(ticker.getBidPx()))
+                .askPrice(new BigDecimal(ticker.getAskPx()))
+                .bidQuantity(ticker.getBidSz() != null ? new BigDecimal(ticker.getBidSz()) : null)
+                .askQuantity(ticker.getAskSz() != null ? new BigDecimal(ticker.getAskSz()) : null)
+                .lastPrice(new BigDecimal(ticker.getLast()))
+                .volume24h(new BigDecimal(ticker.getVol24h()))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+    
+    @Override
+    public boolean fetchOrderBook(String symbol, int depth, OrderBook into) {
+        into.clear();
+        try {
+            OKXOrderBookResponse response = okxFeignClient.getOrderBook(convertToExchangeSymbol(symbol), depth);
+            if (response != null && response.getData() != null && !response.getData().isEmpty()) {
+                OKXOrderBook book = response.getData().get(0);
+                addLevels(book.getBids(), true, into);
+                addLevels(book.getAsks(), false, into);
+                return completeOrderBook(into);
+            }
+        } catch (RateLimitException e) {
+            log.debug("Order book from OKX for {} not fetched: {}", symbol, e.getMessage());
+        } catch (Exception e) {
+            log.error("Error fetching order book from OKX for {}: {}", symbol, e.getMessage());
+        }
+        return false;
+    }
+    
+    /**
+     * Orders trade the cash account; market orders are sized in the base currency, which OKX
+     * would otherwise read as the quote amount for a market buy
+     */
+    @Override
+    public OrderDto placeOrder(Exchange account, String symbol, OrderType orderType, OrderSide orderSide,
+                               BigDecimal price, BigDecimal quantity) {
+        boolean limit = isLimit(orderType);
+        Map<String, String> order = new LinkedHashMap<>();
+        order.put("instId", convertToExchangeSymbol(symbol));
+        order.put("tdMode", "cash");
+        order.put("side", orderSide == OrderSide.BUY ? "buy" : "sell");
+        order.put("ordType", limit ? "limit" : "market");
+        order.put("sz", toPlain(quantity));
+        if (limit) {
+            order.put("px", toPlain(price));
+        } else {
+            order.put("tgtCcy", "base_ccy");
+        }
+        order.put("clOrdId", newClientOrderId());
+        
+        String body = toJson(order);
+        OKXOrderResponse response = okxFeignClient.placeOrder(
+                signedHeaders(account, "POST", "/api/v5/trade/order", body), body);
+        OKXOrderAck ack = firstAck(response);
+        if (ack == null || !SUCCESS.equals(ack.getSCode()) || ack.getOrdId() == null) {
+            throw new RuntimeException("OKX rejected order for " + symbol + ": " + describe(response, ack));
+        }
+        return createOrderDto(symbol, ack.getOrdId())
+                .clientOrderId(ack.getClOrdId())
+                .side(orderSide)
+                .type(orderType)
+                .price(limit ? price : null)
+                .quantity(quantity)
+                .status(OrderStatus.NEW)
+                .build();
+    }
+    
+    @Override
+    public boolean cancelOrder(Exchange account, String symbol, String orderId) {
+        Map<String, String> request = new LinkedHashMap<>();
+        request.put("instId", convertToExchangeSymbol(symbol));
+        request.put("ordId", orderId);
+        String body = toJson(request);
+        OKXOrderResponse response = okxFeignClient.cancelOrder(
+                signedHeaders(account, "POST", "/api/v5/trade/cancel-order", body), body);
+        OKXOrderAck ack = firstAck(response);
+        return ack != null && SUCCESS.equals(ack.getSCode());
+    }
+    
+    @Override
+    public OrderDto getOrder(Exchange account, String symbol, String orderId) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("instId", convertToExchangeSymbol(symbol));
+        params.put("ordId", orderId);
+        OKXOrderDetailsResponse response = okxFeignClient.getOrder(
+                signedHeaders(account, "GET", "/api/v5/trade/order?" + toQueryString(params), ""), params);
+        if (response == null || !SUCCESS.equals(response.getCode()) || response.getData() == null 
+                || response.getData().isEmpty()) {
+            throw new RuntimeException("OKX returned no order " + orderId);
+        }
+        OKXOrder order = response.getData().get(0);
+        BigDecimal executed = toDecimal(order.getAccFillSz());
+        OrderType type = toOrderType(order.getOrdType());
+        return createOrderDto(symbol, order.getOrdId())
+                .clientOrderId(order.getClOrdId())
+                .side(toOrderSide(order.getSide()))
+                .type(type)
+                .price(type == OrderType.LIMIT ? toDecimal(order.getPx()) : null)
+                .quantity(toDecimal(order.getSz()))
+                .executedQuantity(executed)
+                .averagePrice(executed != null && executed.signum() > 0 ? toDecimal(order.getAvgPx()) : null)
+                .status(toOrderStatus(order.getState()))
+                .build();
+    }
+    
+    @Override
+    public Map<String, BigDecimal> getBalances(Exchange account) {
+        OKXBalanceResponse response = okxFeignClient.getBalance(
+                signedHeaders(account, "GET", "/api/v5/account/balance", ""));
+        if (response == null || !SUCCESS.equals(response.getCode())) {
+            throw new RuntimeException("OKX balance request failed: " 
+                    + (response != null ? response.getMsg() : "no response"));
+        }
+        Map<String, BigDecimal> balances = new HashMap<>();
+        if (response.getData() != null) {
+            for (OKXAccountBalance accountBalance : response.getData()) {
+                if (accountBalance.getDetails() == null) {
+                    continue;
+                }
+                for (OKXCurrencyBalance detail : accountBalance.getDetails()) {
+                    BigDecimal available = toDecimal(detail.getAvailBal());
+                    if (available != null && available.signum() > 0) {
+                        balances.merge(detail.getCcy(), available, BigDecimal::add);
+                    }
+                }
+            }
+        }
+        return balances;
+    }
+    
+    /**
+     * OK-ACCESS-* headers signing timestamp, method, request path with query and body, Base64 encoded
+     */
+    private Map<String, String> signedHeaders(Exchange account, String method, String requestPath, String body) {
+        String passphrase = requirePassphrase(account);
+        String timestamp = TIMESTAMP_FORMAT.format(Instant.now());
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("OK-ACCESS-KEY", account.getApiKey());
+        headers.put("OK-ACCESS-SIGN", HmacSigner.sha256Base64(account.getApiSecret(),
+                timestamp + method + requestPath + body));
+        headers.put("OK-ACCESS-TIMESTAMP", timestamp);
+        headers.put("OK-ACCESS-PASSPHRASE", passphrase);
+        return headers;
+    }
+    
+    private static OKXOrderAck firstAck(OKXOrderResponse response) {
+        if (response == null || response.getData() == null || response.getData().isEmpty()) {
+            return null;
+        }
+        return response.getData().get(0);
+    }
+    
+    private static String describe(OKXOrderResponse response, OKXOrderAck ack) {
+        if (ack != null && ack.getSMsg() != null && !ack.getSMsg().isEmpty()) {
+            return ack.getSMsg();
+        }
+        return response != null ? response.getMsg() : "no response";
+    }
+    
+    private static OrderStatus toOrderStatus(String state) {
+        if (state == null) {
+            return OrderStatus.UNKNOWN;
+        }
+        switch (state) {
+            case "live":
+                return OrderStatus.NEW;
+            case "partially_filled":
+                return OrderStatus.PARTIALLY_FILLED;
+            case "filled":
+                return OrderStatus.FILLED;
+            case "canceled":
+            case "mmp_canceled":
+                return OrderStatus.CANCELED;
+            default:
+                return OrderStatus.UNKNOWN;
+        }
+    }
+    
     @Override
     protected String convertToExchangeSymbol(String symbol) {
         // Convert BTC/USDT to BTC-USDT
@@ -118,9 +330,90 @@ public class OKXClient extends BaseExchangeClient {
         private String instId;
         private String last;
         private String bidPx;
+        private String bidSz;
         private String askPx;
+        private String askSz;
         private String vol24h;
     }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OKXOrderBookResponse {
+        private String code;
+        private String msg;
+        private List<OKXOrderBook> data;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OKXOrderBook {
+        private List<List<String>> bids; // [price, size, deprecated, order count]
+        private List<List<String>> asks;
+        private String ts;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OKXOrderResponse {
+        private String code;
+        private String msg;
+        private List<OKXOrderAck> data;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OKXOrderAck {
+        private String ordId;
+        private String clOrdId;
+        
+        @JsonProperty("sCode")
+        private String sCode; // "0" when this order succeeded
+        
+        @JsonProperty("sMsg")
+        private String sMsg;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OKXOrderDetailsResponse {
+        private String code;
+        private String msg;
+        private List<OKXOrder> data;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OKXOrder {
+        private String ordId;
+        private String clOrdId;
+        private String instId;
+        private String side;
+        private String ordType;
+        private String px;
+        private String sz;
+        private String accFillSz;
+        private String avgPx;
+        private String state;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OKXBalanceResponse {
+        private String code;
+        private String msg;
+        private List<OKXAccountBalance> data;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OKXAccountBalance {
+        private List<OKXCurrencyBalance> details;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class OKXCurrencyBalance {
+        private String ccy;
+        private String availBal;
+    }
 }
-
-
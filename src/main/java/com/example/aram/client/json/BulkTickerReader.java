@@ -0,0 +1,244 @@
+package com.example.aram.client.json;
+
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads an exchange's bulk ticker response token by token and builds a {@link PriceDto} only for the wanted
+ * symbols. An entry is dropped as soon as its symbol turns out not to be wanted, so the thousands of tickers
+ * nobody watches cost neither objects nor number parsing. Symbols are compared in the parser's buffer and
+ * prices parsed from it, without intermediate strings. Only the parsing is incremental: {@link RawJsonDecoder}
+ * still reads the whole body into memory before it starts.
+ */
+public final class BulkTickerReader {
+    
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    private final ExchangeType exchangeType;
+    private final String[] path;
+    private final String symbolField;
+    private final String[] fields;
+    private final List<BiConsumer<PriceDto.PriceDtoBuilder, BigDecimal>> setters;
+    
+    private BulkTickerReader(Builder builder) {
+        this.exchangeType = builder.exchangeType;
+        this.path = builder.path;
+        this.symbolField = builder.symbolField;
+        this.fields = builder.fields.toArray(new String[0]);
+        this.setters = new ArrayList<>(builder.setters);
+    }
+    
+    /**
+     * @param symbolField name of the field holding the exchange's symbol in each ticker
+     */
+    public static Builder builder(ExchangeType exchangeType, String symbolField) {
+        return new Builder(exchangeType, symbolField);
+    }
+    
+    /**
+     * Prices of the wanted symbols found in the response, in the order the exchange sent them
+     *
+     * @param wanted standard symbols keyed by exchange symbol
+     */
+    public List<PriceDto> read(RawJson json, Map<String, String> wanted) throws IOException {
+        List<PriceDto> prices = new ArrayList<>(wanted.size());
+        if (wanted.isEmpty()) {
+            return prices;
+        }
+        String[] symbols = wanted.keySet().toArray(new String[0]);
+        try (JsonParser parser = JSON_FACTORY.createParser(json.getBytes())) {
+            if (!moveToArray(parser)) {
+                return prices;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                PriceDto price = readTicker(parser, symbols, wanted);
+                if (price != null) {
+                    prices.add(price);
+                }
+            }
+        }
+        return prices;
+    }
+    
+    /**
+     * Follow the path from the root to the ticker array, skipping every other value on the way
+     */
+    private boolean moveToArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        for (String name : path) {
+            if (token != JsonToken.START_OBJECT) {
+                return false;
+            }
+            token = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean found = name.equals(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (found) {
+                    token = value;
+                    break;
+                }
+                parser.skipChildren();
+            }
+            if (token == null) {
+                return false;
+            }
+        }
+        return token == JsonToken.START_ARRAY;
+    }
+    
+    /**
+     * Read one ticker object, or skip the rest of it once its symbol is known not to be wanted. String and number
+     * fields sent before the symbol are kept as text until it arrives; other values are skipped.
+     */
+    private PriceDto readTicker(JsonParser parser, String[] symbols, Map<String, String> wanted) throws IOException {
+        String symbol = null;
+        BigDecimal[] values = null;
+        String[] early = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (symbolField.equals(name)) {
+                String exchangeSymbol = value == JsonToken.VALUE_STRING ? match(parser, symbols) : null;
+                if (exchangeSymbol == null) {
+                    skipRest(parser);
+                    return null;
+                }
+                symbol = wanted.get(exchangeSymbol);
+                values = new BigDecimal[fields.length];
+                if (early != null) {
+                    for (int i = 0; i < early.length; i++) {
+                        values[i] = early[i] != null && !early[i].isEmpty() ? new BigDecimal(early[i]) : null;
+                    }
+                }
+                continue;
+            }
+            int field = indexOf(name);
+            if (field < 0 || value == JsonToken.VALUE_NULL) {
+                parser.skipChildren();
+            } else if (values != null) {
+                values[field] = decimal(parser, value);
+            } else if (value == JsonToken.VALUE_STRING || value.isNumeric()) {
+                if (early == null) {
+                    early = new String[fields.length];
+                }
+                early[field] = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (symbol == null) {
+            return null;
+        }
+        PriceDto.PriceDtoBuilder price = PriceDto.builder()
+                .exchange(exchangeType)
+                .symbol(symbol)
+                .timestamp(LocalDateTime.now());
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                setters.get(i).accept(price, values[i]);
+            }
+        }
+        return price.build();
+    }
+    
+    private int indexOf(String name) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * The wanted exchange symbol equal to the current string token, compared in the parser's buffer
+     */
+    private static String match(JsonParser parser, String[] symbols) throws IOException {
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (String symbol : symbols) {
+            if (symbol.length() == length && regionMatches(symbol, text, offset)) {
+                return symbol;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean regionMatches(String symbol, char[] text, int offset) {
+        for (int i = 0; i < symbol.length(); i++) {
+            if (symbol.charAt(i) != text[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Exchanges send prices as strings, some of them empty when there is no quote
+     */
+    private static BigDecimal decimal(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            int length = parser.getTextLength();
+            return length > 0 ? new BigDecimal(parser.getTextCharacters(), parser.getTextOffset(), length) : null;
+        }
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        parser.skipChildren();
+        return null;
+    }
+    
+    private static void skipRest(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+    
+    public static final class Builder {
+        
+        private final ExchangeType exchangeType;
+        private final String symbolField;
+        private String[] path = new String[0];
+        private final List<String> fields = new ArrayList<>();
+        private final List<BiConsumer<PriceDto.PriceDtoBuilder, BigDecimal>> setters = new ArrayList<>();
+        
+        private Builder(ExchangeType exchangeType, String symbolField) {
+            this.exchangeType = exchangeType;
+            this.symbolField = symbolField;
+        }
+        
+        /**
+         * Field names leading from the root object to the ticker array; none when the root is the array
+         */
+        public Builder path(String... names) {
+            this.path = names.clone();
+            return this;
+        }
+        
+        /**
+         * Read a decimal field of each ticker into the price
+         */
+        public Builder field(String name, BiConsumer<PriceDto.PriceDtoBuilder, BigDecimal> setter) {
+            fields.add(name);
+            setters.add(setter);
+            return this;
+        }
+        
+        public BulkTickerReader build() {
+            return new BulkTickerReader(this);
+        }
+    }
+}
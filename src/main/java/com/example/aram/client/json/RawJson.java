@@ -0,0 +1,19 @@
+package com.example.aram.client.json;
+
+/**
+ * Undecoded body of a successful Feign call, for responses that are read token by token instead of being
+ * mapped onto DTOs. A Feign method returning this type gets its body through {@link RawJsonDecoder}, while
+ * error statuses still go through the client's error decoder.
+ */
+public final class RawJson {
+    
+    private final byte[] bytes;
+    
+    public RawJson(byte[] bytes) {
+        this.bytes = bytes;
+    }
+    
+    public byte[] getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.aram.client.json;
+
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+import feign.optionals.OptionalDecoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Spring Cloud's default Feign decoder that hands {@link RawJson} bodies back as bytes instead of mapping them
+ */
+public class RawJsonDecoder implements Decoder {
+    
+    private static final byte[] EMPTY = new byte[0];
+    
+    private final Decoder delegate;
+    
+    public RawJsonDecoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                          ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        SpringDecoder springDecoder = new SpringDecoder(messageConverters, customizers);
+        this.delegate = new OptionalDecoder(new ResponseEntityDecoder(springDecoder));
+    }
+    
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (type != RawJson.class) {
+            return delegate.decode(response, type);
+        }
+        return new RawJson(response.body() != null ? Util.toByteArray(response.body().asInputStream()) : EMPTY);
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.aram.client.ratelimit;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Client-side rate limiting for the exchange REST APIs. Every budget is a GCRA bucket: one theoretical
+ * arrival time moved forward by compare-and-set, so a call takes the next free slot without locking and
+ * waits until then. Window budgets allow a small burst and spread the rest evenly, which keeps any window
+ * of the exchange's length under its limit while using nearly all of it. Optional work runs inside
+ * {@link #optional}, where calls only take a turn that is free now, so it never delays the calls that wait.
+ */
+@Component
+@Slf4j
+public class ExchangeRateLimiter {
+    
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+    private static final ThreadLocal<Boolean> OPTIONAL = new ThreadLocal<>();
+    
+    private final ArbitrageConfig.RateLimit settings;
+    private final Map<String, Limiter> limitersByClient = new HashMap<>();
+    private final Map<ExchangeType, Limiter> limitersByExchange = new EnumMap<>(ExchangeType.class);
+    
+    public ExchangeRateLimiter(ArbitrageConfig arbitrageConfig, List<RateLimits> rateLimits) {
+        this.settings = arbitrageConfig.getRateLimit();
+        double burstShare = settings.getBurstShare().doubleValue();
+        for (RateLimits limits : rateLimits) {
+            Limiter limiter = new Limiter(limits, burstShare);
+            limitersByClient.put(limits.getClientName(), limiter);
+            limitersByExchange.put(limits.getExchangeType(), limiter);
+        }
+    }
+    
+    /**
+     * Run work whose exchange calls are optional: each is sent only if its turn is free now and otherwise
+     * fails at once with a {@link RateLimitException}, leaving the turns to calls that wait for them
+     */
+    public static <T> T optional(Supplier<T> work) {
+        Boolean outer = OPTIONAL.get();
+        OPTIONAL.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (outer == null) {
+                OPTIONAL.remove();
+            }
+        }
+    }
+    
+    /**
+     * Wait for the call's turn in every budget it is charged to, or inside {@link #optional} take it only
+     * if it is free now
+     *
+     * @param clientName name of the Feign client making the call
+     * @throws RateLimitException if the turn is further away than the configured maximum wait
+     */
+    public void acquire(String clientName, String method, String path, Map<String, Collection<String>> queries) {
+        Limiter limiter = limitersByClient.get(clientName);
+        if (limiter == null || !Boolean.TRUE.equals(settings.getEnabled())) {
+            return;
+        }
+        List<RateLimits.Charge> charges = limiter.charges(method, path);
+        boolean optional = Boolean.TRUE.equals(OPTIONAL.get());
+        long maxWait = optional ? 0 : TimeUnit.MILLISECONDS.toNanos(settings.getMaxWait());
+        long wait = reserve(limiter, charges, queries, maxWait);
+        if (wait < 0) {
+            String budget = charges.get((int) -wait - 1).getBudget();
+            if (optional) {
+                throw new RateLimitException(String.format("%s %s on %s skipped, no free turn in the %s budget",
+                        method, path, limiter.exchangeType, budget));
+            }
+            throw new RateLimitException(String.format("%s %s on %s would wait over %d ms for the %s budget",
+                    method, path, limiter.exchangeType, settings.getMaxWait(), budget));
+        }
+        if (wait > 0) {
+            log.debug("{} {} on {} waits {} ms for its rate limit turn", method, path, limiter.exchangeType,
+                    TimeUnit.NANOSECONDS.toMillis(wait));
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RateLimitException("Interrupted while waiting for the " + limiter.exchangeType
+                        + " rate limit");
+            }
+        }
+    }
+    
+    /**
+     * Take a turn for a call only if every budget it is charged to has one free now, for optional calls
+     * that should not wait
+     *
+     * @return whether the call may be sent
+     */
+    public boolean tryAcquire(String clientName, String method, String path, Map<String, Collection<String>> queries) {
+        Limiter limiter = limitersByClient.get(clientName);
+        if (limiter == null || !Boolean.TRUE.equals(settings.getEnabled())) {
+            return true;
+        }
+        return reserve(limiter, limiter.charges(method, path), queries, 0) == 0;
+    }
+    
+    /**
+     * Take the next slot in every budget a call is charged to
+     *
+     * @return nanoseconds until the latest of the slots, or if one is more than {@code maxWait} away, minus one
+     *         minus the index of its charge, with nothing taken
+     */
+    private static long reserve(Limiter limiter, List<RateLimits.Charge> charges,
+                                Map<String, Collection<String>> queries, long maxWait) {
+        long now = System.nanoTime();
+        long wait = 0;
+        long[] costs = new long[charges.size()];
+        for (int i = 0; i < costs.length; i++) {
+            RateLimits.Charge charge = charges.get(i);
+            Bucket bucket = limiter.buckets.get(charge.getBudget());
+            costs[i] = charge.weigh(queries) * bucket.interval;
+            long turn = costs[i] > 0 ? bucket.reserve(costs[i], now, maxWait) : 0;
+            if (turn < 0) {
+                for (int j = 0; j < i; j++) {
+                    limiter.buckets.get(charges.get(j).getBudget()).cancel(costs[j]);
+                }
+                return -1 - i;
+            }
+            wait = Math.max(wait, turn);
+        }
+        return wait;
+    }
+    
+    /**
+     * Pause every budget of an exchange that rejected a call for its rate, for as long as it asked or
+     * otherwise the configured back-off
+     *
+     * @return the exception to fail the call with
+     */
+    public RateLimitException rejected(ExchangeType exchangeType, Response response) {
+        long pause = retryAfter(response);
+        Limiter limiter = limitersByExchange.get(exchangeType);
+        if (limiter != null) {
+            long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pause);
+            limiter.buckets.values().forEach(bucket -> bucket.pauseUntil(until));
+        }
+        log.warn("{} rejected a call with status {} for its rate limit, pausing calls for {} ms",
+                exchangeType, response.status(), pause);
+        return new RateLimitException(exchangeType + " rate limit exceeded, paused for " + pause + " ms");
+    }
+    
+    private long retryAfter(Response response) {
+        Collection<String> values = response.headers().get("Retry-After");
+        if (values != null) {
+            for (String value : values) {
+                try {
+                    return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+                } catch (NumberFormatException e) {
+                    log.debug("Ignoring Retry-After header {}", value);
+                }
+            }
+        }
+        return settings.getBackOff();
+    }
+    
+    /**
+     * Buckets and endpoint charges of one exchange
+     */
+    private static final class Limiter {
+        
+        private final ExchangeType exchangeType;
+        private final List<RateLimits.Endpoint> endpoints;
+        private final List<RateLimits.Charge> otherwise;
+        private final Map<String, Bucket> buckets = new HashMap<>();
+        
+        private Limiter(RateLimits limits, double burstShare) {
+            this.exchangeType = limits.getExchangeType();
+            this.endpoints = limits.getEndpoints();
+            this.otherwise = limits.getOtherwise();
+            for (RateLimits.Budget budget : limits.getBudgets()) {
+                buckets.put(budget.getName(), Bucket.of(budget, burstShare));
+            }
+        }
+        
+        private List<RateLimits.Charge> charges(String method, String path) {
+            for (RateLimits.Endpoint endpoint : endpoints) {
+                if (endpoint.getMethod().equals(method) && matches(endpoint.getPath(), path)) {
+                    return endpoint.getCharges();
+                }
+            }
+            return otherwise;
+        }
+        
+        private static boolean matches(String pattern, String path) {
+            return pattern.indexOf('{') >= 0 ? PATHS.match(pattern, path) : pattern.equals(path);
+        }
+    }
+    
+    /**
+     * One budget as a GCRA bucket, in nanoseconds of {@link System#nanoTime()}
+     */
+    private static final class Bucket {
+        
+        private final String name;
+        private final long interval;
+        private final long capacity;
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+        
+        private Bucket(String name, long interval, long capacity) {
+            this.name = name;
+            this.interval = interval;
+            this.capacity = capacity;
+        }
+        
+        /**
+         * A window budget keeps a burst of {@code burstShare} of its permits and spaces the others evenly over
+         * the window, so burst plus refill within any window never exceeds the permits
+         */
+        private static Bucket of(RateLimits.Budget budget, double burstShare) {
+            long period = budget.getPeriod().toNanos();
+            long permits = budget.getPermits();
+            if (!budget.isWindow()) {
+                return new Bucket(budget.getName(), period, permits * period);
+            }
+            long burst = permits > 1 ? Math.max(1, Math.min(permits - 1, (long) (permits * burstShare))) : 1;
+            long interval = permits > 1 ? (period + permits - burst - 1) / (permits - burst) : period;
+            return new Bucket(budget.getName(), interval, burst * interval);
+        }
+        
+        /**
+         * Take the next slot for a call of the given cost
+         *
+         * @return nanoseconds until the slot, or -1 if that is more than {@code maxWait} and nothing was taken
+         */
+        private long reserve(long cost, long now, long maxWait) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long next = (arrival - now > 0 ? arrival : now) + cost;
+                long wait = next - capacity - now;
+                if (wait > maxWait) {
+                    return -1;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return Math.max(0, wait);
+                }
+            }
+        }
+        
+        /**
+         * Give back a slot taken by a call that is not going to be sent
+         */
+        private void cancel(long cost) {
+            theoreticalArrival.addAndGet(-cost);
+        }
+        
+        /**
+         * Admit nothing before {@code until}
+         */
+        private void pauseUntil(long until) {
+            long target = until + capacity;
+            theoreticalArrival.accumulateAndGet(target, (current, paused) -> current - paused > 0 ? current : paused);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.aram.client.ratelimit;
+
+/**
+ * A call that was not sent because it would cross an exchange's rate limit, or that the exchange rejected for
+ * crossing it. Retrying straight away only makes a ban more likely.
+ */
+public class RateLimitException extends RuntimeException {
+    
+    public RateLimitException(String message) {
+        super(message);
+    }
+}
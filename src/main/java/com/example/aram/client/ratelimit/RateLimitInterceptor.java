@@ -0,0 +1,26 @@
+package com.example.aram.client.ratelimit;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds every Feign call until the {@link ExchangeRateLimiter} gives it a turn. Registered once for all
+ * clients, so the limits are picked by the name of the client making the call.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements RequestInterceptor {
+    
+    private final ExchangeRateLimiter exchangeRateLimiter;
+    
+    @Override
+    public void apply(RequestTemplate template) {
+        if (template.feignTarget() == null) {
+            return;
+        }
+        exchangeRateLimiter.acquire(template.feignTarget().name(), template.method(), template.path(),
+                template.queries());
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.aram.client.ratelimit;
+
+import com.example.aram.enums.ExchangeType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Published request limits of one exchange's REST API: the budgets it enforces and what each endpoint costs
+ * against them. A budget is either a window (at most so much weight in any window of a given length) or a
+ * counter that drains at a fixed rate, as Kraken and Coinbase describe theirs.
+ */
+public final class RateLimits {
+    
+    private final ExchangeType exchangeType;
+    private final String clientName;
+    private final List<Budget> budgets;
+    private final List<Endpoint> endpoints;
+    private final List<Charge> otherwise;
+    
+    private RateLimits(Builder builder) {
+        this.exchangeType = builder.exchangeType;
+        this.clientName = builder.clientName;
+        this.budgets = Collections.unmodifiableList(new ArrayList<>(builder.budgets));
+        this.endpoints = Collections.unmodifiableList(new ArrayList<>(builder.endpoints));
+        this.otherwise = Collections.unmodifiableList(new ArrayList<>(builder.otherwise));
+    }
+    
+    /**
+     * @param clientName name of the Feign client whose calls the limits apply to
+     */
+    public static Builder builder(ExchangeType exchangeType, String clientName) {
+        return new Builder(exchangeType, clientName);
+    }
+    
+    public ExchangeType getExchangeType() {
+        return exchangeType;
+    }
+    
+    public String getClientName() {
+        return clientName;
+    }
+    
+    public List<Budget> getBudgets() {
+        return budgets;
+    }
+    
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+    
+    /**
+     * Charges for calls that match no endpoint
+     */
+    public List<Charge> getOtherwise() {
+        return otherwise;
+    }
+    
+    /**
+     * One limit the exchange enforces
+     */
+    public static final class Budget {
+        
+        private final String name;
+        private final long permits;
+        private final Duration period;
+        private final boolean window;
+        
+        private Budget(String name, long permits, Duration period, boolean window) {
+            this.name = name;
+            this.permits = permits;
+            this.period = period;
+            this.window = window;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Weight allowed per window, or the counter's maximum
+         */
+        public long getPermits() {
+            return permits;
+        }
+        
+        /**
+         * Length of the window, or the time the counter takes to drain one unit
+         */
+        public Duration getPeriod() {
+            return period;
+        }
+        
+        public boolean isWindow() {
+            return window;
+        }
+    }
+    
+    /**
+     * Calls with one HTTP method to one path, which may contain {@code {variables}}
+     */
+    public static final class Endpoint {
+        
+        private final String method;
+        private final String path;
+        private final List<Charge> charges = new ArrayList<>(2);
+        
+        private Endpoint(String method, String path) {
+            this.method = method;
+            this.path = path;
+        }
+        
+        public String getMethod() {
+            return method;
+        }
+        
+        public String getPath() {
+            return path;
+        }
+        
+        public List<Charge> getCharges() {
+            return Collections.unmodifiableList(charges);
+        }
+    }
+    
+    /**
+     * Weight a call takes from one budget, possibly depending on its query parameters
+     */
+    public static final class Charge {
+        
+        private final String budget;
+        private final ToIntFunction<Map<String, Collection<String>>> weight;
+        
+        private Charge(String budget, ToIntFunction<Map<String, Collection<String>>> weight) {
+            this.budget = budget;
+            this.weight = weight;
+        }
+        
+        public String getBudget() {
+            return budget;
+        }
+        
+        public int weigh(Map<String, Collection<String>> queries) {
+            return weight.applyAsInt(queries);
+        }
+    }
+    
+    public static final class Builder {
+        
+        private final ExchangeType exchangeType;
+        private final String clientName;
+        private final List<Budget> budgets = new ArrayList<>();
+        private final List<Endpoint> endpoints = new ArrayList<>();
+        private final List<Charge> otherwise = new ArrayList<>();
+        
+        private Builder(ExchangeType exchangeType, String clientName) {
+            this.exchangeType = exchangeType;
+            this.clientName = clientName;
+        }
+        
+        /**
+         * At most {@code permits} weight in any window of {@code period}
+         */
+        public Builder window(String name, long permits, Duration period) {
+            budgets.add(new Budget(name, permits, period, true));
+            return this;
+        }
+        
+        /**
+         * A counter that allows up to {@code maximum} and drains one unit every {@code drain}
+         */
+        public Builder counter(String name, long maximum, Duration drain) {
+            budgets.add(new Budget(name, maximum, drain, false));
+            return this;
+        }
+        
+        public Builder endpoint(String method, String path, String budget, int weight) {
+            return endpoint(method, path, budget, queries -> weight);
+        }
+        
+        /**
+         * Charge an endpoint against a budget; call again to charge it against several
+         */
+        public Builder endpoint(String method, String path, String budget,
+                                ToIntFunction<Map<String, Collection<String>>> weight) {
+            requireBudget(budget);
+            Endpoint endpoint = endpoints.stream()
+                    .filter(existing -> existing.method.equals(method) && existing.path.equals(path))
+                    .findFirst()
+                    .orElseGet(() -> {
+                        Endpoint created = new Endpoint(method, path);
+                        endpoints.add(created);
+                        return created;
+                    });
+            endpoint.charges.add(new Charge(budget, weight));
+            return this;
+        }
+        
+        /**
+         * Charge calls to endpoints that were not listed
+         */
+        public Builder otherwise(String budget, int weight) {
+            requireBudget(budget);
+            otherwise.add(new Charge(budget, queries -> weight));
+            return this;
+        }
+        
+        public RateLimits build() {
+            return new RateLimits(this);
+        }
+        
+        private void requireBudget(String budget) {
+            if (budgets.stream().noneMatch(existing -> existing.name.equals(budget))) {
+                throw new IllegalArgumentException("Unknown rate limit budget " + budget + " for " + clientName);
+            }
+        }
+    }
+}
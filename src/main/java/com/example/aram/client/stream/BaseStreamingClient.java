@@ -0,0 +1,260 @@
+package com.example.aram.client.stream;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import org.springframework.web.reactive.socket.client.WebSocketClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class for streaming exchange clients with connection management.
+ * Handles reconnect with exponential backoff, resubscription after every reconnect,
+ * idle detection, heartbeats and per-symbol sequence tracking.
+ */
+@Slf4j
+public abstract class BaseStreamingClient implements StreamingExchangeClient {
+    
+    protected static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    
+    protected final ExchangeType exchangeType;
+    private final String defaultEndpoint;
+    private final ArbitrageConfig.Stream settings;
+    private final WebSocketClient webSocketClient = new ReactorNettyWebSocketClient();
+    
+    /**
+     * Exchange symbol to standard symbol for the current subscription
+     */
+    private final Map<String, String> subscribedSymbols = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastSequence = new ConcurrentHashMap<>();
+    
+    private volatile StreamListener listener;
+    private volatile Disposable connection;
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile int failedAttempts;
+    
+    protected BaseStreamingClient(ExchangeType exchangeType, String defaultEndpoint, ArbitrageConfig.Stream settings) {
+        this.exchangeType = exchangeType;
+        this.defaultEndpoint = defaultEndpoint;
+        this.settings = settings;
+    }
+    
+    @Override
+    public ExchangeType getExchangeType() {
+        return exchangeType;
+    }
+    
+    @Override
+    public synchronized void start(Collection<String> symbols, StreamListener listener) {
+        stop();
+        this.listener = listener;
+        subscribedSymbols.clear();
+        for (String symbol : symbols) {
+            subscribedSymbols.put(convertToExchangeSymbol(symbol), symbol);
+        }
+        running = true;
+        failedAttempts = 0;
+        
+        connection = Mono.defer(this::connect)
+                .onErrorResume(error -> {
+                    log.warn("{} stream disconnected: {}", exchangeType, error.getMessage());
+                    return Mono.empty();
+                })
+                .then(Mono.defer(() -> Mono.delay(nextReconnectDelay())))
+                .repeat(() -> running)
+                .subscribe();
+        log.info("Started {} stream for {} pairs", exchangeType, subscribedSymbols.size());
+    }
+    
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (connection != null) {
+            connection.dispose();
+            connection = null;
+        }
+        connected = false;
+    }
+    
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+    
+    /**
+     * Resolve the WebSocket endpoint, preferring a configured override
+     */
+    protected Mono<URI> resolveEndpoint() {
+        String endpoint = settings.getEndpoints().getOrDefault(exchangeType, defaultEndpoint);
+        return Mono.just(URI.create(endpoint));
+    }
+    
+    /**
+     * Convert standard symbol (e.g., BTC/USDT) to the exchange's stream symbol
+     */
+    protected abstract String convertToExchangeSymbol(String symbol);
+    
+    /**
+     * Build the subscription messages for the given exchange symbols
+     */
+    protected abstract List<String> subscribeMessages(Collection<String> exchangeSymbols);
+    
+    /**
+     * Application-level keep-alive message, or null if the exchange relies on protocol pings
+     */
+    protected String heartbeatMessage() {
+        return null;
+    }
+    
+    /**
+     * Interval between application-level keep-alive messages
+     */
+    protected Duration heartbeatInterval() {
+        return Duration.ofSeconds(20);
+    }
+    
+    /**
+     * Handle one decoded message from the stream
+     */
+    protected abstract void onMessage(JsonNode message);
+    
+    private Mono<Void> connect() {
+        return resolveEndpoint().flatMap(uri -> webSocketClient.execute(uri, this::handleSession));
+    }
+    
+    private Mono<Void> handleSession(WebSocketSession session) {
+        connected = true;
+        lastSequence.clear();
+        log.info("{} stream connected, subscribing to {} pairs", exchangeType, subscribedSymbols.size());
+        
+        Flux<WebSocketMessage> heartbeats = heartbeatMessage() == null
+                ? Flux.never()
+                : Flux.interval(heartbeatInterval()).map(tick -> session.textMessage(heartbeatMessage()));
+        Flux<WebSocketMessage> outbound = Flux.fromIterable(subscribeMessages(subscribedSymbols.keySet()))
+                .map(session::textMessage)
+                .concatWith(heartbeats);
+        
+        Mono<Void> inbound = session.receive()
+                .timeout(Duration.ofMillis(settings.getIdleTimeout()))
+                .map(WebSocketMessage::getPayloadAsText)
+                .doOnNext(this::handlePayload)
+                .then();
+        
+        // Anything published while we were disconnected is lost, so every symbol needs a resync
+        for (String symbol : subscribedSymbols.values()) {
+            notifyResync(symbol);
+        }
+        
+        return Mono.firstWithSignal(inbound, session.send(outbound))
+                .doFinally(signal -> connected = false);
+    }
+    
+    private void handlePayload(String payload) {
+        failedAttempts = 0;
+        if (payload.isEmpty() || (payload.charAt(0) != '{' && payload.charAt(0) != '[')) {
+            // Plain-text keep-alive replies such as "pong"
+            return;
+        }
+        try {
+            onMessage(MAPPER.readTree(payload));
+        } catch (Exception e) {
+            log.error("Error handling {} stream message: {}", exchangeType, e.getMessage());
+        }
+    }
+    
+    private Duration nextReconnectDelay() {
+        int attempt = Math.min(failedAttempts++, 16);
+        long delay = Math.min(settings.getReconnectMaxDelay(), settings.getReconnectMinDelay() << attempt);
+        return Duration.ofMillis(delay);
+    }
+    
+    /**
+     * Map an exchange symbol from the stream back to the subscribed standard symbol
+     */
+    protected String toStandardSymbol(String exchangeSymbol) {
+        return exchangeSymbol != null ? subscribedSymbols.get(exchangeSymbol) : null;
+    }
+    
+    /**
+     * Publish a quote after checking its sequence number against the last one seen for the symbol.
+     * Updates that arrive out of order are dropped. When the exchange reports the previous
+     * sequence number and it does not match, the gap is reported so the listener can resync.
+     *
+     * @param sequence         sequence number of this update, or a negative value if the feed has none
+     * @param previousSequence sequence number the exchange says came before, or a negative value if unknown
+     */
+    protected void publish(PriceDto quote, long sequence, long previousSequence) {
+        String symbol = quote.getSymbol();
+        if (sequence >= 0) {
+            Long last = lastSequence.get(symbol);
+            if (last != null && sequence <= last) {
+                log.debug("Dropping stale {} update for {}: {} <= {}", exchangeType, symbol, sequence, last);
+                return;
+            }
+            lastSequence.put(symbol, sequence);
+            if (last != null && previousSequence >= 0 && previousSequence != last) {
+                log.warn("Sequence gap on {} {}: expected {}, got {}", exchangeType, symbol, last, previousSequence);
+                notifyResync(symbol);
+            }
+        }
+        StreamListener current = listener;
+        if (current != null) {
+            current.onQuote(quote);
+        }
+    }
+    
+    private void notifyResync(String symbol) {
+        StreamListener current = listener;
+        if (current != null) {
+            current.onResync(exchangeType, symbol);
+        }
+    }
+    
+    /**
+     * Create a price DTO for a stream update; sizes at the best bid and ask may be null
+     */
+    protected PriceDto createPriceDto(String symbol, BigDecimal bidPrice, BigDecimal bidQuantity, 
+                                      BigDecimal askPrice, BigDecimal askQuantity, BigDecimal lastPrice) {
+        return PriceDto.builder()
+                .exchange(exchangeType)
+                .symbol(symbol)
+                .bidPrice(bidPrice)
+                .askPrice(askPrice)
+                .bidQuantity(bidQuantity)
+                .askQuantity(askQuantity)
+                .lastPrice(lastPrice != null || bidPrice == null || askPrice == null
+                        ? lastPrice : bidPrice.add(askPrice).divide(BigDecimal.valueOf(2)))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+    
+    /**
+     * Read a decimal field that may be sent as a string or a number
+     */
+    protected static BigDecimal decimal(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        String text = node.asText();
+        return text.isEmpty() ? null : new BigDecimal(text);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.aram.client.stream;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Binance book-ticker stream
+ * API Documentation: https://binance-docs.github.io/apidocs/spot/en/#individual-symbol-book-ticker-streams
+ */
+@Component
+public class BinanceStreamingClient extends BaseStreamingClient {
+    
+    private static final String ENDPOINT = "wss://stream.binance.com:9443/ws";
+    
+    public BinanceStreamingClient(ArbitrageConfig arbitrageConfig) {
+        super(ExchangeType.BINANCE, ENDPOINT, arbitrageConfig.getStream());
+    }
+    
+    @Override
+    protected String convertToExchangeSymbol(String symbol) {
+        // Convert BTC/USDT to BTCUSDT
+        return symbol.replace("/", "");
+    }
+    
+    @Override
+    protected List<String> subscribeMessages(Collection<String> exchangeSymbols) {
+        ObjectNode request = MAPPER.createObjectNode();
+        request.put("method", "SUBSCRIBE");
+        ArrayNode params = request.putArray("params");
+        for (String exchangeSymbol : exchangeSymbols) {
+            params.add(exchangeSymbol.toLowerCase(Locale.ROOT) + "@bookTicker");
+        }
+        request.put("id", 1);
+        return List.of(request.toString());
+    }
+    
+    @Override
+    protected void onMessage(JsonNode message) {
+        // {"u":400900217,"s":"BNBUSDT","b":"25.35","B":"31.21","a":"25.36","A":"40.66"}
+        String symbol = toStandardSymbol(message.path("s").asText(null));
+        if (symbol == null) {
+            return;
+        }
+        publish(createPriceDto(symbol, decimal(message.get("b")), decimal(message.get("B")), 
+                        decimal(message.get("a")), decimal(message.get("A")), null),
+                message.path("u").asLong(-1), -1);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.aram.client.stream;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bybit level-1 order book stream
+ * API Documentation: https://bybit-exchange.github.io/docs/v5/websocket/public/orderbook
+ */
+@Component
+public class BybitStreamingClient extends BaseStreamingClient {
+    
+    private static final String ENDPOINT = "wss://stream.bybit.com/v5/public/spot";
+    private static final String TOPIC_PREFIX = "orderbook.1.";
+    
+    public BybitStreamingClient(ArbitrageConfig arbitrageConfig) {
+        super(ExchangeType.BYBIT, ENDPOINT, arbitrageConfig.getStream());
+    }
+    
+    @Override
+    protected String convertToExchangeSymbol(String symbol) {
+        // Convert BTC/USDT to BTCUSDT
+        return symbol.replace("/", "");
+    }
+    
+    @Override
+    protected List<String> subscribeMessages(Collection<String> exchangeSymbols) {
+        ObjectNode request = MAPPER.createObjectNode();
+        request.put("op", "subscribe");
+        ArrayNode args = request.putArray("args");
+        for (String exchangeSymbol : exchangeSymbols) {
+            args.add(TOPIC_PREFIX + exchangeSymbol);
+        }
+        return List.of(request.toString());
+    }
+    
+    @Override
+    protected String heartbeatMessage() {
+        return "{\"op\":\"ping\"}";
+    }
+    
+    @Override
+    protected void onMessage(JsonNode message) {
+        // {"topic":"orderbook.1.BTCUSDT","type":"snapshot","ts":...,
+        //  "data":{"s":"BTCUSDT","b":[["16493.50","0.006"]],"a":[["16611.00","0.029"]],"u":18521288,"seq":7961638724}}
+        if (!message.path("topic").asText("").startsWith(TOPIC_PREFIX)) {
+            return;
+        }
+        JsonNode data = message.path("data");
+        String symbol = toStandardSymbol(data.path("s").asText(null));
+        JsonNode bid = data.path("b").path(0);
+        JsonNode ask = data.path("a").path(0);
+        if (symbol == null || bid.isMissingNode() || ask.isMissingNode()) {
+            return;
+        }
+        publish(createPriceDto(symbol, decimal(bid.get(0)), decimal(bid.get(1)), 
+                        decimal(ask.get(0)), decimal(ask.get(1)), null),
+                data.path("seq").asLong(-1), -1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.aram.client.stream;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Coinbase Exchange ticker stream
+ * API Documentation: https://docs.cloud.coinbase.com/exchange/docs/websocket-channels#ticker-channel
+ */
+@Component
+public class CoinbaseStreamingClient extends BaseStreamingClient {
+    
+    private static final String ENDPOINT = "wss://ws-feed.exchange.coinbase.com";
+    
+    public CoinbaseStreamingClient(ArbitrageConfig arbitrageConfig) {
+        super(ExchangeType.COINBASE, ENDPOINT, arbitrageConfig.getStream());
+    }
+    
+    @Override
+    protected String convertToExchangeSymbol(String symbol) {
+        // Convert BTC/USDT to BTC-USDT
+        return symbol.replace("/", "-");
+    }
+    
+    @Override
+    protected List<String> subscribeMessages(Collection<String> exchangeSymbols) {
+        ObjectNode request = MAPPER.createObjectNode();
+        request.put("type", "subscribe");
+        ArrayNode productIds = request.putArray("product_ids");
+        exchangeSymbols.forEach(productIds::add);
+        request.putArray("channels").add("ticker");
+        return List.of(request.toString());
+    }
+    
+    @Override
+    protected void onMessage(JsonNode message) {
+        // {"type":"ticker","sequence":..,"product_id":"BTC-USD","price":"..","best_bid":"..","best_bid_size":"..",
+        //  "best_ask":"..","best_ask_size":"..","volume_24h":".."}
+        if (!"ticker".equals(message.path("type").asText())) {
+            return;
+        }
+        String symbol = toStandardSymbol(message.path("product_id").asText(null));
+        if (symbol == null) {
+            return;
+        }
+        publish(createPriceDto(symbol, decimal(message.get("best_bid")), decimal(message.get("best_bid_size")),
+                        decimal(message.get("best_ask")), decimal(message.get("best_ask_size")), 
+                        decimal(message.get("price"))),
+                message.path("sequence").asLong(-1), -1);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.aram.client.stream;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Kraken ticker stream (WebSocket API v2, triggered on best bid/offer changes)
+ * API Documentation: https://docs.kraken.com/api/docs/websocket-v2/ticker
+ */
+@Component
+public class KrakenStreamingClient extends BaseStreamingClient {
+    
+    private static final String ENDPOINT = "wss://ws.kraken.com/v2";
+    
+    public KrakenStreamingClient(ArbitrageConfig arbitrageConfig) {
+        super(ExchangeType.KRAKEN, ENDPOINT, arbitrageConfig.getStream());
+    }
+    
+    @Override
+    protected String convertToExchangeSymbol(String symbol) {
+        // The v2 API uses the standard BTC/USDT format
+        return symbol;
+    }
+    
+    @Override
+    protected List<String> subscribeMessages(Collection<String> exchangeSymbols) {
+        ObjectNode request = MAPPER.createObjectNode();
+        request.put("method", "subscribe");
+        ObjectNode params = request.putObject("params");
+        params.put("channel", "ticker");
+        params.put("event_trigger", "bbo");
+        ArrayNode symbols = params.putArray("symbol");
+        exchangeSymbols.forEach(symbols::add);
+        return List.of(request.toString());
+    }
+    
+    @Override
+    protected void onMessage(JsonNode message) {
+        // {"channel":"ticker","type":"update",
+        //  "data":[{"symbol":"BTC/USD","bid":..,"bid_qty":..,"ask":..,"ask_qty":..,"last":..,"volume":..}]}
+        if (!"ticker".equals(message.path("channel").asText())) {
+            return;
+        }
+        for (JsonNode data : message.path("data")) {
+            String symbol = toStandardSymbol(data.path("symbol").asText(null));
+            if (symbol == null) {
+                continue;
+            }
+            publish(createPriceDto(symbol, decimal(data.get("bid")), decimal(data.get("bid_qty")), 
+                            decimal(data.get("ask")), decimal(data.get("ask_qty")), decimal(data.get("last"))),
+                    -1, -1);
+        }
+    }
+}
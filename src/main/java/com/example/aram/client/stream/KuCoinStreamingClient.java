@@ -0,0 +1,149 @@
+package com.example.aram.client.stream;
+
+import com.example.aram.client.feign.KuCoinFeignClient;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * KuCoin ticker stream
+ * API Documentation: https://docs.kucoin.com/#symbol-ticker
+ */
+@Component
+public class KuCoinStreamingClient extends BaseStreamingClient {
+    
+    private static final String TOPIC_PREFIX = "/market/ticker:";
+    
+    // KuCoin accepts at most 100 symbols per subscription topic
+    private static final int SYMBOLS_PER_TOPIC = 100;
+    
+    private final KuCoinFeignClient kuCoinFeignClient;
+    private final ArbitrageConfig.Stream settings;
+    private volatile Duration pingInterval = Duration.ofSeconds(18);
+    
+    public KuCoinStreamingClient(ArbitrageConfig arbitrageConfig, KuCoinFeignClient kuCoinFeignClient) {
+        super(ExchangeType.KUCOIN, null, arbitrageConfig.getStream());
+        this.kuCoinFeignClient = kuCoinFeignClient;
+        this.settings = arbitrageConfig.getStream();
+    }
+    
+    /**
+     * KuCoin hands out the WebSocket endpoint together with a short-lived token,
+     * so a fresh one is requested on every connect unless an override is configured
+     */
+    @Override
+    protected Mono<URI> resolveEndpoint() {
+        if (settings.getEndpoints().containsKey(exchangeType)) {
+            return super.resolveEndpoint();
+        }
+        return Mono.fromCallable(() -> {
+            KuCoinBulletResponse response = kuCoinFeignClient.getPublicBullet();
+            if (response == null || response.getData() == null || response.getData().getInstanceServers() == null
+                    || response.getData().getInstanceServers().isEmpty()) {
+                throw new IllegalStateException("No KuCoin WebSocket endpoint available");
+            }
+            KuCoinInstanceServer server = response.getData().getInstanceServers().get(0);
+            if (server.getPingInterval() != null) {
+                pingInterval = Duration.ofMillis(server.getPingInterval());
+            }
+            return URI.create(server.getEndpoint() + "?token=" + response.getData().getToken()
+                    + "&connectId=" + UUID.randomUUID());
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    @Override
+    protected String convertToExchangeSymbol(String symbol) {
+        // Convert BTC/USDT to BTC-USDT
+        return symbol.replace("/", "-");
+    }
+    
+    @Override
+    protected List<String> subscribeMessages(Collection<String> exchangeSymbols) {
+        List<String> messages = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        for (String exchangeSymbol : exchangeSymbols) {
+            batch.add(exchangeSymbol);
+            if (batch.size() == SYMBOLS_PER_TOPIC) {
+                messages.add(subscribeMessage(batch));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            messages.add(subscribeMessage(batch));
+        }
+        return messages;
+    }
+    
+    private String subscribeMessage(List<String> exchangeSymbols) {
+        ObjectNode request = MAPPER.createObjectNode();
+        request.put("id", UUID.randomUUID().toString());
+        request.put("type", "subscribe");
+        request.put("topic", TOPIC_PREFIX + String.join(",", exchangeSymbols));
+        request.put("response", true);
+        return request.toString();
+    }
+    
+    @Override
+    protected String heartbeatMessage() {
+        return "{\"id\":\"" + UUID.randomUUID() + "\",\"type\":\"ping\"}";
+    }
+    
+    @Override
+    protected Duration heartbeatInterval() {
+        return pingInterval;
+    }
+    
+    @Override
+    protected void onMessage(JsonNode message) {
+        // {"type":"message","topic":"/market/ticker:BTC-USDT","subject":"trade.ticker",
+        //  "data":{"sequence":"1545896668986","price":"0.08","bestAsk":"0.08","bestAskSize":"0.5",
+        //          "bestBid":"0.049","bestBidSize":"0.3",...}}
+        String topic = message.path("topic").asText("");
+        if (!"message".equals(message.path("type").asText()) || !topic.startsWith(TOPIC_PREFIX)) {
+            return;
+        }
+        String symbol = toStandardSymbol(topic.substring(TOPIC_PREFIX.length()));
+        if (symbol == null) {
+            return;
+        }
+        JsonNode data = message.path("data");
+        publish(createPriceDto(symbol, decimal(data.get("bestBid")), decimal(data.get("bestBidSize")), 
+                        decimal(data.get("bestAsk")), decimal(data.get("bestAskSize")), decimal(data.get("price"))),
+                data.path("sequence").asLong(-1), -1);
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinBulletResponse {
+        private String code;
+        private KuCoinBulletData data;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinBulletData {
+        private String token;
+        private List<KuCoinInstanceServer> instanceServers;
+    }
+    
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KuCoinInstanceServer {
+        private String endpoint;
+        private Long pingInterval;
+        private Long pingTimeout;
+    }
+}
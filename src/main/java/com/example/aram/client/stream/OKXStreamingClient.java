@@ -0,0 +1,70 @@
+package com.example.aram.client.stream;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * OKX best bid/offer stream (bbo-tbt channel)
+ * API Documentation: https://www.okx.com/docs-v5/en/#order-book-trading-market-data-ws-order-book-channel
+ */
+@Component
+public class OKXStreamingClient extends BaseStreamingClient {
+    
+    private static final String ENDPOINT = "wss://ws.okx.com:8443/ws/v5/public";
+    
+    public OKXStreamingClient(ArbitrageConfig arbitrageConfig) {
+        super(ExchangeType.OKX, ENDPOINT, arbitrageConfig.getStream());
+    }
+    
+    @Override
+    protected String convertToExchangeSymbol(String symbol) {
+        // Convert BTC/USDT to BTC-USDT
+        return symbol.replace("/", "-");
+    }
+    
+    @Override
+    protected List<String> subscribeMessages(Collection<String> exchangeSymbols) {
+        ObjectNode request = MAPPER.createObjectNode();
+        request.put("op", "subscribe");
+        ArrayNode args = request.putArray("args");
+        for (String exchangeSymbol : exchangeSymbols) {
+            args.addObject()
+                    .put("channel", "bbo-tbt")
+                    .put("instId", exchangeSymbol);
+        }
+        return List.of(request.toString());
+    }
+    
+    @Override
+    protected String heartbeatMessage() {
+        // OKX drops connections that are silent for 30 seconds
+        return "ping";
+    }
+    
+    @Override
+    protected void onMessage(JsonNode message) {
+        // {"arg":{"channel":"bbo-tbt","instId":"BTC-USDT"},
+        //  "data":[{"asks":[["8476.98","415","0","13"]],"bids":[["8476.97","256","0","12"]],"ts":"...","seqId":123}]}
+        String symbol = toStandardSymbol(message.path("arg").path("instId").asText(null));
+        if (symbol == null || !message.has("data")) {
+            return;
+        }
+        for (JsonNode data : message.get("data")) {
+            JsonNode bid = data.path("bids").path(0);
+            JsonNode ask = data.path("asks").path(0);
+            if (bid.isMissingNode() || ask.isMissingNode()) {
+                continue;
+            }
+            publish(createPriceDto(symbol, decimal(bid.get(0)), decimal(bid.get(1)), 
+                            decimal(ask.get(0)), decimal(ask.get(1)), null),
+                    data.path("seqId").asLong(-1), data.path("prevSeqId").asLong(-1));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.aram.client.stream;
+
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+
+/**
+ * Receives updates from a streaming exchange client
+ */
+public interface StreamListener {
+    
+    /**
+     * Called for every book-ticker update received from the stream
+     */
+    void onQuote(PriceDto quote);
+    
+    /**
+     * Called when updates for a symbol may have been missed, after a reconnect
+     * or a sequence gap, so the listener can recover the current quote another way
+     */
+    void onResync(ExchangeType exchangeType, String symbol);
+}
@@ -0,0 +1,33 @@
+package com.example.aram.client.stream;
+
+import com.example.aram.enums.ExchangeType;
+
+import java.util.Collection;
+
+/**
+ * Interface for streaming (WebSocket) market-data clients.
+ * Each exchange with a REST {@link com.example.aram.client.ExchangeClient} has a streaming variant.
+ */
+public interface StreamingExchangeClient {
+    
+    /**
+     * Get the exchange type this client handles
+     */
+    ExchangeType getExchangeType();
+    
+    /**
+     * Connect and subscribe to book-ticker updates for the given trading pairs.
+     * The client reconnects and resubscribes on its own until stopped.
+     */
+    void start(Collection<String> symbols, StreamListener listener);
+    
+    /**
+     * Close the stream and stop reconnecting
+     */
+    void stop();
+    
+    /**
+     * Check if the stream currently has an open session
+     */
+    boolean isConnected();
+}
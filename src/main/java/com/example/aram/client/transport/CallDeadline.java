@@ -0,0 +1,71 @@
+package com.example.aram.client.transport;
+
+import feign.Client;
+import feign.Request;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Deadline for the exchange calls made on the current thread. Work that must be done by a given time runs
+ * inside {@link #callBefore}; every Feign call it makes has its connect and read timeouts cut to the time
+ * left, and calls made after the deadline fail at once. The work itself stops at the deadline instead of
+ * holding its thread for the exchange's full Feign timeouts after the caller has given up on it.
+ */
+public final class CallDeadline {
+    
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+    
+    private CallDeadline() {
+    }
+    
+    /**
+     * Run work with its exchange calls bounded by a deadline; a deadline already set on the thread still
+     * applies when it is earlier
+     *
+     * @param deadlineNanos {@link System#nanoTime()} by which the calls must have answered
+     */
+    public static <T> T callBefore(long deadlineNanos, Supplier<T> work) {
+        Long outer = DEADLINE.get();
+        DEADLINE.set(outer != null && outer - deadlineNanos < 0 ? outer : deadlineNanos);
+        try {
+            return work.get();
+        } finally {
+            if (outer == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(outer);
+            }
+        }
+    }
+    
+    public static boolean isPast(long deadlineNanos) {
+        return System.nanoTime() - deadlineNanos >= 0;
+    }
+    
+    /**
+     * Wrap a transport so its calls respect the deadline of the calling thread
+     */
+    static Client bound(Client delegate) {
+        return (request, options) -> delegate.execute(request, cap(request, options));
+    }
+    
+    private static Request.Options cap(Request request, Request.Options options) throws SocketTimeoutException {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return options;
+        }
+        long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (left <= 0) {
+            throw new SocketTimeoutException("Deadline passed before " + request.httpMethod() + " " + request.url());
+        }
+        if (left >= options.connectTimeoutMillis() && left >= options.readTimeoutMillis()) {
+            return options;
+        }
+        return new Request.Options(
+                Math.min(left, options.connectTimeoutMillis()), TimeUnit.MILLISECONDS,
+                Math.min(left, options.readTimeoutMillis()), TimeUnit.MILLISECONDS,
+                options.isFollowRedirects());
+    }
+}
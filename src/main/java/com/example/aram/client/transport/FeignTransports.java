@@ -0,0 +1,120 @@
+package com.example.aram.client.transport;
+
+import com.example.aram.client.health.ExchangeHealth;
+import com.example.aram.client.health.HealthRecordingClient;
+import com.example.aram.client.hedge.RequestHedging;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.TransportStatsDto;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
+import feign.Request;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Pooled keep-alive transports for the exchange Feign clients, one connection pool per exchange so a slow
+ * exchange cannot hold the connections of the others. Each exchange's Feign configuration asks for its
+ * transport here; with pooling disabled it gets Feign's default client, which opens a connection per call.
+ * Either way the outcome of every call is reported to the exchange's health model, slow ticker calls may be
+ * hedged, and the timeouts of a call are cut to the {@link CallDeadline} of the calling thread.
+ */
+@Component
+@Slf4j
+public class FeignTransports {
+    
+    private final ArbitrageConfig.Transport settings;
+    private final ExchangeHealth exchangeHealth;
+    private final RequestHedging requestHedging;
+    private final Map<ExchangeType, Pool> pools = new ConcurrentHashMap<>();
+    
+    public FeignTransports(ArbitrageConfig arbitrageConfig, ExchangeHealth exchangeHealth,
+                           RequestHedging requestHedging) {
+        this.settings = arbitrageConfig.getTransport();
+        this.exchangeHealth = exchangeHealth;
+        this.requestHedging = requestHedging;
+    }
+    
+    /**
+     * The transport of an exchange, created on first use; the same pool serves every later request for it
+     *
+     * @param options the exchange's Feign timeouts and redirect setting
+     */
+    public Client client(ExchangeType exchangeType, Request.Options options) {
+        if (!Boolean.TRUE.equals(settings.getEnabled())) {
+            return CallDeadline.bound(requestHedging.decorate(exchangeType,
+                    new HealthRecordingClient(new Client.Default(null, null), exchangeHealth, exchangeType)));
+        }
+        return pools.computeIfAbsent(exchangeType, type -> createPool(type, options)).client;
+    }
+    
+    /**
+     * Connection reuse of every pool created so far
+     */
+    public List<TransportStatsDto> stats() {
+        return pools.values().stream()
+                .map(pool -> pool.stats.snapshot())
+                .sorted(Comparator.comparing(TransportStatsDto::getExchange))
+                .collect(Collectors.toList());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pools.values().forEach(pool -> pool.provider.dispose());
+    }
+    
+    private Pool createPool(ExchangeType exchangeType, Request.Options options) {
+        int maxConnections = settings.getMaxConnectionsByExchange()
+                .getOrDefault(exchangeType, settings.getMaxConnections());
+        // LIFO hands out the most recently used connection, so a quiet period lets the surplus ones idle out
+        // while the busy ones stay warm
+        ConnectionProvider provider = ConnectionProvider.builder("feign-" + exchangeType.name().toLowerCase())
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(settings.getPendingAcquireTimeout()))
+                .maxIdleTime(Duration.ofMillis(settings.getMaxIdleTime()))
+                .maxLifeTime(Duration.ofMillis(settings.getMaxLifeTime()))
+                .evictInBackground(Duration.ofMillis(settings.getMaxIdleTime()))
+                .lifo()
+                .build();
+        TransportStats stats = new TransportStats(exchangeType, maxConnections);
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, options.connectTimeoutMillis())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .compress(Boolean.TRUE.equals(settings.getCompression()))
+                .followRedirect(options.isFollowRedirects())
+                .observe(stats);
+        if (Boolean.TRUE.equals(settings.getHttp2())) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+        log.info("Pooled transport for {} with up to {} keep-alive connections", exchangeType, maxConnections);
+        Client recorded = new HealthRecordingClient(new PooledFeignClient(httpClient, stats), exchangeHealth,
+                exchangeType);
+        return new Pool(provider, stats, CallDeadline.bound(requestHedging.decorate(exchangeType, recorded)));
+    }
+    
+    private static final class Pool {
+        
+        private final ConnectionProvider provider;
+        private final TransportStats stats;
+        private final Client client;
+        
+        private Pool(ConnectionProvider provider, TransportStats stats, Client client) {
+            this.provider = provider;
+            this.stats = stats;
+            this.client = client;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.aram.client.transport;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.timeout.ReadTimeoutException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Feign transport over a pooled reactor-netty client. Connections to the exchange are kept alive and reused,
+ * so a call only pays for the TCP and TLS handshakes when the pool has no idle connection left.
+ */
+public class PooledFeignClient implements Client {
+    
+    private static final byte[] EMPTY = new byte[0];
+    
+    private final HttpClient httpClient;
+    private final TransportStats stats;
+    
+    PooledFeignClient(HttpClient httpClient, TransportStats stats) {
+        this.httpClient = httpClient;
+        this.stats = stats;
+    }
+    
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        stats.requested();
+        byte[] body = request.body();
+        Duration readTimeout = Duration.ofMillis(options.readTimeoutMillis());
+        try {
+            return httpClient
+                    .request(HttpMethod.valueOf(request.httpMethod().name()))
+                    .uri(request.url())
+                    .send((outbound, out) -> {
+                        outbound.responseTimeout(readTimeout);
+                        request.headers().forEach((name, values) -> outbound.requestHeaders().add(name, values));
+                        return body != null && body.length > 0 ? out.sendByteArray(Mono.just(body)) : out;
+                    })
+                    .responseSingle((response, content) -> content.asByteArray()
+                            .defaultIfEmpty(EMPTY)
+                            .map(bytes -> toResponse(request, response, bytes)))
+                    .block();
+        } catch (RuntimeException e) {
+            stats.failed();
+            throw toIOException(request, Exceptions.unwrap(e));
+        }
+    }
+    
+    private static Response toResponse(Request request, HttpClientResponse response, byte[] body) {
+        return Response.builder()
+                .request(request)
+                .status(response.status().code())
+                .reason(response.status().reasonPhrase())
+                .headers(headers(response.responseHeaders()))
+                .body(body)
+                .build();
+    }
+    
+    private static Map<String, Collection<String>> headers(HttpHeaders headers) {
+        Map<String, Collection<String>> copy = new LinkedHashMap<>();
+        for (String name : headers.names()) {
+            copy.put(name, headers.getAll(name));
+        }
+        return copy;
+    }
+    
+    /**
+     * Feign retries and reports transport failures as {@link IOException}s, with timeouts as
+     * {@link SocketTimeoutException} like the default client
+     */
+    private static IOException toIOException(Request request, Throwable error) {
+        if (error instanceof IOException) {
+            return (IOException) error;
+        }
+        if (error instanceof ReadTimeoutException) {
+            SocketTimeoutException timeout = new SocketTimeoutException("Read timed out on " + request.url());
+            timeout.initCause(error);
+            return timeout;
+        }
+        return new IOException(request.httpMethod() + " " + request.url() + " failed: " + error.getMessage(), error);
+    }
+}
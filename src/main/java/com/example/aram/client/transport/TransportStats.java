@@ -0,0 +1,63 @@
+package com.example.aram.client.transport;
+
+import com.example.aram.dto.TransportStatsDto;
+import com.example.aram.enums.ExchangeType;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection reuse of one exchange's pool. The pool reports a new connection as connected and an idle one
+ * handed out again as acquired, so their counts tell how many calls skipped the handshakes.
+ */
+public class TransportStats implements ConnectionObserver {
+    
+    private final ExchangeType exchangeType;
+    private final int maxConnections;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    
+    TransportStats(ExchangeType exchangeType, int maxConnections) {
+        this.exchangeType = exchangeType;
+        this.maxConnections = maxConnections;
+    }
+    
+    void requested() {
+        requests.increment();
+    }
+    
+    void failed() {
+        failures.increment();
+    }
+    
+    @Override
+    public void onStateChange(Connection connection, State newState) {
+        if (newState == State.CONNECTED) {
+            opened.increment();
+        } else if (newState == State.ACQUIRED) {
+            reused.increment();
+        } else if (newState == State.DISCONNECTING) {
+            closed.increment();
+        }
+    }
+    
+    public TransportStatsDto snapshot() {
+        long openedCount = opened.sum();
+        long reusedCount = reused.sum();
+        long acquired = openedCount + reusedCount;
+        return TransportStatsDto.builder()
+                .exchange(exchangeType)
+                .maxConnections(maxConnections)
+                .requests(requests.sum())
+                .failures(failures.sum())
+                .connectionsOpened(openedCount)
+                .connectionsReused(reusedCount)
+                .connectionsClosed(closed.sum())
+                .reuseRatio(acquired > 0 ? (double) reusedCount / acquired : 0)
+                .build();
+    }
+}
@@ -1,11 +1,19 @@
 package com.example.aram.config;
 
+import com.example.aram.enums.DetectionMode;
+import com.example.aram.enums.DetectionStrategy;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.LegRecoveryPolicy;
+import com.example.aram.enums.PriceIngestionMode;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @ConfigurationProperties(prefix = "arbitrage")
@@ -32,6 +40,26 @@ public class ArbitrageConfig {
      */
     private Long priceUpdateInterval = 5000L;
     
+    /**
+     * How the price scheduler pulls quotes from the exchanges
+     */
+    private PriceIngestionMode ingestionMode = PriceIngestionMode.PER_SYMBOL;
+    
+    /**
+     * Whether detection rescans on a fixed delay or reacts to quote changes
+     */
+    private DetectionMode detectionMode = DetectionMode.SCHEDULED;
+    
+    /**
+     * Threads running quote-triggered detection, persistence and execution, apart from the ingesting threads
+     */
+    private Integer detectionThreads = 3;
+    
+    /**
+     * How exchange pairs are selected for comparison
+     */
+    private DetectionStrategy detectionStrategy = DetectionStrategy.PAIRWISE;
+    
     /**
      * Enable automatic trade execution
      */
@@ -41,5 +69,542 @@ public class ArbitrageConfig {
      * Number of days to keep price history
      */
     private Integer priceHistoryDays = 7;
+    
+    /**
+     * Settings for fetching from several exchanges at once
+     */
+    private Fetch fetch = new Fetch();
+    
+    @Data
+    public static class Fetch {
+        
+        /**
+         * Call all exchanges concurrently instead of one after another
+         */
+        private Boolean parallel = true;
+        
+        /**
+         * Maximum number of exchange calls running at the same time
+         */
+        private Integer maxThreads = 12;
+        
+        /**
+         * Maximum number of exchange calls waiting for a free thread
+         */
+        private Integer queueCapacity = 256;
+        
+        /**
+         * Deadline for a single exchange call in milliseconds
+         */
+        private Long exchangeTimeout = 2000L;
+        
+        /**
+         * Deadline for a full sweep over all exchanges in milliseconds
+         */
+        private Long sweepTimeout = 3000L;
+    }
+    
+    /**
+     * Settings for WebSocket market-data streams
+     */
+    private Stream stream = new Stream();
+    
+    @Data
+    public static class Stream {
+        
+        /**
+         * WebSocket endpoint overrides per exchange, e.g. to point at a local stub server
+         */
+        private Map<ExchangeType, String> endpoints = new EnumMap<>(ExchangeType.class);
+        
+        /**
+         * First reconnect delay in milliseconds, doubled after each failed attempt
+         */
+        private Long reconnectMinDelay = 500L;
+        
+        /**
+         * Upper bound for the reconnect delay in milliseconds
+         */
+        private Long reconnectMaxDelay = 30000L;
+        
+        /**
+         * Reconnect when no message arrives for this many milliseconds
+         */
+        private Long idleTimeout = 60000L;
+    }
+    
+    /**
+     * Settings for writing price history behind the ingestion path
+     */
+    private Persistence persistence = new Persistence();
+    
+    @Data
+    public static class Persistence {
+        
+        /**
+         * Maximum number of quotes waiting to be written; further quotes are coalesced per exchange and symbol
+         */
+        private Integer queueCapacity = 10000;
+        
+        /**
+         * Maximum number of rows per insert batch
+         */
+        private Integer batchSize = 500;
+        
+        /**
+         * Longest time in milliseconds a quote waits before a partial batch is written
+         */
+        private Long flushInterval = 1000L;
+        
+        /**
+         * Write a row only when bid, ask or 24h volume changed since the last written row
+         */
+        private Boolean skipUnchanged = true;
+        
+        /**
+         * Write an unchanged row anyway once this many milliseconds have passed since the last one
+         */
+        private Long heartbeatInterval = 60000L;
+        
+        /**
+         * Number of rows removed per transaction when old price history is cleaned up
+         */
+        private Integer cleanupChunkSize = 5000;
+    }
+    
+    /**
+     * Settings for the memory-mapped tick archive
+     */
+    private Archive archive = new Archive();
+    
+    @Data
+    public static class Archive {
+        
+        /**
+         * Append every top-of-book change to the archive
+         */
+        private Boolean enabled = false;
+        
+        /**
+         * Root directory for segment files
+         */
+        private String directory = "data/ticks";
+        
+        /**
+         * Ticks per segment file; a full day rolls over to another file
+         */
+        private Integer segmentCapacity = 1_048_576;
+        
+        /**
+         * Ticks per exchange and symbol held in memory while their next segment opens; more are dropped
+         */
+        private Integer maxWaiting = 100_000;
+        
+        /**
+         * Number of days of segment files to keep
+         */
+        private Integer retentionDays = 30;
+    }
+    
+    /**
+     * Settings for judging opportunities by net profit after trading costs and top-of-book size
+     */
+    private Costs costs = new Costs();
+    
+    @Data
+    public static class Costs {
+        
+        /**
+         * Deduct taker fees and slippage from the profit and size opportunities by top-of-book depth
+         */
+        private Boolean enabled = false;
+        
+        /**
+         * Taker fee percentage for exchanges without a fee in the exchanges table
+         */
+        private BigDecimal defaultTakerFee = BigDecimal.valueOf(0.1);
+        
+        /**
+         * Extra percentage deducted per leg for price movement between detection and fill
+         */
+        private BigDecimal slippage = BigDecimal.ZERO;
+        
+        /**
+         * Interval in milliseconds for reloading fees from the exchanges table
+         */
+        private Long refreshInterval = 60000L;
+        
+        /**
+         * Minimum net profit in the quote currency for the size available at the top of both books
+         */
+        private BigDecimal minNetProfit = BigDecimal.ZERO;
+        
+        /**
+         * Quantity assumed when a feed does not report the size at the best bid or ask
+         */
+        private BigDecimal defaultQuantity = BigDecimal.ONE;
+    }
+    
+    /**
+     * Settings for order-book depth snapshots and sizing opportunities against them
+     */
+    private Depth depth = new Depth();
+    
+    @Data
+    public static class Depth {
+        
+        /**
+         * Poll order-book snapshots and size opportunities by walking both books
+         */
+        private Boolean enabled = false;
+        
+        /**
+         * Levels kept per side of each book
+         */
+        private Integer levels = 20;
+        
+        /**
+         * Snapshot polling interval in milliseconds; snapshots only take rate-limit turns that are free, so an
+         * exchange with a tight budget such as Kraken refreshes fewer books per round
+         */
+        private Long refreshInterval = 2000L;
+        
+        /**
+         * Books older than this many milliseconds are ignored and the top-of-book size is used instead
+         */
+        private Long maxAge = 5000L;
+    }
+    
+    /**
+     * Settings for triangular arbitrage across three pairs on one exchange
+     */
+    private Triangular triangular = new Triangular();
+    
+    @Data
+    public static class Triangular {
+        
+        /**
+         * Build a currency graph per exchange from all of its tickers and look for profitable cycles
+         */
+        private Boolean enabled = false;
+        
+        /**
+         * Exchanges to scan; empty means every exchange whose client loads all tickers in one call
+         */
+        private List<ExchangeType> exchanges = new ArrayList<>();
+        
+        /**
+         * Interval in milliseconds for reloading all tickers of each exchange
+         */
+        private Long refreshInterval = 10000L;
+        
+        /**
+         * Minimum return of a full cycle in percent, after the trading cost of all three legs
+         */
+        private BigDecimal minProfitPercentage = BigDecimal.valueOf(0.1);
+        
+        /**
+         * Amount of the starting currency used for the estimated profit
+         */
+        private BigDecimal startAmount = BigDecimal.valueOf(1000);
+    }
+    
+    /**
+     * Settings for multi-leg arbitrage that trades on several exchanges and moves currencies between them
+     */
+    private CrossExchange crossExchange = new CrossExchange();
+    
+    @Data
+    public static class CrossExchange {
+        
+        /**
+         * Rebuild the (exchange, currency) graph on a schedule and search it for profitable cycles
+         */
+        private Boolean enabled = false;
+        
+        /**
+         * Currencies to trade and transfer; empty means the currencies of the watched pairs. Edges come from the
+         * quote store, so a pair between them is used only once the exchanges' quotes for it are ingested.
+         */
+        private List<String> currencies = new ArrayList<>();
+        
+        /**
+         * Most trades and transfers in one cycle; the search grows quickly with this
+         */
+        private Integer maxLegs = 4;
+        
+        /**
+         * Minimum return of a full cycle in percent, after taker costs and withdrawal fees
+         */
+        private BigDecimal minProfitPercentage = BigDecimal.valueOf(0.5);
+        
+        /**
+         * Withdrawal fee in percent of the amount moved, for exchanges without one in the exchanges table
+         */
+        private BigDecimal defaultWithdrawalFee = BigDecimal.valueOf(0.1);
+        
+        /**
+         * Interval in milliseconds for rebuilding the graph from tickers and running a full search
+         */
+        private Long refreshInterval = 10000L;
+        
+        /**
+         * Amount of the starting currency used for the estimated profit
+         */
+        private BigDecimal startAmount = BigDecimal.valueOf(1000);
+        
+        /**
+         * Threads for the full search, which runs one task per starting currency
+         */
+        private Integer parallelism = Runtime.getRuntime().availableProcessors();
+    }
+    
+    /**
+     * Settings for placing the legs of an opportunity
+     */
+    private Execution execution = new Execution();
+    
+    @Data
+    public static class Execution {
+        
+        /**
+         * What to do when one leg fails and the other fills
+         */
+        private LegRecoveryPolicy recoveryPolicy = LegRecoveryPolicy.UNWIND;
+        
+        /**
+         * Market retries of a failed leg under HEDGE before the filled leg is unwound
+         */
+        private Integer hedgeAttempts = 2;
+        
+        /**
+         * Longest wait in milliseconds for a leg to be placed and finish; a leg without a final status by then is
+         * left for manual review
+         */
+        private Long legTimeout = 5000L;
+        
+        /**
+         * Amount of the base currency to trade per opportunity while the balance ledger is off, capped by the
+         * opportunity's volume; unset means such opportunities are not sized at all
+         */
+        private BigDecimal defaultAmount;
+        
+        /**
+         * Interval in milliseconds between status checks of an order the exchange has not finished yet
+         */
+        private Long orderPollInterval = 200L;
+        
+        /**
+         * Threads placing orders, started up front so a leg never waits for one to be created
+         */
+        private Integer legThreads = 8;
+        
+        /**
+         * Maximum number of executions waiting to be recorded; beyond that the executing thread records its own
+         */
+        private Integer persistenceQueueCapacity = 1000;
+        
+        /**
+         * Milliseconds an exchange's API credentials are cached before they are read from the database again
+         */
+        private Long accountRefresh = 60000L;
+    }
+    
+    /**
+     * Settings for the in-memory balance ledger that sizes and reserves funds for executions
+     */
+    private Balances balances = new Balances();
+    
+    @Data
+    public static class Balances {
+        
+        /**
+         * Reconcile the ledger with exchanges that have API credentials and reserve funds for every execution
+         */
+        private Boolean enabled = false;
+        
+        /**
+         * Interval in milliseconds between reconciliations against the exchanges
+         */
+        private Long refreshInterval = 30000L;
+    }
+    
+    /**
+     * Settings for keeping REST calls within each exchange's published rate limits
+     */
+    private RateLimit rateLimit = new RateLimit();
+    
+    @Data
+    public static class RateLimit {
+        
+        /**
+         * Hold calls until their endpoint's weight fits the exchange's budgets
+         */
+        private Boolean enabled = false;
+        
+        /**
+         * Share of a window budget that may go out at once; the rest is spread evenly over the window
+         */
+        private BigDecimal burstShare = BigDecimal.valueOf(0.1);
+        
+        /**
+         * Longest a call waits for its turn in milliseconds before it fails; below the 5 s receive window of
+         * signed Binance and Bybit calls, which are signed before they wait
+         */
+        private Long maxWait = 2000L;
+        
+        /**
+         * Pause in milliseconds after an exchange rejects a call for its rate without saying how long to wait
+         */
+        private Long backOff = 10000L;
+    }
+    
+    /**
+     * Settings for the pooled keep-alive HTTP transport of the exchange Feign clients
+     */
+    private Transport transport = new Transport();
+    
+    @Data
+    public static class Transport {
+        
+        /**
+         * Reuse pooled keep-alive connections instead of opening one per call
+         */
+        private Boolean enabled = false;
+        
+        /**
+         * Connections each exchange's pool may hold
+         */
+        private Integer maxConnections = 16;
+        
+        /**
+         * Pool size for particular exchanges, overriding maxConnections
+         */
+        private Map<ExchangeType, Integer> maxConnectionsByExchange = new EnumMap<>(ExchangeType.class);
+        
+        /**
+         * Milliseconds a connection may sit idle before it is closed; below the 60 s idle timeout common at
+         * exchange load balancers, so the pool closes it before the far side does
+         */
+        private Long maxIdleTime = 50000L;
+        
+        /**
+         * Milliseconds after which a connection is retired even if busy, so DNS changes are picked up
+         */
+        private Long maxLifeTime = 300000L;
+        
+        /**
+         * Milliseconds a call waits for a free connection when the pool is exhausted
+         */
+        private Long pendingAcquireTimeout = 2000L;
+        
+        /**
+         * Ask for gzip responses, which shrinks the all-ticker and depth payloads
+         */
+        private Boolean compression = true;
+        
+        /**
+         * Negotiate HTTP/2 over TLS where the exchange supports it, falling back to HTTP/1.1
+         */
+        private Boolean http2 = false;
+    }
+    
+    /**
+     * Settings for the per-exchange health model and circuit breaker fed by every REST call
+     */
+    private Health health = new Health();
+    
+    @Data
+    public static class Health {
+        
+        /**
+         * Skip exchanges with an open circuit and answer health checks from the model instead of a live call
+         */
+        private Boolean enabled = false;
+        
+        /**
+         * Number of most recent calls the error rate and latency percentiles are computed over
+         */
+        private Integer windowSize = 50;
+        
+        /**
+         * Calls the window must hold before the circuit can open
+         */
+        private Integer minimumCalls = 10;
+        
+        /**
+         * Share of failed or slow calls in the window that opens the circuit
+         */
+        private BigDecimal failureRateThreshold = BigDecimal.valueOf(0.5);
+        
+        /**
+         * Calls slower than this many milliseconds count as failures
+         */
+        private Long slowCallThreshold = 3000L;
+        
+        /**
+         * Milliseconds the circuit stays open the first time; doubled each time it opens again without closing
+         */
+        private Long openDuration = 5000L;
+        
+        /**
+         * Longest the circuit stays open in milliseconds
+         */
+        private Long maxOpenDuration = 120000L;
+        
+        /**
+         * Trial calls that must succeed in a row to close a half-open circuit
+         */
+        private Integer halfOpenCalls = 3;
+        
+        /**
+         * Probe an exchange with a live call when it has seen no call for this many milliseconds
+         */
+        private Long probeInterval = 15000L;
+    }
+    
+    /**
+     * Settings for sending slow market data calls a second time and taking the first answer
+     */
+    private Hedging hedging = new Hedging();
+    
+    @Data
+    public static class Hedging {
+        
+        /**
+         * Hedge the ticker calls of every exchange
+         */
+        private Boolean enabled = false;
+        
+        /**
+         * Latency quantile of the exchange's recent ticker calls after which a call is sent again
+         */
+        private BigDecimal quantile = BigDecimal.valueOf(0.95);
+        
+        /**
+         * Shortest wait in milliseconds before hedging, so fast exchanges are not sent every call twice
+         */
+        private Long minDelay = 50L;
+        
+        /**
+         * Latencies an exchange's histogram must hold before its calls are hedged
+         */
+        private Integer minSamples = 20;
+        
+        /**
+         * Milliseconds each half of the latency histogram records before the older half is cleared
+         */
+        private Long period = 60000L;
+        
+        /**
+         * Largest share of calls that may be sent twice, so a slow exchange does not get twice the load
+         */
+        private BigDecimal maxShare = BigDecimal.valueOf(0.1);
+        
+        /**
+         * Hedged calls in flight at once, each with a thread for its primary and one for its hedge; a call that
+         * finds none free is sent on the caller's thread without a hedge
+         */
+        private Integer threads = 16;
+    }
 }
-
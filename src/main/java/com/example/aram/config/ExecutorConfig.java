@@ -0,0 +1,105 @@
+package com.example.aram.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutorConfig {
+    
+    /**
+     * Bounded pool for concurrent calls to exchange APIs. Price fetches carry a deadline that also cuts
+     * their REST timeouts, so a slow exchange holds a thread no longer than that, and fetches still queued at
+     * their deadline are dropped without calling out. Calls beyond the queue capacity are rejected.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService exchangeFetchExecutor(ArbitrageConfig arbitrageConfig) {
+        ArbitrageConfig.Fetch fetch = arbitrageConfig.getFetch();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                fetch.getMaxThreads(), fetch.getMaxThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fetch.getQueueCapacity()),
+                new CustomizableThreadFactory("exchange-fetch-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Pool sending hedgeable exchange calls while their callers wait with a deadline. Calls take one of the
+     * configured slots before using it and are sent on the caller's thread when none is free; each slot has
+     * two threads, one for the primary copy and one for its hedge, so the pool never refuses a hedge.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService exchangeHedgeExecutor(ArbitrageConfig arbitrageConfig) {
+        int threads = 2 * arbitrageConfig.getHedging().getThreads();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new CustomizableThreadFactory("exchange-hedge-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Pool running the quote listeners that detect, record and execute opportunities, so stream event loops
+     * and fetch threads only hand quotes over and never wait on the database or an order round trip
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService detectionExecutor(ArbitrageConfig arbitrageConfig) {
+        int threads = arbitrageConfig.getDetectionThreads();
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("detection-"));
+    }
+    
+    /**
+     * Work-stealing pool for the cross-exchange cycle search, kept apart from the common pool
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool cycleSearchPool(ArbitrageConfig arbitrageConfig) {
+        return new ForkJoinPool(arbitrageConfig.getCrossExchange().getParallelism());
+    }
+    
+    /**
+     * Pool placing order legs, with both legs of a trade handed over together.
+     * Unbounded so a leg is never rejected after its partner has already been sent.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tradeLegExecutor(ArbitrageConfig arbitrageConfig) {
+        int threads = arbitrageConfig.getExecution().getLegThreads();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("trade-leg-"));
+        executor.prestartAllCoreThreads();
+        return executor;
+    }
+    
+    /**
+     * Single writer recording trades and final opportunity status behind execution.
+     * When its queue is full the executing thread writes instead, so no record is dropped.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tradePersistenceExecutor(ArbitrageConfig arbitrageConfig) {
+        return new ThreadPoolExecutor(
+                1, 1,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(arbitrageConfig.getExecution().getPersistenceQueueCapacity()),
+                new CustomizableThreadFactory("trade-persistence-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.aram.controller;
 
 import com.example.aram.dto.ArbitrageOpportunityDto;
+import com.example.aram.dto.ReplayResultDto;
+import com.example.aram.enums.ReplaySource;
 import com.example.aram.model.ArbitrageOpportunity;
 import com.example.aram.service.ArbitrageDetectionService;
+import com.example.aram.service.ReplayService;
 import com.example.aram.service.TradeExecutionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,6 +24,7 @@ public class ArbitrageController {
     
     private final ArbitrageDetectionService detectionService;
     private final TradeExecutionService executionService;
+    private final ReplayService replayService;
     
     /**
      * Detect arbitrage opportunities for a symbol
@@ -38,6 +44,21 @@ public class ArbitrageController {
         return ResponseEntity.ok(dtos);
     }
     
+    /**
+     * Replay stored history through detection and report what would have fired
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<ReplayResultDto> replay(
+            @RequestParam String symbol,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0.5") BigDecimal minProfitPercentage,
+            @RequestParam(defaultValue = "ARCHIVE") ReplaySource source,
+            @RequestParam(defaultValue = "100") int maxOpportunities) {
+        
+        return ResponseEntity.ok(replayService.replay(symbol, from, to, minProfitPercentage, source, maxOpportunities));
+    }
+    
     /**
      * Get all profitable opportunities
      */
@@ -88,6 +109,9 @@ public class ArbitrageController {
                 .profitPercentage(opportunity.getProfitPercentage())
                 .estimatedProfit(opportunity.getEstimatedProfit())
                 .volume(opportunity.getVolume())
+                .buyVwap(opportunity.getBuyVwap())
+                .sellVwap(opportunity.getSellVwap())
+                .route(opportunity.getRoute())
                 .status(opportunity.getStatus())
                 .detectedAt(opportunity.getDetectedAt())
                 .build();
@@ -1,5 +1,11 @@
 package com.example.aram.controller;
 
+import com.example.aram.client.health.ExchangeHealth;
+import com.example.aram.client.hedge.RequestHedging;
+import com.example.aram.client.transport.FeignTransports;
+import com.example.aram.dto.ExchangeHealthDto;
+import com.example.aram.dto.HedgingStatsDto;
+import com.example.aram.dto.TransportStatsDto;
 import com.example.aram.enums.ExchangeType;
 import com.example.aram.model.Exchange;
 import com.example.aram.service.ExchangeService;
@@ -15,6 +21,9 @@ import java.util.List;
 public class ExchangeController {
     
     private final ExchangeService exchangeService;
+    private final FeignTransports feignTransports;
+    private final ExchangeHealth exchangeHealth;
+    private final RequestHedging requestHedging;
     
     /**
      * Get all active exchanges
@@ -25,6 +34,30 @@ public class ExchangeController {
         return ResponseEntity.ok(exchanges);
     }
     
+    /**
+     * Connection reuse of each exchange's pooled REST transport
+     */
+    @GetMapping("/transport")
+    public ResponseEntity<List<TransportStatsDto>> getTransportStats() {
+        return ResponseEntity.ok(feignTransports.stats());
+    }
+    
+    /**
+     * Circuit state, error rate and latency percentiles of every exchange
+     */
+    @GetMapping("/health")
+    public ResponseEntity<List<ExchangeHealthDto>> getHealth() {
+        return ResponseEntity.ok(exchangeHealth.snapshot());
+    }
+    
+    /**
+     * Ticker latency histogram, hedge delay and hedge counts of every exchange
+     */
+    @GetMapping("/hedging")
+    public ResponseEntity<List<HedgingStatsDto>> getHedgingStats() {
+        return ResponseEntity.ok(requestHedging.stats());
+    }
+    
     /**
      * Get a specific exchange
      */
@@ -87,7 +87,7 @@ public class PriceComparisonController {
                 .map(client -> ExchangeInfo.builder()
                         .name(client.getExchangeType().name())
                         .displayName(client.getExchangeType().getDisplayName())
-                        .healthy(client.isHealthy())
+                        .healthy(exchangeService.checkHealth(client.getExchangeType()))
                         .build())
                 .collect(Collectors.toList());
         
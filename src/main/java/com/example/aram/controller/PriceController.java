@@ -5,9 +5,12 @@ import com.example.aram.enums.ExchangeType;
 import com.example.aram.model.Price;
 import com.example.aram.service.PriceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,6 +29,11 @@ public class PriceController {
             @PathVariable ExchangeType exchange,
             @PathVariable String symbol) {
         
+        PriceDto quote = priceService.getLatestQuote(exchange, symbol);
+        if (quote != null) {
+            return ResponseEntity.ok(quote);
+        }
+        
         Price price = priceService.getLatestPrice(exchange, symbol);
         if (price == null) {
             return ResponseEntity.notFound().build();
@@ -39,6 +47,11 @@ public class PriceController {
      */
     @GetMapping("/{symbol}")
     public ResponseEntity<List<PriceDto>> getPricesForSymbol(@PathVariable String symbol) {
+        List<PriceDto> quotes = priceService.getLatestQuotes(symbol);
+        if (!quotes.isEmpty()) {
+            return ResponseEntity.ok(quotes);
+        }
+        
         List<Price> prices = priceService.getLatestPricesForSymbol(symbol);
         
         List<PriceDto> dtos = prices.stream()
@@ -48,6 +61,21 @@ public class PriceController {
         return ResponseEntity.ok(dtos);
     }
     
+    /**
+     * Get price history for a symbol on one exchange, optionally sampled every intervalSeconds
+     */
+    @GetMapping("/history/{exchange}")
+    public ResponseEntity<List<PriceDto>> getPriceHistory(
+            @PathVariable ExchangeType exchange,
+            @RequestParam String symbol,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long intervalSeconds) {
+        
+        Duration interval = intervalSeconds != null ? Duration.ofSeconds(intervalSeconds) : null;
+        return ResponseEntity.ok(priceService.getPriceHistory(exchange, symbol, from, to, interval));
+    }
+    
     /**
      * Manually trigger price update for specific symbols
      */
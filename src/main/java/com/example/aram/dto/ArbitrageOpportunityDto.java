@@ -26,6 +26,9 @@ public class ArbitrageOpportunityDto {
     private BigDecimal profitPercentage;
     private BigDecimal estimatedProfit;
     private BigDecimal volume;
+    private BigDecimal buyVwap;
+    private BigDecimal sellVwap;
+    private String route;
     private OpportunityStatus status;
     private LocalDateTime detectedAt;
 }
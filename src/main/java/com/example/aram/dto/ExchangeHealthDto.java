@@ -0,0 +1,24 @@
+package com.example.aram.dto;
+
+import com.example.aram.enums.CircuitState;
+import com.example.aram.enums.ExchangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeHealthDto {
+    private ExchangeType exchange;
+    private CircuitState state;
+    private int calls;               // Calls in the rolling window
+    private double errorRate;        // Share of calls in the window that failed or were slow
+    private long latencyP50;         // Milliseconds
+    private long latencyP95;
+    private long latencyP99;
+    private double score;            // 0 to 1, falling with the error rate and the 95th percentile latency
+    private long openForMillis;      // Time left before an open circuit admits trial calls
+}
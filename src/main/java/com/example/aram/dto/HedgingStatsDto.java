@@ -0,0 +1,23 @@
+package com.example.aram.dto;
+
+import com.example.aram.enums.ExchangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HedgingStatsDto {
+    private ExchangeType exchange;
+    private long samples;            // Latencies in the histogram
+    private long latencyP50;         // Milliseconds, rounded up to the histogram bucket
+    private long latencyP95;
+    private long latencyP99;
+    private long hedgeDelay;         // Milliseconds before a slow call is sent again; -1 while still learning
+    private long calls;              // Hedgeable calls
+    private long hedges;             // Calls sent a second time
+    private long hedgeWins;          // Hedges that answered first
+}
@@ -0,0 +1,32 @@
+package com.example.aram.dto;
+
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderStatus;
+import com.example.aram.enums.OrderType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDto {
+    private ExchangeType exchange;
+    private String symbol;
+    private String orderId;
+    private String clientOrderId;
+    private OrderSide side;
+    private OrderType type;
+    private BigDecimal price; // limit price, null for market orders
+    private BigDecimal quantity;
+    private BigDecimal executedQuantity; // null when the exchange only acknowledged the order
+    private BigDecimal averagePrice; // null until something filled or if the exchange does not report it
+    private OrderStatus status;
+    private LocalDateTime timestamp;
+}
@@ -18,6 +18,8 @@ public class PriceDto {
     private String symbol;
     private BigDecimal bidPrice;
     private BigDecimal askPrice;
+    private BigDecimal bidQuantity; // size at the best bid, null if the feed does not report it
+    private BigDecimal askQuantity;
     private BigDecimal lastPrice;
     private BigDecimal volume24h;
     private LocalDateTime timestamp;
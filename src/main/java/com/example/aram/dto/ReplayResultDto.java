@@ -0,0 +1,30 @@
+package com.example.aram.dto;
+
+import com.example.aram.enums.ReplaySource;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayResultDto {
+    private String symbol;
+    private ReplaySource source;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private BigDecimal minProfitPercentage;
+    private long ticks;              // Quotes replayed
+    private long changedTicks;       // Quotes that moved the top of book and were run through detection
+    private long opportunityCount;
+    private long loadMillis;         // Time spent reading history
+    private long detectMillis;       // Time spent in the quote store and detection
+    private long ticksPerSecond;     // Replay throughput, excluding load time
+    private List<ArbitrageOpportunityDto> opportunities;  // First maxOpportunities that would have fired
+}
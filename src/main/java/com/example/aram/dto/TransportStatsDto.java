@@ -0,0 +1,22 @@
+package com.example.aram.dto;
+
+import com.example.aram.enums.ExchangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransportStatsDto {
+    private ExchangeType exchange;
+    private int maxConnections;
+    private long requests;
+    private long failures;           // Calls that failed in the transport, not with an error status
+    private long connectionsOpened;  // New connections, each paying the TCP and TLS handshakes
+    private long connectionsReused;  // Calls served on an idle kept-alive connection
+    private long connectionsClosed;
+    private double reuseRatio;       // Share of calls that reused a connection
+}
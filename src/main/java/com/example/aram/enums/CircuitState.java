@@ -0,0 +1,7 @@
+package com.example.aram.enums;
+
+public enum CircuitState {
+    CLOSED,          // Calls go through and their outcomes are tracked
+    OPEN,            // Too many recent calls failed or were slow; calls are skipped until the open period ends
+    HALF_OPEN        // A few trial calls decide whether to close the circuit again
+}
@@ -0,0 +1,6 @@
+package com.example.aram.enums;
+
+public enum DetectionMode {
+    SCHEDULED,       // Rescan every watched pair at a fixed delay
+    EVENT            // Compare a quote against the other exchanges as soon as it changes
+}
@@ -0,0 +1,6 @@
+package com.example.aram.enums;
+
+public enum DetectionStrategy {
+    PAIRWISE,        // Compare every exchange pair in both directions
+    BEST_PRICE       // Walk the bid and ask orderings and stop at the first pair that does not cross
+}
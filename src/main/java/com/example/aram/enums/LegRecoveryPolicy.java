@@ -0,0 +1,6 @@
+package com.example.aram.enums;
+
+public enum LegRecoveryPolicy {
+    HEDGE,           // Retry the failed leg at market, unwinding only if it keeps failing
+    UNWIND           // Reverse the filled leg on its own exchange
+}
@@ -0,0 +1,10 @@
+package com.example.aram.enums;
+
+public enum OrderStatus {
+    NEW,              // Accepted by the exchange, nothing filled yet
+    PARTIALLY_FILLED, // Part of the quantity filled, the rest still open
+    FILLED,           // Completely filled
+    CANCELED,         // Cancelled or expired, possibly after a partial fill
+    REJECTED,         // Refused by the exchange
+    UNKNOWN           // Status the client does not recognise
+}
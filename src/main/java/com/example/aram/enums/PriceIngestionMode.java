@@ -0,0 +1,7 @@
+package com.example.aram.enums;
+
+public enum PriceIngestionMode {
+    PER_SYMBOL,      // One ticker call per watched pair per exchange
+    BULK,            // One all-tickers call per exchange, filtered to the watched pairs
+    STREAM           // WebSocket book-ticker streams, history persisted at the poll interval
+}
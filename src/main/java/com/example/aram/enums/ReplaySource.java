@@ -0,0 +1,6 @@
+package com.example.aram.enums;
+
+public enum ReplaySource {
+    DATABASE,        // Rows from the prices table
+    ARCHIVE          // Ticks from the memory-mapped tick archive
+}
@@ -0,0 +1,183 @@
+package com.example.aram.market;
+
+import com.example.aram.enums.ExchangeType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory balances per exchange and currency. Fills move them optimistically as soon as they are known and
+ * reconciliation against the exchanges corrects them afterwards. Every entry is an immutable balance and
+ * reserved amount swapped by compare-and-set, so sizing reads without locking and two opportunities can
+ * never reserve the same funds.
+ */
+@Component
+public class BalanceLedger {
+    
+    private static final int EXCHANGE_COUNT = ExchangeType.values().length;
+    
+    /**
+     * Entries per currency, indexed by exchange ordinal; null until the currency is seen on that exchange
+     */
+    private final ConcurrentMap<String, AtomicReferenceArray<Entry>> entriesByCurrency = new ConcurrentHashMap<>();
+    
+    /**
+     * Balance not held by a reservation, never negative
+     */
+    public BigDecimal available(ExchangeType exchange, String currency) {
+        AtomicReferenceArray<Entry> entries = entriesByCurrency.get(currency);
+        Entry entry = entries != null ? entries.get(exchange.ordinal()) : null;
+        return entry != null ? entry.available().max(BigDecimal.ZERO) : BigDecimal.ZERO;
+    }
+    
+    /**
+     * Hold funds for an order about to be placed
+     *
+     * @return the reservation, or null if less than the amount is available
+     */
+    public Reservation reserve(ExchangeType exchange, String currency, BigDecimal amount) {
+        AtomicReferenceArray<Entry> entries = entries(currency);
+        int index = exchange.ordinal();
+        while (true) {
+            Entry entry = entries.get(index);
+            if (entry == null || entry.available().compareTo(amount) < 0) {
+                return null;
+            }
+            if (entries.compareAndSet(index, entry,
+                    new Entry(entry.balance, entry.reserved.add(amount), entry.changedAt))) {
+                return new Reservation(exchange, currency, amount);
+            }
+        }
+    }
+    
+    /**
+     * Give back the reserved funds of an order that did not fill
+     */
+    public void release(Reservation reservation) {
+        settle(reservation, BigDecimal.ZERO);
+    }
+    
+    /**
+     * Replace a reservation by what its order actually spent, in one step so the funds are never counted twice
+     * or freed in between
+     */
+    public void settle(Reservation reservation, BigDecimal spent) {
+        AtomicReferenceArray<Entry> entries = entries(reservation.currency);
+        int index = reservation.exchange.ordinal();
+        long now = System.nanoTime();
+        while (true) {
+            Entry entry = entries.get(index);
+            Entry settled = new Entry(entry.balance.subtract(spent), entry.reserved.subtract(reservation.amount),
+                    spent.signum() != 0 ? now : entry.changedAt);
+            if (entries.compareAndSet(index, entry, settled)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Apply a fill's effect on a balance before the exchange reports it, negative for funds spent
+     */
+    public void adjust(ExchangeType exchange, String currency, BigDecimal delta) {
+        AtomicReferenceArray<Entry> entries = entries(currency);
+        int index = exchange.ordinal();
+        long now = System.nanoTime();
+        while (true) {
+            Entry entry = entries.get(index);
+            Entry adjusted = entry != null
+                    ? new Entry(entry.balance.add(delta), entry.reserved, now)
+                    : new Entry(delta, BigDecimal.ZERO, now);
+            if (entries.compareAndSet(index, entry, adjusted)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Take the balances an exchange reported; currencies it left out have none. Reservations are kept, and an
+     * entry changed by a fill after the fetch started keeps its local balance until the next reconciliation,
+     * since the exchange may have answered before that fill.
+     *
+     * @param fetchStarted {@link System#nanoTime()} when the balances were requested
+     */
+    public void reconcile(ExchangeType exchange, Map<String, BigDecimal> balances, long fetchStarted) {
+        for (String currency : balances.keySet()) {
+            entries(currency);
+        }
+        int index = exchange.ordinal();
+        entriesByCurrency.forEach((currency, entries) -> {
+            BigDecimal reported = balances.getOrDefault(currency, BigDecimal.ZERO);
+            while (true) {
+                Entry entry = entries.get(index);
+                if (entry == null && reported.signum() == 0) {
+                    return;
+                }
+                if (entry != null && (entry.changedAt - fetchStarted > 0 || entry.balance.compareTo(reported) == 0)) {
+                    return;
+                }
+                Entry reconciled = entry != null
+                        ? new Entry(reported, entry.reserved, entry.changedAt)
+                        : new Entry(reported, BigDecimal.ZERO, fetchStarted);
+                if (entries.compareAndSet(index, entry, reconciled)) {
+                    return;
+                }
+            }
+        });
+    }
+    
+    private AtomicReferenceArray<Entry> entries(String currency) {
+        return entriesByCurrency.computeIfAbsent(currency, key -> new AtomicReferenceArray<>(EXCHANGE_COUNT));
+    }
+    
+    /**
+     * Funds held on one exchange for one order until it is settled or released
+     */
+    public static final class Reservation {
+        
+        private final ExchangeType exchange;
+        private final String currency;
+        private final BigDecimal amount;
+        
+        private Reservation(ExchangeType exchange, String currency, BigDecimal amount) {
+            this.exchange = exchange;
+            this.currency = currency;
+            this.amount = amount;
+        }
+        
+        public ExchangeType getExchange() {
+            return exchange;
+        }
+        
+        public String getCurrency() {
+            return currency;
+        }
+        
+        public BigDecimal getAmount() {
+            return amount;
+        }
+    }
+    
+    /**
+     * Balance and reserved amount of one currency on one exchange, replaced as a whole on every change
+     */
+    private static final class Entry {
+        
+        private final BigDecimal balance;
+        private final BigDecimal reserved;
+        private final long changedAt;
+        
+        private Entry(BigDecimal balance, BigDecimal reserved, long changedAt) {
+            this.balance = balance;
+            this.reserved = reserved;
+            this.changedAt = changedAt;
+        }
+        
+        private BigDecimal available() {
+            return balance.subtract(reserved);
+        }
+    }
+}
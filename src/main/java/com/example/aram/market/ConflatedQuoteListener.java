@@ -0,0 +1,69 @@
+package com.example.aram.market;
+
+import com.example.aram.dto.PriceDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands changed quotes to a listener on an executor instead of the ingesting thread. The ingesting thread
+ * only records the quote as pending; one drain at a time then delivers the pending quotes to the listener.
+ * A quote replaced before it was delivered is skipped, so a slow listener sees the latest quote of each
+ * exchange and symbol rather than a growing backlog, and never runs concurrently with itself.
+ */
+@Slf4j
+public class ConflatedQuoteListener implements QuoteListener {
+    
+    private final QuoteListener delegate;
+    private final Executor executor;
+    
+    /**
+     * Latest undelivered quote per exchange and symbol
+     */
+    private final Map<String, PriceDto> pending = new ConcurrentHashMap<>();
+    
+    /**
+     * Quotes recorded since the drain last caught up; the drain is scheduled when this leaves zero
+     */
+    private final AtomicInteger work = new AtomicInteger();
+    
+    public ConflatedQuoteListener(QuoteListener delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+    
+    @Override
+    public void onQuoteChanged(PriceDto quote) {
+        pending.put(quote.getExchange().name() + ':' + quote.getSymbol(), quote);
+        if (work.getAndIncrement() == 0) {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                work.set(0);
+                log.warn("Quote changes wait for the next one, the executor refused them: {}", e.getMessage());
+            }
+        }
+    }
+    
+    private void drain() {
+        int missed = work.get();
+        while (missed != 0) {
+            for (String key : pending.keySet()) {
+                PriceDto quote = pending.remove(key);
+                if (quote == null) {
+                    continue;
+                }
+                try {
+                    delegate.onQuoteChanged(quote);
+                } catch (Exception e) {
+                    log.error("Quote listener failed for {} on {}: {}",
+                            quote.getSymbol(), quote.getExchange(), e.getMessage());
+                }
+            }
+            missed = work.addAndGet(-missed);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.aram.market;
+
+import com.example.aram.enums.ExchangeType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Graph for cross-exchange arbitrage whose nodes are (exchange, currency). Trade edges come in pairs per
+ * ticker, selling the base at the bid and buying it at the ask, net of the exchange's taker cost; transfer
+ * edges move a currency between exchanges net of the withdrawal fee. Weights are log rates, so the
+ * return of a cycle is a sum.
+ * <p>
+ * The topology is fixed once the transfers are added; afterwards only trade rates change. Searches read a
+ * rates array passed by the caller, either the live one under the caller's lock or a {@link #snapshot()}.
+ * Edge {@code e} and {@code e ^ 1} are the two directions of the same pair or transfer.
+ */
+public final class CrossExchangeGraph {
+    
+    private static final int INITIAL_CAPACITY = 64;
+    
+    private final Map<String, Integer> nodeIds = new HashMap<>();
+    private final List<ExchangeType> nodeExchanges = new ArrayList<>();
+    private final List<String> nodeCurrencies = new ArrayList<>();
+    private final List<int[]> outEdges = new ArrayList<>();
+    private final List<Integer> outCounts = new ArrayList<>();
+    
+    private final Map<String, Integer> tradeEdges = new HashMap<>();
+    private int[] edgeFrom = new int[INITIAL_CAPACITY];
+    private int[] edgeTo = new int[INITIAL_CAPACITY];
+    private String[] edgeSymbols = new String[INITIAL_CAPACITY];
+    private double[] edgeCosts = new double[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private double[] logRates = new double[INITIAL_CAPACITY];
+    private int edgeCount;
+    private int transferStart = -1;
+    
+    /**
+     * Add the two trade edges of a pair on one exchange, unquoted until {@link #update} is called
+     *
+     * @param costLog log of one minus the taker cost, added to both directions
+     * @return id of the selling edge (the buying edge is the next id), or -1 if base and quote are the same
+     */
+    public int addPair(ExchangeType exchange, String symbol, String base, String quote, double costLog) {
+        if (transferStart >= 0) {
+            throw new IllegalStateException("Pairs must be added before transfers");
+        }
+        String key = tradeKey(exchange, symbol);
+        Integer existing = tradeEdges.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int baseNode = nodeId(exchange, base);
+        int quoteNode = nodeId(exchange, quote);
+        if (baseNode == quoteNode) {
+            return -1;
+        }
+        int sell = addEdge(baseNode, quoteNode, symbol, costLog);
+        addEdge(quoteNode, baseNode, symbol, costLog);
+        tradeEdges.put(key, sell);
+        return sell;
+    }
+    
+    /**
+     * Connect every currency held on more than one exchange in both directions. Fixes the topology.
+     *
+     * @param withdrawalLog log of one minus the withdrawal fee, per exchange ordinal of the sending exchange
+     */
+    public void addTransfers(double[] withdrawalLog) {
+        transferStart = edgeCount;
+        int nodes = nodeCount();
+        for (int from = 0; from < nodes; from++) {
+            for (int to = from + 1; to < nodes; to++) {
+                if (nodeCurrencies.get(from).equals(nodeCurrencies.get(to))) {
+                    int edge = addEdge(from, to, null, 0);
+                    logRates[edge] = withdrawalLog[nodeExchanges.get(from).ordinal()];
+                    edge = addEdge(to, from, null, 0);
+                    logRates[edge] = withdrawalLog[nodeExchanges.get(to).ordinal()];
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return id of the pair's selling edge, or -1 if the graph does not trade it
+     */
+    public int tradeEdge(ExchangeType exchange, String symbol) {
+        Integer edge = tradeEdges.get(tradeKey(exchange, symbol));
+        return edge != null ? edge : -1;
+    }
+    
+    /**
+     * Replace a pair's bid and ask; a price that is not positive leaves its edge unusable
+     *
+     * @param sellEdge id returned by {@link #addPair} or {@link #tradeEdge}
+     * @return true if either price changed
+     */
+    public boolean update(int sellEdge, double bid, double ask) {
+        int buyEdge = sellEdge + 1;
+        if (Double.compare(prices[sellEdge], bid) == 0 && Double.compare(prices[buyEdge], ask) == 0) {
+            return false;
+        }
+        prices[sellEdge] = bid;
+        prices[buyEdge] = ask;
+        logRates[sellEdge] = bid > 0 ? Math.log(bid) + edgeCosts[sellEdge] : Double.NaN;
+        logRates[buyEdge] = ask > 0 ? edgeCosts[buyEdge] - Math.log(ask) : Double.NaN;
+        return true;
+    }
+    
+    /**
+     * Live rates, to be read only while updates are excluded
+     */
+    public double[] rates() {
+        return logRates;
+    }
+    
+    /**
+     * Copy of the current rates, for searches that run without holding the caller's lock
+     */
+    public double[] snapshot() {
+        return Arrays.copyOf(logRates, edgeCount);
+    }
+    
+    /**
+     * Find the profitable cycles whose lowest node is {@code start}, so that running this for every node
+     * reports every cycle exactly once. Cycles are simple, use at most {@code maxLegs} edges, include at least
+     * one transfer and never take two transfers in a row.
+     */
+    public void searchFrom(int start, int maxLegs, double minLogReturn, double[] rates, List<Cycle> found) {
+        new Search(maxLegs, minLogReturn, rates, found, start).extend(start, 0, 0.0, false);
+    }
+    
+    /**
+     * Find the profitable cycles that take one edge, e.g. after its rate changed, under the same rules as
+     * {@link #searchFrom}
+     */
+    public void searchThrough(int edge, int maxLegs, double minLogReturn, double[] rates, List<Cycle> found) {
+        if (Double.isNaN(rates[edge])) {
+            return;
+        }
+        Search search = new Search(maxLegs, minLogReturn, rates, found, -1);
+        search.path[0] = edge;
+        search.onPath[edgeFrom[edge]] = true;
+        search.onPath[edgeTo[edge]] = true;
+        search.transferred = isTransfer(edge);
+        search.extend(edgeFrom[edge], edgeTo[edge], 1, rates[edge], search.transferred);
+    }
+    
+    /**
+     * Log return of a cycle at the given rates, NaN if a leg is no longer quoted
+     */
+    public double logReturn(Cycle cycle, double[] rates) {
+        double total = 0;
+        for (int edge : cycle.edges) {
+            total += rates[edge];
+        }
+        return total;
+    }
+    
+    public int nodeCount() {
+        return nodeCurrencies.size();
+    }
+    
+    public int edgeCount() {
+        return edgeCount;
+    }
+    
+    public ExchangeType nodeExchange(int node) {
+        return nodeExchanges.get(node);
+    }
+    
+    public String nodeCurrency(int node) {
+        return nodeCurrencies.get(node);
+    }
+    
+    public int edgeSource(int edge) {
+        return edgeFrom[edge];
+    }
+    
+    public int edgeTarget(int edge) {
+        return edgeTo[edge];
+    }
+    
+    public boolean isTransfer(int edge) {
+        return transferStart >= 0 && edge >= transferStart;
+    }
+    
+    /**
+     * Whether a trade edge sells the pair's base currency at the bid rather than buying it at the ask
+     */
+    public boolean isSell(int edge) {
+        return (edge & 1) == 0;
+    }
+    
+    /**
+     * Pair traded by a trade edge, null for a transfer
+     */
+    public String edgeSymbol(int edge) {
+        return edgeSymbols[edge];
+    }
+    
+    /**
+     * Bid for a selling edge, ask for a buying edge
+     */
+    public double edgePrice(int edge) {
+        return prices[edge];
+    }
+    
+    private int nodeId(ExchangeType exchange, String currency) {
+        String key = exchange.name() + ':' + currency;
+        Integer id = nodeIds.get(key);
+        if (id == null) {
+            id = nodeCurrencies.size();
+            nodeIds.put(key, id);
+            nodeExchanges.add(exchange);
+            nodeCurrencies.add(currency);
+            outEdges.add(new int[4]);
+            outCounts.add(0);
+        }
+        return id;
+    }
+    
+    private int addEdge(int from, int to, String symbol, double costLog) {
+        if (edgeCount == edgeFrom.length) {
+            int capacity = 2 * edgeCount;
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            edgeSymbols = Arrays.copyOf(edgeSymbols, capacity);
+            edgeCosts = Arrays.copyOf(edgeCosts, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            logRates = Arrays.copyOf(logRates, capacity);
+        }
+        int edge = edgeCount++;
+        edgeFrom[edge] = from;
+        edgeTo[edge] = to;
+        edgeSymbols[edge] = symbol;
+        edgeCosts[edge] = costLog;
+        prices[edge] = Double.NaN;
+        logRates[edge] = Double.NaN;
+        
+        int count = outCounts.get(from);
+        int[] out = outEdges.get(from);
+        if (count == out.length) {
+            out = Arrays.copyOf(out, 2 * count);
+            outEdges.set(from, out);
+        }
+        out[count] = edge;
+        outCounts.set(from, count + 1);
+        return edge;
+    }
+    
+    private static String tradeKey(ExchangeType exchange, String symbol) {
+        return exchange.name() + ':' + symbol;
+    }
+    
+    /**
+     * A profitable cycle as its edges in trading order, with the log of its return after all costs
+     */
+    public static final class Cycle {
+        
+        private final int[] edges;
+        private final double logReturn;
+        
+        private Cycle(int[] edges, double logReturn) {
+            this.edges = edges;
+            this.logReturn = logReturn;
+        }
+        
+        public int[] getEdges() {
+            return edges.clone();
+        }
+        
+        public int length() {
+            return edges.length;
+        }
+        
+        public int edge(int leg) {
+            return edges[leg];
+        }
+        
+        public double getLogReturn() {
+            return logReturn;
+        }
+    }
+    
+    /**
+     * Depth-first walk state for one search, confined to the calling thread
+     */
+    private final class Search {
+        
+        private final int maxLegs;
+        private final double minLogReturn;
+        private final double[] rates;
+        private final List<Cycle> found;
+        private final int lowestNode;
+        private final int[] path;
+        private final boolean[] onPath;
+        private boolean transferred;
+        
+        private Search(int maxLegs, double minLogReturn, double[] rates, List<Cycle> found, int lowestNode) {
+            this.maxLegs = maxLegs;
+            this.minLogReturn = minLogReturn;
+            this.rates = rates;
+            this.found = found;
+            this.lowestNode = lowestNode;
+            this.path = new int[maxLegs];
+            this.onPath = new boolean[nodeCount()];
+        }
+        
+        /**
+         * Walk from {@code start} back to itself, starting with no legs taken
+         */
+        private void extend(int start, int depth, double logReturn, boolean lastTransfer) {
+            onPath[start] = true;
+            extend(start, start, depth, logReturn, lastTransfer);
+        }
+        
+        private void extend(int start, int node, int depth, double logReturn, boolean lastTransfer) {
+            int[] out = outEdges.get(node);
+            int count = outCounts.get(node);
+            for (int i = 0; i < count; i++) {
+                int edge = out[i];
+                boolean transfer = isTransfer(edge);
+                double rate = rates[edge];
+                int next = edgeTo[edge];
+                if (Double.isNaN(rate) || (transfer && lastTransfer) || next < lowestNode) {
+                    continue;
+                }
+                double total = logReturn + rate;
+                boolean hasTransfer = transferred || transfer;
+                if (next == start) {
+                    boolean wrapsTransfer = transfer && isTransfer(path[0]) && depth > 0;
+                    if (depth > 0 && hasTransfer && !wrapsTransfer && total >= minLogReturn) {
+                        path[depth] = edge;
+                        found.add(new Cycle(Arrays.copyOf(path, depth + 1), total));
+                    }
+                    continue;
+                }
+                if (onPath[next] || depth + 2 > maxLegs) {
+                    continue;
+                }
+                boolean previousTransferred = transferred;
+                path[depth] = edge;
+                onPath[next] = true;
+                transferred = hasTransfer;
+                extend(start, next, depth + 1, total, transfer);
+                transferred = previousTransferred;
+                onPath[next] = false;
+            }
+        }
+    }
+}
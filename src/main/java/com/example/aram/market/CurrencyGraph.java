@@ -0,0 +1,256 @@
+package com.example.aram.market;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Currency graph of one exchange for triangular arbitrage. Each pair gives two edges, base to quote at the bid
+ * and quote to base at one over the ask, weighted by the log of the rate so the return of a cycle is a sum.
+ * Every triangle is indexed under its three pairs when its last pair is added, so a changed quote only
+ * re-evaluates the triangles through that pair.
+ * <p>
+ * Edge {@code 2 * pair} sells the base currency at the bid and edge {@code 2 * pair + 1} buys it at the ask.
+ * Cycle {@code 2 * triangle} runs the triangle forward and {@code 2 * triangle + 1} backward.
+ * Not thread-safe; callers serialise access to each graph.
+ */
+public final class CurrencyGraph {
+    
+    private static final int INITIAL_CAPACITY = 64;
+    
+    private final Map<String, Integer> currencyIds = new HashMap<>();
+    private final List<String> currencies = new ArrayList<>();
+    
+    /**
+     * Pair id by the other currency, per currency
+     */
+    private final List<Map<Integer, Integer>> neighbours = new ArrayList<>();
+    
+    private final Map<String, Integer> pairIds = new HashMap<>();
+    private String[] symbols = new String[INITIAL_CAPACITY];
+    private int[] baseIds = new int[INITIAL_CAPACITY];
+    private int[] quoteIds = new int[INITIAL_CAPACITY];
+    private double[] bids = new double[INITIAL_CAPACITY];
+    private double[] asks = new double[INITIAL_CAPACITY];
+    private int[][] pairTriangles = new int[INITIAL_CAPACITY][];
+    private int[] pairTriangleCounts = new int[INITIAL_CAPACITY];
+    private int pairCount;
+    
+    /**
+     * Log rate per edge, NaN until the pair is quoted so unquoted cycles never pass a threshold
+     */
+    private double[] logRates = new double[2 * INITIAL_CAPACITY];
+    
+    /**
+     * Edges of each triangle's forward cycle, three per triangle
+     */
+    private int[] triangleEdges = new int[3 * INITIAL_CAPACITY];
+    private int triangleCount;
+    
+    /**
+     * Register a pair and index every triangle it closes with pairs already in the graph.
+     * The forward cycle of a new triangle starts by buying the new pair's base with its quote currency.
+     *
+     * @return pair id, or -1 if base and quote are the same or another symbol already links the two currencies
+     */
+    public int addPair(String symbol, String base, String quote) {
+        Integer existing = pairIds.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        int baseId = currencyId(base);
+        int quoteId = currencyId(quote);
+        Map<Integer, Integer> fromBase = neighbours.get(baseId);
+        Map<Integer, Integer> fromQuote = neighbours.get(quoteId);
+        if (baseId == quoteId || fromBase.containsKey(quoteId)) {
+            return -1;
+        }
+        
+        int pair = newPair(symbol, baseId, quoteId);
+        boolean baseSmaller = fromBase.size() <= fromQuote.size();
+        Map<Integer, Integer> smaller = baseSmaller ? fromBase : fromQuote;
+        Map<Integer, Integer> larger = baseSmaller ? fromQuote : fromBase;
+        for (Map.Entry<Integer, Integer> entry : smaller.entrySet()) {
+            if (larger.containsKey(entry.getKey())) {
+                int third = entry.getKey();
+                addTriangle(edge(pair, quoteId), edge(fromBase.get(third), baseId), edge(fromQuote.get(third), third));
+            }
+        }
+        fromBase.put(quoteId, pair);
+        fromQuote.put(baseId, pair);
+        return pair;
+    }
+    
+    /**
+     * @return pair id, or -1 if the symbol is not in the graph
+     */
+    public int pairId(String symbol) {
+        Integer pair = pairIds.get(symbol);
+        return pair != null ? pair : -1;
+    }
+    
+    /**
+     * Replace a pair's bid and ask; a price that is not positive leaves its edge unusable
+     *
+     * @return true if either price changed
+     */
+    public boolean update(int pair, double bid, double ask) {
+        if (Double.compare(bids[pair], bid) == 0 && Double.compare(asks[pair], ask) == 0) {
+            return false;
+        }
+        bids[pair] = bid;
+        asks[pair] = ask;
+        logRates[2 * pair] = bid > 0 ? Math.log(bid) : Double.NaN;
+        logRates[2 * pair + 1] = ask > 0 ? -Math.log(ask) : Double.NaN;
+        return true;
+    }
+    
+    /**
+     * Check both directions of every triangle through one pair, reporting the cycles whose log return
+     * reaches the threshold. Costs three additions per direction and does not allocate.
+     *
+     * @return number of cycles reported
+     */
+    public int evaluate(int pair, double minLogReturn, CycleVisitor visitor) {
+        int[] triangles = pairTriangles[pair];
+        int count = pairTriangleCounts[pair];
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            int triangle = triangles[i];
+            int e0 = triangleEdges[3 * triangle];
+            int e1 = triangleEdges[3 * triangle + 1];
+            int e2 = triangleEdges[3 * triangle + 2];
+            double forward = logRates[e0] + logRates[e1] + logRates[e2];
+            if (forward >= minLogReturn) {
+                visitor.onCycle(2 * triangle, forward);
+                found++;
+            }
+            double backward = logRates[e0 ^ 1] + logRates[e1 ^ 1] + logRates[e2 ^ 1];
+            if (backward >= minLogReturn) {
+                visitor.onCycle(2 * triangle + 1, backward);
+                found++;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Natural log of the product of a cycle's three rates at the current prices, NaN while a leg is unquoted
+     */
+    public double cycleLogReturn(int cycle) {
+        return logRates[cycleEdge(cycle, 0)] + logRates[cycleEdge(cycle, 1)] + logRates[cycleEdge(cycle, 2)];
+    }
+    
+    /**
+     * Edge taken by one leg of a cycle
+     *
+     * @param leg 0, 1 or 2 in trading order
+     */
+    public int cycleEdge(int cycle, int leg) {
+        int triangle = cycle >> 1;
+        return (cycle & 1) == 0
+                ? triangleEdges[3 * triangle + leg]
+                : triangleEdges[3 * triangle + 2 - leg] ^ 1;
+    }
+    
+    public String edgeSymbol(int edge) {
+        return symbols[edge >> 1];
+    }
+    
+    /**
+     * Whether the edge sells the pair's base currency at the bid rather than buying it at the ask
+     */
+    public boolean isSell(int edge) {
+        return (edge & 1) == 0;
+    }
+    
+    /**
+     * Bid for a selling edge, ask for a buying edge
+     */
+    public double edgePrice(int edge) {
+        return isSell(edge) ? bids[edge >> 1] : asks[edge >> 1];
+    }
+    
+    /**
+     * Currency spent on the edge
+     */
+    public String edgeSource(int edge) {
+        int pair = edge >> 1;
+        return currencies.get(isSell(edge) ? baseIds[pair] : quoteIds[pair]);
+    }
+    
+    public int pairCount() {
+        return pairCount;
+    }
+    
+    public int triangleCount() {
+        return triangleCount;
+    }
+    
+    private int currencyId(String currency) {
+        Integer id = currencyIds.get(currency);
+        if (id == null) {
+            id = currencies.size();
+            currencyIds.put(currency, id);
+            currencies.add(currency);
+            neighbours.add(new HashMap<>());
+        }
+        return id;
+    }
+    
+    private int newPair(String symbol, int baseId, int quoteId) {
+        if (pairCount == symbols.length) {
+            int capacity = 2 * pairCount;
+            symbols = Arrays.copyOf(symbols, capacity);
+            baseIds = Arrays.copyOf(baseIds, capacity);
+            quoteIds = Arrays.copyOf(quoteIds, capacity);
+            bids = Arrays.copyOf(bids, capacity);
+            asks = Arrays.copyOf(asks, capacity);
+            pairTriangles = Arrays.copyOf(pairTriangles, capacity);
+            pairTriangleCounts = Arrays.copyOf(pairTriangleCounts, capacity);
+            logRates = Arrays.copyOf(logRates, 2 * capacity);
+        }
+        int pair = pairCount++;
+        symbols[pair] = symbol;
+        baseIds[pair] = baseId;
+        quoteIds[pair] = quoteId;
+        bids[pair] = Double.NaN;
+        asks[pair] = Double.NaN;
+        logRates[2 * pair] = Double.NaN;
+        logRates[2 * pair + 1] = Double.NaN;
+        pairTriangles[pair] = new int[4];
+        pairIds.put(symbol, pair);
+        return pair;
+    }
+    
+    private void addTriangle(int e0, int e1, int e2) {
+        if (3 * triangleCount == triangleEdges.length) {
+            triangleEdges = Arrays.copyOf(triangleEdges, 2 * triangleEdges.length);
+        }
+        int triangle = triangleCount++;
+        triangleEdges[3 * triangle] = e0;
+        triangleEdges[3 * triangle + 1] = e1;
+        triangleEdges[3 * triangle + 2] = e2;
+        indexTriangle(e0 >> 1, triangle);
+        indexTriangle(e1 >> 1, triangle);
+        indexTriangle(e2 >> 1, triangle);
+    }
+    
+    private void indexTriangle(int pair, int triangle) {
+        int count = pairTriangleCounts[pair];
+        if (count == pairTriangles[pair].length) {
+            pairTriangles[pair] = Arrays.copyOf(pairTriangles[pair], 2 * count);
+        }
+        pairTriangles[pair][count] = triangle;
+        pairTriangleCounts[pair] = count + 1;
+    }
+    
+    /**
+     * Edge of a pair that spends the given currency
+     */
+    private int edge(int pair, int from) {
+        return baseIds[pair] == from ? 2 * pair : 2 * pair + 1;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.aram.market;
+
+/**
+ * Receives the profitable cycles found by {@link CurrencyGraph#evaluate}
+ */
+public interface CycleVisitor {
+    
+    /**
+     * @param cycle     cycle id, see {@link CurrencyGraph#cycleEdge}
+     * @param logReturn natural log of the product of the three rates, before costs
+     */
+    void onCycle(int cycle, double logReturn);
+}
@@ -0,0 +1,56 @@
+package com.example.aram.market;
+
+import com.example.aram.enums.ExchangeType;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable snapshot of the cost of one taker leg per exchange, in parts per million of the notional.
+ * Detection reads one snapshot per pass so a walk sees consistent costs while they are being refreshed.
+ */
+public final class FeeSchedule {
+    
+    /**
+     * No costs on any exchange, used when net-profit detection is disabled
+     */
+    public static final FeeSchedule NONE = new FeeSchedule(new long[ExchangeType.values().length]);
+    
+    private final long[] costPpm;
+    private final long minCostPpm;
+    
+    /**
+     * @param costPpm cost per leg indexed by exchange ordinal, each at least 0 and below 1,000,000
+     */
+    public FeeSchedule(long[] costPpm) {
+        if (costPpm.length != ExchangeType.values().length) {
+            throw new IllegalArgumentException("Expected one cost per exchange");
+        }
+        long min = Long.MAX_VALUE;
+        for (long cost : costPpm) {
+            if (cost < 0 || cost >= 1_000_000L) {
+                throw new IllegalArgumentException("Cost must be between 0 and 1,000,000 ppm: " + cost);
+            }
+            min = Math.min(min, cost);
+        }
+        this.costPpm = costPpm.clone();
+        this.minCostPpm = costPpm.length > 0 ? min : 0;
+    }
+    
+    public long costPpm(ExchangeType exchange) {
+        return costPpm[exchange.ordinal()];
+    }
+    
+    /**
+     * Cheapest leg on any exchange; a pair priced with it on both legs bounds the net profit of any pair from above
+     */
+    public long minCostPpm() {
+        return minCostPpm;
+    }
+    
+    /**
+     * Cost of one leg as a fraction of the notional, e.g. 0.001 for 0.1%
+     */
+    public BigDecimal costFraction(ExchangeType exchange) {
+        return BigDecimal.valueOf(costPpm[exchange.ordinal()], 6);
+    }
+}
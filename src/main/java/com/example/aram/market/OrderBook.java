@@ -0,0 +1,129 @@
+package com.example.aram.market;
+
+import com.example.aram.util.FixedPoint;
+
+/**
+ * Price ladder for one exchange and symbol, held as fixed-point primitive arrays so it can be
+ * refilled and read on every tick without allocating. Bids are kept highest first and asks lowest first.
+ * Not thread-safe; {@link OrderBookStore} guards the shared instances.
+ */
+public final class OrderBook {
+    
+    private final long[] bidPrices;
+    private final long[] bidSizes;
+    private final long[] askPrices;
+    private final long[] askSizes;
+    private int bidCount;
+    private int askCount;
+    private long timestamp;
+    
+    /**
+     * @param capacity maximum number of levels kept per side
+     */
+    public OrderBook(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Order book capacity must be positive");
+        }
+        bidPrices = new long[capacity];
+        bidSizes = new long[capacity];
+        askPrices = new long[capacity];
+        askSizes = new long[capacity];
+    }
+    
+    public int capacity() {
+        return bidPrices.length;
+    }
+    
+    public void clear() {
+        bidCount = 0;
+        askCount = 0;
+        timestamp = 0;
+    }
+    
+    /**
+     * Append a bid level from a snapshot sent best first. Levels that are out of order, empty,
+     * not representable or beyond capacity are ignored.
+     *
+     * @return true if the level was added
+     */
+    public boolean addBid(long price, long size) {
+        if (!isValid(price, size) || bidCount == bidPrices.length 
+                || (bidCount > 0 && price >= bidPrices[bidCount - 1])) {
+            return false;
+        }
+        bidPrices[bidCount] = price;
+        bidSizes[bidCount++] = size;
+        return true;
+    }
+    
+    /**
+     * Append an ask level from a snapshot sent best first, with the same rules as {@link #addBid}
+     */
+    public boolean addAsk(long price, long size) {
+        if (!isValid(price, size) || askCount == askPrices.length 
+                || (askCount > 0 && price <= askPrices[askCount - 1])) {
+            return false;
+        }
+        askPrices[askCount] = price;
+        askSizes[askCount++] = size;
+        return true;
+    }
+    
+    private static boolean isValid(long price, long size) {
+        return FixedPoint.isRepresentable(price) && price > 0 && FixedPoint.isRepresentable(size) && size > 0;
+    }
+    
+    /**
+     * Replace this book's contents with another's, keeping at most this book's capacity per side
+     */
+    public void copyFrom(OrderBook other) {
+        bidCount = Math.min(other.bidCount, bidPrices.length);
+        askCount = Math.min(other.askCount, askPrices.length);
+        System.arraycopy(other.bidPrices, 0, bidPrices, 0, bidCount);
+        System.arraycopy(other.bidSizes, 0, bidSizes, 0, bidCount);
+        System.arraycopy(other.askPrices, 0, askPrices, 0, askCount);
+        System.arraycopy(other.askSizes, 0, askSizes, 0, askCount);
+        timestamp = other.timestamp;
+    }
+    
+    public int bidCount() {
+        return bidCount;
+    }
+    
+    public int askCount() {
+        return askCount;
+    }
+    
+    /**
+     * Bid price at a level, scaled by {@link FixedPoint#ONE}; level 0 is the best
+     */
+    public long bidPrice(int level) {
+        return bidPrices[level];
+    }
+    
+    public long bidSize(int level) {
+        return bidSizes[level];
+    }
+    
+    /**
+     * Ask price at a level, scaled by {@link FixedPoint#ONE}; level 0 is the best
+     */
+    public long askPrice(int level) {
+        return askPrices[level];
+    }
+    
+    public long askSize(int level) {
+        return askSizes[level];
+    }
+    
+    /**
+     * Time of the last snapshot in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.aram.market;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latest order-book ladder per exchange and symbol. Each ladder is allocated once and then
+ * overwritten in place under its own lock, so snapshot refreshes and reads never allocate.
+ */
+@Component
+public class OrderBookStore {
+    
+    private static final int EXCHANGE_COUNT = ExchangeType.values().length;
+    
+    private final ConcurrentMap<String, OrderBook[]> booksBySymbol = new ConcurrentHashMap<>();
+    private final int levels;
+    
+    public OrderBookStore(ArbitrageConfig arbitrageConfig) {
+        this.levels = arbitrageConfig.getDepth().getLevels();
+    }
+    
+    /**
+     * Number of levels kept per side
+     */
+    public int levels() {
+        return levels;
+    }
+    
+    /**
+     * Replace the ladder for an exchange and symbol with a snapshot
+     */
+    public void update(ExchangeType exchange, String symbol, OrderBook snapshot) {
+        OrderBook book = book(exchange, symbol);
+        synchronized (book) {
+            book.copyFrom(snapshot);
+        }
+    }
+    
+    /**
+     * Copy the ladder for an exchange and symbol into a caller-owned book
+     *
+     * @return false if nothing has been received for the pair yet
+     */
+    public boolean copy(ExchangeType exchange, String symbol, OrderBook into) {
+        OrderBook[] books = booksBySymbol.get(symbol);
+        OrderBook book = books != null ? books[exchange.ordinal()] : null;
+        if (book == null) {
+            into.clear();
+            return false;
+        }
+        synchronized (book) {
+            into.copyFrom(book);
+        }
+        return into.getTimestamp() != 0;
+    }
+    
+    private OrderBook book(ExchangeType exchange, String symbol) {
+        OrderBook[] books = booksBySymbol.computeIfAbsent(symbol, key -> {
+            OrderBook[] created = new OrderBook[EXCHANGE_COUNT];
+            for (int i = 0; i < EXCHANGE_COUNT; i++) {
+                created[i] = new OrderBook(levels);
+            }
+            return created;
+        });
+        return books[exchange.ordinal()];
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.aram.market;
+
+import com.example.aram.dto.PriceDto;
+
+/**
+ * Notified by the {@link QuoteStore} when the top of book for an exchange and symbol changes
+ */
+public interface QuoteListener {
+    
+    /**
+     * Called on the ingesting thread right after the new quote is stored. Listeners that touch the database or
+     * the exchanges register through a {@link ConflatedQuoteListener} so that work runs elsewhere.
+     */
+    void onQuoteChanged(PriceDto quote);
+}
@@ -0,0 +1,159 @@
+package com.example.aram.market;
+
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory store of the latest top-of-book quote per exchange and symbol.
+ * Written by the price ingestion path and read lock-free by arbitrage detection,
+ * so detection never has to query the prices table, which is kept for history only.
+ */
+@Component
+@Slf4j
+public class QuoteStore {
+    
+    private static final int EXCHANGE_COUNT = ExchangeType.values().length;
+    
+    /**
+     * Latest quotes per symbol, indexed by exchange ordinal and ordered by bid and ask
+     */
+    private final ConcurrentMap<String, SymbolBook> booksBySymbol = new ConcurrentHashMap<>();
+    
+    private final List<QuoteListener> listeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * Register a listener for top-of-book changes
+     */
+    public void addListener(QuoteListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Replace the latest quote for the quote's exchange and symbol.
+     * The stored instance is shared with readers and must not be modified afterwards.
+     * Listeners are notified only if the bid or ask actually changed.
+     *
+     * @return true if the bid or ask changed
+     */
+    public boolean update(PriceDto quote) {
+        if (quote == null || quote.getExchange() == null || quote.getSymbol() == null) {
+            return false;
+        }
+        ScaledQuote scaled = ScaledQuote.of(quote);
+        ScaledQuote previous = booksBySymbol
+                .computeIfAbsent(quote.getSymbol(), symbol -> new SymbolBook(EXCHANGE_COUNT))
+                .update(quote.getExchange().ordinal(), scaled);
+        
+        boolean changed = previous == null || !sameValue(previous, scaled);
+        if (changed) {
+            for (QuoteListener listener : listeners) {
+                try {
+                    listener.onQuoteChanged(quote);
+                } catch (Exception e) {
+                    log.error("Quote listener failed for {} on {}: {}", 
+                            quote.getSymbol(), quote.getExchange(), e.getMessage());
+                }
+            }
+        }
+        return changed;
+    }
+    
+    private static boolean sameValue(ScaledQuote previous, ScaledQuote quote) {
+        if (previous.isExact() && quote.isExact()) {
+            return previous.getBid() == quote.getBid() && previous.getAsk() == quote.getAsk();
+        }
+        return sameValue(previous.getPrice().getBidPrice(), quote.getPrice().getBidPrice())
+                && sameValue(previous.getPrice().getAskPrice(), quote.getPrice().getAskPrice());
+    }
+    
+    private static boolean sameValue(BigDecimal previous, BigDecimal current) {
+        return previous == null ? current == null : current != null && previous.compareTo(current) == 0;
+    }
+    
+    /**
+     * Get the latest quote for a symbol on a specific exchange
+     */
+    public PriceDto getQuote(ExchangeType exchange, String symbol) {
+        SymbolBook book = booksBySymbol.get(symbol);
+        ScaledQuote quote = book != null ? book.get(exchange.ordinal()) : null;
+        return quote != null ? quote.getPrice() : null;
+    }
+    
+    /**
+     * Get the latest fixed-point quote for a symbol on a specific exchange
+     */
+    public ScaledQuote getScaledQuote(ExchangeType exchange, String symbol) {
+        SymbolBook book = booksBySymbol.get(symbol);
+        return book != null ? book.get(exchange.ordinal()) : null;
+    }
+    
+    /**
+     * Get the latest quotes for a symbol across all exchanges
+     */
+    public List<PriceDto> getQuotes(String symbol) {
+        List<PriceDto> result = new ArrayList<>(EXCHANGE_COUNT);
+        SymbolBook book = booksBySymbol.get(symbol);
+        if (book == null) {
+            return result;
+        }
+        for (int i = 0; i < EXCHANGE_COUNT; i++) {
+            ScaledQuote quote = book.get(i);
+            if (quote != null) {
+                result.add(quote.getPrice());
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Copy the latest fixed-point quotes for a symbol into a caller-owned buffer without allocating
+     *
+     * @param into buffer with room for one quote per exchange
+     * @return number of quotes copied
+     */
+    public int copyScaledQuotes(String symbol, ScaledQuote[] into) {
+        SymbolBook book = booksBySymbol.get(symbol);
+        if (book == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < EXCHANGE_COUNT; i++) {
+            ScaledQuote quote = book.get(i);
+            if (quote != null) {
+                into[count++] = quote;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Get the bid/ask-ordered book for a symbol, or null if it has no quotes yet
+     */
+    public SymbolBook getBook(String symbol) {
+        return booksBySymbol.get(symbol);
+    }
+    
+    /**
+     * Number of slots a buffer passed to {@link #copyScaledQuotes} or a {@link SymbolBook} copy needs
+     */
+    public static int capacity() {
+        return EXCHANGE_COUNT;
+    }
+    
+    /**
+     * Get all symbols that have at least one quote
+     */
+    public Set<String> getSymbols() {
+        return booksBySymbol.keySet();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.aram.market;
+
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.util.FixedPoint;
+
+/**
+ * Immutable top-of-book quote with bid and ask held as fixed-point longs for the detection hot path.
+ * The original DTO is kept for the REST and persistence boundary.
+ */
+public final class ScaledQuote {
+    
+    private final PriceDto price;
+    private final long bid;
+    private final long ask;
+    
+    private ScaledQuote(PriceDto price) {
+        this.price = price;
+        this.bid = FixedPoint.toScaled(price.getBidPrice());
+        this.ask = FixedPoint.toScaled(price.getAskPrice());
+    }
+    
+    public static ScaledQuote of(PriceDto price) {
+        return new ScaledQuote(price);
+    }
+    
+    public PriceDto getPrice() {
+        return price;
+    }
+    
+    public ExchangeType getExchange() {
+        return price.getExchange();
+    }
+    
+    /**
+     * Bid scaled by {@link FixedPoint#ONE}, or {@link FixedPoint#UNREPRESENTABLE}
+     */
+    public long getBid() {
+        return bid;
+    }
+    
+    /**
+     * Ask scaled by {@link FixedPoint#ONE}, or {@link FixedPoint#UNREPRESENTABLE}
+     */
+    public long getAsk() {
+        return ask;
+    }
+    
+    public boolean hasBid() {
+        return price.getBidPrice() != null;
+    }
+    
+    public boolean hasAsk() {
+        return price.getAskPrice() != null;
+    }
+    
+    /**
+     * Compare bids, using the fixed-point values when both converted exactly
+     */
+    public static int compareBid(ScaledQuote a, ScaledQuote b) {
+        if (FixedPoint.isRepresentable(a.bid) && FixedPoint.isRepresentable(b.bid)) {
+            return Long.compare(a.bid, b.bid);
+        }
+        return a.price.getBidPrice().compareTo(b.price.getBidPrice());
+    }
+    
+    /**
+     * Compare asks, using the fixed-point values when both converted exactly
+     */
+    public static int compareAsk(ScaledQuote a, ScaledQuote b) {
+        if (FixedPoint.isRepresentable(a.ask) && FixedPoint.isRepresentable(b.ask)) {
+            return Long.compare(a.ask, b.ask);
+        }
+        return a.price.getAskPrice().compareTo(b.price.getAskPrice());
+    }
+    
+    /**
+     * Whether both sides converted exactly, so the long math gives the same result as BigDecimal
+     */
+    public boolean isExact() {
+        return FixedPoint.isRepresentable(bid) && FixedPoint.isRepresentable(ask);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.aram.market;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latest quotes for one symbol across exchanges, plus the exchanges ordered by best ask
+ * (lowest first) and best bid (highest first). Slots are read lock-free; the orderings are
+ * maintained and read under the book's lock. With one slot per exchange the repositioning
+ * on each update is a few int moves, and the best bid and ask are read in constant time.
+ */
+public final class SymbolBook {
+    
+    private final AtomicReferenceArray<ScaledQuote> quotes;
+    
+    /**
+     * Exchange ordinals with an ask, lowest ask first
+     */
+    private final int[] byAsk;
+    
+    /**
+     * Exchange ordinals with a bid, highest bid first
+     */
+    private final int[] byBid;
+    
+    private int askCount;
+    private int bidCount;
+    
+    SymbolBook(int exchangeCount) {
+        this.quotes = new AtomicReferenceArray<>(exchangeCount);
+        this.byAsk = new int[exchangeCount];
+        this.byBid = new int[exchangeCount];
+    }
+    
+    /**
+     * Replace the quote in a slot and reposition it in both orderings
+     *
+     * @return the quote previously in the slot
+     */
+    synchronized ScaledQuote update(int ordinal, ScaledQuote quote) {
+        ScaledQuote previous = quotes.getAndSet(ordinal, quote);
+        askCount = remove(byAsk, askCount, ordinal);
+        bidCount = remove(byBid, bidCount, ordinal);
+        if (quote.hasAsk()) {
+            askCount = insert(byAsk, askCount, ordinal, true);
+        }
+        if (quote.hasBid()) {
+            bidCount = insert(byBid, bidCount, ordinal, false);
+        }
+        return previous;
+    }
+    
+    ScaledQuote get(int ordinal) {
+        return quotes.get(ordinal);
+    }
+    
+    /**
+     * Quote with the lowest ask, or null if no exchange has one
+     */
+    public synchronized ScaledQuote bestAsk() {
+        return askCount > 0 ? quotes.get(byAsk[0]) : null;
+    }
+    
+    /**
+     * Quote with the highest bid, or null if no exchange has one
+     */
+    public synchronized ScaledQuote bestBid() {
+        return bidCount > 0 ? quotes.get(byBid[0]) : null;
+    }
+    
+    /**
+     * Copy quotes ordered by ask, lowest first, into a caller-owned buffer
+     *
+     * @return number of quotes copied
+     */
+    public synchronized int copyByAsk(ScaledQuote[] into) {
+        for (int i = 0; i < askCount; i++) {
+            into[i] = quotes.get(byAsk[i]);
+        }
+        return askCount;
+    }
+    
+    /**
+     * Copy quotes ordered by bid, highest first, into a caller-owned buffer
+     *
+     * @return number of quotes copied
+     */
+    public synchronized int copyByBid(ScaledQuote[] into) {
+        for (int i = 0; i < bidCount; i++) {
+            into[i] = quotes.get(byBid[i]);
+        }
+        return bidCount;
+    }
+    
+    private static int remove(int[] order, int count, int ordinal) {
+        for (int i = 0; i < count; i++) {
+            if (order[i] == ordinal) {
+                System.arraycopy(order, i + 1, order, i, count - i - 1);
+                return count - 1;
+            }
+        }
+        return count;
+    }
+    
+    private int insert(int[] order, int count, int ordinal, boolean ascendingAsk) {
+        ScaledQuote quote = quotes.get(ordinal);
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            ScaledQuote other = quotes.get(order[mid]);
+            boolean before = ascendingAsk
+                    ? ScaledQuote.compareAsk(other, quote) <= 0
+                    : ScaledQuote.compareBid(other, quote) >= 0;
+            if (before) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        System.arraycopy(order, low, order, low + 1, count - low);
+        order[low] = ordinal;
+        return count + 1;
+    }
+}
@@ -59,6 +59,15 @@ public class ArbitrageOpportunity {
     @Column(precision = 20, scale = 8)
     private BigDecimal volume;
     
+    @Column(name = "buy_vwap", precision = 20, scale = 8)
+    private BigDecimal buyVwap; // average fill price over the book levels the volume takes
+    
+    @Column(name = "sell_vwap", precision = 20, scale = 8)
+    private BigDecimal sellVwap;
+    
+    @Column(length = 512)
+    private String route; // legs of a triangular cycle in trading order
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OpportunityStatus status;
@@ -31,6 +31,9 @@ public class Exchange {
     @Column(nullable = false)
     private String apiSecret;
     
+    @Column(name = "api_passphrase")
+    private String apiPassphrase; // required by OKX, KuCoin and Coinbase
+    
     @Column(nullable = false)
     private Boolean enabled;
     
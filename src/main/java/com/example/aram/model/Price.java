@@ -22,8 +22,9 @@ import java.time.LocalDateTime;
 public class Price {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "price_seq")
+    @SequenceGenerator(name = "price_seq", sequenceName = "price_seq", allocationSize = 50)
+    private Long id; // sequence ids keep JDBC insert batching available
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
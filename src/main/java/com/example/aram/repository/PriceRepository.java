@@ -2,10 +2,13 @@ package com.example.aram.repository;
 
 import com.example.aram.enums.ExchangeType;
 import com.example.aram.model.Price;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,19 +17,32 @@ import java.util.Optional;
 @Repository
 public interface PriceRepository extends JpaRepository<Price, Long> {
     
-    @Query("SELECT p FROM Price p WHERE p.exchangeType = :exchange AND p.symbol = :symbol " +
-           "ORDER BY p.timestamp DESC LIMIT 1")
-    Optional<Price> findLatestByExchangeAndSymbol(
-        @Param("exchange") ExchangeType exchange, 
-        @Param("symbol") String symbol
-    );
+    Optional<Price> findFirstByExchangeTypeAndSymbolOrderByTimestampDesc(ExchangeType exchangeType, String symbol);
     
     List<Price> findBySymbolAndTimestampAfter(String symbol, LocalDateTime timestamp);
     
+    List<Price> findByExchangeTypeAndSymbolAndTimestampBetweenOrderByTimestampAsc(
+            ExchangeType exchangeType, String symbol, LocalDateTime from, LocalDateTime to);
+    
+    List<Price> findBySymbolAndTimestampBetweenOrderByTimestampAscIdAsc(
+            String symbol, LocalDateTime from, LocalDateTime to);
+    
+    Optional<Price> findFirstByExchangeTypeAndSymbolAndTimestampLessThanEqualOrderByTimestampDesc(
+            ExchangeType exchangeType, String symbol, LocalDateTime timestamp);
+    
     @Query("SELECT p FROM Price p WHERE p.symbol = :symbol AND p.timestamp = " +
            "(SELECT MAX(p2.timestamp) FROM Price p2 WHERE p2.symbol = :symbol AND p2.exchangeType = p.exchangeType)")
     List<Price> findLatestPricesForSymbol(@Param("symbol") String symbol);
     
-    void deleteByTimestampBefore(LocalDateTime timestamp);
+    @Query("SELECT p.id FROM Price p WHERE p.timestamp < :cutoff")
+    List<Long> findIdsByTimestampBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    /**
+     * Bulk delete by id in a single statement and its own transaction
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Price p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
 
@@ -1,31 +1,77 @@
 package com.example.aram.scheduler;
 
 import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.DetectionMode;
+import com.example.aram.market.ConflatedQuoteListener;
+import com.example.aram.market.QuoteListener;
+import com.example.aram.market.QuoteStore;
 import com.example.aram.model.ArbitrageOpportunity;
 import com.example.aram.service.ArbitrageDetectionService;
+import com.example.aram.service.CrossExchangeArbitrageService;
 import com.example.aram.service.TradeExecutionService;
+import com.example.aram.service.TriangularArbitrageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
+import javax.annotation.PostConstruct;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
-public class ArbitrageDetectionScheduler {
+public class ArbitrageDetectionScheduler implements QuoteListener {
     
     private final ArbitrageDetectionService detectionService;
     private final TradeExecutionService executionService;
     private final ArbitrageConfig arbitrageConfig;
+    private final QuoteStore quoteStore;
+    private final TriangularArbitrageService triangularArbitrageService;
+    private final CrossExchangeArbitrageService crossExchangeArbitrageService;
+    
+    @Qualifier("detectionExecutor")
+    private final ExecutorService detectionExecutor;
+    
+    /**
+     * In event mode detection is driven by quote changes instead of the fixed-delay scan. Detection, its
+     * writes and execution run on the detection executor, never on the thread that ingested the quote.
+     */
+    @PostConstruct
+    public void registerQuoteListener() {
+        if (arbitrageConfig.getDetectionMode() == DetectionMode.EVENT) {
+            quoteStore.addListener(new ConflatedQuoteListener(this, detectionExecutor));
+            log.info("Arbitrage detection runs on quote changes");
+        }
+    }
+    
+    /**
+     * Compare a changed quote against the other exchanges' quotes for the same symbol
+     */
+    @Override
+    public void onQuoteChanged(PriceDto quote) {
+        if (!arbitrageConfig.getWatchedPairs().contains(quote.getSymbol())) {
+            return;
+        }
+        List<ArbitrageOpportunity> opportunities = 
+                detectionService.detectForQuote(quote, arbitrageConfig.getMinProfitPercentage());
+        
+        if (!opportunities.isEmpty() && arbitrageConfig.getAutoExecute()) {
+            executeOpportunities(opportunities);
+        }
+    }
     
     /**
      * Continuously scan for arbitrage opportunities
      */
     @Scheduled(fixedDelayString = "${arbitrage.priceUpdateInterval:5000}")
     public void scanForOpportunities() {
+        if (arbitrageConfig.getDetectionMode() == DetectionMode.EVENT) {
+            return;
+        }
         try {
             log.debug("Scanning for arbitrage opportunities");
             
@@ -47,12 +93,43 @@ public class ArbitrageDetectionScheduler {
         }
     }
     
+    /**
+     * Reload every ticker of the scanned exchanges and look for triangular cycles.
+     * These are only recorded; execution handles two-leg opportunities.
+     */
+    @Scheduled(fixedDelayString = "${arbitrage.triangular.refreshInterval:10000}")
+    public void scanTriangular() {
+        if (!Boolean.TRUE.equals(arbitrageConfig.getTriangular().getEnabled())) {
+            return;
+        }
+        try {
+            List<ArbitrageOpportunity> opportunities = triangularArbitrageService.scan();
+            log.debug("Triangular scan found {} opportunities", opportunities.size());
+        } catch (Exception e) {
+            log.error("Error scanning for triangular opportunities: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Rebuild the cross-exchange graph and search it for multi-leg cycles, which are only recorded
+     */
+    @Scheduled(fixedDelayString = "${arbitrage.crossExchange.refreshInterval:10000}")
+    public void scanCrossExchange() {
+        if (!Boolean.TRUE.equals(arbitrageConfig.getCrossExchange().getEnabled())) {
+            return;
+        }
+        try {
+            List<ArbitrageOpportunity> opportunities = crossExchangeArbitrageService.scan();
+            log.debug("Cross-exchange scan found {} opportunities", opportunities.size());
+        } catch (Exception e) {
+            log.error("Error scanning for cross-exchange opportunities: {}", e.getMessage());
+        }
+    }
+    
     private void executeOpportunities(List<ArbitrageOpportunity> opportunities) {
         for (ArbitrageOpportunity opportunity : opportunities) {
             try {
-                // Execute with a default amount (this should be calculated based on available balance)
-                BigDecimal amount = BigDecimal.valueOf(0.01);
-                executionService.executeArbitrage(opportunity.getId(), amount);
+                executionService.executeArbitrage(opportunity.getId());
             } catch (Exception e) {
                 log.error("Error executing opportunity {}: {}", opportunity.getId(), e.getMessage());
             }
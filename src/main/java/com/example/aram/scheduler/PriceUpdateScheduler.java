@@ -1,6 +1,9 @@
 package com.example.aram.scheduler;
 
+import com.example.aram.archive.TickArchive;
 import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.PriceIngestionMode;
+import com.example.aram.service.ExchangeService;
 import com.example.aram.service.PriceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +17,8 @@ public class PriceUpdateScheduler {
     
     private final PriceService priceService;
     private final ArbitrageConfig arbitrageConfig;
+    private final TickArchive tickArchive;
+    private final ExchangeService exchangeService;
     
     /**
      * Update prices at configured interval
@@ -21,13 +26,36 @@ public class PriceUpdateScheduler {
     @Scheduled(fixedDelayString = "${arbitrage.priceUpdateInterval:5000}")
     public void updatePrices() {
         try {
-            log.debug("Updating prices for watched pairs");
-            priceService.updatePrices(arbitrageConfig.getWatchedPairs());
+            log.debug("Updating prices for watched pairs ({})", arbitrageConfig.getIngestionMode());
+            if (arbitrageConfig.getIngestionMode() == PriceIngestionMode.BULK) {
+                priceService.updatePricesBulk(arbitrageConfig.getWatchedPairs());
+            } else if (arbitrageConfig.getIngestionMode() == PriceIngestionMode.STREAM) {
+                // Streams keep the quote store current; only history is written here
+                priceService.persistLatestQuotes(arbitrageConfig.getWatchedPairs());
+            } else {
+                priceService.updatePrices(arbitrageConfig.getWatchedPairs());
+            }
         } catch (Exception e) {
             log.error("Error updating prices: {}", e.getMessage());
         }
     }
     
+    /**
+     * Refresh the order-book snapshots used to size opportunities
+     */
+    @Scheduled(fixedDelayString = "${arbitrage.depth.refreshInterval:2000}")
+    public void refreshOrderBooks() {
+        if (!Boolean.TRUE.equals(arbitrageConfig.getDepth().getEnabled())) {
+            return;
+        }
+        try {
+            int refreshed = exchangeService.refreshOrderBooks(arbitrageConfig.getWatchedPairs());
+            log.debug("Refreshed {} order books", refreshed);
+        } catch (Exception e) {
+            log.error("Error refreshing order books: {}", e.getMessage());
+        }
+    }
+    
     /**
      * Clean up old price data daily
      */
@@ -39,6 +67,9 @@ public class PriceUpdateScheduler {
         } catch (Exception e) {
             log.error("Error cleaning up old prices: {}", e.getMessage());
         }
+        if (arbitrageConfig.getArchive().getEnabled()) {
+            tickArchive.deleteOlderThan(arbitrageConfig.getArchive().getRetentionDays());
+        }
     }
 }
 
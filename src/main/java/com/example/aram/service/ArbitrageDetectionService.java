@@ -1,18 +1,31 @@
 package com.example.aram.service;
 
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ArbitrageType;
+import com.example.aram.enums.DetectionStrategy;
 import com.example.aram.enums.OpportunityStatus;
+import com.example.aram.market.FeeSchedule;
+import com.example.aram.market.OrderBook;
+import com.example.aram.market.OrderBookStore;
+import com.example.aram.market.QuoteStore;
+import com.example.aram.market.ScaledQuote;
+import com.example.aram.market.SymbolBook;
 import com.example.aram.model.ArbitrageOpportunity;
-import com.example.aram.model.Price;
 import com.example.aram.repository.ArbitrageOpportunityRepository;
 import com.example.aram.util.ArbitrageCalculator;
+import com.example.aram.util.DepthFill;
+import com.example.aram.util.FixedPoint;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -20,9 +33,31 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ArbitrageDetectionService {
     
-    private final PriceService priceService;
+    /**
+     * Per-thread scratch buffer so the comparison loop does not allocate
+     */
+    private static final ThreadLocal<ScaledQuote[]> QUOTE_BUFFER = 
+            ThreadLocal.withInitial(() -> new ScaledQuote[QuoteStore.capacity()]);
+    private static final ThreadLocal<ScaledQuote[]> ASK_BUFFER = 
+            ThreadLocal.withInitial(() -> new ScaledQuote[QuoteStore.capacity()]);
+    
+    private final QuoteStore quoteStore;
     private final ArbitrageOpportunityRepository opportunityRepository;
     private final ArbitrageCalculator arbitrageCalculator;
+    private final ArbitrageConfig arbitrageConfig;
+    private final ExchangeFeeCache exchangeFeeCache;
+    private final OrderBookStore orderBookStore;
+    
+    /**
+     * Per-thread copies of the two books being sized against, so depth sizing does not allocate
+     */
+    private final ThreadLocal<DepthScratch> depthScratch = 
+            ThreadLocal.withInitial(this::newDepthScratch);
+    
+    /**
+     * Last threshold converted to fixed point, so repeated calls with the configured value do not allocate
+     */
+    private volatile Threshold threshold = new Threshold(BigDecimal.ZERO);
     
     /**
      * Detect simple arbitrage opportunities for a symbol
@@ -30,47 +65,324 @@ public class ArbitrageDetectionService {
      */
     @Transactional
     public List<ArbitrageOpportunity> detectSimpleArbitrage(String symbol, BigDecimal minProfitPercentage) {
-        List<ArbitrageOpportunity> opportunities = new ArrayList<>();
-        List<Price> prices = priceService.getLatestPricesForSymbol(symbol);
+        if (arbitrageConfig.getDetectionStrategy() == DetectionStrategy.BEST_PRICE) {
+            return save(symbol, detectCrossings(symbol, minProfitPercentage), null);
+        }
+        
+        ScaledQuote[] prices = QUOTE_BUFFER.get();
+        int count = quoteStore.copyScaledQuotes(symbol, prices);
         
-        if (prices.size() < 2) {
+        if (count < 2) {
             log.debug("Not enough price data for {} to detect arbitrage", symbol);
-            return opportunities;
+            return new ArrayList<>();
         }
         
+        List<ArbitrageOpportunity> opportunities = findSimpleOpportunities(symbol, prices, count, minProfitPercentage);
+        
+        // Save all detected opportunities
+        return save(symbol, opportunities, null);
+    }
+    
+    /**
+     * Compare every pair of quotes in both directions without touching the store or the database
+     *
+     * @param quotes quotes for one symbol, the first {@code count} entries are used
+     */
+    public List<ArbitrageOpportunity> findSimpleOpportunities(String symbol, ScaledQuote[] quotes, int count, 
+                                                              BigDecimal minProfitPercentage) {
+        List<ArbitrageOpportunity> opportunities = new ArrayList<>();
+        long minProfit = scaledThreshold(minProfitPercentage);
+        FeeSchedule fees = exchangeFeeCache.current();
+        
         // Compare prices across all exchange pairs
-        for (int i = 0; i < prices.size(); i++) {
-            for (int j = i + 1; j < prices.size(); j++) {
-                Price price1 = prices.get(i);
-                Price price2 = prices.get(j);
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                ScaledQuote price1 = quotes[i];
+                ScaledQuote price2 = quotes[j];
                 
                 // Check if we can buy on exchange1 and sell on exchange2
                 ArbitrageOpportunity opp1 = checkArbitrageOpportunity(
-                        symbol, price1, price2, minProfitPercentage);
+                        symbol, price1, price2, minProfitPercentage, minProfit, fees);
                 if (opp1 != null) {
                     opportunities.add(opp1);
                 }
                 
                 // Check if we can buy on exchange2 and sell on exchange1
                 ArbitrageOpportunity opp2 = checkArbitrageOpportunity(
-                        symbol, price2, price1, minProfitPercentage);
+                        symbol, price2, price1, minProfitPercentage, minProfit, fees);
                 if (opp2 != null) {
                     opportunities.add(opp2);
                 }
             }
         }
+        return opportunities;
+    }
+    
+    /**
+     * Detect simple arbitrage opportunities involving one changed quote.
+     * Only that quote is compared against the other exchanges' current quotes for the same symbol.
+     */
+    @Transactional
+    public List<ArbitrageOpportunity> detectForQuote(PriceDto quote, BigDecimal minProfitPercentage) {
+        return save(quote.getSymbol(), findOpportunitiesForQuote(quoteStore, quote, minProfitPercentage), quote);
+    }
+    
+    /**
+     * Find the opportunities involving one changed quote in the given store, without saving them.
+     * Used for live detection and for replaying history through a separate store.
+     */
+    public List<ArbitrageOpportunity> findOpportunitiesForQuote(QuoteStore store, PriceDto quote, 
+                                                                BigDecimal minProfitPercentage) {
+        if (arbitrageConfig.getDetectionStrategy() == DetectionStrategy.BEST_PRICE) {
+            return detectCrossings(store, quote, minProfitPercentage);
+        }
         
-        // Save all detected opportunities
+        List<ArbitrageOpportunity> opportunities = new ArrayList<>();
+        String symbol = quote.getSymbol();
+        ScaledQuote[] prices = QUOTE_BUFFER.get();
+        int count = store.copyScaledQuotes(symbol, prices);
+        
+        ScaledQuote changed = null;
+        for (int i = 0; i < count; i++) {
+            if (prices[i].getExchange() == quote.getExchange()) {
+                changed = prices[i];
+            }
+        }
+        if (changed == null) {
+            return opportunities;
+        }
+        
+        long minProfit = scaledThreshold(minProfitPercentage);
+        FeeSchedule fees = exchangeFeeCache.current();
+        
+        for (int i = 0; i < count; i++) {
+            ScaledQuote other = prices[i];
+            if (other == changed) {
+                continue;
+            }
+            
+            ArbitrageOpportunity buyHere = checkArbitrageOpportunity(
+                    symbol, changed, other, minProfitPercentage, minProfit, fees);
+            if (buyHere != null) {
+                opportunities.add(buyHere);
+            }
+            
+            ArbitrageOpportunity sellHere = checkArbitrageOpportunity(
+                    symbol, other, changed, minProfitPercentage, minProfit, fees);
+            if (sellHere != null) {
+                opportunities.add(sellHere);
+            }
+        }
+        return opportunities;
+    }
+    
+    /**
+     * Find every crossing pair for a symbol by walking bids from the highest down and asks from
+     * the lowest up. A tick where the best bid does not cross the best ask costs two reads.
+     * Pairs are ordered by raw price; since costs differ per exchange, each walk stops where even
+     * the cheapest costs on both legs could not meet the threshold.
+     */
+    private List<ArbitrageOpportunity> detectCrossings(String symbol, BigDecimal minProfitPercentage) {
+        SymbolBook book = quoteStore.getBook(symbol);
+        if (book == null) {
+            return Collections.emptyList();
+        }
+        long minProfit = scaledThreshold(minProfitPercentage);
+        FeeSchedule fees = exchangeFeeCache.current();
+        ScaledQuote bestBid = book.bestBid();
+        ScaledQuote bestAsk = book.bestAsk();
+        if (bestBid == null || bestAsk == null 
+                || !couldBeProfitable(bestAsk, bestBid, minProfitPercentage, minProfit, fees)) {
+            return Collections.emptyList();
+        }
+        
+        ScaledQuote[] byBid = QUOTE_BUFFER.get();
+        ScaledQuote[] byAsk = ASK_BUFFER.get();
+        int bidCount = book.copyByBid(byBid);
+        int askCount = book.copyByAsk(byAsk);
+        return findCrossingOpportunities(symbol, byBid, bidCount, byAsk, askCount, minProfitPercentage, fees);
+    }
+    
+    /**
+     * Find the crossing pairs that involve one changed quote, either buying at its ask
+     * or selling at its bid. A tick that crosses nothing costs a few reads.
+     */
+    private List<ArbitrageOpportunity> detectCrossings(QuoteStore store, PriceDto quote, BigDecimal minProfitPercentage) {
+        SymbolBook book = store.getBook(quote.getSymbol());
+        if (book == null) {
+            return Collections.emptyList();
+        }
+        ScaledQuote changed = store.getScaledQuote(quote.getExchange(), quote.getSymbol());
+        if (changed == null) {
+            return Collections.emptyList();
+        }
+        long minProfit = scaledThreshold(minProfitPercentage);
+        FeeSchedule fees = exchangeFeeCache.current();
+        List<ArbitrageOpportunity> opportunities = null;
+        
+        // When the best price on the other side is the quote's own, the next one may still cross after rounding
+        ScaledQuote bestBid = book.bestBid();
+        if (bestBid != null && changed.hasAsk()) {
+            if (bestBid.getExchange() == quote.getExchange() 
+                    || couldBeProfitable(changed, bestBid, minProfitPercentage, minProfit, fees)) {
+                ScaledQuote[] byBid = QUOTE_BUFFER.get();
+                int bidCount = book.copyByBid(byBid);
+                opportunities = walk(quote.getSymbol(), changed, byBid, bidCount, false, 
+                        minProfitPercentage, minProfit, fees, opportunities);
+            }
+        }
+        
+        ScaledQuote bestAsk = book.bestAsk();
+        if (bestAsk != null && changed.hasBid()) {
+            if (bestAsk.getExchange() == quote.getExchange() 
+                    || couldBeProfitable(bestAsk, changed, minProfitPercentage, minProfit, fees)) {
+                ScaledQuote[] byAsk = ASK_BUFFER.get();
+                int askCount = book.copyByAsk(byAsk);
+                opportunities = walk(quote.getSymbol(), changed, byAsk, askCount, true, 
+                        minProfitPercentage, minProfit, fees, opportunities);
+            }
+        }
+        return opportunities != null ? opportunities : Collections.emptyList();
+    }
+    
+    /**
+     * Pair every bid with the asks it crosses, stopping each walk at the first pair below the threshold.
+     * Profit only falls as the bid falls or the ask rises, so no crossing pair is missed.
+     *
+     * @param byBid quotes ordered by bid, highest first
+     * @param byAsk quotes ordered by ask, lowest first
+     */
+    public List<ArbitrageOpportunity> findCrossingOpportunities(String symbol, ScaledQuote[] byBid, int bidCount, 
+                                                                ScaledQuote[] byAsk, int askCount, 
+                                                                BigDecimal minProfitPercentage) {
+        return findCrossingOpportunities(symbol, byBid, bidCount, byAsk, askCount, minProfitPercentage, 
+                exchangeFeeCache.current());
+    }
+    
+    private List<ArbitrageOpportunity> findCrossingOpportunities(String symbol, ScaledQuote[] byBid, int bidCount, 
+                                                                 ScaledQuote[] byAsk, int askCount, 
+                                                                 BigDecimal minProfitPercentage, FeeSchedule fees) {
+        List<ArbitrageOpportunity> opportunities = new ArrayList<>();
+        long minProfit = scaledThreshold(minProfitPercentage);
+        
+        for (int i = 0; i < bidCount; i++) {
+            ScaledQuote seller = byBid[i];
+            // When the lowest ask is on the seller's own exchange, a lower bid elsewhere may still cross it
+            if (askCount > 0 && byAsk[0].getExchange() != seller.getExchange() 
+                    && !couldBeProfitable(byAsk[0], seller, minProfitPercentage, minProfit, fees)) {
+                break;
+            }
+            walk(symbol, seller, byAsk, askCount, true, minProfitPercentage, minProfit, fees, opportunities);
+        }
+        return opportunities;
+    }
+    
+    /**
+     * Pair one quote with the opposite side of the book until even the cheapest costs could not meet the threshold.
+     * Pairs before that point that fall short on their actual costs or size are skipped.
+     *
+     * @param asSeller      true to sell at the quote's bid against {@code others} ordered by ask,
+     *                      false to buy at its ask against {@code others} ordered by bid
+     * @param opportunities list to add to, or null to create one only when something is found
+     * @return the list the opportunities were added to, or null if there were none
+     */
+    private List<ArbitrageOpportunity> walk(String symbol, ScaledQuote quote, ScaledQuote[] others, int count, 
+                                            boolean asSeller, BigDecimal minProfitPercentage, long minProfit, 
+                                            FeeSchedule fees, List<ArbitrageOpportunity> opportunities) {
+        for (int j = 0; j < count; j++) {
+            ScaledQuote other = others[j];
+            if (other.getExchange() == quote.getExchange()) {
+                continue;
+            }
+            ScaledQuote buyQuote = asSeller ? other : quote;
+            ScaledQuote sellQuote = asSeller ? quote : other;
+            if (!couldBeProfitable(buyQuote, sellQuote, minProfitPercentage, minProfit, fees)) {
+                break;
+            }
+            ArbitrageOpportunity opportunity = checkArbitrageOpportunity(
+                    symbol, buyQuote, sellQuote, minProfitPercentage, minProfit, fees);
+            if (opportunity == null) {
+                continue;
+            }
+            if (opportunities == null) {
+                opportunities = new ArrayList<>();
+            }
+            opportunities.add(opportunity);
+        }
+        return opportunities;
+    }
+    
+    private List<ArbitrageOpportunity> save(String symbol, List<ArbitrageOpportunity> opportunities, PriceDto trigger) {
         if (!opportunities.isEmpty()) {
             opportunityRepository.saveAll(opportunities);
-            log.info("Detected {} arbitrage opportunities for {}", opportunities.size(), symbol);
+            if (trigger != null) {
+                log.info("Detected {} arbitrage opportunities for {} after {} update", 
+                        opportunities.size(), symbol, trigger.getExchange());
+            } else {
+                log.info("Detected {} arbitrage opportunities for {}", opportunities.size(), symbol);
+            }
         }
-        
         return opportunities;
     }
     
-    private ArbitrageOpportunity checkArbitrageOpportunity(
-            String symbol, Price buyPrice, Price sellPrice, BigDecimal minProfitPercentage) {
+    /**
+     * Whether buying at one quote's ask and selling at another's bid meets the threshold when both legs
+     * pay the cheapest cost on any exchange, without allocating unless the prices need the BigDecimal fallback.
+     * This only falls as the ask rises or the bid falls, so it bounds every pair further into the book.
+     */
+    private boolean couldBeProfitable(ScaledQuote buyQuote, ScaledQuote sellQuote, 
+                                      BigDecimal minProfitPercentage, long minProfit, FeeSchedule fees) {
+        long cost = fees.minCostPpm();
+        long scaledProfit = FixedPoint.isRepresentable(minProfit)
+                ? arbitrageCalculator.calculateNetProfitPercentage(buyQuote.getAsk(), cost, sellQuote.getBid(), cost)
+                : FixedPoint.UNREPRESENTABLE;
+        if (FixedPoint.isRepresentable(scaledProfit)) {
+            return scaledProfit >= minProfit;
+        }
+        BigDecimal buyAt = buyQuote.getPrice().getAskPrice();
+        BigDecimal sellAt = sellQuote.getPrice().getBidPrice();
+        return buyAt != null && sellAt != null
+                && arbitrageCalculator.calculateNetProfitPercentage(buyAt, cost, sellAt, cost)
+                        .compareTo(minProfitPercentage) >= 0;
+    }
+    
+    private long scaledThreshold(BigDecimal minProfitPercentage) {
+        Threshold current = threshold;
+        if (current.decimal != minProfitPercentage) {
+            current = new Threshold(minProfitPercentage);
+            threshold = current;
+        }
+        return current.scaled;
+    }
+    
+    /**
+     * Compare one buy/sell pair net of each leg's costs. Uses fixed-point math when both quotes and the threshold
+     * converted exactly, so nothing is allocated unless an opportunity is found; otherwise falls back to BigDecimal.
+     */
+    private ArbitrageOpportunity checkArbitrageOpportunity(String symbol, ScaledQuote buyQuote, ScaledQuote sellQuote, 
+                                                           BigDecimal minProfitPercentage, long minProfit, 
+                                                           FeeSchedule fees) {
+        
+        // Use ask price to buy, bid price to sell
+        long scaledProfit = FixedPoint.isRepresentable(minProfit)
+                ? arbitrageCalculator.calculateNetProfitPercentage(
+                        buyQuote.getAsk(), fees.costPpm(buyQuote.getExchange()), 
+                        sellQuote.getBid(), fees.costPpm(sellQuote.getExchange()))
+                : FixedPoint.UNREPRESENTABLE;
+        
+        if (FixedPoint.isRepresentable(scaledProfit)) {
+            if (scaledProfit < minProfit) {
+                return null;
+            }
+            return buildOpportunity(symbol, buyQuote.getPrice(), sellQuote.getPrice(), 
+                    arbitrageCalculator.toProfitPercentage(scaledProfit), fees);
+        }
+        
+        return checkArbitrageOpportunity(symbol, buyQuote.getPrice(), sellQuote.getPrice(), minProfitPercentage, fees);
+    }
+    
+    private ArbitrageOpportunity checkArbitrageOpportunity(String symbol, PriceDto buyPrice, PriceDto sellPrice, 
+                                                           BigDecimal minProfitPercentage, FeeSchedule fees) {
         
         // Use ask price to buy, bid price to sell
         BigDecimal buyAt = buyPrice.getAskPrice();
@@ -80,28 +392,119 @@ public class ArbitrageDetectionService {
             return null;
         }
         
-        BigDecimal profitPercentage = arbitrageCalculator.calculateProfitPercentage(buyAt, sellAt);
+        BigDecimal profitPercentage = arbitrageCalculator.calculateNetProfitPercentage(
+                buyAt, fees.costPpm(buyPrice.getExchange()), sellAt, fees.costPpm(sellPrice.getExchange()));
         
         if (profitPercentage.compareTo(minProfitPercentage) >= 0) {
-            BigDecimal estimatedProfit = arbitrageCalculator.calculateEstimatedProfit(
-                    buyAt, sellAt, BigDecimal.valueOf(1000)); // Example amount
-            
-            return ArbitrageOpportunity.builder()
-                    .arbitrageType(ArbitrageType.SIMPLE)
-                    .symbol(symbol)
-                    .buyExchange(buyPrice.getExchangeType())
-                    .sellExchange(sellPrice.getExchangeType())
-                    .buyPrice(buyAt)
-                    .sellPrice(sellAt)
-                    .profitPercentage(profitPercentage)
-                    .estimatedProfit(estimatedProfit)
-                    .status(OpportunityStatus.DETECTED)
-                    .build();
+            return buildOpportunity(symbol, buyPrice, sellPrice, profitPercentage, fees);
         }
         
         return null;
     }
     
+    /**
+     * Build an opportunity for a pair that met the percentage threshold. With depth enabled and both books
+     * current it is sized by walking them, with VWAP fill prices; otherwise, with costs enabled, it is sized
+     * to the smaller of the two top-of-book quantities. It is dropped if the net profit for that size is too small.
+     */
+    private ArbitrageOpportunity buildOpportunity(String symbol, PriceDto buyPrice, PriceDto sellPrice, 
+                                                  BigDecimal profitPercentage, FeeSchedule fees) {
+        BigDecimal buyAt = buyPrice.getAskPrice();
+        BigDecimal sellAt = sellPrice.getBidPrice();
+        ArbitrageConfig.Costs costs = arbitrageConfig.getCosts();
+        boolean costsEnabled = Boolean.TRUE.equals(costs.getEnabled());
+        BigDecimal quantity = null;
+        BigDecimal buyVwap = null;
+        BigDecimal sellVwap = null;
+        BigDecimal estimatedProfit;
+        DepthFill fill = Boolean.TRUE.equals(arbitrageConfig.getDepth().getEnabled())
+                ? fillAgainstDepth(symbol, buyPrice, sellPrice, fees) : null;
+        if (fill != null) {
+            if (fill.getQuantity() == 0) {
+                return null;
+            }
+            quantity = FixedPoint.toBigDecimal(fill.getQuantity());
+            estimatedProfit = FixedPoint.toBigDecimal(fill.getNetProfit());
+            buyVwap = fill.buyVwap();
+            sellVwap = fill.sellVwap();
+        } else if (costsEnabled) {
+            quantity = availableQuantity(buyPrice.getAskQuantity(), sellPrice.getBidQuantity(), 
+                    costs.getDefaultQuantity());
+            if (quantity.signum() <= 0) {
+                return null;
+            }
+            estimatedProfit = arbitrageCalculator.calculateProfitAfterFees(buyAt, sellAt, quantity, 
+                    fees.costFraction(buyPrice.getExchange()), fees.costFraction(sellPrice.getExchange()));
+        } else {
+            estimatedProfit = arbitrageCalculator.calculateEstimatedProfit(
+                    buyAt, sellAt, BigDecimal.valueOf(1000)); // Example amount
+        }
+        if (costsEnabled && estimatedProfit.compareTo(costs.getMinNetProfit()) < 0) {
+            return null;
+        }
+        
+        return ArbitrageOpportunity.builder()
+                .arbitrageType(ArbitrageType.SIMPLE)
+                .symbol(symbol)
+                .buyExchange(buyPrice.getExchange())
+                .sellExchange(sellPrice.getExchange())
+                .buyPrice(buyAt)
+                .sellPrice(sellAt)
+                .profitPercentage(profitPercentage)
+                .estimatedProfit(estimatedProfit)
+                .volume(quantity)
+                .buyVwap(buyVwap)
+                .sellVwap(sellVwap)
+                .status(OpportunityStatus.DETECTED)
+                .build();
+    }
+    
+    /**
+     * Size a pair against both order books
+     *
+     * @return the per-thread fill, or null if either book is missing or further than the maximum age
+     *         from the quotes being sized, e.g. when replaying history
+     */
+    private DepthFill fillAgainstDepth(String symbol, PriceDto buyPrice, PriceDto sellPrice, FeeSchedule fees) {
+        DepthScratch scratch = depthScratch.get();
+        if (!orderBookStore.copy(buyPrice.getExchange(), symbol, scratch.buyBook)
+                || !orderBookStore.copy(sellPrice.getExchange(), symbol, scratch.sellBook)) {
+            return null;
+        }
+        long quotedAt = Math.max(epochMillis(buyPrice.getTimestamp()), epochMillis(sellPrice.getTimestamp()));
+        long maxAge = arbitrageConfig.getDepth().getMaxAge();
+        if (Math.abs(quotedAt - scratch.buyBook.getTimestamp()) > maxAge 
+                || Math.abs(quotedAt - scratch.sellBook.getTimestamp()) > maxAge) {
+            return null;
+        }
+        arbitrageCalculator.fillAgainstDepth(scratch.buyBook, fees.costPpm(buyPrice.getExchange()), 
+                scratch.sellBook, fees.costPpm(sellPrice.getExchange()), scratch.fill);
+        return scratch.fill;
+    }
+    
+    private DepthScratch newDepthScratch() {
+        return new DepthScratch(orderBookStore.levels());
+    }
+    
+    private static long epochMillis(LocalDateTime timestamp) {
+        return timestamp != null 
+                ? timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() 
+                : System.currentTimeMillis();
+    }
+    
+    /**
+     * Quantity that can be bought at the ask and sold at the bid without walking either book
+     */
+    private static BigDecimal availableQuantity(BigDecimal askQuantity, BigDecimal bidQuantity, BigDecimal fallback) {
+        if (askQuantity == null && bidQuantity == null) {
+            return fallback;
+        }
+        if (askQuantity == null || bidQuantity == null) {
+            return askQuantity != null ? askQuantity : bidQuantity;
+        }
+        return askQuantity.min(bidQuantity);
+    }
+    
     /**
      * Get all detected opportunities above a certain profit threshold
      */
@@ -116,5 +519,27 @@ public class ArbitrageDetectionService {
         return opportunityRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Opportunity not found: " + id));
     }
+    
+    private static final class Threshold {
+        
+        private final BigDecimal decimal;
+        private final long scaled;
+        
+        private Threshold(BigDecimal decimal) {
+            this.decimal = decimal;
+            this.scaled = FixedPoint.toScaled(decimal);
+        }
+    }
+    
+    private static final class DepthScratch {
+        
+        private final OrderBook buyBook;
+        private final OrderBook sellBook;
+        private final DepthFill fill = new DepthFill();
+        
+        private DepthScratch(int levels) {
+            this.buyBook = new OrderBook(levels);
+            this.sellBook = new OrderBook(levels);
+        }
+    }
 }
-
@@ -0,0 +1,98 @@
+package com.example.aram.service;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.market.BalanceLedger;
+import com.example.aram.model.Exchange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Corrects the {@link BalanceLedger} with the balances the exchanges report, so sizing never waits on a
+ * balance call. Refreshes run on the exchange fetch executor; an exchange whose refresh fails keeps the
+ * ledger's current values.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BalanceReconciler {
+    
+    private final ExchangeService exchangeService;
+    private final BalanceLedger balanceLedger;
+    private final ArbitrageConfig arbitrageConfig;
+    
+    @Qualifier("exchangeFetchExecutor")
+    private final ExecutorService exchangeFetchExecutor;
+    
+    private final Set<ExchangeType> refreshing = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Start a refresh for every active exchange with API credentials, without waiting for the results
+     */
+    @Scheduled(fixedDelayString = "${arbitrage.balances.refreshInterval:30000}")
+    public void refreshAll() {
+        if (!Boolean.TRUE.equals(arbitrageConfig.getBalances().getEnabled())) {
+            return;
+        }
+        List<Exchange> exchanges;
+        try {
+            exchanges = exchangeService.getAllActiveExchanges();
+        } catch (Exception e) {
+            log.error("Error loading exchanges for balance refresh: {}", e.getMessage());
+            return;
+        }
+        for (Exchange exchange : exchanges) {
+            if (hasCredentials(exchange)) {
+                refresh(exchange.getExchangeType());
+            }
+        }
+    }
+    
+    /**
+     * Start a background refresh of one exchange, unless one is already running
+     *
+     * @return completes when the ledger is reconciled or the refresh failed
+     */
+    public CompletableFuture<Void> refresh(ExchangeType exchangeType) {
+        if (!refreshing.add(exchangeType)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.runAsync(() -> load(exchangeType), exchangeFetchExecutor)
+                    .whenComplete((ignored, error) -> refreshing.remove(exchangeType));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(exchangeType);
+            log.warn("Skipped balance refresh for {}: fetch executor is full", exchangeType);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+    
+    private void load(ExchangeType exchangeType) {
+        try {
+            long started = System.nanoTime();
+            Map<String, BigDecimal> balances = exchangeService.fetchBalances(exchangeType);
+            balanceLedger.reconcile(exchangeType, balances, started);
+            log.debug("Reconciled {} balances from {}", balances.size(), exchangeType);
+        } catch (Exception e) {
+            log.error("Error refreshing balances for {}, keeping ledger values: {}", exchangeType, e.getMessage());
+        }
+    }
+    
+    private static boolean hasCredentials(Exchange exchange) {
+        return exchange.getExchangeType() != null
+                && exchange.getApiKey() != null && !exchange.getApiKey().isBlank()
+                && exchange.getApiSecret() != null && !exchange.getApiSecret().isBlank();
+    }
+}
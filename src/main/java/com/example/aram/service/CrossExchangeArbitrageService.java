@@ -0,0 +1,338 @@
+package com.example.aram.service;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ArbitrageType;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OpportunityStatus;
+import com.example.aram.market.ConflatedQuoteListener;
+import com.example.aram.market.CrossExchangeGraph;
+import com.example.aram.market.FeeSchedule;
+import com.example.aram.market.QuoteListener;
+import com.example.aram.market.QuoteStore;
+import com.example.aram.model.ArbitrageOpportunity;
+import com.example.aram.model.Exchange;
+import com.example.aram.repository.ArbitrageOpportunityRepository;
+import com.example.aram.repository.ExchangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Multi-leg arbitrage across exchanges on a graph of (exchange, currency) nodes, with trade edges from the
+ * quotes in the {@link QuoteStore} and transfer edges between exchanges holding the same currency. The graph
+ * is rebuilt and fully searched on a schedule, in parallel per starting currency; between rebuilds each
+ * changed quote only searches the cycles through its own pair.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CrossExchangeArbitrageService implements QuoteListener {
+    
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    
+    private final ExchangeRepository exchangeRepository;
+    private final ArbitrageOpportunityRepository opportunityRepository;
+    private final ExchangeFeeCache exchangeFeeCache;
+    private final ArbitrageConfig arbitrageConfig;
+    private final QuoteStore quoteStore;
+    
+    @Qualifier("cycleSearchPool")
+    private final ForkJoinPool cycleSearchPool;
+    
+    @Qualifier("detectionExecutor")
+    private final ExecutorService detectionExecutor;
+    
+    /**
+     * Graph from the last rebuild; rates change under its monitor
+     */
+    private volatile CrossExchangeGraph graph;
+    
+    /**
+     * Streamed quotes for pairs in the graph are searched as they change, on the detection executor
+     */
+    @PostConstruct
+    public void registerQuoteListener() {
+        if (Boolean.TRUE.equals(arbitrageConfig.getCrossExchange().getEnabled())) {
+            quoteStore.addListener(new ConflatedQuoteListener(this, detectionExecutor));
+            log.info("Cross-exchange detection runs on graph rebuilds and quote changes");
+        }
+    }
+    
+    @Override
+    public void onQuoteChanged(PriceDto quote) {
+        CrossExchangeGraph current = graph;
+        if (current == null) {
+            return;
+        }
+        List<ArbitrageOpportunity> opportunities;
+        synchronized (current) {
+            int edge = current.tradeEdge(quote.getExchange(), quote.getSymbol());
+            if (edge < 0 || !current.update(edge, toDouble(quote.getBidPrice()), toDouble(quote.getAskPrice()))) {
+                return;
+            }
+            int maxLegs = arbitrageConfig.getCrossExchange().getMaxLegs();
+            double minLogReturn = minLogReturn();
+            List<CrossExchangeGraph.Cycle> cycles = new ArrayList<>();
+            current.searchThrough(edge, maxLegs, minLogReturn, current.rates(), cycles);
+            current.searchThrough(edge + 1, maxLegs, minLogReturn, current.rates(), cycles);
+            if (cycles.isEmpty()) {
+                return;
+            }
+            opportunities = buildOpportunities(current, cycles);
+        }
+        save(opportunities);
+    }
+    
+    /**
+     * Rebuild the graph from the quote store, fees and withdrawal fees, then search all of it. Only pairs the
+     * exchanges have actually quoted become edges, and the rebuild makes no exchange calls of its own.
+     * The new graph takes streamed quotes while the search runs on a snapshot of its rates;
+     * cycles found are checked again at the latest rates before they are reported.
+     */
+    public List<ArbitrageOpportunity> scan() {
+        CrossExchangeGraph next = build(quotedPairs(currencies()));
+        double[] rates = next.snapshot();
+        graph = next;
+        
+        long start = System.nanoTime();
+        int maxLegs = arbitrageConfig.getCrossExchange().getMaxLegs();
+        double minLogReturn = minLogReturn();
+        List<int[]> startsByCurrency = startsByCurrency(next);
+        List<CrossExchangeGraph.Cycle> cycles = startsByCurrency.isEmpty()
+                ? Collections.emptyList()
+                : cycleSearchPool.invoke(new CycleSearch(next, rates, maxLegs, minLogReturn,
+                        startsByCurrency, 0, startsByCurrency.size()));
+        log.debug("Searched {} nodes and {} edges for cycles of up to {} legs in {} us", next.nodeCount(),
+                next.edgeCount(), maxLegs, (System.nanoTime() - start) / 1000);
+        
+        List<ArbitrageOpportunity> opportunities;
+        synchronized (next) {
+            List<CrossExchangeGraph.Cycle> current = new ArrayList<>(cycles.size());
+            for (CrossExchangeGraph.Cycle cycle : cycles) {
+                if (next.logReturn(cycle, next.rates()) >= minLogReturn) {
+                    current.add(cycle);
+                }
+            }
+            opportunities = buildOpportunities(next, current);
+        }
+        return save(opportunities);
+    }
+    
+    /**
+     * Latest quotes of every stored pair between two of the currencies
+     */
+    private List<PriceDto> quotedPairs(List<String> currencies) {
+        Set<String> wanted = new LinkedHashSet<>(currencies);
+        List<PriceDto> quotes = new ArrayList<>();
+        for (String symbol : quoteStore.getSymbols()) {
+            int slash = symbol.indexOf('/');
+            if (slash > 0 && wanted.contains(symbol.substring(0, slash)) 
+                    && wanted.contains(symbol.substring(slash + 1))) {
+                quotes.addAll(quoteStore.getQuotes(symbol));
+            }
+        }
+        return quotes;
+    }
+    
+    private CrossExchangeGraph build(List<PriceDto> tickers) {
+        FeeSchedule fees = exchangeFeeCache.current();
+        CrossExchangeGraph next = new CrossExchangeGraph();
+        for (PriceDto ticker : tickers) {
+            String symbol = ticker.getSymbol();
+            int slash = symbol.indexOf('/');
+            double costLog = Math.log1p(-fees.costPpm(ticker.getExchange()) / 1_000_000.0);
+            int edge = next.addPair(ticker.getExchange(), symbol,
+                    symbol.substring(0, slash), symbol.substring(slash + 1), costLog);
+            if (edge >= 0) {
+                next.update(edge, toDouble(ticker.getBidPrice()), toDouble(ticker.getAskPrice()));
+            }
+        }
+        next.addTransfers(withdrawalLogs());
+        return next;
+    }
+    
+    /**
+     * Log of what is left after withdrawing, per exchange ordinal. The exchanges table holds one withdrawal fee
+     * per exchange, taken here as a percentage of the amount moved.
+     */
+    private double[] withdrawalLogs() {
+        double defaultLog = toLogRemainder(arbitrageConfig.getCrossExchange().getDefaultWithdrawalFee());
+        double[] logs = new double[ExchangeType.values().length];
+        Arrays.fill(logs, defaultLog);
+        try {
+            for (Exchange exchange : exchangeRepository.findAll()) {
+                if (exchange.getExchangeType() != null && exchange.getWithdrawalFee() != null) {
+                    logs[exchange.getExchangeType().ordinal()] =
+                            toLogRemainder(BigDecimal.valueOf(exchange.getWithdrawalFee()));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error loading withdrawal fees, using the default: {}", e.getMessage());
+        }
+        return logs;
+    }
+    
+    private static double toLogRemainder(BigDecimal percentage) {
+        return Math.log1p(-percentage.divide(HUNDRED).doubleValue());
+    }
+    
+    private List<String> currencies() {
+        List<String> configured = arbitrageConfig.getCrossExchange().getCurrencies();
+        if (configured != null && !configured.isEmpty()) {
+            return configured;
+        }
+        Set<String> currencies = new LinkedHashSet<>();
+        for (String pair : arbitrageConfig.getWatchedPairs()) {
+            int slash = pair.indexOf('/');
+            if (slash > 0) {
+                currencies.add(pair.substring(0, slash));
+                currencies.add(pair.substring(slash + 1));
+            }
+        }
+        return new ArrayList<>(currencies);
+    }
+    
+    private static List<int[]> startsByCurrency(CrossExchangeGraph graph) {
+        Map<String, List<Integer>> nodes = new LinkedHashMap<>();
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            nodes.computeIfAbsent(graph.nodeCurrency(node), currency -> new ArrayList<>()).add(node);
+        }
+        List<int[]> starts = new ArrayList<>(nodes.size());
+        for (List<Integer> group : nodes.values()) {
+            starts.add(group.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return starts;
+    }
+    
+    private double minLogReturn() {
+        return Math.log1p(arbitrageConfig.getCrossExchange().getMinProfitPercentage().doubleValue() / 100);
+    }
+    
+    /**
+     * Build one opportunity per cycle at the graph's current rates, rotated to start with the first trade after
+     * a transfer. The symbol, buy side and sell side are those of the first and last trade; the route spells out
+     * every leg. Callers hold the graph's monitor.
+     */
+    private List<ArbitrageOpportunity> buildOpportunities(CrossExchangeGraph graph,
+                                                          List<CrossExchangeGraph.Cycle> cycles) {
+        BigDecimal startAmount = arbitrageConfig.getCrossExchange().getStartAmount();
+        List<ArbitrageOpportunity> opportunities = new ArrayList<>(cycles.size());
+        for (CrossExchangeGraph.Cycle cycle : cycles) {
+            int legs = cycle.length();
+            int first = 0;
+            while (!graph.isTransfer(cycle.edge((first + legs - 1) % legs)) || graph.isTransfer(cycle.edge(first))) {
+                first++;
+            }
+            int firstTrade = cycle.edge(first);
+            int lastTrade = firstTrade;
+            StringBuilder route = new StringBuilder();
+            for (int i = 0; i < legs; i++) {
+                int edge = cycle.edge((first + i) % legs);
+                if (i > 0) {
+                    route.append(", ");
+                }
+                ExchangeType from = graph.nodeExchange(graph.edgeSource(edge));
+                if (graph.isTransfer(edge)) {
+                    route.append("TRANSFER ").append(graph.nodeCurrency(graph.edgeSource(edge))).append(' ')
+                            .append(from).append(" -> ").append(graph.nodeExchange(graph.edgeTarget(edge)));
+                } else {
+                    lastTrade = edge;
+                    route.append(from).append(graph.isSell(edge) ? " SELL " : " BUY ").append(graph.edgeSymbol(edge))
+                            .append(" @ ")
+                            .append(toDecimal(graph.edgePrice(edge)).stripTrailingZeros().toPlainString());
+                }
+            }
+            double netReturn = Math.expm1(graph.logReturn(cycle, graph.rates()));
+            opportunities.add(ArbitrageOpportunity.builder()
+                    .arbitrageType(ArbitrageType.CROSS_EXCHANGE)
+                    .symbol(graph.edgeSymbol(firstTrade))
+                    .buyExchange(graph.nodeExchange(graph.edgeSource(firstTrade)))
+                    .sellExchange(graph.nodeExchange(graph.edgeSource(lastTrade)))
+                    .buyPrice(toDecimal(graph.edgePrice(firstTrade)))
+                    .sellPrice(toDecimal(graph.edgePrice(lastTrade)))
+                    .profitPercentage(BigDecimal.valueOf(netReturn * 100).setScale(4, RoundingMode.DOWN))
+                    .estimatedProfit(startAmount.multiply(BigDecimal.valueOf(netReturn))
+                            .setScale(8, RoundingMode.DOWN))
+                    .route(route.toString())
+                    .status(OpportunityStatus.DETECTED)
+                    .build());
+        }
+        return opportunities;
+    }
+    
+    private List<ArbitrageOpportunity> save(List<ArbitrageOpportunity> opportunities) {
+        if (!opportunities.isEmpty()) {
+            opportunityRepository.saveAll(opportunities);
+            log.info("Detected {} cross-exchange arbitrage opportunities", opportunities.size());
+        }
+        return opportunities;
+    }
+    
+    private static double toDouble(BigDecimal price) {
+        return price != null ? price.doubleValue() : Double.NaN;
+    }
+    
+    private static BigDecimal toDecimal(double price) {
+        return BigDecimal.valueOf(price).setScale(8, RoundingMode.HALF_UP);
+    }
+    
+    /**
+     * Searches the starting nodes of a range of currencies, splitting the range in half until one currency is left
+     */
+    private static final class CycleSearch extends RecursiveTask<List<CrossExchangeGraph.Cycle>> {
+        
+        private final CrossExchangeGraph graph;
+        private final double[] rates;
+        private final int maxLegs;
+        private final double minLogReturn;
+        private final List<int[]> startsByCurrency;
+        private final int from;
+        private final int to;
+        
+        private CycleSearch(CrossExchangeGraph graph, double[] rates, int maxLegs, double minLogReturn,
+                            List<int[]> startsByCurrency, int from, int to) {
+            this.graph = graph;
+            this.rates = rates;
+            this.maxLegs = maxLegs;
+            this.minLogReturn = minLogReturn;
+            this.startsByCurrency = startsByCurrency;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected List<CrossExchangeGraph.Cycle> compute() {
+            if (to - from == 1) {
+                List<CrossExchangeGraph.Cycle> found = new ArrayList<>();
+                for (int node : startsByCurrency.get(from)) {
+                    graph.searchFrom(node, maxLegs, minLogReturn, rates, found);
+                }
+                return found;
+            }
+            int middle = (from + to) >>> 1;
+            CycleSearch left = new CycleSearch(graph, rates, maxLegs, minLogReturn, startsByCurrency, from, middle);
+            left.fork();
+            List<CrossExchangeGraph.Cycle> found =
+                    new CycleSearch(graph, rates, maxLegs, minLogReturn, startsByCurrency, middle, to).compute();
+            found.addAll(left.join());
+            return found;
+        }
+    }
+}
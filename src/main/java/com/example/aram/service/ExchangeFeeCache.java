@@ -0,0 +1,77 @@
+package com.example.aram.service;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.market.FeeSchedule;
+import com.example.aram.model.Exchange;
+import com.example.aram.repository.ExchangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Keeps per-exchange trading costs in memory so detection never reads the exchanges table per tick.
+ * Each exchange's cost is its taker fee (from the table, or the configured default) plus the slippage allowance.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ExchangeFeeCache {
+    
+    private static final BigDecimal PPM_PER_PERCENT = BigDecimal.valueOf(10_000);
+    
+    private final ExchangeRepository exchangeRepository;
+    private final ArbitrageConfig arbitrageConfig;
+    
+    private volatile FeeSchedule schedule = FeeSchedule.NONE;
+    
+    /**
+     * Current costs, or no costs when net-profit detection is disabled
+     */
+    public FeeSchedule current() {
+        return schedule;
+    }
+    
+    /**
+     * Reload fees from the exchanges table, keeping the previous schedule if the read fails
+     */
+    @PostConstruct
+    @Scheduled(initialDelayString = "${arbitrage.costs.refreshInterval:60000}", 
+               fixedDelayString = "${arbitrage.costs.refreshInterval:60000}")
+    public void refresh() {
+        ArbitrageConfig.Costs costs = arbitrageConfig.getCosts();
+        if (!Boolean.TRUE.equals(costs.getEnabled())) {
+            schedule = FeeSchedule.NONE;
+            return;
+        }
+        
+        BigDecimal[] takerFees = new BigDecimal[ExchangeType.values().length];
+        try {
+            for (Exchange exchange : exchangeRepository.findAll()) {
+                if (exchange.getExchangeType() != null && exchange.getFeePercentage() != null) {
+                    takerFees[exchange.getExchangeType().ordinal()] = BigDecimal.valueOf(exchange.getFeePercentage());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error loading exchange fees, keeping previous values: {}", e.getMessage());
+            return;
+        }
+        
+        long[] costPpm = new long[takerFees.length];
+        for (int i = 0; i < takerFees.length; i++) {
+            BigDecimal takerFee = takerFees[i] != null ? takerFees[i] : costs.getDefaultTakerFee();
+            costPpm[i] = toPpm(takerFee.add(costs.getSlippage()));
+        }
+        schedule = new FeeSchedule(costPpm);
+        log.debug("Loaded trading costs for {} exchanges", costPpm.length);
+    }
+    
+    private static long toPpm(BigDecimal percentage) {
+        return percentage.multiply(PPM_PER_PERCENT).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+}
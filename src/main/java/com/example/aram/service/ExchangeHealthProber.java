@@ -0,0 +1,73 @@
+package com.example.aram.service;
+
+import com.example.aram.client.ExchangeClient;
+import com.example.aram.client.ExchangeClientFactory;
+import com.example.aram.client.health.ExchangeHealth;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps the health model current for exchanges that regular fetches leave idle, and sends the trial call
+ * that lets an open circuit close again when nothing else would. Probes run on the exchange fetch executor;
+ * their outcome reaches the model through the exchange's transport like any other call.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ExchangeHealthProber {
+    
+    private final ExchangeClientFactory clientFactory;
+    private final ExchangeHealth exchangeHealth;
+    private final ArbitrageConfig arbitrageConfig;
+    
+    @Qualifier("exchangeFetchExecutor")
+    private final ExecutorService exchangeFetchExecutor;
+    
+    private final Set<ExchangeType> probing = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Start a probe of every exchange that has seen no call for the probe interval
+     */
+    @Scheduled(fixedDelayString = "${arbitrage.health.probeInterval:15000}")
+    public void probeIdle() {
+        if (!exchangeHealth.isEnabled()) {
+            return;
+        }
+        long idle = arbitrageConfig.getHealth().getProbeInterval();
+        for (ExchangeClient client : clientFactory.getAllClients()) {
+            ExchangeType exchangeType = client.getExchangeType();
+            if (!probing.contains(exchangeType) && exchangeHealth.tracker(exchangeType).needsProbe(idle)) {
+                probe(client);
+            }
+        }
+    }
+    
+    private void probe(ExchangeClient client) {
+        ExchangeType exchangeType = client.getExchangeType();
+        if (!probing.add(exchangeType)) {
+            return;
+        }
+        try {
+            exchangeFetchExecutor.execute(() -> {
+                try {
+                    client.isHealthy();
+                } finally {
+                    probing.remove(exchangeType);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            probing.remove(exchangeType);
+            log.warn("Skipped health probe for {}: fetch executor is full", exchangeType);
+        }
+    }
+}
@@ -1,20 +1,43 @@
 package com.example.aram.service;
 
+import com.example.aram.client.ApiKeyRejectedException;
 import com.example.aram.client.ExchangeClient;
 import com.example.aram.client.ExchangeClientFactory;
+import com.example.aram.client.health.ExchangeHealth;
+import com.example.aram.client.ratelimit.ExchangeRateLimiter;
+import com.example.aram.client.transport.CallDeadline;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.OrderDto;
 import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ExchangeType;
 import com.example.aram.enums.OrderSide;
 import com.example.aram.enums.OrderType;
+import com.example.aram.market.OrderBook;
+import com.example.aram.market.OrderBookStore;
 import com.example.aram.model.Exchange;
 import com.example.aram.repository.ExchangeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Service to interact with cryptocurrency exchanges
@@ -26,6 +49,15 @@ public class ExchangeService {
     
     private final ExchangeRepository exchangeRepository;
     private final ExchangeClientFactory clientFactory;
+    private final ArbitrageConfig arbitrageConfig;
+    private final OrderBookStore orderBookStore;
+    private final ExchangeHealth exchangeHealth;
+    
+    @Qualifier("exchangeFetchExecutor")
+    private final ExecutorService exchangeFetchExecutor;
+    
+    private final Map<ExchangeType, Account> accounts = new ConcurrentHashMap<>();
+    private final AtomicInteger depthRounds = new AtomicInteger();
     
     public List<Exchange> getAllActiveExchanges() {
         return exchangeRepository.findByEnabledTrueAndIsHealthyTrue();
@@ -37,10 +69,50 @@ public class ExchangeService {
     }
     
     /**
-     * Fetch current price for a trading pair from an exchange
+     * Exchange row holding the API credentials, cached so order placement does not wait on the database. The
+     * row is read again once the refresh interval has passed, so rotated or disabled keys take effect without
+     * a restart.
+     */
+    private Exchange getAccount(ExchangeType exchangeType) {
+        long now = System.nanoTime();
+        long refresh = TimeUnit.MILLISECONDS.toNanos(arbitrageConfig.getExecution().getAccountRefresh());
+        Account account = accounts.get(exchangeType);
+        if (account == null || now - account.loadedAt > refresh) {
+            account = new Account(getExchange(exchangeType), now);
+            accounts.put(exchangeType, account);
+        }
+        return account.exchange;
+    }
+    
+    /**
+     * Make a signed call with the exchange's credentials, sent whatever the exchange's circuit state so an open
+     * position can still be checked or closed; when the exchange rejects the key the cached row is dropped,
+     * so the next call reads the credentials again
+     */
+    private <T> T signed(ExchangeType exchangeType, Function<Exchange, T> call) {
+        try {
+            return ExchangeHealth.essential(() -> call.apply(getAccount(exchangeType)));
+        } catch (ApiKeyRejectedException e) {
+            accounts.remove(exchangeType);
+            log.warn("{} rejected the API key, reloading credentials before the next call: {}",
+                    exchangeType, e.getMessage());
+            throw e;
+        }
+    }
+    
+    private ExchangeClient requireClient(ExchangeType exchangeType) {
+        return clientFactory.getClient(exchangeType)
+                .orElseThrow(() -> new RuntimeException("No client for exchange: " + exchangeType));
+    }
+    
+    /**
+     * Fetch current price for a trading pair from an exchange; null while its circuit is open
      */
     public PriceDto fetchPrice(ExchangeType exchangeType, String symbol) {
         log.info("Fetching price for {} from {}", symbol, exchangeType);
+        if (!exchangeHealth.admits(exchangeType)) {
+            return null;
+        }
         
         return clientFactory.getClient(exchangeType)
                 .map(client -> client.fetchPrice(symbol))
@@ -52,25 +124,192 @@ public class ExchangeService {
      */
     public List<PriceDto> fetchPriceFromAllExchanges(String symbol) {
         log.info("Fetching price for {} from all exchanges", symbol);
+        return fetchFromAllExchanges(client -> client.fetchPrice(symbol), "price for " + symbol);
+    }
+    
+    /**
+     * Fetch tickers for the given pairs from all available exchanges, using each exchange's bulk ticker
+     * endpoint where it has one. Exchanges without one get a call per pair, each under its own deadline, so a
+     * slow pair only loses its own quote.
+     */
+    public List<PriceDto> fetchTickersFromAllExchanges(Set<String> symbols) {
+        log.debug("Fetching tickers for {} pairs from all exchanges", symbols.size());
         
+        List<ExchangeClient> clients = new ArrayList<>();
+        List<Supplier<List<PriceDto>>> calls = new ArrayList<>();
+        for (ExchangeClient client : admittedClients("tickers")) {
+            if (client.hasBulkTickers()) {
+                clients.add(client);
+                calls.add(() -> client.fetchTickers(symbols));
+                continue;
+            }
+            for (String symbol : symbols) {
+                clients.add(client);
+                calls.add(() -> {
+                    PriceDto price = client.fetchPrice(symbol);
+                    return price != null ? List.of(price) : null;
+                });
+            }
+        }
         List<PriceDto> prices = new ArrayList<>();
+        for (List<PriceDto> tickers : fetchAll(clients, calls, "tickers")) {
+            prices.addAll(tickers);
+        }
+        return prices;
+    }
+    
+    /**
+     * Fetch order-book snapshots for the given pairs from all available exchanges into the order-book store.
+     * Each exchange loads its pairs one after another into a single reused snapshot. The snapshots are
+     * optional calls that only use rate-limit turns free at the time; each round starts one pair further on,
+     * so an exchange whose budget admits a few books per round still refreshes every pair in turn.
+     *
+     * @return number of books refreshed
+     */
+    public int refreshOrderBooks(List<String> symbols) {
+        if (symbols.isEmpty()) {
+            return 0;
+        }
+        int levels = orderBookStore.levels();
+        int first = Math.floorMod(depthRounds.getAndIncrement(), symbols.size());
+        int refreshed = 0;
+        for (Integer loaded : fetchFromAllExchanges(client -> {
+            OrderBook snapshot = new OrderBook(levels);
+            int count = 0;
+            for (int i = 0; i < symbols.size(); i++) {
+                String symbol = symbols.get((first + i) % symbols.size());
+                if (ExchangeRateLimiter.optional(() -> client.fetchOrderBook(symbol, levels, snapshot))) {
+                    orderBookStore.update(client.getExchangeType(), symbol, snapshot);
+                    count++;
+                }
+            }
+            return count;
+        }, "order books")) {
+            refreshed += loaded;
+        }
+        return refreshed;
+    }
+    
+    /**
+     * Run a call against every exchange client whose circuit admits it and collect the non-null results
+     */
+    private <T> List<T> fetchFromAllExchanges(Function<ExchangeClient, T> call, String description) {
+        List<ExchangeClient> clients = admittedClients(description);
+        List<Supplier<T>> calls = new ArrayList<>(clients.size());
+        for (ExchangeClient client : clients) {
+            calls.add(() -> call.apply(client));
+        }
+        return fetchAll(clients, calls, description);
+    }
+    
+    private List<ExchangeClient> admittedClients(String description) {
+        List<ExchangeClient> clients = new ArrayList<>();
         for (ExchangeClient client : clientFactory.getAllClients()) {
+            if (exchangeHealth.admits(client.getExchangeType())) {
+                clients.add(client);
+            } else {
+                log.debug("Skipping {} for {}: circuit is open", client.getExchangeType(), description);
+            }
+        }
+        return clients;
+    }
+    
+    /**
+     * Run calls, each against the exchange client at the same position, and collect the non-null results.
+     * In parallel mode the calls are fanned out on a bounded executor with their REST calls cut off at the
+     * exchange deadline; calls that miss it or the sweep deadline are left out and the partial result is
+     * returned.
+     */
+    private <T> List<T> fetchAll(List<ExchangeClient> clients, List<Supplier<T>> calls, String description) {
+        ArbitrageConfig.Fetch fetch = arbitrageConfig.getFetch();
+        
+        if (!Boolean.TRUE.equals(fetch.getParallel())) {
+            List<T> results = new ArrayList<>();
+            for (int i = 0; i < calls.size(); i++) {
+                ExchangeClient client = clients.get(i);
+                try {
+                    T result = calls.get(i).get();
+                    if (result != null) {
+                        results.add(result);
+                    }
+                } catch (Exception e) {
+                    log.error("Error fetching {} from {}: {}", description, client.getExchangeType(), e.getMessage());
+                }
+            }
+            return results;
+        }
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetch.getExchangeTimeout());
+        List<CompletableFuture<T>> futures = new ArrayList<>(calls.size());
+        for (Supplier<T> call : calls) {
+            CompletableFuture<T> future;
             try {
-                PriceDto price = client.fetchPrice(symbol);
-                if (price != null) {
-                    prices.add(price);
+                future = CompletableFuture.supplyAsync(() -> callBefore(deadline, call), exchangeFetchExecutor)
+                        .orTimeout(fetch.getExchangeTimeout(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            futures.add(future);
+        }
+        
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(fetch.getSweepTimeout(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Sweep for {} exceeded {} ms, returning partial results", description, fetch.getSweepTimeout());
+        } catch (ExecutionException e) {
+            // Individual failures are reported per exchange below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        List<T> results = new ArrayList<>(calls.size());
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<T> future = futures.get(i);
+            ExchangeType exchangeType = clients.get(i).getExchangeType();
+            if (!future.isDone()) {
+                // Its calls end at the deadline on their own; the result is just no longer waited for
+                log.warn("Timed out fetching {} from {}", description, exchangeType);
+                continue;
+            }
+            try {
+                T result = future.getNow(null);
+                if (result != null) {
+                    results.add(result);
                 }
-            } catch (Exception e) {
-                log.error("Error fetching price from {}: {}", client.getExchangeType(), e.getMessage());
+            } catch (CompletionException | CancellationException e) {
+                log.error("Error fetching {} from {}: {}", description, exchangeType, describe(e));
             }
         }
-        return prices;
+        return results;
+    }
+    
+    /**
+     * Run one call with its REST calls cut off at the deadline; a call that only reaches a thread after the
+     * deadline is not made at all
+     */
+    private static <T> T callBefore(long deadline, Supplier<T> call) {
+        if (CallDeadline.isPast(deadline)) {
+            throw new CompletionException(new TimeoutException());
+        }
+        return CallDeadline.callBefore(deadline, call);
+    }
+    
+    private static String describe(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "timed out";
+        }
+        return cause.getMessage();
     }
     
     /**
-     * Fetch all tickers from a specific exchange
+     * Fetch all tickers from a specific exchange; empty while its circuit is open
      */
     public List<PriceDto> fetchAllTickers(ExchangeType exchangeType) {
+        if (!exchangeHealth.admits(exchangeType)) {
+            return new ArrayList<>();
+        }
         return clientFactory.getClient(exchangeType)
                 .map(ExchangeClient::fetchAllTickers)
                 .orElse(new ArrayList<>());
@@ -78,33 +317,58 @@ public class ExchangeService {
     
     /**
      * Execute a trade on an exchange
+     *
+     * @return the order as the exchange acknowledged it; its status and executed quantity tell whether it filled
+     * @throws RuntimeException if the order could not be placed
      */
-    public String executeTrade(ExchangeType exchangeType, String symbol, 
+    public OrderDto executeTrade(ExchangeType exchangeType, String symbol, 
                               OrderType orderType, OrderSide orderSide,
                               BigDecimal price, BigDecimal quantity) {
-        // TODO: Implement actual trade execution
         log.info("Executing {} {} order for {} on {} at price {} quantity {}", 
                 orderSide, orderType, symbol, exchangeType, price, quantity);
         
-        return "ORDER_" + System.currentTimeMillis();
+        ExchangeClient client = requireClient(exchangeType);
+        OrderDto order = signed(exchangeType,
+                account -> client.placeOrder(account, symbol, orderType, orderSide, price, quantity));
+        log.info("Placed order {} on {} with status {}", order.getOrderId(), exchangeType, order.getStatus());
+        return order;
     }
     
     /**
-     * Check if exchange API is responding
+     * Cancel an open order
+     */
+    public boolean cancelOrder(ExchangeType exchangeType, String symbol, String orderId) {
+        ExchangeClient client = requireClient(exchangeType);
+        return signed(exchangeType, account -> client.cancelOrder(account, symbol, orderId));
+    }
+    
+    /**
+     * Fetch the current state of an order from the exchange
+     */
+    public OrderDto getOrder(ExchangeType exchangeType, String symbol, String orderId) {
+        ExchangeClient client = requireClient(exchangeType);
+        return signed(exchangeType, account -> client.getOrder(account, symbol, orderId));
+    }
+    
+    /**
+     * Check if exchange API is responding. Answered from the health model when it is enabled, otherwise with
+     * a live call.
      */
     public boolean checkHealth(ExchangeType exchangeType) {
+        if (exchangeHealth.isEnabled()) {
+            return exchangeHealth.isHealthy(exchangeType);
+        }
         return clientFactory.getClient(exchangeType)
                 .map(ExchangeClient::isHealthy)
                 .orElse(false);
     }
     
     /**
-     * Get account balance for a currency
+     * Fetch available balances from the exchange. This is a remote call; sizing reads the balance ledger instead.
      */
-    public BigDecimal getBalance(ExchangeType exchangeType, String currency) {
-        // TODO: Implement actual balance checking
-        log.info("Getting balance for {} on {}", currency, exchangeType);
-        return BigDecimal.ZERO;
+    public Map<String, BigDecimal> fetchBalances(ExchangeType exchangeType) {
+        ExchangeClient client = requireClient(exchangeType);
+        return signed(exchangeType, client::getBalances);
     }
     
     /**
@@ -113,5 +377,18 @@ public class ExchangeService {
     public List<ExchangeClient> getAllClients() {
         return clientFactory.getAllClients();
     }
+    
+    /**
+     * Credentials row and when it was read
+     */
+    private static final class Account {
+        
+        private final Exchange exchange;
+        private final long loadedAt;
+        
+        private Account(Exchange exchange, long loadedAt) {
+            this.exchange = exchange;
+            this.loadedAt = loadedAt;
+        }
+    }
 }
-
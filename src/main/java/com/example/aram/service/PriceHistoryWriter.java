@@ -0,0 +1,192 @@
+package com.example.aram.service;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.model.Price;
+import com.example.aram.repository.PriceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind stage for price history. Ingestion only enqueues quotes; a single writer thread
+ * drains them and inserts them in batches, so a slow database never delays ingestion.
+ * Quotes whose bid, ask and volume match the last written row are skipped until the heartbeat
+ * interval passes. When the queue is full, quotes are coalesced to the latest one per exchange
+ * and symbol until the writer catches up.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PriceHistoryWriter {
+    
+    private final PriceRepository priceRepository;
+    private final ArbitrageConfig arbitrageConfig;
+    
+    private final Map<String, PriceDto> overflow = new ConcurrentHashMap<>();
+    
+    /**
+     * Last quote accepted for writing per exchange and symbol. Taken back when its batch fails, so the next
+     * identical quote is written instead of being skipped as unchanged until the heartbeat.
+     */
+    private final Map<String, PriceDto> lastWritten = new ConcurrentHashMap<>();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    
+    private BlockingQueue<PriceDto> queue;
+    private Thread writer;
+    private volatile boolean running;
+    
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(arbitrageConfig.getPersistence().getQueueCapacity());
+        running = true;
+        writer = new CustomizableThreadFactory("price-writer-").newThread(this::run);
+        writer.start();
+    }
+    
+    /**
+     * Stop accepting work and write whatever is still pending
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (writer.isAlive()) {
+            writer.interrupt();
+        }
+        log.info("Price history writer stopped: {} written, {} unchanged, {} coalesced, {} failed", 
+                written.get(), unchanged.get(), coalesced.get(), failed.get());
+    }
+    
+    /**
+     * Queue a quote for the history table without blocking, unless it repeats the last written row
+     */
+    public void enqueue(PriceDto priceDto) {
+        String key = priceDto.getExchange() + ":" + priceDto.getSymbol();
+        if (!hasChanged(key, priceDto)) {
+            unchanged.incrementAndGet();
+            return;
+        }
+        if (!queue.offer(priceDto)) {
+            // Keep only the latest quote per exchange and symbol while the database is behind
+            if (overflow.put(key, priceDto) != null) {
+                coalesced.incrementAndGet();
+            }
+        }
+    }
+    
+    private boolean hasChanged(String key, PriceDto priceDto) {
+        ArbitrageConfig.Persistence settings = arbitrageConfig.getPersistence();
+        PriceDto previous = lastWritten.get(key);
+        if (settings.getSkipUnchanged() && previous != null
+                && sameValue(previous.getBidPrice(), priceDto.getBidPrice())
+                && sameValue(previous.getAskPrice(), priceDto.getAskPrice())
+                && sameValue(previous.getVolume24h(), priceDto.getVolume24h())
+                && !heartbeatDue(previous, priceDto, settings.getHeartbeatInterval())) {
+            return false;
+        }
+        lastWritten.put(key, priceDto);
+        return true;
+    }
+    
+    private static boolean heartbeatDue(PriceDto previous, PriceDto current, long heartbeatInterval) {
+        if (previous.getTimestamp() == null || current.getTimestamp() == null) {
+            return true;
+        }
+        return Duration.between(previous.getTimestamp(), current.getTimestamp()).toMillis() >= heartbeatInterval;
+    }
+    
+    private static boolean sameValue(BigDecimal previous, BigDecimal current) {
+        return previous == null ? current == null : current != null && previous.compareTo(current) == 0;
+    }
+    
+    /**
+     * Number of quotes waiting to be written
+     */
+    public int getPendingCount() {
+        return queue.size() + overflow.size();
+    }
+    
+    private void run() {
+        int batchSize = arbitrageConfig.getPersistence().getBatchSize();
+        long flushInterval = arbitrageConfig.getPersistence().getFlushInterval();
+        List<PriceDto> batch = new ArrayList<>(batchSize);
+        
+        while (running || !queue.isEmpty() || !overflow.isEmpty()) {
+            try {
+                PriceDto first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                if (batch.size() < batchSize) {
+                    drainOverflow(batch, batchSize);
+                }
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void drainOverflow(List<PriceDto> batch, int batchSize) {
+        Iterator<PriceDto> iterator = overflow.values().iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+    }
+    
+    private void write(List<PriceDto> batch) {
+        List<Price> prices = new ArrayList<>(batch.size());
+        for (PriceDto priceDto : batch) {
+            prices.add(toPrice(priceDto));
+        }
+        try {
+            priceRepository.saveAll(prices);
+            written.addAndGet(prices.size());
+        } catch (Exception e) {
+            failed.addAndGet(prices.size());
+            for (PriceDto priceDto : batch) {
+                lastWritten.remove(priceDto.getExchange() + ":" + priceDto.getSymbol(), priceDto);
+            }
+            log.error("Error writing {} price rows: {}", prices.size(), e.getMessage());
+        }
+    }
+    
+    private static Price toPrice(PriceDto priceDto) {
+        return Price.builder()
+                .exchangeType(priceDto.getExchange())
+                .symbol(priceDto.getSymbol())
+                .bidPrice(priceDto.getBidPrice())
+                .askPrice(priceDto.getAskPrice())
+                .lastPrice(priceDto.getLastPrice())
+                .volume24h(priceDto.getVolume24h())
+                .timestamp(priceDto.getTimestamp() != null ? priceDto.getTimestamp() : LocalDateTime.now())
+                .build();
+    }
+}
@@ -1,16 +1,20 @@
 package com.example.aram.service;
 
+import com.example.aram.config.ArbitrageConfig;
 import com.example.aram.dto.PriceDto;
 import com.example.aram.enums.ExchangeType;
-import com.example.aram.model.Exchange;
+import com.example.aram.market.QuoteStore;
 import com.example.aram.model.Price;
 import com.example.aram.repository.PriceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
@@ -18,13 +22,17 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PriceService {
     
+    private static final long MAX_HISTORY_POINTS = 10_000;
+    
     private final PriceRepository priceRepository;
     private final ExchangeService exchangeService;
+    private final QuoteStore quoteStore;
+    private final PriceHistoryWriter priceHistoryWriter;
+    private final ArbitrageConfig arbitrageConfig;
     
     /**
      * Fetch and store prices for all active exchanges and symbols
      */
-    @Transactional
     public void updatePrices(List<String> symbols) {
         for (String symbol : symbols) {
             try {
@@ -41,31 +49,74 @@ public class PriceService {
     }
     
     /**
-     * Save price data to database
+     * Fetch and store prices using one bulk ticker call per exchange,
+     * keeping only the requested symbols
+     */
+    public void updatePricesBulk(List<String> symbols) {
+        List<PriceDto> prices = exchangeService.fetchTickersFromAllExchanges(new LinkedHashSet<>(symbols));
+        for (PriceDto priceDto : prices) {
+            try {
+                savePrice(priceDto);
+            } catch (Exception e) {
+                log.error("Error saving price for {} on {}: {}", 
+                        priceDto.getSymbol(), priceDto.getExchange(), e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Persist the current in-memory quotes for the given symbols as history rows.
+     * Used when quotes arrive over streams instead of being polled.
+     */
+    public void persistLatestQuotes(List<String> symbols) {
+        for (String symbol : symbols) {
+            for (PriceDto priceDto : quoteStore.getQuotes(symbol)) {
+                persistPrice(priceDto);
+            }
+        }
+    }
+    
+    /**
+     * Publish price data to the latest-quote store without writing history
+     */
+    public void publishQuote(PriceDto priceDto) {
+        quoteStore.update(priceDto);
+    }
+    
+    /**
+     * Publish price data to the latest-quote store and queue it for the history table
      */
-    @Transactional
     public void savePrice(PriceDto priceDto) {
-        Price price = Price.builder()
-                .exchangeType(priceDto.getExchange())
-                .symbol(priceDto.getSymbol())
-                .bidPrice(priceDto.getBidPrice())
-                .askPrice(priceDto.getAskPrice())
-                .lastPrice(priceDto.getLastPrice())
-                .volume24h(priceDto.getVolume24h())
-                .timestamp(priceDto.getTimestamp() != null ? priceDto.getTimestamp() : LocalDateTime.now())
-                .build();
-        
-        priceRepository.save(price);
+        publishQuote(priceDto);
+        persistPrice(priceDto);
+    }
+    
+    private void persistPrice(PriceDto priceDto) {
+        priceHistoryWriter.enqueue(priceDto);
     }
     
     /**
      * Get latest price for a symbol on a specific exchange
      */
     public Price getLatestPrice(ExchangeType exchange, String symbol) {
-        return priceRepository.findLatestByExchangeAndSymbol(exchange, symbol)
+        return priceRepository.findFirstByExchangeTypeAndSymbolOrderByTimestampDesc(exchange, symbol)
                 .orElse(null);
     }
     
+    /**
+     * Get latest in-memory quote for a symbol on a specific exchange
+     */
+    public PriceDto getLatestQuote(ExchangeType exchange, String symbol) {
+        return quoteStore.getQuote(exchange, symbol);
+    }
+    
+    /**
+     * Get latest in-memory quotes for a symbol across all exchanges
+     */
+    public List<PriceDto> getLatestQuotes(String symbol) {
+        return quoteStore.getQuotes(symbol);
+    }
+    
     /**
      * Get latest prices for a symbol across all exchanges
      */
@@ -74,13 +125,87 @@ public class PriceService {
     }
     
     /**
-     * Clean up old price data
+     * Get price history for a symbol on one exchange, filling the stretches where nothing was written.
+     * Only changed quotes (and periodic heartbeats) are stored, so a row stays in effect until the next one.
+     * Without an interval the stored rows are returned, starting with the row in effect at {@code from};
+     * with an interval there is one point per step carrying the row in effect at that time.
      */
-    @Transactional
-    public void cleanupOldPrices(int daysToKeep) {
+    public List<PriceDto> getPriceHistory(ExchangeType exchange, String symbol, 
+                                          LocalDateTime from, LocalDateTime to, Duration interval) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("History start must not be after its end");
+        }
+        if (interval != null && (interval.isNegative() || interval.isZero()
+                || Duration.between(from, to).dividedBy(interval) >= MAX_HISTORY_POINTS)) {
+            throw new IllegalArgumentException("History interval must be positive and give at most " 
+                    + MAX_HISTORY_POINTS + " points");
+        }
+        
+        List<Price> changes = new ArrayList<>();
+        priceRepository.findFirstByExchangeTypeAndSymbolAndTimestampLessThanEqualOrderByTimestampDesc(
+                exchange, symbol, from).ifPresent(changes::add);
+        for (Price price : priceRepository.findByExchangeTypeAndSymbolAndTimestampBetweenOrderByTimestampAsc(
+                exchange, symbol, from, to)) {
+            if (changes.isEmpty() || !price.getId().equals(changes.get(0).getId())) {
+                changes.add(price);
+            }
+        }
+        
+        List<PriceDto> history = new ArrayList<>();
+        if (interval == null) {
+            for (Price price : changes) {
+                history.add(toPriceDto(price, price.getTimestamp().isBefore(from) ? from : price.getTimestamp()));
+            }
+            return history;
+        }
+        
+        int next = 0;
+        Price current = null;
+        for (LocalDateTime time = from; !time.isAfter(to); time = time.plus(interval)) {
+            while (next < changes.size() && !changes.get(next).getTimestamp().isAfter(time)) {
+                current = changes.get(next++);
+            }
+            if (current != null) {
+                history.add(toPriceDto(current, time));
+            }
+        }
+        return history;
+    }
+    
+    private static PriceDto toPriceDto(Price price, LocalDateTime timestamp) {
+        return PriceDto.builder()
+                .exchange(price.getExchangeType())
+                .symbol(price.getSymbol())
+                .bidPrice(price.getBidPrice())
+                .askPrice(price.getAskPrice())
+                .lastPrice(price.getLastPrice())
+                .volume24h(price.getVolume24h())
+                .timestamp(timestamp)
+                .build();
+    }
+    
+    /**
+     * Clean up old price data in bounded chunks.
+     * Each chunk is one id lookup and one bulk delete in its own short transaction,
+     * so no long lock is held and nothing is loaded into the persistence context.
+     *
+     * @return number of rows deleted
+     */
+    public long cleanupOldPrices(int daysToKeep) {
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
-        priceRepository.deleteByTimestampBefore(cutoffDate);
-        log.info("Cleaned up prices older than {}", cutoffDate);
+        int chunkSize = arbitrageConfig.getPersistence().getCleanupChunkSize();
+        long deleted = 0;
+        
+        List<Long> ids;
+        do {
+            ids = priceRepository.findIdsByTimestampBefore(cutoffDate, PageRequest.of(0, chunkSize));
+            if (!ids.isEmpty()) {
+                deleted += priceRepository.deleteByIdIn(ids);
+            }
+        } while (ids.size() == chunkSize);
+        
+        log.info("Cleaned up {} prices older than {}", deleted, cutoffDate);
+        return deleted;
     }
 }
 
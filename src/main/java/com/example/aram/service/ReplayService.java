@@ -0,0 +1,250 @@
+package com.example.aram.service;
+
+import com.example.aram.archive.TickArchive;
+import com.example.aram.dto.ArbitrageOpportunityDto;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.dto.ReplayResultDto;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.ReplaySource;
+import com.example.aram.market.QuoteStore;
+import com.example.aram.model.ArbitrageOpportunity;
+import com.example.aram.model.Price;
+import com.example.aram.repository.PriceRepository;
+import com.example.aram.util.FixedPoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays stored price history through the live detection code as fast as possible.
+ * Quotes go into a private quote store in timestamp order, so time is simulated rather than
+ * waited for, and opportunities are collected instead of saved. History is read one day at a time.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReplayService {
+    
+    private final PriceRepository priceRepository;
+    private final TickArchive tickArchive;
+    private final ArbitrageDetectionService detectionService;
+    
+    /**
+     * Replay a symbol's history and report the opportunities that would have fired
+     *
+     * @param maxOpportunities number of opportunities to include in the result; all are counted
+     */
+    public ReplayResultDto replay(String symbol, LocalDateTime from, LocalDateTime to, 
+                                  BigDecimal minProfitPercentage, ReplaySource source, int maxOpportunities) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Replay start must not be after its end");
+        }
+        
+        Replay replay = new Replay(symbol, minProfitPercentage, maxOpportunities);
+        for (LocalDateTime windowStart = from; !windowStart.isAfter(to); ) {
+            LocalDateTime nextDay = windowStart.toLocalDate().plusDays(1).atStartOfDay();
+            LocalDateTime windowEnd = nextDay.isAfter(to) ? to : nextDay.minusNanos(1);
+            
+            long loadStart = System.nanoTime();
+            if (source == ReplaySource.ARCHIVE) {
+                List<TickBuffer> buffers = loadArchive(symbol, windowStart, windowEnd);
+                replay.loadNanos += System.nanoTime() - loadStart;
+                replayMerged(replay, buffers);
+            } else {
+                List<Price> prices = priceRepository.findBySymbolAndTimestampBetweenOrderByTimestampAscIdAsc(
+                        symbol, windowStart, windowEnd);
+                replay.loadNanos += System.nanoTime() - loadStart;
+                long detectStart = System.nanoTime();
+                for (Price price : prices) {
+                    replay.onQuote(toPriceDto(price));
+                }
+                replay.detectNanos += System.nanoTime() - detectStart;
+            }
+            windowStart = nextDay;
+        }
+        
+        long detectMillis = TimeUnit.NANOSECONDS.toMillis(replay.detectNanos);
+        log.info("Replayed {} ticks of {} from {} in {} ms ({} opportunities)", 
+                replay.ticks, symbol, source, detectMillis, replay.opportunityCount);
+        
+        return ReplayResultDto.builder()
+                .symbol(symbol)
+                .source(source)
+                .from(from)
+                .to(to)
+                .minProfitPercentage(minProfitPercentage)
+                .ticks(replay.ticks)
+                .changedTicks(replay.changedTicks)
+                .opportunityCount(replay.opportunityCount)
+                .loadMillis(TimeUnit.NANOSECONDS.toMillis(replay.loadNanos))
+                .detectMillis(detectMillis)
+                .ticksPerSecond(replay.detectNanos > 0 
+                        ? replay.ticks * TimeUnit.SECONDS.toNanos(1) / replay.detectNanos : 0)
+                .opportunities(replay.opportunities)
+                .build();
+    }
+    
+    private List<TickBuffer> loadArchive(String symbol, LocalDateTime from, LocalDateTime to) {
+        List<TickBuffer> buffers = new ArrayList<>();
+        for (ExchangeType exchange : ExchangeType.values()) {
+            TickBuffer buffer = new TickBuffer(exchange);
+            tickArchive.replay(exchange, symbol, from, to, buffer::add);
+            if (buffer.size > 0) {
+                buffers.add(buffer);
+            }
+        }
+        return buffers;
+    }
+    
+    /**
+     * Feed the per-exchange tick buffers to the replay in timestamp order
+     */
+    private void replayMerged(Replay replay, List<TickBuffer> buffers) {
+        long detectStart = System.nanoTime();
+        int[] positions = new int[buffers.size()];
+        while (true) {
+            int next = -1;
+            long nextTimestamp = Long.MAX_VALUE;
+            for (int i = 0; i < buffers.size(); i++) {
+                TickBuffer buffer = buffers.get(i);
+                if (positions[i] < buffer.size && buffer.timestamps[positions[i]] < nextTimestamp) {
+                    next = i;
+                    nextTimestamp = buffer.timestamps[positions[i]];
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            replay.onQuote(buffers.get(next).toPriceDto(replay.symbol, positions[next]++));
+        }
+        replay.detectNanos += System.nanoTime() - detectStart;
+    }
+    
+    private static PriceDto toPriceDto(Price price) {
+        return PriceDto.builder()
+                .exchange(price.getExchangeType())
+                .symbol(price.getSymbol())
+                .bidPrice(price.getBidPrice())
+                .askPrice(price.getAskPrice())
+                .lastPrice(price.getLastPrice())
+                .volume24h(price.getVolume24h())
+                .timestamp(price.getTimestamp())
+                .build();
+    }
+    
+    private static ArbitrageOpportunityDto toDto(ArbitrageOpportunity opportunity) {
+        return ArbitrageOpportunityDto.builder()
+                .type(opportunity.getArbitrageType())
+                .symbol(opportunity.getSymbol())
+                .buyExchange(opportunity.getBuyExchange())
+                .sellExchange(opportunity.getSellExchange())
+                .buyPrice(opportunity.getBuyPrice())
+                .sellPrice(opportunity.getSellPrice())
+                .profitPercentage(opportunity.getProfitPercentage())
+                .estimatedProfit(opportunity.getEstimatedProfit())
+                .volume(opportunity.getVolume())
+                .buyVwap(opportunity.getBuyVwap())
+                .sellVwap(opportunity.getSellVwap())
+                .route(opportunity.getRoute())
+                .status(opportunity.getStatus())
+                .detectedAt(opportunity.getDetectedAt())
+                .build();
+    }
+    
+    /**
+     * State of one replay run
+     */
+    private final class Replay {
+        
+        private final String symbol;
+        private final BigDecimal minProfitPercentage;
+        private final int maxOpportunities;
+        private final QuoteStore store = new QuoteStore();
+        private final List<ArbitrageOpportunityDto> opportunities = new ArrayList<>();
+        private long ticks;
+        private long changedTicks;
+        private long opportunityCount;
+        private long loadNanos;
+        private long detectNanos;
+        
+        private Replay(String symbol, BigDecimal minProfitPercentage, int maxOpportunities) {
+            this.symbol = symbol;
+            this.minProfitPercentage = minProfitPercentage;
+            this.maxOpportunities = maxOpportunities;
+        }
+        
+        private void onQuote(PriceDto quote) {
+            ticks++;
+            if (!store.update(quote)) {
+                return;
+            }
+            changedTicks++;
+            List<ArbitrageOpportunity> found = 
+                    detectionService.findOpportunitiesForQuote(store, quote, minProfitPercentage);
+            opportunityCount += found.size();
+            for (ArbitrageOpportunity opportunity : found) {
+                if (opportunities.size() >= maxOpportunities) {
+                    break;
+                }
+                opportunity.setDetectedAt(quote.getTimestamp());
+                opportunities.add(toDto(opportunity));
+            }
+        }
+    }
+    
+    /**
+     * Growable primitive columns for one exchange's archived ticks
+     */
+    private static final class TickBuffer {
+        
+        private final ExchangeType exchange;
+        private long[] timestamps = new long[1024];
+        private long[] bids = new long[1024];
+        private long[] asks = new long[1024];
+        private long[] lasts = new long[1024];
+        private long[] volumes = new long[1024];
+        private int size;
+        
+        private TickBuffer(ExchangeType exchange) {
+            this.exchange = exchange;
+        }
+        
+        private void add(long timestampMillis, long bid, long ask, long last, long volume) {
+            if (size == timestamps.length) {
+                int capacity = size * 2;
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                bids = Arrays.copyOf(bids, capacity);
+                asks = Arrays.copyOf(asks, capacity);
+                lasts = Arrays.copyOf(lasts, capacity);
+                volumes = Arrays.copyOf(volumes, capacity);
+            }
+            timestamps[size] = timestampMillis;
+            bids[size] = bid;
+            asks[size] = ask;
+            lasts[size] = last;
+            volumes[size] = volume;
+            size++;
+        }
+        
+        private PriceDto toPriceDto(String symbol, int index) {
+            return PriceDto.builder()
+                    .exchange(exchange)
+                    .symbol(symbol)
+                    .bidPrice(FixedPoint.toBigDecimal(bids[index]))
+                    .askPrice(FixedPoint.toBigDecimal(asks[index]))
+                    .lastPrice(FixedPoint.toBigDecimal(lasts[index]))
+                    .volume24h(FixedPoint.toBigDecimal(volumes[index]))
+                    .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamps[index]), ZoneId.systemDefault()))
+                    .build();
+        }
+    }
+}
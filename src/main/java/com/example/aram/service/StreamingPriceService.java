@@ -0,0 +1,83 @@
+package com.example.aram.service;
+
+import com.example.aram.client.stream.StreamListener;
+import com.example.aram.client.stream.StreamingExchangeClient;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.PriceIngestionMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Connects the WebSocket market-data streams to the price pipeline
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StreamingPriceService implements StreamListener {
+    
+    private final List<StreamingExchangeClient> streamingClients;
+    private final PriceService priceService;
+    private final ExchangeService exchangeService;
+    private final ArbitrageConfig arbitrageConfig;
+    
+    @Qualifier("exchangeFetchExecutor")
+    private final ExecutorService exchangeFetchExecutor;
+    
+    /**
+     * Start all streams once the application is up, if streaming ingestion is enabled
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startStreams() {
+        if (arbitrageConfig.getIngestionMode() != PriceIngestionMode.STREAM) {
+            return;
+        }
+        for (StreamingExchangeClient client : streamingClients) {
+            client.start(arbitrageConfig.getWatchedPairs(), this);
+        }
+    }
+    
+    @PreDestroy
+    public void stopStreams() {
+        streamingClients.forEach(StreamingExchangeClient::stop);
+    }
+    
+    @Override
+    public void onQuote(PriceDto quote) {
+        priceService.publishQuote(quote);
+    }
+    
+    /**
+     * Recover the current quote over REST. The result is only published if no
+     * stream update arrived while the request was in flight.
+     */
+    @Override
+    public void onResync(ExchangeType exchangeType, String symbol) {
+        LocalDateTime requestedAt = LocalDateTime.now();
+        try {
+            exchangeFetchExecutor.execute(() -> {
+                PriceDto snapshot = exchangeService.fetchPrice(exchangeType, symbol);
+                if (snapshot == null) {
+                    return;
+                }
+                PriceDto current = priceService.getLatestQuote(exchangeType, symbol);
+                if (current == null || current.getTimestamp() == null || current.getTimestamp().isBefore(requestedAt)) {
+                    priceService.publishQuote(snapshot);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Skipping resync of {} on {}: executor saturated", symbol, exchangeType);
+        }
+    }
+}
@@ -1,19 +1,38 @@
 package com.example.aram.service;
 
+import com.example.aram.client.transport.CallDeadline;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.OrderDto;
+import com.example.aram.enums.ArbitrageType;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.LegRecoveryPolicy;
 import com.example.aram.enums.OpportunityStatus;
 import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderStatus;
 import com.example.aram.enums.OrderType;
+import com.example.aram.market.BalanceLedger;
 import com.example.aram.model.ArbitrageOpportunity;
 import com.example.aram.model.Trade;
 import com.example.aram.repository.ArbitrageOpportunityRepository;
 import com.example.aram.repository.TradeRepository;
+import com.example.aram.util.ArbitrageCalculator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
@@ -23,12 +42,63 @@ public class TradeExecutionService {
     private final ExchangeService exchangeService;
     private final TradeRepository tradeRepository;
     private final ArbitrageOpportunityRepository opportunityRepository;
+    private final ArbitrageConfig arbitrageConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceLedger balanceLedger;
+    private final BalanceReconciler balanceReconciler;
+    private final ArbitrageCalculator arbitrageCalculator;
+    
+    @Qualifier("tradeLegExecutor")
+    private final ExecutorService tradeLegExecutor;
+    
+    @Qualifier("tradePersistenceExecutor")
+    private final ExecutorService tradePersistenceExecutor;
+    
+    /**
+     * Auto-execution sizes every trade itself, so without the balance ledger it needs a default amount;
+     * otherwise it would quietly place nothing
+     */
+    @PostConstruct
+    public void checkSizing() {
+        if (tracksBalances()) {
+            return;
+        }
+        BigDecimal defaultAmount = arbitrageConfig.getExecution().getDefaultAmount();
+        if (Boolean.TRUE.equals(arbitrageConfig.getAutoExecute()) && defaultAmount == null) {
+            throw new IllegalStateException("arbitrage.autoExecute needs arbitrage.balances.enabled "
+                    + "or arbitrage.execution.defaultAmount to size trades");
+        }
+        if (defaultAmount != null) {
+            log.warn("Balance ledger is off; trades are sized at {} without checking balances", defaultAmount);
+        }
+    }
+    
+    /**
+     * Execute an arbitrage opportunity at the largest amount the balance ledger can fund on both exchanges,
+     * or at the configured default amount while the ledger is off
+     */
+    public void executeArbitrage(Long opportunityId) {
+        execute(opportunityId, null);
+    }
     
     /**
-     * Execute an arbitrage opportunity
+     * Execute an arbitrage opportunity. Both legs are placed at the same time, so neither waits for the other's
+     * round trip, and an order the exchange has not finished is polled until it is. A leg counts as filled by the
+     * quantity its order executed; when one leg filled more than the other, the configured recovery policy hedges
+     * or unwinds the difference. A leg without a final status within the timeout is left for manual review.
+     * Trades and the final status are recorded in the background once the orders are out.
+     * <p>
+     * While the balance ledger is enabled, the quote currency of the buy leg and the base currency of the sell
+     * leg are reserved before any order goes out, and the opportunity is left alone if either is short.
      */
-    @Transactional
     public void executeArbitrage(Long opportunityId, BigDecimal amount) {
+        execute(opportunityId, amount);
+    }
+    
+    /**
+     * @param requested amount to trade, or null to size it from the balance ledger
+     */
+    private void execute(Long opportunityId, BigDecimal requested) {
         ArbitrageOpportunity opportunity = opportunityRepository.findById(opportunityId)
                 .orElseThrow(() -> new RuntimeException("Opportunity not found: " + opportunityId));
         
@@ -36,89 +106,463 @@ public class TradeExecutionService {
             log.warn("Opportunity {} is not in DETECTED status", opportunityId);
             return;
         }
+        if (opportunity.getArbitrageType() != ArbitrageType.SIMPLE) {
+            log.warn("Opportunity {} is {}; only simple two-leg opportunities can be executed",
+                    opportunityId, opportunity.getArbitrageType());
+            return;
+        }
+        
+        BigDecimal amount = requested != null ? requested : size(opportunity);
+        if (amount.signum() <= 0) {
+            if (tracksBalances()) {
+                log.debug("No balance to execute opportunity {}", opportunityId);
+            } else {
+                log.warn("Opportunity {} not executed: the balance ledger is off and no default amount is set",
+                        opportunityId);
+            }
+            return;
+        }
+        Leg buy = new Leg(opportunity.getBuyExchange(), opportunity.getSymbol(), OrderSide.BUY,
+                opportunity.getBuyPrice(), amount);
+        Leg sell = new Leg(opportunity.getSellExchange(), opportunity.getSymbol(), OrderSide.SELL,
+                opportunity.getSellPrice(), amount);
+        BalanceLedger.Reservation buyFunds = null;
+        BalanceLedger.Reservation sellFunds = null;
+        if (tracksBalances()) {
+            buyFunds = balanceLedger.reserve(buy.exchange, buy.quote, buy.value());
+            sellFunds = buyFunds != null ? balanceLedger.reserve(sell.exchange, sell.base, sell.quantity) : null;
+            if (sellFunds == null) {
+                release(buyFunds);
+                log.info("Not enough balance left to execute opportunity {} for {} {}",
+                        opportunityId, amount, buy.base);
+                return;
+            }
+        }
         
+        // Claimed before any order goes out, so the status write is not between the two legs
+        opportunity.setStatus(OpportunityStatus.EXECUTING);
+        opportunity.setExecutedAt(LocalDateTime.now());
         try {
-            // Update status to EXECUTING
-            opportunity.setStatus(OpportunityStatus.EXECUTING);
-            opportunity.setExecutedAt(LocalDateTime.now());
             opportunityRepository.save(opportunity);
-            
-            // Execute buy order
-            Trade buyTrade = executeBuyOrder(opportunity, amount);
-            
-            // Execute sell order
-            Trade sellTrade = executeSellOrder(opportunity, amount);
-            
-            // Update opportunity status
-            opportunity.setStatus(OpportunityStatus.COMPLETED);
+        } catch (RuntimeException e) {
+            release(buyFunds);
+            release(sellFunds);
+            throw e;
+        }
+        
+        long deadline = legDeadline();
+        CompletableFuture<LegResult> buying = submit(buy, deadline);
+        CompletableFuture<LegResult> selling = submit(sell, deadline);
+        LegResult bought = await(buy, buying, deadline);
+        LegResult sold = await(sell, selling, deadline);
+        book(bought, buyFunds);
+        book(sold, sellFunds);
+        if (bought.submittedAt != 0 && sold.submittedAt != 0) {
+            log.debug("Legs of opportunity {} were sent {} us apart",
+                    opportunityId, Math.abs(bought.submittedAt - sold.submittedAt) / 1000);
+        }
+        
+        List<Trade> trades = new ArrayList<>(4);
+        trades.add(toTrade(opportunity, bought));
+        trades.add(toTrade(opportunity, sold));
+        
+        if (bought.isFilled() && sold.isFilled()) {
             opportunity.setCompletedAt(LocalDateTime.now());
-            opportunity.setExecutionDetails(
-                    String.format("Buy Order: %s, Sell Order: %s", 
-                            buyTrade.getExternalOrderId(), sellTrade.getExternalOrderId()));
-            opportunityRepository.save(opportunity);
-            
+            record(opportunity, trades, OpportunityStatus.COMPLETED, String.format("Buy Order: %s, Sell Order: %s",
+                    bought.orderId, sold.orderId));
             log.info("Successfully executed arbitrage opportunity {}", opportunityId);
-            
-        } catch (Exception e) {
-            log.error("Failed to execute arbitrage opportunity {}: {}", opportunityId, e.getMessage());
-            opportunity.setStatus(OpportunityStatus.FAILED);
-            opportunity.setExecutionDetails("Error: " + e.getMessage());
-            opportunityRepository.save(opportunity);
+        } else if (bought.unknown || sold.unknown) {
+            String details = String.format("Leg outcome unknown, check the exchanges. Buy: %s, Sell: %s",
+                    bought.describe(), sold.describe());
+            record(opportunity, trades, OpportunityStatus.FAILED, details);
+            log.error("Arbitrage opportunity {} needs manual review: {}", opportunityId, details);
+        } else if (bought.executed.signum() == 0 && sold.executed.signum() == 0) {
+            record(opportunity, trades, OpportunityStatus.FAILED, String.format("Error: buy %s, sell %s",
+                    bought.error, sold.error));
+            log.error("Failed to execute arbitrage opportunity {}: buy {}, sell {}",
+                    opportunityId, bought.error, sold.error);
+        } else {
+            BigDecimal excess = bought.executed.subtract(sold.executed);
+            if (excess.signum() == 0) {
+                opportunity.setCompletedAt(LocalDateTime.now());
+                record(opportunity, trades, OpportunityStatus.COMPLETED, String.format(
+                        "Buy Order: %s, Sell Order: %s, both filled %s of %s", bought.orderId, sold.orderId,
+                        bought.executed.toPlainString(), amount.toPlainString()));
+                log.warn("Arbitrage opportunity {} filled {} of {} on both legs", opportunityId,
+                        bought.executed, amount);
+            } else if (excess.signum() > 0) {
+                recover(opportunity, bought, sold, excess, trades);
+            } else {
+                recover(opportunity, sold, bought, excess.negate(), trades);
+            }
         }
     }
     
-    private Trade executeBuyOrder(ArbitrageOpportunity opportunity, BigDecimal amount) {
-        String orderId = exchangeService.executeTrade(
-                opportunity.getBuyExchange(),
-                opportunity.getSymbol(),
-                OrderType.MARKET,
-                OrderSide.BUY,
-                opportunity.getBuyPrice(),
-                amount
-        );
+    /**
+     * Close the gap left when one leg filled more than the other. HEDGE places the missing quantity of the short
+     * leg at market and falls back to unwinding what is still open; UNWIND reverses the excess of the longer leg
+     * on its own exchange straight away.
+     *
+     * @param excess quantity the longer leg filled beyond the shorter one
+     */
+    private void recover(ArbitrageOpportunity opportunity, LegResult longer, LegResult shorter, BigDecimal excess,
+                         List<Trade> trades) {
+        ArbitrageConfig.Execution execution = arbitrageConfig.getExecution();
+        String failure = String.format("%s on %s filled %s of %s: %s", shorter.leg.side, shorter.leg.exchange,
+                shorter.executed.toPlainString(), shorter.leg.quantity.toPlainString(), shorter.error);
+        BigDecimal open = excess;
+        
+        if (execution.getRecoveryPolicy() == LegRecoveryPolicy.HEDGE) {
+            for (int attempt = 1; attempt <= execution.getHedgeAttempts(); attempt++) {
+                LegResult retry = placeNow(shorter.leg.withQuantity(open));
+                book(retry, null);
+                trades.add(toTrade(opportunity, retry));
+                if (retry.unknown) {
+                    record(opportunity, trades, OpportunityStatus.FAILED, String.format(
+                            "%s; hedge attempt %d has unknown outcome, check the exchanges", failure, attempt));
+                    log.error("Arbitrage opportunity {} needs manual review after a hedge attempt",
+                            opportunity.getId());
+                    return;
+                }
+                open = open.subtract(retry.executed);
+                if (open.signum() <= 0) {
+                    opportunity.setCompletedAt(LocalDateTime.now());
+                    record(opportunity, trades, OpportunityStatus.COMPLETED, String.format(
+                            "%s; hedged on attempt %d with order %s", failure, attempt, retry.orderId));
+                    log.warn("Arbitrage opportunity {} hedged after a failed leg: {}", opportunity.getId(), failure);
+                    return;
+                }
+            }
+        }
         
-        Trade trade = Trade.builder()
+        LegResult unwind = placeNow(longer.leg.reverse().withQuantity(open));
+        book(unwind, null);
+        trades.add(toTrade(opportunity, unwind));
+        if (unwind.isFilled()) {
+            record(opportunity, trades, OpportunityStatus.FAILED, String.format(
+                    "%s; unwound %s of %s with order %s", failure, open.toPlainString(), longer.orderId,
+                    unwind.orderId));
+            log.warn("Arbitrage opportunity {} unwound after a failed leg: {}", opportunity.getId(), failure);
+        } else {
+            record(opportunity, trades, OpportunityStatus.FAILED, String.format(
+                    "%s; unwinding %s of %s failed, position left open: %s", failure, open.toPlainString(),
+                    longer.orderId, unwind.describe()));
+            log.error("Arbitrage opportunity {} left an open position on {}: {}",
+                    opportunity.getId(), longer.leg.exchange, unwind.describe());
+        }
+    }
+    
+    /**
+     * Largest amount both sides can fund: maxBalancePercentage of the quote currency on the buy exchange and of
+     * the base currency on the sell exchange, capped by the volume the opportunity was sized for. Reads the
+     * ledger without locking; the reservation that follows decides whether the funds are still there.
+     * Without the ledger the configured default amount takes the place of the balances.
+     */
+    private BigDecimal size(ArbitrageOpportunity opportunity) {
+        BigDecimal volume = opportunity.getVolume();
+        if (!tracksBalances()) {
+            BigDecimal defaultAmount = arbitrageConfig.getExecution().getDefaultAmount();
+            if (defaultAmount == null) {
+                return BigDecimal.ZERO;
+            }
+            return volume != null && volume.signum() > 0 ? defaultAmount.min(volume) : defaultAmount;
+        }
+        if (opportunity.getBuyPrice().signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        String symbol = opportunity.getSymbol();
+        BigDecimal share = arbitrageConfig.getMaxBalancePercentage();
+        BigDecimal amount = arbitrageCalculator.calculateOptimalAmount(
+                        balanceLedger.available(opportunity.getBuyExchange(), quoteCurrency(symbol)),
+                        opportunity.getBuyPrice(), share)
+                .min(balanceLedger.available(opportunity.getSellExchange(), baseCurrency(symbol))
+                        .multiply(share).setScale(8, RoundingMode.DOWN));
+        return volume != null && volume.signum() > 0 ? amount.min(volume) : amount;
+    }
+    
+    /**
+     * Move the ledger by a leg's outcome. The executed quantity settles the leg's reservation at what it spent,
+     * or debits that without one, and credits what it bought, at the average fill price when the exchange reports
+     * one. A leg that executed nothing releases its reservation; an unknown leg keeps it until its exchange has
+     * been reconciled.
+     */
+    private void book(LegResult result, BalanceLedger.Reservation reservation) {
+        if (!tracksBalances()) {
+            return;
+        }
+        Leg leg = result.leg;
+        if (result.unknown) {
+            balanceReconciler.refresh(leg.exchange).whenComplete((ignored, error) -> release(reservation));
+            return;
+        }
+        if (result.executed.signum() == 0) {
+            release(reservation);
+            return;
+        }
+        boolean buying = leg.side == OrderSide.BUY;
+        BigDecimal value = result.executed.multiply(result.price());
+        BigDecimal spent = buying ? value : result.executed;
+        if (reservation != null) {
+            balanceLedger.settle(reservation, spent);
+        } else {
+            balanceLedger.adjust(leg.exchange, buying ? leg.quote : leg.base, spent.negate());
+        }
+        balanceLedger.adjust(leg.exchange, buying ? leg.base : leg.quote, buying ? result.executed : value);
+    }
+    
+    private void release(BalanceLedger.Reservation reservation) {
+        if (reservation != null) {
+            balanceLedger.release(reservation);
+        }
+    }
+    
+    private boolean tracksBalances() {
+        return Boolean.TRUE.equals(arbitrageConfig.getBalances().getEnabled());
+    }
+    
+    private CompletableFuture<LegResult> submit(Leg leg, long deadline) {
+        return CompletableFuture.supplyAsync(() -> place(leg, deadline), tradeLegExecutor);
+    }
+    
+    private LegResult placeNow(Leg leg) {
+        long deadline = legDeadline();
+        return await(leg, submit(leg, deadline), deadline);
+    }
+    
+    private long legDeadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(arbitrageConfig.getExecution().getLegTimeout());
+    }
+    
+    private LegResult place(Leg leg, long deadline) {
+        long submittedAt = System.nanoTime();
+        OrderDto order;
+        try {
+            order = exchangeService.executeTrade(leg.exchange, leg.symbol, OrderType.MARKET, leg.side,
+                    leg.price, leg.quantity);
+        } catch (Exception e) {
+            return LegResult.failed(leg, e.getMessage(), submittedAt);
+        }
+        if (order == null || order.getOrderId() == null) {
+            return LegResult.failed(leg, "no order id returned", submittedAt);
+        }
+        return LegResult.of(leg, awaitFinal(leg, order, deadline), submittedAt);
+    }
+    
+    /**
+     * Poll an order the exchange has not finished until it is, stopping early enough before the leg deadline
+     * that its last known state is still reported
+     */
+    private OrderDto awaitFinal(Leg leg, OrderDto order, long deadline) {
+        long interval = TimeUnit.MILLISECONDS.toNanos(arbitrageConfig.getExecution().getOrderPollInterval());
+        OrderDto current = order;
+        while (!isFinal(current.getStatus()) && deadline - System.nanoTime() > 2 * interval) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(interval);
+                OrderDto polled = CallDeadline.callBefore(deadline - interval,
+                        () -> exchangeService.getOrder(leg.exchange, leg.symbol, order.getOrderId()));
+                if (polled != null) {
+                    current = polled;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Error checking order {} on {}: {}", order.getOrderId(), leg.exchange, e.getMessage());
+            }
+        }
+        return current;
+    }
+    
+    private static boolean isFinal(OrderStatus status) {
+        return status == OrderStatus.FILLED || status == OrderStatus.CANCELED || status == OrderStatus.REJECTED;
+    }
+    
+    private static LegResult await(Leg leg, CompletableFuture<LegResult> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return LegResult.unknown(leg, "no answer before the leg timeout");
+        } catch (ExecutionException e) {
+            return LegResult.failed(leg, e.getCause().getMessage(), 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return LegResult.unknown(leg, "interrupted while waiting");
+        }
+    }
+    
+    /**
+     * Record the outcome off the execution path, trades and status in one transaction
+     */
+    private void record(ArbitrageOpportunity opportunity, List<Trade> trades, OpportunityStatus status,
+                        String details) {
+        opportunity.setStatus(status);
+        opportunity.setExecutionDetails(details);
+        tradePersistenceExecutor.execute(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(transaction -> {
+                    tradeRepository.saveAll(trades);
+                    opportunityRepository.save(opportunity);
+                });
+            } catch (Exception e) {
+                log.error("Error recording execution of opportunity {}: {}", opportunity.getId(), e.getMessage());
+            }
+        });
+    }
+    
+    private static String baseCurrency(String symbol) {
+        return symbol.substring(0, symbol.indexOf('/'));
+    }
+    
+    private static String quoteCurrency(String symbol) {
+        return symbol.substring(symbol.indexOf('/') + 1);
+    }
+    
+    private static Trade toTrade(ArbitrageOpportunity opportunity, LegResult result) {
+        Leg leg = result.leg;
+        return Trade.builder()
                 .opportunity(opportunity)
-                .exchangeType(opportunity.getBuyExchange())
-                .symbol(opportunity.getSymbol())
+                .exchangeType(leg.exchange)
+                .symbol(leg.symbol)
                 .orderType(OrderType.MARKET)
-                .orderSide(OrderSide.BUY)
-                .price(opportunity.getBuyPrice())
-                .quantity(amount)
-                .executedQuantity(amount)
-                .externalOrderId(orderId)
-                .status("FILLED")
-                .executedAt(LocalDateTime.now())
+                .orderSide(leg.side)
+                .price(result.price())
+                .quantity(leg.quantity)
+                .executedQuantity(result.executed)
+                .externalOrderId(result.orderId)
+                .status(result.status())
+                .executedAt(result.executed.signum() > 0 ? LocalDateTime.now() : null)
                 .build();
+    }
+    
+    /**
+     * One market order to place
+     */
+    private static final class Leg {
+        
+        private final ExchangeType exchange;
+        private final String symbol;
+        private final String base;
+        private final String quote;
+        private final OrderSide side;
+        private final BigDecimal price;
+        private final BigDecimal quantity;
+        
+        private Leg(ExchangeType exchange, String symbol, OrderSide side, BigDecimal price, BigDecimal quantity) {
+            this.exchange = exchange;
+            this.symbol = symbol;
+            this.base = baseCurrency(symbol);
+            this.quote = quoteCurrency(symbol);
+            this.side = side;
+            this.price = price;
+            this.quantity = quantity;
+        }
+        
+        /**
+         * Amount of the quote currency the leg trades at its expected price
+         */
+        private BigDecimal value() {
+            return quantity.multiply(price);
+        }
+        
+        /**
+         * The opposite order on the same exchange, closing the position this leg opened
+         */
+        private Leg reverse() {
+            return new Leg(exchange, symbol, side == OrderSide.BUY ? OrderSide.SELL : OrderSide.BUY, price, quantity);
+        }
         
-        return tradeRepository.save(trade);
+        private Leg withQuantity(BigDecimal quantity) {
+            return new Leg(exchange, symbol, side, price, quantity);
+        }
     }
     
-    private Trade executeSellOrder(ArbitrageOpportunity opportunity, BigDecimal amount) {
-        String orderId = exchangeService.executeTrade(
-                opportunity.getSellExchange(),
-                opportunity.getSymbol(),
-                OrderType.MARKET,
-                OrderSide.SELL,
-                opportunity.getSellPrice(),
-                amount
-        );
+    /**
+     * Outcome of placing one leg: the quantity its order executed once the exchange finished it, a failure to
+     * place it, or unknown when it had no final status before the timeout
+     */
+    private static final class LegResult {
         
-        Trade trade = Trade.builder()
-                .opportunity(opportunity)
-                .exchangeType(opportunity.getSellExchange())
-                .symbol(opportunity.getSymbol())
-                .orderType(OrderType.MARKET)
-                .orderSide(OrderSide.SELL)
-                .price(opportunity.getSellPrice())
-                .quantity(amount)
-                .executedQuantity(amount)
-                .externalOrderId(orderId)
-                .status("FILLED")
-                .executedAt(LocalDateTime.now())
-                .build();
+        private final Leg leg;
+        private final String orderId;
+        private final BigDecimal executed;
+        private final BigDecimal averagePrice;
+        private final OrderStatus status;
+        private final String error;
+        private final boolean unknown;
+        private final long submittedAt;
         
-        return tradeRepository.save(trade);
+        private LegResult(Leg leg, String orderId, BigDecimal executed, BigDecimal averagePrice, OrderStatus status,
+                          String error, boolean unknown, long submittedAt) {
+            this.leg = leg;
+            this.orderId = orderId;
+            this.executed = executed;
+            this.averagePrice = averagePrice;
+            this.status = status;
+            this.error = error;
+            this.unknown = unknown;
+            this.submittedAt = submittedAt;
+        }
+        
+        /**
+         * Judge an order by its status and executed quantity. A filled order without an executed quantity filled
+         * in full; an order still open is unknown, with what it executed so far.
+         */
+        private static LegResult of(Leg leg, OrderDto order, long submittedAt) {
+            OrderStatus status = order.getStatus();
+            BigDecimal executed = order.getExecutedQuantity();
+            if (status == OrderStatus.FILLED) {
+                return new LegResult(leg, order.getOrderId(), executed != null ? executed : leg.quantity,
+                        order.getAveragePrice(), status, null, false, submittedAt);
+            }
+            boolean done = isFinal(status);
+            String error = done ? "order " + order.getOrderId() + " " + status
+                    : "order " + order.getOrderId() + " still " + status + " at the leg timeout";
+            return new LegResult(leg, order.getOrderId(), executed != null ? executed : BigDecimal.ZERO,
+                    order.getAveragePrice(), status, error, !done, submittedAt);
+        }
+        
+        private static LegResult failed(Leg leg, String error, long submittedAt) {
+            return new LegResult(leg, null, BigDecimal.ZERO, null, null, error, false, submittedAt);
+        }
+        
+        private static LegResult unknown(Leg leg, String error) {
+            return new LegResult(leg, null, BigDecimal.ZERO, null, null, error, true, 0);
+        }
+        
+        private boolean isFilled() {
+            return !unknown && executed.compareTo(leg.quantity) >= 0;
+        }
+        
+        /**
+         * Average fill price, or the expected price when the exchange did not report one
+         */
+        private BigDecimal price() {
+            return averagePrice != null ? averagePrice : leg.price;
+        }
+        
+        private String status() {
+            if (unknown) {
+                return "UNKNOWN";
+            }
+            if (isFilled()) {
+                return "FILLED";
+            }
+            if (executed.signum() > 0) {
+                return "PARTIALLY_FILLED";
+            }
+            return status == OrderStatus.CANCELED ? "CANCELLED" : "REJECTED";
+        }
+        
+        private String describe() {
+            if (isFilled()) {
+                return "order " + orderId;
+            }
+            if (unknown) {
+                return "unknown, " + error;
+            }
+            return executed.signum() > 0
+                    ? "order " + orderId + " filled " + executed.toPlainString() + " of " + leg.quantity.toPlainString()
+                    : "failed, " + error;
+        }
     }
 }
-
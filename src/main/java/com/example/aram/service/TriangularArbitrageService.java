@@ -0,0 +1,252 @@
+package com.example.aram.service;
+
+import com.example.aram.client.ExchangeClient;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ArbitrageType;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OpportunityStatus;
+import com.example.aram.market.ConflatedQuoteListener;
+import com.example.aram.market.CurrencyGraph;
+import com.example.aram.market.QuoteListener;
+import com.example.aram.market.QuoteStore;
+import com.example.aram.model.ArbitrageOpportunity;
+import com.example.aram.model.TradingPair;
+import com.example.aram.repository.ArbitrageOpportunityRepository;
+import com.example.aram.repository.TradingPairRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Triangular arbitrage across three pairs on one exchange. All tickers of an exchange are loaded into
+ * its {@link CurrencyGraph}; each changed quote, from the ticker sweep or from a stream, then only
+ * re-evaluates the triangles through its own pair.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TriangularArbitrageService implements QuoteListener {
+    
+    private static final int LEGS = 3;
+    
+    private final ExchangeService exchangeService;
+    private final TradingPairRepository tradingPairRepository;
+    private final ArbitrageOpportunityRepository opportunityRepository;
+    private final ExchangeFeeCache exchangeFeeCache;
+    private final ArbitrageConfig arbitrageConfig;
+    private final QuoteStore quoteStore;
+    
+    @Qualifier("detectionExecutor")
+    private final ExecutorService detectionExecutor;
+    
+    /**
+     * One graph per exchange ordinal, each guarded by its own monitor
+     */
+    private final CurrencyGraph[] graphs = newGraphs();
+    
+    /**
+     * Streamed quotes for pairs already in a graph are evaluated as they change, on the detection executor
+     */
+    @PostConstruct
+    public void registerQuoteListener() {
+        if (Boolean.TRUE.equals(arbitrageConfig.getTriangular().getEnabled())) {
+            quoteStore.addListener(new ConflatedQuoteListener(this, detectionExecutor));
+            log.info("Triangular detection runs on ticker sweeps and quote changes");
+        }
+    }
+    
+    @Override
+    public void onQuoteChanged(PriceDto quote) {
+        CurrencyGraph graph = graphs[quote.getExchange().ordinal()];
+        List<ArbitrageOpportunity> opportunities;
+        synchronized (graph) {
+            int pair = graph.pairId(quote.getSymbol());
+            if (pair < 0 || !graph.update(pair, toDouble(quote.getBidPrice()), toDouble(quote.getAskPrice()))) {
+                return;
+            }
+            BitSet cycles = new BitSet();
+            if (graph.evaluate(pair, minLogReturn(quote.getExchange()), (cycle, logReturn) -> cycles.set(cycle)) == 0) {
+                return;
+            }
+            opportunities = buildOpportunities(quote.getExchange(), graph, cycles);
+        }
+        save(quote.getExchange(), opportunities);
+    }
+    
+    /**
+     * Reload all tickers of every scanned exchange and report the cycles that are profitable afterwards
+     */
+    public List<ArbitrageOpportunity> scan() {
+        Map<String, TradingPair> tradingPairs = tradingPairRepository.findByActiveTrue().stream()
+                .collect(Collectors.toMap(TradingPair::getSymbol, pair -> pair, (first, second) -> first));
+        List<ArbitrageOpportunity> opportunities = new ArrayList<>();
+        for (ExchangeType exchange : scannedExchanges()) {
+            try {
+                opportunities.addAll(scan(exchange, tradingPairs));
+            } catch (Exception e) {
+                log.error("Error scanning {} for triangular arbitrage: {}", exchange, e.getMessage());
+            }
+        }
+        return opportunities;
+    }
+    
+    /**
+     * Apply one exchange's tickers to its graph. Each changed pair marks the cycles it makes profitable;
+     * those are checked again once the whole sweep is applied, so a cycle is reported at most once
+     * and only if it is still profitable at the sweep's prices.
+     *
+     * @param tradingPairs configured pairs by symbol, used for their base and quote currencies;
+     *                     other symbols are split at the slash
+     */
+    public List<ArbitrageOpportunity> scan(ExchangeType exchange, Map<String, TradingPair> tradingPairs) {
+        List<PriceDto> tickers = exchangeService.fetchAllTickers(exchange);
+        CurrencyGraph graph = graphs[exchange.ordinal()];
+        double minLogReturn = minLogReturn(exchange);
+        BitSet candidates = new BitSet();
+        List<ArbitrageOpportunity> opportunities;
+        
+        synchronized (graph) {
+            long start = System.nanoTime();
+            for (PriceDto ticker : tickers) {
+                int pair = pairFor(graph, ticker.getSymbol(), tradingPairs);
+                if (pair >= 0 && graph.update(pair, toDouble(ticker.getBidPrice()), toDouble(ticker.getAskPrice()))) {
+                    graph.evaluate(pair, minLogReturn, (cycle, logReturn) -> candidates.set(cycle));
+                }
+            }
+            for (int cycle = candidates.nextSetBit(0); cycle >= 0; cycle = candidates.nextSetBit(cycle + 1)) {
+                if (!(graph.cycleLogReturn(cycle) >= minLogReturn)) {
+                    candidates.clear(cycle);
+                }
+            }
+            opportunities = buildOpportunities(exchange, graph, candidates);
+            log.debug("Applied {} tickers from {} to {} pairs and {} triangles in {} us", tickers.size(), exchange,
+                    graph.pairCount(), graph.triangleCount(), (System.nanoTime() - start) / 1000);
+        }
+        return save(exchange, opportunities);
+    }
+    
+    /**
+     * The configured exchanges, or else those that return every ticker in one call; building a graph from an
+     * exchange without a bulk endpoint would take one request per listed pair on every scan
+     */
+    private List<ExchangeType> scannedExchanges() {
+        List<ExchangeType> configured = arbitrageConfig.getTriangular().getExchanges();
+        if (configured != null && !configured.isEmpty()) {
+            return configured;
+        }
+        return exchangeService.getAllClients().stream()
+                .filter(ExchangeClient::hasBulkTickers)
+                .map(ExchangeClient::getExchangeType)
+                .collect(Collectors.toList());
+    }
+    
+    private static int pairFor(CurrencyGraph graph, String symbol, Map<String, TradingPair> tradingPairs) {
+        if (symbol == null) {
+            return -1;
+        }
+        int pair = graph.pairId(symbol);
+        if (pair >= 0) {
+            return pair;
+        }
+        TradingPair tradingPair = tradingPairs.get(symbol);
+        if (tradingPair != null) {
+            return graph.addPair(symbol, tradingPair.getBaseCurrency(), tradingPair.getQuoteCurrency());
+        }
+        int slash = symbol.indexOf('/');
+        if (slash <= 0 || slash == symbol.length() - 1 || symbol.indexOf('/', slash + 1) >= 0) {
+            return -1;
+        }
+        return graph.addPair(symbol, symbol.substring(0, slash), symbol.substring(slash + 1));
+    }
+    
+    /**
+     * Smallest log return before costs that still clears the threshold after paying the exchange's cost on every leg
+     */
+    private double minLogReturn(ExchangeType exchange) {
+        double minReturn = arbitrageConfig.getTriangular().getMinProfitPercentage().doubleValue() / 100;
+        return Math.log1p(minReturn) - LEGS * Math.log1p(-legCost(exchange));
+    }
+    
+    private double legCost(ExchangeType exchange) {
+        return exchangeFeeCache.current().costPpm(exchange) / 1_000_000.0;
+    }
+    
+    /**
+     * Build one opportunity per marked cycle. The symbol lists the currencies in trading order, the buy and sell
+     * prices are those of the first and last leg, and the route spells out every leg.
+     */
+    private List<ArbitrageOpportunity> buildOpportunities(ExchangeType exchange, CurrencyGraph graph, BitSet cycles) {
+        if (cycles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        double costLogReturn = LEGS * Math.log1p(-legCost(exchange));
+        BigDecimal startAmount = arbitrageConfig.getTriangular().getStartAmount();
+        List<ArbitrageOpportunity> opportunities = new ArrayList<>(cycles.cardinality());
+        for (int cycle = cycles.nextSetBit(0); cycle >= 0; cycle = cycles.nextSetBit(cycle + 1)) {
+            double netReturn = Math.expm1(graph.cycleLogReturn(cycle) + costLogReturn);
+            StringBuilder currencies = new StringBuilder();
+            StringBuilder route = new StringBuilder();
+            for (int leg = 0; leg < LEGS; leg++) {
+                int edge = graph.cycleEdge(cycle, leg);
+                if (leg > 0) {
+                    currencies.append('/');
+                    route.append(", ");
+                }
+                currencies.append(graph.edgeSource(edge));
+                route.append(graph.isSell(edge) ? "SELL " : "BUY ").append(graph.edgeSymbol(edge))
+                        .append(" @ ").append(toDecimal(graph.edgePrice(edge)).stripTrailingZeros().toPlainString());
+            }
+            opportunities.add(ArbitrageOpportunity.builder()
+                    .arbitrageType(ArbitrageType.TRIANGULAR)
+                    .symbol(currencies.toString())
+                    .buyExchange(exchange)
+                    .sellExchange(exchange)
+                    .buyPrice(toDecimal(graph.edgePrice(graph.cycleEdge(cycle, 0))))
+                    .sellPrice(toDecimal(graph.edgePrice(graph.cycleEdge(cycle, LEGS - 1))))
+                    .profitPercentage(BigDecimal.valueOf(netReturn * 100).setScale(4, RoundingMode.DOWN))
+                    .estimatedProfit(startAmount.multiply(BigDecimal.valueOf(netReturn))
+                            .setScale(8, RoundingMode.DOWN))
+                    .route(route.toString())
+                    .status(OpportunityStatus.DETECTED)
+                    .build());
+        }
+        return opportunities;
+    }
+    
+    private List<ArbitrageOpportunity> save(ExchangeType exchange, List<ArbitrageOpportunity> opportunities) {
+        if (!opportunities.isEmpty()) {
+            opportunityRepository.saveAll(opportunities);
+            log.info("Detected {} triangular arbitrage opportunities on {}", opportunities.size(), exchange);
+        }
+        return opportunities;
+    }
+    
+    private static double toDouble(BigDecimal price) {
+        return price != null ? price.doubleValue() : Double.NaN;
+    }
+    
+    private static BigDecimal toDecimal(double price) {
+        return BigDecimal.valueOf(price).setScale(8, RoundingMode.HALF_UP);
+    }
+    
+    private static CurrencyGraph[] newGraphs() {
+        CurrencyGraph[] graphs = new CurrencyGraph[ExchangeType.values().length];
+        for (int i = 0; i < graphs.length; i++) {
+            graphs[i] = new CurrencyGraph();
+        }
+        return graphs;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.aram.util;
 
+import com.example.aram.market.OrderBook;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -8,6 +9,10 @@ import java.math.RoundingMode;
 @Component
 public class ArbitrageCalculator {
     
+    private static final long RATIO_UNIT = 10_000L;
+    private static final int PERCENTAGE_SCALE = 4;
+    private static final long PPM = 1_000_000L;
+    
     /**
      * Calculate profit percentage between buy and sell prices
      */
@@ -17,10 +22,154 @@ public class ArbitrageCalculator {
         }
         
         BigDecimal profit = sellPrice.subtract(buyPrice);
-        return profit.divide(buyPrice, 4, RoundingMode.HALF_UP)
+        return profit.divide(buyPrice, PERCENTAGE_SCALE, RoundingMode.HALF_UP)
                 .multiply(BigDecimal.valueOf(100));
     }
     
+    /**
+     * Calculate profit percentage between fixed-point buy and sell prices without allocating.
+     * Rounds the same way as the BigDecimal version (ratio to 4 places, HALF_UP, times 100),
+     * so the result equals it exactly at 8 decimal places.
+     *
+     * @return profit percentage scaled by {@link FixedPoint#ONE}, or {@link FixedPoint#UNREPRESENTABLE}
+     *         if an input is not representable or the intermediate product would overflow
+     */
+    public long calculateProfitPercentage(long buyPrice, long sellPrice) {
+        if (!FixedPoint.isRepresentable(buyPrice) || !FixedPoint.isRepresentable(sellPrice) || buyPrice < 0) {
+            return FixedPoint.UNREPRESENTABLE;
+        }
+        if (buyPrice == 0) {
+            return 0L;
+        }
+        
+        try {
+            long numerator = Math.multiplyExact(Math.subtractExact(sellPrice, buyPrice), RATIO_UNIT);
+            long ratio = numerator / buyPrice;
+            long remainder = Math.abs(numerator % buyPrice);
+            if (remainder >= buyPrice - remainder) {
+                // HALF_UP rounds ties away from zero
+                ratio += Long.signum(numerator);
+            }
+            // ratio is in units of 0.0001, the percentage in units of 0.01
+            return Math.multiplyExact(ratio, FixedPoint.ONE / 100);
+        } catch (ArithmeticException e) {
+            return FixedPoint.UNREPRESENTABLE;
+        }
+    }
+    
+    /**
+     * Convert a fixed-point profit percentage to the decimal form returned by the BigDecimal overload
+     */
+    public BigDecimal toProfitPercentage(long scaledPercentage) {
+        return FixedPoint.toBigDecimal(scaledPercentage).setScale(PERCENTAGE_SCALE);
+    }
+    
+    /**
+     * Calculate profit percentage after per-leg costs (taker fee plus slippage allowance) in parts per million.
+     * The buy price is raised and the sell price lowered by their costs, each rounded against us
+     * to 8 decimal places, before the ratio is taken as in {@link #calculateProfitPercentage(long, long)}.
+     *
+     * @return net profit percentage scaled by {@link FixedPoint#ONE}, or {@link FixedPoint#UNREPRESENTABLE}
+     */
+    public long calculateNetProfitPercentage(long buyPrice, long buyCostPpm, long sellPrice, long sellCostPpm) {
+        return calculateProfitPercentage(applyCost(buyPrice, buyCostPpm, true), 
+                applyCost(sellPrice, sellCostPpm, false));
+    }
+    
+    /**
+     * BigDecimal version of {@link #calculateNetProfitPercentage(long, long, long, long)}, equal to it
+     * whenever both prices convert exactly
+     */
+    public BigDecimal calculateNetProfitPercentage(BigDecimal buyPrice, long buyCostPpm, 
+                                                   BigDecimal sellPrice, long sellCostPpm) {
+        return calculateProfitPercentage(applyCost(buyPrice, buyCostPpm, true), 
+                applyCost(sellPrice, sellCostPpm, false));
+    }
+    
+    /**
+     * Find the quantity that maximises net profit when buying up the asks of one book and selling
+     * down the bids of another. Levels are taken while the next unit still earns more than its costs,
+     * which is where total profit peaks because each further level is priced worse.
+     * Runs on primitives only, so it can be called for every crossing pair.
+     *
+     * @param buyBook  book whose asks are bought
+     * @param sellBook book whose bids are sold into
+     * @param fill     result holder, overwritten
+     * @return true if a profitable quantity was found
+     */
+    public boolean fillAgainstDepth(OrderBook buyBook, long buyCostPpm, OrderBook sellBook, long sellCostPpm, 
+                                    DepthFill fill) {
+        int askLevel = 0;
+        int bidLevel = 0;
+        long askLeft = buyBook.askCount() > 0 ? buyBook.askSize(0) : 0;
+        long bidLeft = sellBook.bidCount() > 0 ? sellBook.bidSize(0) : 0;
+        long quantity = 0;
+        long buyNotional = 0;
+        long sellNotional = 0;
+        
+        while (askLevel < buyBook.askCount() && bidLevel < sellBook.bidCount()) {
+            long ask = buyBook.askPrice(askLevel);
+            long bid = sellBook.bidPrice(bidLevel);
+            long netAsk = applyCost(ask, buyCostPpm, true);
+            long netBid = applyCost(bid, sellCostPpm, false);
+            if (!FixedPoint.isRepresentable(netAsk) || !FixedPoint.isRepresentable(netBid) || netBid <= netAsk) {
+                break;
+            }
+            long take = Math.min(askLeft, bidLeft);
+            long buyStep = FixedPoint.multiply(ask, take);
+            long sellStep = FixedPoint.multiply(bid, take);
+            if (!FixedPoint.isRepresentable(buyStep) || !FixedPoint.isRepresentable(sellStep)
+                    || sellNotional > Long.MAX_VALUE - sellStep) {
+                break;
+            }
+            quantity += take;
+            buyNotional += buyStep;
+            sellNotional += sellStep;
+            
+            askLeft -= take;
+            bidLeft -= take;
+            if (askLeft == 0 && ++askLevel < buyBook.askCount()) {
+                askLeft = buyBook.askSize(askLevel);
+            }
+            if (bidLeft == 0 && ++bidLevel < sellBook.bidCount()) {
+                bidLeft = sellBook.bidSize(bidLevel);
+            }
+        }
+        
+        long netBuy = applyCost(buyNotional, buyCostPpm, true);
+        long netSell = applyCost(sellNotional, sellCostPpm, false);
+        if (quantity == 0 || !FixedPoint.isRepresentable(netBuy) || !FixedPoint.isRepresentable(netSell)) {
+            fill.set(0, 0, 0, 0);
+            return false;
+        }
+        fill.set(quantity, buyNotional, sellNotional, netSell - netBuy);
+        return true;
+    }
+    
+    private static long applyCost(long price, long costPpm, boolean buying) {
+        if (costPpm == 0 || !FixedPoint.isRepresentable(price)) {
+            return price;
+        }
+        if (price < 0) {
+            return FixedPoint.UNREPRESENTABLE;
+        }
+        try {
+            // ceil(price * cost / 1e6), split so the product cannot overflow
+            long cost = Math.multiplyExact(price / PPM, costPpm) + ((price % PPM) * costPpm + PPM - 1) / PPM;
+            return buying ? Math.addExact(price, cost) : price - cost;
+        } catch (ArithmeticException e) {
+            return FixedPoint.UNREPRESENTABLE;
+        }
+    }
+    
+    private static BigDecimal applyCost(BigDecimal price, long costPpm, boolean buying) {
+        if (costPpm == 0) {
+            return price;
+        }
+        BigDecimal factor = BigDecimal.valueOf(buying ? PPM + costPpm : PPM - costPpm, 6);
+        return price.multiply(factor).setScale(FixedPoint.SCALE, buying ? RoundingMode.CEILING : RoundingMode.FLOOR);
+    }
+    
     /**
      * Calculate estimated profit for a given amount
      */
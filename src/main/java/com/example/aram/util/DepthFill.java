@@ -0,0 +1,74 @@
+package com.example.aram.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Result of sizing a buy/sell pair against both order books. Filled in place by
+ * {@link ArbitrageCalculator#fillAgainstDepth} so a caller can reuse one instance per thread.
+ * All amounts are scaled by {@link FixedPoint#ONE}.
+ */
+public final class DepthFill {
+    
+    private long quantity;
+    private long buyNotional;
+    private long sellNotional;
+    private long netProfit;
+    
+    void set(long quantity, long buyNotional, long sellNotional, long netProfit) {
+        this.quantity = quantity;
+        this.buyNotional = buyNotional;
+        this.sellNotional = sellNotional;
+        this.netProfit = netProfit;
+    }
+    
+    /**
+     * Quantity bought and sold
+     */
+    public long getQuantity() {
+        return quantity;
+    }
+    
+    /**
+     * Quote amount paid before fees
+     */
+    public long getBuyNotional() {
+        return buyNotional;
+    }
+    
+    /**
+     * Quote amount received before fees
+     */
+    public long getSellNotional() {
+        return sellNotional;
+    }
+    
+    /**
+     * Quote amount left after both legs and their costs
+     */
+    public long getNetProfit() {
+        return netProfit;
+    }
+    
+    /**
+     * Volume-weighted buy price, or null if nothing was filled
+     */
+    public BigDecimal buyVwap() {
+        return vwap(buyNotional);
+    }
+    
+    /**
+     * Volume-weighted sell price, or null if nothing was filled
+     */
+    public BigDecimal sellVwap() {
+        return vwap(sellNotional);
+    }
+    
+    private BigDecimal vwap(long notional) {
+        if (quantity <= 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(notional, FixedPoint.SCALE)
+                .divide(BigDecimal.valueOf(quantity, FixedPoint.SCALE), FixedPoint.SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.aram.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point decimals stored as longs with 8 implied decimal places, matching the
+ * scale of the price columns. Conversions are exact: a value that does not fit is
+ * reported as {@link #UNREPRESENTABLE} so callers can fall back to BigDecimal.
+ */
+public final class FixedPoint {
+    
+    public static final int SCALE = 8;
+    
+    public static final long ONE = 100_000_000L;
+    
+    /**
+     * Marker for a missing value or one with more than 8 decimals or outside the long range
+     */
+    public static final long UNREPRESENTABLE = Long.MIN_VALUE;
+    
+    private FixedPoint() {
+    }
+    
+    /**
+     * Convert a decimal to its scaled long value without rounding
+     */
+    public static long toScaled(BigDecimal value) {
+        if (value == null) {
+            return UNREPRESENTABLE;
+        }
+        try {
+            return value.setScale(SCALE).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return UNREPRESENTABLE;
+        }
+    }
+    
+    /**
+     * Convert a scaled long value back to a decimal with scale 8
+     */
+    public static BigDecimal toBigDecimal(long scaled) {
+        return scaled == UNREPRESENTABLE ? null : BigDecimal.valueOf(scaled, SCALE);
+    }
+    
+    public static boolean isRepresentable(long scaled) {
+        return scaled != UNREPRESENTABLE;
+    }
+    
+    /**
+     * Multiply two non-negative scaled values, rounding down to 8 decimals, without allocating
+     *
+     * @return the scaled product, or {@link #UNREPRESENTABLE} if an input is negative or the product does not fit
+     */
+    public static long multiply(long a, long b) {
+        if (a < 0 || b < 0) {
+            return UNREPRESENTABLE;
+        }
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if (high == 0 && low >= 0) {
+            return low / ONE;
+        }
+        if (high >= ONE) {
+            return UNREPRESENTABLE;
+        }
+        // Divide the 128-bit product by ONE 32 bits at a time; ONE < 2^32 keeps every partial dividend in range
+        long upper = (high << 32) | (low >>> 32);
+        long quotientUpper = upper / ONE;
+        long lower = ((upper % ONE) << 32) | (low & 0xFFFF_FFFFL);
+        if (quotientUpper >= 1L << 31) {
+            return UNREPRESENTABLE;
+        }
+        return (quotientUpper << 32) + lower / ONE;
+    }
+}
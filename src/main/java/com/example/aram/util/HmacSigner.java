@@ -0,0 +1,74 @@
+package com.example.aram.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * HMAC signatures for authenticated exchange requests
+ */
+public final class HmacSigner {
+    
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final String HMAC_SHA512 = "HmacSHA512";
+    
+    private HmacSigner() {
+    }
+    
+    /**
+     * HMAC-SHA256 of a UTF-8 payload keyed by a UTF-8 secret, as lower-case hex
+     */
+    public static String sha256Hex(String secret, String payload) {
+        return HexFormat.of().formatHex(hmac(HMAC_SHA256, utf8(secret), utf8(payload)));
+    }
+    
+    /**
+     * HMAC-SHA256 of a UTF-8 payload keyed by a UTF-8 secret, Base64 encoded
+     */
+    public static String sha256Base64(String secret, String payload) {
+        return Base64.getEncoder().encodeToString(hmac(HMAC_SHA256, utf8(secret), utf8(payload)));
+    }
+    
+    /**
+     * HMAC-SHA256 keyed by the raw bytes of a Base64 secret, Base64 encoded
+     */
+    public static String sha256Base64(byte[] key, String payload) {
+        return Base64.getEncoder().encodeToString(hmac(HMAC_SHA256, key, utf8(payload)));
+    }
+    
+    /**
+     * HMAC-SHA512 keyed by raw bytes, Base64 encoded
+     */
+    public static String sha512Base64(byte[] key, byte[] payload) {
+        return Base64.getEncoder().encodeToString(hmac(HMAC_SHA512, key, payload));
+    }
+    
+    /**
+     * Plain SHA-256 digest
+     */
+    public static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private static byte[] hmac(String algorithm, byte[] key, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(algorithm);
+            mac.init(new SecretKeySpec(key, algorithm));
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(algorithm + " is not available", e);
+        }
+    }
+    
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
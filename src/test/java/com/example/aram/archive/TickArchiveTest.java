@@ -0,0 +1,91 @@
+package com.example.aram.archive;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.market.QuoteStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Appends ticks through the archive and checks how they are split into day and part files
+ */
+class TickArchiveTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void rollsToANewPartWhenTheSegmentIsFull() throws Exception {
+        TickArchive archive = archive(2);
+        for (int i = 0; i < 5; i++) {
+            archive.append(ExchangeType.BINANCE, "BTC/USDT", DAY.atTime(10, 0, i), i, i, i, i);
+        }
+        archive.close();
+        
+        assertThat(files()).containsExactly("2024-03-01.1.ticks", "2024-03-01.2.ticks", "2024-03-01.ticks");
+        assertThat(bids(archive, DAY.atStartOfDay(), DAY.atTime(23, 59))).containsExactly(0L, 1L, 2L, 3L, 4L);
+    }
+    
+    @Test
+    void rollsOverAtTheDayChangeAndDropsLateTicks() throws Exception {
+        TickArchive archive = archive(16);
+        archive.append(ExchangeType.BINANCE, "BTC/USDT", DAY.atTime(23, 59), 1, 0, 0, 0);
+        archive.append(ExchangeType.BINANCE, "BTC/USDT", DAY.plusDays(1).atTime(0, 1), 2, 0, 0, 0);
+        archive.append(ExchangeType.BINANCE, "BTC/USDT", DAY.atTime(23, 59, 30), 3, 0, 0, 0);
+        archive.append(ExchangeType.BINANCE, "BTC/USDT", DAY.plusDays(1).atTime(0, 2), 4, 0, 0, 0);
+        archive.close();
+        
+        assertThat(files()).containsExactly("2024-03-01.ticks", "2024-03-02.ticks");
+        assertThat(bids(archive, DAY.atStartOfDay(), DAY.plusDays(1).atTime(23, 59))).containsExactly(1L, 2L, 4L);
+        assertThat(bids(archive, DAY.plusDays(1).atStartOfDay(), DAY.plusDays(1).atTime(0, 1))).containsExactly(2L);
+    }
+    
+    @Test
+    void keepsSymbolsApart() throws Exception {
+        TickArchive archive = archive(16);
+        archive.append(ExchangeType.BINANCE, "BTC/USDT", DAY.atTime(12, 0), 1, 0, 0, 0);
+        archive.append(ExchangeType.BINANCE, "ETH/USDT", DAY.atTime(12, 0), 2, 0, 0, 0);
+        archive.append(ExchangeType.KRAKEN, "BTC/USDT", DAY.atTime(12, 0), 3, 0, 0, 0);
+        archive.close();
+        
+        assertThat(bids(archive, DAY.atStartOfDay(), DAY.atTime(23, 59))).containsExactly(1L);
+        List<Long> kraken = new ArrayList<>();
+        archive.replay(ExchangeType.KRAKEN, "BTC/USDT", DAY.atStartOfDay(), DAY.atTime(23, 59),
+                (timestamp, bid, ask, last, volume) -> kraken.add(bid));
+        assertThat(kraken).containsExactly(3L);
+    }
+    
+    private TickArchive archive(int segmentCapacity) {
+        ArbitrageConfig config = new ArbitrageConfig();
+        config.getArchive().setDirectory(directory.toString());
+        config.getArchive().setSegmentCapacity(segmentCapacity);
+        return new TickArchive(config, new QuoteStore());
+    }
+    
+    private List<String> files() throws Exception {
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory.resolve("BINANCE").resolve("BTC-USDT"))) {
+            list.map(file -> file.getFileName().toString()).sorted().forEach(names::add);
+        }
+        return names;
+    }
+    
+    private static List<Long> bids(TickArchive archive, LocalDateTime from, LocalDateTime to) {
+        List<Long> bids = new ArrayList<>();
+        archive.replay(ExchangeType.BINANCE, "BTC/USDT", from, to,
+                (timestamp, bid, ask, last, volume) -> bids.add(bid));
+        return bids;
+    }
+}
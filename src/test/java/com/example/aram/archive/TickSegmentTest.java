@@ -0,0 +1,67 @@
+package com.example.aram.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Appends ticks to a mapped segment file and reads them back
+ */
+class TickSegmentTest {
+    
+    private static final long BASE = 1_700_000_000_000L;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void replaysTheTicksInTheRequestedRange() throws Exception {
+        TickSegment segment = TickSegment.openForWrite(directory.resolve("a.ticks"), 8, BASE);
+        for (int i = 0; i < 5; i++) {
+            assertThat(segment.append(BASE + i * 1000, 100 + i, 200 + i, 150 + i, 10 + i)).isTrue();
+        }
+        
+        List<long[]> ticks = new ArrayList<>();
+        int visited = segment.replay(BASE + 1000, BASE + 3000,
+                (timestamp, bid, ask, last, volume) -> ticks.add(new long[]{timestamp, bid, ask, last, volume}));
+        
+        assertThat(visited).isEqualTo(3);
+        assertThat(ticks).containsExactly(
+                new long[]{BASE + 1000, 101, 201, 151, 11},
+                new long[]{BASE + 2000, 102, 202, 152, 12},
+                new long[]{BASE + 3000, 103, 203, 153, 13});
+    }
+    
+    @Test
+    void refusesTicksWhenFullOrBeforeItsBase() throws Exception {
+        TickSegment segment = TickSegment.openForWrite(directory.resolve("a.ticks"), 2, BASE);
+        
+        assertThat(segment.append(BASE - 1, 1, 2, 3, 4)).isFalse();
+        assertThat(segment.append(BASE, 1, 2, 3, 4)).isTrue();
+        assertThat(segment.append(BASE + 1, 1, 2, 3, 4)).isTrue();
+        assertThat(segment.append(BASE + 2, 1, 2, 3, 4)).isFalse();
+        assertThat(segment.size()).isEqualTo(2);
+    }
+    
+    @Test
+    void reopensAnExistingFileWithItsTicks() throws Exception {
+        Path file = directory.resolve("a.ticks");
+        TickSegment written = TickSegment.openForWrite(file, 4, BASE);
+        written.append(BASE + 5, 1, 2, 3, 4);
+        written.force();
+        
+        TickSegment appended = TickSegment.openForWrite(file, 4, BASE);
+        appended.append(BASE + 6, 5, 6, 7, 8);
+        TickSegment read = TickSegment.openForRead(file);
+        
+        assertThat(read.size()).isEqualTo(2);
+        assertThat(read.timestamp(0)).isEqualTo(BASE + 5);
+        assertThat(read.bid(1)).isEqualTo(5);
+        assertThat(read.volume(1)).isEqualTo(8);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.aram.client;
+
+import io.netty.handler.codec.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for an exchange's REST API. Replies with canned JSON per method and path, optionally after
+ * a delay, and records every request exactly as received, so tests can check what was signed.
+ */
+public class MockExchangeServer implements AutoCloseable {
+    
+    private static final Queue<Duration> EMPTY = new ConcurrentLinkedQueue<>();
+    
+    private final Map<String, String> replies = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Duration>> delays = new ConcurrentHashMap<>();
+    private final BlockingQueue<RecordedRequest> requests = new LinkedBlockingQueue<>();
+    private final DisposableServer server;
+    
+    public MockExchangeServer() {
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .handle((request, response) -> request.receive().aggregate().asString(StandardCharsets.UTF_8)
+                        .defaultIfEmpty("")
+                        .flatMap(body -> {
+                            URI uri = URI.create(request.uri());
+                            String method = request.method().name();
+                            requests.add(new RecordedRequest(method, uri.getRawPath(), uri.getRawQuery(), 
+                                    request.requestHeaders().copy(), body));
+                            String route = method + " " + uri.getRawPath();
+                            Mono<Void> answer = Mono.defer(() -> {
+                                String reply = replies.get(route);
+                                if (reply == null) {
+                                    return response.status(404).send().then();
+                                }
+                                return response.header("Content-Type", "application/json")
+                                        .sendString(Mono.just(reply))
+                                        .then();
+                            });
+                            Duration delay = delays.getOrDefault(route, EMPTY).poll();
+                            return delay == null ? answer : Mono.delay(delay).then(answer);
+                        }))
+                .bindNow();
+    }
+    
+    /**
+     * Answer requests with this method and path with the given JSON
+     */
+    public void reply(String method, String path, String json) {
+        replies.put(method + " " + path, json);
+    }
+    
+    /**
+     * Hold the answer to the next request with this method and path for the given time; called again, the
+     * delays apply to the requests after it in turn
+     */
+    public void delayNext(String method, String path, Duration delay) {
+        delays.computeIfAbsent(method + " " + path, route -> new ConcurrentLinkedQueue<>()).add(delay);
+    }
+    
+    /**
+     * Next request received, waiting up to five seconds
+     */
+    public RecordedRequest takeRequest() throws InterruptedException {
+        RecordedRequest request = requests.poll(5, TimeUnit.SECONDS);
+        if (request == null) {
+            throw new AssertionError("No request received");
+        }
+        return request;
+    }
+    
+    public String url() {
+        return "http://localhost:" + server.port();
+    }
+    
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+    
+    public static class RecordedRequest {
+        
+        private final String method;
+        private final String path;
+        private final String query;
+        private final HttpHeaders headers;
+        private final String body;
+        
+        RecordedRequest(String method, String path, String query, HttpHeaders headers, String body) {
+            this.method = method;
+            this.path = path;
+            this.query = query;
+            this.headers = headers;
+            this.body = body;
+        }
+        
+        public String getMethod() {
+            return method;
+        }
+        
+        public String getPath() {
+            return path;
+        }
+        
+        /**
+         * Raw query string without the question mark, null if there was none
+         */
+        public String getQuery() {
+            return query;
+        }
+        
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+        
+        public String getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.aram.client.health;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.CircuitState;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Sends calls through an exchange's circuit and checks that each one asks it, so a half-open circuit lets
+ * through as many REST calls as it has trial permits
+ */
+class HealthRecordingClientTest {
+    
+    private static final Request.Options OPTIONS = new Request.Options(
+            1, TimeUnit.SECONDS, 1, TimeUnit.SECONDS, true);
+    
+    private final ArbitrageConfig config = new ArbitrageConfig();
+    private final AtomicInteger sent = new AtomicInteger();
+    private final ExchangeHealth exchangeHealth;
+    private final Client client;
+    
+    HealthRecordingClientTest() {
+        ArbitrageConfig.Health settings = config.getHealth();
+        settings.setEnabled(true);
+        settings.setWindowSize(4);
+        settings.setMinimumCalls(4);
+        settings.setFailureRateThreshold(new BigDecimal("0.5"));
+        settings.setOpenDuration(50L);
+        settings.setHalfOpenCalls(2);
+        exchangeHealth = new ExchangeHealth(config);
+        client = new HealthRecordingClient((request, options) -> {
+            sent.incrementAndGet();
+            return Response.builder()
+                    .request(request)
+                    .status(200)
+                    .headers(Collections.emptyMap())
+                    .body("{}", StandardCharsets.UTF_8)
+                    .build();
+        }, exchangeHealth, ExchangeType.OKX);
+    }
+    
+    @Test
+    void everyCallTakesItsOwnTrialPermit() throws Exception {
+        open();
+        TimeUnit.MILLISECONDS.sleep(60);
+        assertThat(exchangeHealth.admits(ExchangeType.OKX)).isTrue();
+        
+        client.execute(request(), OPTIONS);
+        client.execute(request(), OPTIONS);
+        
+        assertThat(sent).hasValue(2);
+        assertThat(exchangeHealth.tracker(ExchangeType.OKX).getState()).isEqualTo(CircuitState.CLOSED);
+    }
+    
+    @Test
+    void refusesCallsBeyondTheTrialPermits() throws Exception {
+        open();
+        TimeUnit.MILLISECONDS.sleep(60);
+        exchangeHealth.allowRequest(ExchangeType.OKX);
+        exchangeHealth.allowRequest(ExchangeType.OKX);
+        
+        assertThatThrownBy(() -> client.execute(request(), OPTIONS))
+                .isInstanceOf(CircuitOpenException.class)
+                .hasMessageContaining("HALF_OPEN");
+        assertThat(sent).hasValue(0);
+    }
+    
+    @Test
+    void essentialCallsPassAnOpenCircuit() {
+        open();
+        
+        assertThatThrownBy(() -> client.execute(request(), OPTIONS)).isInstanceOf(CircuitOpenException.class);
+        Response response = ExchangeHealth.essential(() -> {
+            try {
+                return client.execute(request(), OPTIONS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        
+        assertThat(response.status()).isEqualTo(200);
+        assertThat(sent).hasValue(1);
+        assertThat(exchangeHealth.allowRequest(ExchangeType.OKX)).isFalse();
+    }
+    
+    private void open() {
+        for (int call = 0; call < 4; call++) {
+            exchangeHealth.tracker(ExchangeType.OKX).record(0, true);
+        }
+        assertThat(exchangeHealth.tracker(ExchangeType.OKX).getState()).isEqualTo(CircuitState.OPEN);
+    }
+    
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "http://localhost/api", Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, null);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.aram.client.health;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.ExchangeHealthDto;
+import com.example.aram.enums.CircuitState;
+import com.example.aram.enums.ExchangeType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Drives one exchange's circuit through its states with recorded outcomes; open periods are a few tens of
+ * milliseconds so the tests wait them out
+ */
+class HealthTrackerTest {
+    
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    
+    private final ArbitrageConfig.Health settings = new ArbitrageConfig.Health();
+    
+    HealthTrackerTest() {
+        settings.setWindowSize(4);
+        settings.setMinimumCalls(4);
+        settings.setFailureRateThreshold(new BigDecimal("0.5"));
+        settings.setSlowCallThreshold(100L);
+        settings.setOpenDuration(50L);
+        settings.setHalfOpenCalls(2);
+    }
+    
+    @Test
+    void opensOnceEnoughOfTheWindowFails() {
+        HealthTracker tracker = tracker();
+        tracker.record(FAST, true);
+        tracker.record(FAST, true);
+        tracker.record(FAST, false);
+        assertThat(tracker.getState()).isEqualTo(CircuitState.CLOSED);
+        
+        tracker.record(FAST, false);
+        
+        assertThat(tracker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(tracker.isHealthy()).isFalse();
+        assertThat(tracker.allowRequest()).isFalse();
+        ExchangeHealthDto snapshot = tracker.snapshot();
+        assertThat(snapshot.getScore()).isZero();
+        assertThat(snapshot.getOpenForMillis()).isPositive();
+    }
+    
+    @Test
+    void countsSlowCallsAsFailures() {
+        HealthTracker tracker = tracker();
+        long slow = TimeUnit.MILLISECONDS.toNanos(150);
+        tracker.record(FAST, false);
+        tracker.record(FAST, false);
+        tracker.record(slow, false);
+        
+        tracker.record(slow, false);
+        
+        assertThat(tracker.getState()).isEqualTo(CircuitState.OPEN);
+    }
+    
+    @Test
+    void forgetsOutcomesThatLeftTheWindow() {
+        HealthTracker tracker = tracker();
+        tracker.record(FAST, true);
+        for (int call = 0; call < 4; call++) {
+            tracker.record(FAST, false);
+        }
+        tracker.record(FAST, true);
+        
+        // The window holds four calls, so the first failure left it before the second was recorded
+        assertThat(tracker.getState()).isEqualTo(CircuitState.CLOSED);
+        assertThat(tracker.snapshot().getErrorRate()).isCloseTo(0.25, within(1e-12));
+    }
+    
+    @Test
+    void admitsAFewTrialsOnceTheOpenPeriodEnds() throws InterruptedException {
+        HealthTracker tracker = opened();
+        assertThat(tracker.allowRequest()).isFalse();
+        
+        TimeUnit.MILLISECONDS.sleep(60);
+        
+        assertThat(tracker.allowRequest()).isTrue();
+        assertThat(tracker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+        assertThat(tracker.allowRequest()).isTrue();
+        assertThat(tracker.allowRequest()).isFalse();
+    }
+    
+    @Test
+    void closesWithAFreshWindowAfterSuccessfulTrials() throws InterruptedException {
+        HealthTracker tracker = opened();
+        TimeUnit.MILLISECONDS.sleep(60);
+        tracker.allowRequest();
+        tracker.allowRequest();
+        
+        tracker.record(0, false);
+        assertThat(tracker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+        tracker.record(0, false);
+        
+        assertThat(tracker.getState()).isEqualTo(CircuitState.CLOSED);
+        assertThat(tracker.snapshot().getCalls()).isZero();
+        tracker.record(FAST, true);
+        tracker.record(FAST, true);
+        assertThat(tracker.getState()).isEqualTo(CircuitState.CLOSED);
+    }
+    
+    @Test
+    void reopensForTwiceAsLongWhenATrialFails() throws InterruptedException {
+        settings.setMaxOpenDuration(80L);
+        HealthTracker tracker = opened();
+        TimeUnit.MILLISECONDS.sleep(60);
+        tracker.allowRequest();
+        
+        tracker.record(0, true);
+        
+        assertThat(tracker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(tracker.snapshot().getOpenForMillis()).isGreaterThan(50).isLessThanOrEqualTo(80);
+    }
+    
+    @Test
+    void checkingAdmissionTakesNoTrialPermit() throws InterruptedException {
+        HealthTracker tracker = opened();
+        assertThat(tracker.admits()).isFalse();
+        
+        TimeUnit.MILLISECONDS.sleep(60);
+        
+        assertThat(tracker.admits()).isTrue();
+        assertThat(tracker.allowRequest()).isTrue();
+        assertThat(tracker.admits()).isTrue();
+        assertThat(tracker.allowRequest()).isTrue();
+        assertThat(tracker.admits()).isFalse();
+    }
+    
+    @Test
+    void callsInFlightWhenTheCircuitOpenedAreNotTrials() throws InterruptedException {
+        HealthTracker tracker = opened();
+        TimeUnit.MILLISECONDS.sleep(60);
+        tracker.allowRequest();
+        tracker.allowRequest();
+        
+        // Both started 100 ms ago, before the circuit turned half-open, so neither outcome decides the trial
+        tracker.record(TimeUnit.MILLISECONDS.toNanos(100), false);
+        tracker.record(TimeUnit.MILLISECONDS.toNanos(100), true);
+        
+        assertThat(tracker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+        tracker.record(0, false);
+        tracker.record(0, false);
+        assertThat(tracker.getState()).isEqualTo(CircuitState.CLOSED);
+    }
+    
+    @Test
+    void reportsLatencyPercentilesAndScore() {
+        settings.setWindowSize(20);
+        settings.setSlowCallThreshold(1000L);
+        HealthTracker tracker = tracker();
+        for (int call = 20; call >= 1; call--) {
+            tracker.record(TimeUnit.MILLISECONDS.toNanos(10L * call), false);
+        }
+        
+        ExchangeHealthDto snapshot = tracker.snapshot();
+        
+        assertThat(snapshot.getCalls()).isEqualTo(20);
+        assertThat(snapshot.getErrorRate()).isZero();
+        assertThat(snapshot.getLatencyP50()).isEqualTo(100);
+        assertThat(snapshot.getLatencyP95()).isEqualTo(190);
+        assertThat(snapshot.getLatencyP99()).isEqualTo(200);
+        assertThat(snapshot.getScore()).isCloseTo(1000.0 / 1190, within(1e-9));
+    }
+    
+    @Test
+    void needsAProbeOnlyWhileIdle() {
+        HealthTracker tracker = tracker();
+        assertThat(tracker.needsProbe(1000)).isTrue();
+        
+        tracker.record(FAST, false);
+        
+        assertThat(tracker.needsProbe(1000)).isFalse();
+    }
+    
+    private HealthTracker tracker() {
+        return new HealthTracker(ExchangeType.KRAKEN, settings);
+    }
+    
+    private HealthTracker opened() {
+        HealthTracker tracker = tracker();
+        for (int call = 0; call < 4; call++) {
+            tracker.record(FAST, true);
+        }
+        assertThat(tracker.getState()).isEqualTo(CircuitState.OPEN);
+        return tracker;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.aram.client.hedge;
+
+import com.example.aram.client.MockExchangeServer;
+import com.example.aram.client.ratelimit.ExchangeRateLimiter;
+import com.example.aram.client.ratelimit.RateLimits;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.config.ExecutorConfig;
+import com.example.aram.dto.HedgingStatsDto;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
+import feign.Feign;
+import feign.RequestLine;
+import feign.Response;
+import feign.RetryableException;
+import feign.Retryer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Sends hedged ticker calls through Feign to a local mock exchange whose answers can be held back; every
+ * call still unanswered after the 50 ms minimum delay is a hedge candidate
+ */
+class HedgingClientTest {
+    
+    private static final Duration SLOW = Duration.ofMillis(800);
+    
+    private final MockExchangeServer server = new MockExchangeServer();
+    private final ArbitrageConfig config = new ArbitrageConfig();
+    private final List<TrackedStream> bodies = new CopyOnWriteArrayList<>();
+    private final Client transport = (request, options) -> {
+        Response response = new Client.Default(null, null).execute(request, options);
+        TrackedStream body = new TrackedStream(response.body().asInputStream());
+        bodies.add(body);
+        return response.toBuilder().body(body, response.body().length()).build();
+    };
+    private ExecutorService executor;
+    
+    HedgingClientTest() {
+        config.getHedging().setEnabled(true);
+        config.getHedging().setMinSamples(0);
+        config.getHedging().setMinDelay(50L);
+        // The fastest answers set the quantile, so the slow primaries never push the delay past the minimum
+        config.getHedging().setQuantile(new BigDecimal("0.01"));
+        server.reply("GET", "/ticker", "{\"price\":\"100\"}");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        server.close();
+    }
+    
+    @Test
+    void firstAnswerWins() {
+        RequestHedging hedging = hedging(List.of());
+        server.delayNext("GET", "/ticker", SLOW);
+        
+        long start = System.nanoTime();
+        String ticker = api(hedging, transport).ticker();
+        
+        assertThat(ticker).isEqualTo("{\"price\":\"100\"}");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(SLOW.toMillis());
+        HedgingStatsDto stats = stats(hedging);
+        assertThat(stats.getCalls()).isEqualTo(1);
+        assertThat(stats.getHedges()).isEqualTo(1);
+        assertThat(stats.getHedgeWins()).isEqualTo(1);
+    }
+    
+    @Test
+    void closesTheLosingResponseWhenItArrives() throws InterruptedException {
+        RequestHedging hedging = hedging(List.of());
+        server.delayNext("GET", "/ticker", SLOW);
+        
+        api(hedging, transport).ticker();
+        
+        // Feign closes the winner once decoded; only the hedging client can close the late primary
+        assertThat(bodies).hasSize(1);
+        awaitBodies(2);
+        assertThat(bodies).allMatch(TrackedStream::isClosed);
+    }
+    
+    @Test
+    void failsOnlyOnceBothCopiesHaveFailed() {
+        RequestHedging hedging = hedging(List.of());
+        AtomicInteger copies = new AtomicInteger();
+        Client failing = (request, options) -> {
+            int copy = copies.incrementAndGet();
+            sleep(copy == 1 ? 200 : 100);
+            throw new IOException("copy " + copy + " failed");
+        };
+        
+        assertThatThrownBy(() -> api(hedging, failing).ticker())
+                .isInstanceOf(RetryableException.class)
+                .hasMessageContaining("failed");
+        
+        assertThat(copies).hasValue(2);
+        assertThat(stats(hedging).getHedges()).isEqualTo(1);
+        assertThat(stats(hedging).getHedgeWins()).isZero();
+    }
+    
+    @Test
+    void stopsHedgingWhenTheBudgetRunsOut() {
+        config.getHedging().setMaxShare(BigDecimal.ZERO);
+        RequestHedging hedging = hedging(List.of());
+        TickerApi api = api(hedging, transport);
+        
+        // The budget starts with ten hedges and calls add nothing to it
+        for (int call = 0; call < 11; call++) {
+            server.delayNext("GET", "/ticker", Duration.ofMillis(200));
+            api.ticker();
+        }
+        
+        HedgingStatsDto stats = stats(hedging);
+        assertThat(stats.getCalls()).isEqualTo(11);
+        assertThat(stats.getHedges()).isEqualTo(10);
+        assertThat(stats.getHedgeWins()).isEqualTo(10);
+    }
+    
+    @Test
+    void sendsNoHedgeWithoutAFreeRateLimitTurn() throws InterruptedException {
+        // Feign names a target built from a URL after the URL, which is the client the budget belongs to
+        RequestHedging hedging = hedging(List.of(RateLimits.builder(ExchangeType.OKX, server.url())
+                .counter("calls", 1, Duration.ofMinutes(1))
+                .otherwise("calls", 1)
+                .build()));
+        TickerApi api = api(hedging, transport);
+        server.delayNext("GET", "/ticker", Duration.ofMillis(300));
+        api.ticker();
+        awaitBodies(2);
+        server.delayNext("GET", "/ticker", Duration.ofMillis(300));
+        
+        long start = System.nanoTime();
+        api.ticker();
+        
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(300);
+        assertThat(bodies).hasSize(3);
+        assertThat(stats(hedging).getCalls()).isEqualTo(2);
+        assertThat(stats(hedging).getHedges()).isEqualTo(1);
+    }
+    
+    @Test
+    void interruptedCallerClosesBothCopies() throws InterruptedException {
+        RequestHedging hedging = hedging(List.of());
+        server.delayNext("GET", "/ticker", SLOW);
+        server.delayNext("GET", "/ticker", SLOW);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean stillInterrupted = new AtomicBoolean();
+        Thread caller = new Thread(() -> {
+            try {
+                api(hedging, transport).ticker();
+            } catch (RuntimeException e) {
+                failure.set(e);
+                stillInterrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        
+        caller.start();
+        TimeUnit.MILLISECONDS.sleep(200);
+        caller.interrupt();
+        caller.join(5_000);
+        
+        assertThat(failure.get())
+                .isInstanceOf(RetryableException.class)
+                .hasCauseInstanceOf(InterruptedIOException.class);
+        assertThat(stillInterrupted).isTrue();
+        assertThat(stats(hedging).getHedges()).isEqualTo(1);
+        awaitBodies(2);
+        assertThat(bodies).allMatch(TrackedStream::isClosed);
+    }
+    
+    interface TickerApi {
+        
+        @Hedged
+        @RequestLine("GET /ticker")
+        String ticker();
+    }
+    
+    private RequestHedging hedging(List<RateLimits> rateLimits) {
+        config.getRateLimit().setEnabled(!rateLimits.isEmpty());
+        executor = new ExecutorConfig().exchangeHedgeExecutor(config);
+        return new RequestHedging(config, new ExchangeRateLimiter(config, rateLimits), executor);
+    }
+    
+    private TickerApi api(RequestHedging hedging, Client delegate) {
+        return Feign.builder()
+                .client(hedging.decorate(ExchangeType.OKX, delegate))
+                .retryer(Retryer.NEVER_RETRY)
+                .target(TickerApi.class, server.url());
+    }
+    
+    private static HedgingStatsDto stats(RequestHedging hedging) {
+        return hedging.stats().stream()
+                .filter(stats -> stats.getExchange() == ExchangeType.OKX)
+                .findFirst()
+                .orElseThrow();
+    }
+    
+    /**
+     * Wait for the given number of answers to have arrived and been closed
+     */
+    private void awaitBodies(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!(bodies.size() >= count && bodies.stream().allMatch(TrackedStream::isClosed))
+                && System.nanoTime() - deadline < 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(bodies).hasSize(count);
+    }
+    
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+    
+    private static final class TrackedStream extends FilterInputStream {
+        
+        private volatile boolean closed;
+        
+        private TrackedStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+        
+        private boolean isClosed() {
+            return closed;
+        }
+    }
+}
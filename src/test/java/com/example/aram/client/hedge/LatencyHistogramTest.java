@@ -0,0 +1,78 @@
+package com.example.aram.client.hedge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that quantiles land on the bucket holding them and that old halves are cleared as periods pass
+ */
+class LatencyHistogramTest {
+    
+    @Test
+    void reportsNothingBeforeTheFirstCall() {
+        LatencyHistogram histogram = new LatencyHistogram(60_000);
+        
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.quantileNanos(0.95)).isZero();
+    }
+    
+    @Test
+    void quantileIsTheUpperBoundOfItsBucket() {
+        LatencyHistogram histogram = new LatencyHistogram(60_000);
+        for (int call = 0; call < 90; call++) {
+            histogram.record(millis(10));
+        }
+        for (int call = 0; call < 10; call++) {
+            histogram.record(millis(1_000));
+        }
+        
+        assertThat(histogram.count()).isEqualTo(100);
+        // Buckets are a quarter of a doubling wide, so a bound is at most 19% above the latencies it holds
+        assertThat(histogram.quantileNanos(0.5)).isBetween(millis(10), millis(10) * 119 / 100);
+        assertThat(histogram.quantileNanos(0.9)).isEqualTo(histogram.quantileNanos(0.5));
+        assertThat(histogram.quantileNanos(0.91)).isBetween(millis(1_000), millis(1_000) * 119 / 100);
+        assertThat(histogram.quantileNanos(1.0)).isEqualTo(histogram.quantileNanos(0.91));
+    }
+    
+    @Test
+    void clampsLatenciesOutsideTheRange() {
+        LatencyHistogram histogram = new LatencyHistogram(60_000);
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(200));
+        
+        assertThat(histogram.quantileNanos(0.5)).isEqualTo(millis(1));
+        
+        histogram.record(TimeUnit.SECONDS.toNanos(300));
+        assertThat(histogram.quantileNanos(1.0)).isEqualTo(millis(65_536));
+    }
+    
+    @Test
+    void keepsTheLastPeriodAndDropsTheOneBefore() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram(100);
+        histogram.record(millis(10));
+        
+        TimeUnit.MILLISECONDS.sleep(120);
+        assertThat(histogram.count()).isEqualTo(1);
+        histogram.record(millis(20));
+        
+        TimeUnit.MILLISECONDS.sleep(120);
+        assertThat(histogram.count()).isEqualTo(1);
+        assertThat(histogram.quantileNanos(0.5)).isGreaterThanOrEqualTo(millis(20));
+    }
+    
+    @Test
+    void clearsBothHalvesAfterAnIdleStretch() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram(20);
+        histogram.record(millis(10));
+        
+        TimeUnit.MILLISECONDS.sleep(60);
+        
+        assertThat(histogram.count()).isZero();
+    }
+    
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.aram.client.impl;
+
+import com.example.aram.client.MockExchangeServer;
+import com.example.aram.client.MockExchangeServer.RecordedRequest;
+import com.example.aram.client.feign.BinanceFeignClient;
+import com.example.aram.client.feign.BybitFeignClient;
+import com.example.aram.client.feign.CoinbaseFeignClient;
+import com.example.aram.client.feign.KrakenFeignClient;
+import com.example.aram.client.feign.KuCoinFeignClient;
+import com.example.aram.client.feign.OKXFeignClient;
+import com.example.aram.dto.OrderDto;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderStatus;
+import com.example.aram.enums.OrderType;
+import com.example.aram.model.Exchange;
+import feign.Feign;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the signed order and balance calls of each exchange client against a local mock exchange,
+ * re-computing every signature from the request as the server received it
+ */
+class ExchangeOrderApiTest {
+    
+    private static final String KEY = "test-key";
+    private static final String SECRET = "test-secret";
+    private static final String BASE64_SECRET = Base64.getEncoder().encodeToString(
+            "binary-secret".getBytes(StandardCharsets.UTF_8));
+    private static final String PASSPHRASE = "test-passphrase";
+    
+    private final MockExchangeServer server = new MockExchangeServer();
+    
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+    
+    @Test
+    void binanceSignsTheQueryStringAndReadsFills() throws Exception {
+        server.reply("POST", "/api/v3/order", "{\"symbol\":\"BTCUSDT\",\"orderId\":28,\"clientOrderId\":\"abc\","
+                + "\"price\":\"0.00000000\",\"origQty\":\"0.5\",\"executedQty\":\"0.5\","
+                + "\"cummulativeQuoteQty\":\"15000.5\",\"status\":\"FILLED\",\"type\":\"MARKET\",\"side\":\"BUY\"}");
+        BinanceClient client = new BinanceClient(feignClient(BinanceFeignClient.class));
+        
+        OrderDto order = client.placeOrder(account(SECRET, null), "BTC/USDT", OrderType.MARKET, OrderSide.BUY,
+                null, new BigDecimal("0.50"));
+        
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getHeader("X-MBX-APIKEY")).isEqualTo(KEY);
+        String query = request.getQuery();
+        assertThat(query).startsWith("symbol=BTCUSDT&side=BUY&type=MARKET&quantity=0.5&newClientOrderId=");
+        int signature = query.indexOf("&signature=");
+        assertThat(query.substring(signature + "&signature=".length()))
+                .isEqualTo(hmacHex(SECRET, query.substring(0, signature)));
+        
+        assertThat(order.getExchange()).isEqualTo(ExchangeType.BINANCE);
+        assertThat(order.getOrderId()).isEqualTo("28");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.FILLED);
+        assertThat(order.getPrice()).isNull();
+        assertThat(order.getExecutedQuantity()).isEqualByComparingTo("0.5");
+        assertThat(order.getAveragePrice()).isEqualByComparingTo("30001");
+    }
+    
+    @Test
+    void binanceReportsOnlyPositiveFreeBalances() {
+        server.reply("GET", "/api/v3/account", "{\"balances\":["
+                + "{\"asset\":\"BTC\",\"free\":\"1.25\",\"locked\":\"0.1\"},"
+                + "{\"asset\":\"ETH\",\"free\":\"0.00000000\",\"locked\":\"0\"}]}");
+        BinanceClient client = new BinanceClient(feignClient(BinanceFeignClient.class));
+        
+        Map<String, BigDecimal> balances = client.getBalances(account(SECRET, null));
+        
+        assertThat(balances).containsOnlyKeys("BTC");
+        assertThat(balances.get("BTC")).isEqualByComparingTo("1.25");
+    }
+    
+    @Test
+    void bybitSignsTheBodyAndSizesMarketOrdersInBase() throws Exception {
+        server.reply("POST", "/v5/order/create",
+                "{\"retCode\":0,\"retMsg\":\"OK\",\"result\":{\"orderId\":\"1321\",\"orderLinkId\":\"link\"}}");
+        BybitClient client = new BybitClient(feignClient(BybitFeignClient.class));
+        
+        OrderDto order = client.placeOrder(account(SECRET, null), "ETH/USDT", OrderType.MARKET, OrderSide.SELL,
+                null, new BigDecimal("2"));
+        
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getBody()).contains("\"side\":\"Sell\"", "\"orderType\":\"Market\"",
+                "\"qty\":\"2\"", "\"marketUnit\":\"baseCoin\"");
+        String timestamp = request.getHeader("X-BAPI-TIMESTAMP");
+        assertThat(request.getHeader("X-BAPI-SIGN")).isEqualTo(hmacHex(SECRET,
+                timestamp + KEY + request.getHeader("X-BAPI-RECV-WINDOW") + request.getBody()));
+        assertThat(order.getOrderId()).isEqualTo("1321");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.NEW);
+    }
+    
+    @Test
+    void bybitFallsBackToHistoryForClosedOrders() throws Exception {
+        server.reply("GET", "/v5/order/realtime", "{\"retCode\":0,\"result\":{\"list\":[]}}");
+        server.reply("GET", "/v5/order/history", "{\"retCode\":0,\"result\":{\"list\":[{\"orderId\":\"1321\","
+                + "\"side\":\"Buy\",\"orderType\":\"Limit\",\"price\":\"100\",\"qty\":\"3\",\"cumExecQty\":\"1\","
+                + "\"avgPrice\":\"99.5\",\"orderStatus\":\"PartiallyFilledCanceled\"}]}}");
+        BybitClient client = new BybitClient(feignClient(BybitFeignClient.class));
+        
+        OrderDto order = client.getOrder(account(SECRET, null), "ETH/USDT", "1321");
+        
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getQuery()).isEqualTo("category=spot&orderId=1321");
+        assertThat(request.getHeader("X-BAPI-SIGN")).isEqualTo(hmacHex(SECRET, request.getHeader("X-BAPI-TIMESTAMP")
+                + KEY + request.getHeader("X-BAPI-RECV-WINDOW") + request.getQuery()));
+        assertThat(server.takeRequest().getPath()).isEqualTo("/v5/order/history");
+        assertThat(order.getSide()).isEqualTo(OrderSide.BUY);
+        assertThat(order.getPrice()).isEqualByComparingTo("100");
+        assertThat(order.getAveragePrice()).isEqualByComparingTo("99.5");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELED);
+    }
+    
+    @Test
+    void okxSignsPathAndBodyAndReportsRejections() throws Exception {
+        server.reply("POST", "/api/v5/trade/order", "{\"code\":\"1\",\"msg\":\"\",\"data\":[{\"ordId\":\"\","
+                + "\"sCode\":\"51008\",\"sMsg\":\"Insufficient balance\"}]}");
+        OKXClient client = new OKXClient(feignClient(OKXFeignClient.class));
+        
+        assertThatThrownBy(() -> client.placeOrder(account(SECRET, PASSPHRASE), "BTC/USDT", OrderType.LIMIT,
+                OrderSide.BUY, new BigDecimal("30000.10"), new BigDecimal("0.1")))
+                .hasMessageContaining("Insufficient balance");
+        
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getBody()).contains("\"instId\":\"BTC-USDT\"", "\"tdMode\":\"cash\"",
+                "\"ordType\":\"limit\"", "\"px\":\"30000.1\"");
+        assertThat(request.getHeader("OK-ACCESS-PASSPHRASE")).isEqualTo(PASSPHRASE);
+        assertThat(request.getHeader("OK-ACCESS-SIGN")).isEqualTo(hmacBase64(SECRET.getBytes(StandardCharsets.UTF_8),
+                request.getHeader("OK-ACCESS-TIMESTAMP") + "POST" + "/api/v5/trade/order" + request.getBody()));
+    }
+    
+    @Test
+    void okxSignsTheQueryOfOrderLookups() throws Exception {
+        server.reply("GET", "/api/v5/trade/order", "{\"code\":\"0\",\"data\":[{\"ordId\":\"77\",\"side\":\"sell\","
+                + "\"ordType\":\"market\",\"sz\":\"0.1\",\"accFillSz\":\"0.1\","
+                + "\"avgPx\":\"30010\",\"state\":\"filled\"}]}");
+        OKXClient client = new OKXClient(feignClient(OKXFeignClient.class));
+        
+        OrderDto order = client.getOrder(account(SECRET, PASSPHRASE), "BTC/USDT", "77");
+        
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getHeader("OK-ACCESS-SIGN")).isEqualTo(hmacBase64(SECRET.getBytes(StandardCharsets.UTF_8),
+                request.getHeader("OK-ACCESS-TIMESTAMP") + "GET" + request.getPath() + "?" + request.getQuery()));
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.FILLED);
+        assertThat(order.getAveragePrice()).isEqualByComparingTo("30010");
+    }
+    
+    @Test
+    void kuCoinSignsRequestAndPassphrase() throws Exception {
+        server.reply("POST", "/api/v1/orders",
+                "{\"code\":\"200000\",\"data\":{\"orderId\":\"5bd6e9286d99522a52e458de\"}}");
+        KuCoinClient client = new KuCoinClient(feignClient(KuCoinFeignClient.class));
+        
+        OrderDto order = client.placeOrder(account(SECRET, PASSPHRASE), "ETH/USDT", OrderType.MARKET, OrderSide.BUY,
+                null, new BigDecimal("1.5"));
+        
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getHeader("KC-API-KEY-VERSION")).isEqualTo("2");
+        assertThat(request.getHeader("KC-API-PASSPHRASE"))
+                .isEqualTo(hmacBase64(SECRET.getBytes(StandardCharsets.UTF_8), PASSPHRASE));
+        assertThat(request.getHeader("KC-API-SIGN")).isEqualTo(hmacBase64(SECRET.getBytes(StandardCharsets.UTF_8),
+                request.getHeader("KC-API-TIMESTAMP") + "POST" + "/api/v1/orders" + request.getBody()));
+        assertThat(order.getOrderId()).isEqualTo("5bd6e9286d99522a52e458de");
+        assertThat(order.getClientOrderId()).isNotBlank();
+    }
+    
+    @Test
+    void kuCoinDerivesStatusFromActiveAndCancelFlags() throws Exception {
+        server.reply("GET", "/api/v1/orders/abc", "{\"code\":\"200000\",\"data\":{\"id\":\"abc\",\"side\":\"sell\","
+                + "\"type\":\"limit\",\"price\":\"10\",\"size\":\"4\",\"dealSize\":\"1\",\"dealFunds\":\"10\","
+                + "\"isActive\":false,\"cancelExist\":true}}");
+        KuCoinClient client = new KuCoinClient(feignClient(KuCoinFeignClient.class));
+        
+        OrderDto order = client.getOrder(account(SECRET, PASSPHRASE), "ETH/USDT", "abc");
+        
+        assertThat(server.takeRequest().getMethod()).isEqualTo("GET");
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELED);
+        assertThat(order.getExecutedQuantity()).isEqualByComparingTo("1");
+        assertThat(order.getAveragePrice()).isEqualByComparingTo("10");
+    }
+    
+    @Test
+    void coinbaseSignsWithTheDecodedSecret() throws Exception {
+        server.reply("POST", "/orders", "{\"id\":\"d0c5340b-6d6c-49d9-b567-48c4bfca13d2\",\"side\":\"buy\","
+                + "\"type\":\"limit\",\"price\":\"0.10\",\"size\":\"1.00\","
+                + "\"filled_size\":\"0\",\"status\":\"pending\"}");
+        server.reply("DELETE", "/orders/d0c5340b-6d6c-49d9-b567-48c4bfca13d2",
+                "\"d0c5340b-6d6c-49d9-b567-48c4bfca13d2\"");
+        CoinbaseClient client = new CoinbaseClient(feignClient(CoinbaseFeignClient.class));
+        Exchange account = account(BASE64_SECRET, PASSPHRASE);
+        
+        OrderDto order = client.placeOrder(account, "BTC/USD", OrderType.LIMIT, OrderSide.BUY,
+                new BigDecimal("0.10"), BigDecimal.ONE);
+        boolean cancelled = client.cancelOrder(account, "BTC/USD", order.getOrderId());
+        
+        byte[] key = Base64.getDecoder().decode(BASE64_SECRET);
+        RecordedRequest place = server.takeRequest();
+        assertThat(place.getHeader("CB-ACCESS-SIGN")).isEqualTo(hmacBase64(key,
+                place.getHeader("CB-ACCESS-TIMESTAMP") + "POST" + "/orders" + place.getBody()));
+        RecordedRequest cancel = server.takeRequest();
+        assertThat(cancel.getHeader("CB-ACCESS-SIGN")).isEqualTo(hmacBase64(key,
+                cancel.getHeader("CB-ACCESS-TIMESTAMP") + "DELETE" + cancel.getPath() + "?" + cancel.getQuery()));
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.NEW);
+        assertThat(order.getPrice()).isEqualByComparingTo("0.10");
+        assertThat(cancelled).isTrue();
+    }
+    
+    @Test
+    void krakenSignsNonceAndFormBodyAndNamesAssets() throws Exception {
+        server.reply("POST", "/0/private/AddOrder", "{\"error\":[],\"result\":{\"txid\":[\"OQCLML-BW3P3-BUCMWZ\"]}}");
+        server.reply("POST", "/0/private/BalanceEx", "{\"error\":[],\"result\":{"
+                + "\"XXBT\":{\"balance\":\"1.5\",\"hold_trade\":\"0.5\"},\"ZUSD\":{\"balance\":\"100\"},"
+                + "\"USDT\":{\"balance\":\"20\",\"hold_trade\":\"0\"}}}");
+        KrakenClient client = new KrakenClient(feignClient(KrakenFeignClient.class));
+        Exchange account = account(BASE64_SECRET, null);
+        
+        OrderDto order = client.placeOrder(account, "BTC/USDT", OrderType.MARKET, OrderSide.BUY,
+                null, new BigDecimal("0.25"));
+        Map<String, BigDecimal> balances = client.getBalances(account);
+        
+        RecordedRequest place = server.takeRequest();
+        assertThat(place.getBody()).matches("nonce=\\d+&ordertype=market&type=buy&volume=0.25&pair=XBTUSDT");
+        String nonce = place.getBody().substring("nonce=".length(), place.getBody().indexOf('&'));
+        assertThat(place.getHeader("API-Key")).isEqualTo(KEY);
+        assertThat(place.getHeader("API-Sign")).isEqualTo(krakenSignature("/0/private/AddOrder", nonce,
+                place.getBody()));
+        RecordedRequest balance = server.takeRequest();
+        assertThat(Long.parseLong(balance.getBody().substring("nonce=".length()))).isGreaterThan(Long.parseLong(nonce));
+        
+        assertThat(order.getOrderId()).isEqualTo("OQCLML-BW3P3-BUCMWZ");
+        assertThat(balances).containsOnlyKeys("BTC", "USD", "USDT");
+        assertThat(balances.get("BTC")).isEqualByComparingTo("1");
+    }
+    
+    @Test
+    void missingCredentialsFailBeforeAnyRequest() {
+        BinanceClient client = new BinanceClient(feignClient(BinanceFeignClient.class));
+        
+        assertThatThrownBy(() -> client.getBalances(account(null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OKXClient(feignClient(OKXFeignClient.class)).getBalances(account(SECRET, null)))
+                .hasMessageContaining("passphrase");
+    }
+    
+    private <T> T feignClient(Class<T> type) {
+        ObjectFactory<HttpMessageConverters> converters = HttpMessageConverters::new;
+        return Feign.builder()
+                .contract(new SpringMvcContract())
+                .encoder(new SpringEncoder(converters))
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(converters,
+                        new StaticListableBeanFactory().getBeanProvider(HttpMessageConverterCustomizer.class))))
+                .target(type, server.url());
+    }
+    
+    private static Exchange account(String secret, String passphrase) {
+        return Exchange.builder()
+                .apiKey(KEY)
+                .apiSecret(secret)
+                .apiPassphrase(passphrase)
+                .build();
+    }
+    
+    private static String hmacHex(String secret, String payload) throws Exception {
+        return HexFormat.of().formatHex(hmac("HmacSHA256", secret.getBytes(StandardCharsets.UTF_8),
+                payload.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private static String hmacBase64(byte[] key, String payload) throws Exception {
+        return Base64.getEncoder().encodeToString(hmac("HmacSHA256", key, payload.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private static String krakenSignature(String path, String nonce, String body) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest((nonce + body).getBytes(StandardCharsets.UTF_8));
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        byte[] message = new byte[pathBytes.length + digest.length];
+        System.arraycopy(pathBytes, 0, message, 0, pathBytes.length);
+        System.arraycopy(digest, 0, message, pathBytes.length, digest.length);
+        return Base64.getEncoder().encodeToString(hmac("HmacSHA512", Base64.getDecoder().decode(BASE64_SECRET),
+                message));
+    }
+    
+    private static byte[] hmac(String algorithm, byte[] key, byte[] payload) throws Exception {
+        Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(key, algorithm));
+        return mac.doFinal(payload);
+    }
+}
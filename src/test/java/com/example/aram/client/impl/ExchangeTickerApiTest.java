@@ -0,0 +1,112 @@
+package com.example.aram.client.impl;
+
+import com.example.aram.client.MockExchangeServer;
+import com.example.aram.client.feign.BinanceFeignClient;
+import com.example.aram.client.feign.KrakenFeignClient;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import feign.Feign;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the ticker calls of the exchange clients against a local mock exchange
+ */
+class ExchangeTickerApiTest {
+    
+    private final MockExchangeServer server = new MockExchangeServer();
+    
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+    
+    @Test
+    void krakenFetchesAllPairsInOneCallAndMapsLegacyNames() throws Exception {
+        server.reply("GET", "/0/public/Ticker", "{\"error\":[],\"result\":{"
+                + "\"XXBTZUSD\":{\"a\":[\"30001.0\",\"1\",\"1.000\"],\"b\":[\"30000.0\",\"2\",\"2.000\"],"
+                + "\"c\":[\"30000.5\",\"0.1\"],\"v\":[\"10\",\"1200.5\"]},"
+                + "\"XBTUSDT\":{\"a\":[\"30011.0\",\"1\",\"0.500\"],\"b\":[\"30010.0\",\"3\",\"3.000\"],"
+                + "\"c\":[\"30010.5\",\"0.2\"],\"v\":[\"5\",\"800\"]}}}");
+        KrakenClient client = new KrakenClient(feignClient(KrakenFeignClient.class));
+        
+        List<PriceDto> prices = client.fetchTickers(new LinkedHashSet<>(List.of("BTC/USD", "BTC/USDT")));
+        
+        String query = URLDecoder.decode(server.takeRequest().getQuery(), StandardCharsets.UTF_8);
+        assertThat(Set.of(query.substring("pair=".length()).split(","))).containsOnly("XBTUSD", "XBTUSDT");
+        assertThat(prices).hasSize(2);
+        prices.sort(Comparator.comparing(PriceDto::getSymbol));
+        PriceDto usd = prices.get(0);
+        assertThat(usd.getExchange()).isEqualTo(ExchangeType.KRAKEN);
+        assertThat(usd.getSymbol()).isEqualTo("BTC/USD");
+        assertThat(usd.getBidPrice()).isEqualByComparingTo("30000.0");
+        assertThat(usd.getAskPrice()).isEqualByComparingTo("30001.0");
+        assertThat(usd.getBidQuantity()).isEqualByComparingTo("2");
+        assertThat(usd.getVolume24h()).isEqualByComparingTo("1200.5");
+        assertThat(prices.get(1).getSymbol()).isEqualTo("BTC/USDT");
+        assertThat(prices.get(1).getAskQuantity()).isEqualByComparingTo("0.5");
+    }
+    
+    @Test
+    void krakenFallsBackToSinglePairsWhenTheListIsRejected() throws Exception {
+        server.reply("GET", "/0/public/Ticker", "{\"error\":[\"EQuery:Unknown asset pair\"]}");
+        KrakenClient client = new KrakenClient(feignClient(KrakenFeignClient.class));
+        
+        List<PriceDto> prices = client.fetchTickers(new LinkedHashSet<>(List.of("BTC/USD", "NOPE/USD")));
+        
+        assertThat(prices).isEmpty();
+        Set<String> queries = List.of(server.takeRequest(), server.takeRequest(), server.takeRequest()).stream()
+                .map(request -> URLDecoder.decode(request.getQuery(), StandardCharsets.UTF_8))
+                .collect(Collectors.toSet());
+        assertThat(queries).contains("pair=XBTUSD", "pair=NOPEUSD");
+    }
+    
+    @Test
+    void binanceNamesAllTickersFromTheListedPairs() {
+        server.reply("GET", "/api/v3/exchangeInfo", "{\"symbols\":["
+                + "{\"symbol\":\"ETHBTC\",\"status\":\"TRADING\",\"baseAsset\":\"ETH\",\"quoteAsset\":\"BTC\"},"
+                + "{\"symbol\":\"BTCFDUSD\",\"status\":\"TRADING\",\"baseAsset\":\"BTC\",\"quoteAsset\":\"FDUSD\"},"
+                + "{\"symbol\":\"LUNAUSDT\",\"status\":\"BREAK\",\"baseAsset\":\"LUNA\",\"quoteAsset\":\"USDT\"}]}");
+        server.reply("GET", "/api/v3/ticker/bookTicker", "["
+                + "{\"symbol\":\"ETHBTC\",\"bidPrice\":\"0.05\",\"bidQty\":\"1\","
+                + "\"askPrice\":\"0.051\",\"askQty\":\"2\"},"
+                + "{\"symbol\":\"BTCFDUSD\",\"bidPrice\":\"30000\",\"bidQty\":\"1\","
+                + "\"askPrice\":\"30001\",\"askQty\":\"1\"},"
+                + "{\"symbol\":\"LUNAUSDT\",\"bidPrice\":\"0.1\",\"bidQty\":\"1\","
+                + "\"askPrice\":\"0.2\",\"askQty\":\"1\"}]");
+        BinanceClient client = new BinanceClient(feignClient(BinanceFeignClient.class));
+        
+        List<PriceDto> prices = client.fetchAllTickers();
+        
+        assertThat(prices).extracting(PriceDto::getSymbol).containsExactly("ETH/BTC", "BTC/FDUSD");
+        assertThat(prices.get(1).getAskPrice()).isEqualByComparingTo("30001");
+    }
+    
+    private <T> T feignClient(Class<T> type) {
+        ObjectFactory<HttpMessageConverters> converters = HttpMessageConverters::new;
+        return Feign.builder()
+                .contract(new SpringMvcContract())
+                .encoder(new SpringEncoder(converters))
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(converters,
+                        new StaticListableBeanFactory().getBeanProvider(HttpMessageConverterCustomizer.class))))
+                .target(type, server.url());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.aram.client.json;
+
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads bulk ticker responses shaped like each exchange's, with the readers configured as the clients do
+ */
+class BulkTickerReaderTest {
+    
+    private static final BulkTickerReader BINANCE = BulkTickerReader.builder(ExchangeType.BINANCE, "symbol")
+            .field("bidPrice", PriceDto.PriceDtoBuilder::bidPrice)
+            .field("askPrice", PriceDto.PriceDtoBuilder::askPrice)
+            .field("bidQty", PriceDto.PriceDtoBuilder::bidQuantity)
+            .field("askQty", PriceDto.PriceDtoBuilder::askQuantity)
+            .build();
+    
+    private static final BulkTickerReader OKX = BulkTickerReader.builder(ExchangeType.OKX, "instId")
+            .path("data")
+            .field("bidPx", PriceDto.PriceDtoBuilder::bidPrice)
+            .field("askPx", PriceDto.PriceDtoBuilder::askPrice)
+            .field("last", PriceDto.PriceDtoBuilder::lastPrice)
+            .field("vol24h", PriceDto.PriceDtoBuilder::volume24h)
+            .build();
+    
+    private static final BulkTickerReader KUCOIN = BulkTickerReader.builder(ExchangeType.KUCOIN, "symbol")
+            .path("data", "ticker")
+            .field("buy", PriceDto.PriceDtoBuilder::bidPrice)
+            .field("sell", PriceDto.PriceDtoBuilder::askPrice)
+            .field("last", PriceDto.PriceDtoBuilder::lastPrice)
+            .build();
+    
+    private static final BulkTickerReader BYBIT = BulkTickerReader.builder(ExchangeType.BYBIT, "symbol")
+            .path("result", "list")
+            .field("bid1Price", PriceDto.PriceDtoBuilder::bidPrice)
+            .field("ask1Price", PriceDto.PriceDtoBuilder::askPrice)
+            .field("lastPrice", PriceDto.PriceDtoBuilder::lastPrice)
+            .build();
+    
+    @Test
+    void binanceKeepsOnlyTheWantedSymbolsInTheOrderSent() throws Exception {
+        List<PriceDto> prices = BINANCE.read(json("["
+                + "{\"symbol\":\"ETHUSDT\",\"bidPrice\":\"2000.10\",\"bidQty\":\"3\","
+                + "\"askPrice\":\"2000.20\",\"askQty\":\"4\"},"
+                + "{\"symbol\":\"LTCBTC\",\"bidPrice\":\"0.001\",\"bidQty\":\"1\","
+                + "\"askPrice\":\"0.002\",\"askQty\":\"1\"},"
+                + "{\"symbol\":\"BTCUSDT\",\"bidPrice\":\"30000.00\",\"bidQty\":\"0.5\","
+                + "\"askPrice\":\"30000.01\",\"askQty\":\"0.25\"}]"),
+                Map.of("BTCUSDT", "BTC/USDT", "ETHUSDT", "ETH/USDT"));
+        
+        assertThat(prices).extracting(PriceDto::getSymbol).containsExactly("ETH/USDT", "BTC/USDT");
+        PriceDto btc = prices.get(1);
+        assertThat(btc.getExchange()).isEqualTo(ExchangeType.BINANCE);
+        assertThat(btc.getBidPrice()).isEqualByComparingTo("30000.00");
+        assertThat(btc.getAskPrice()).isEqualByComparingTo("30000.01");
+        assertThat(btc.getBidQuantity()).isEqualByComparingTo("0.5");
+        assertThat(btc.getAskQuantity()).isEqualByComparingTo("0.25");
+    }
+    
+    @Test
+    void okxLeavesEmptyPricesUnset() throws Exception {
+        List<PriceDto> prices = OKX.read(json("{\"code\":\"0\",\"msg\":\"\",\"data\":["
+                + "{\"instType\":\"SPOT\",\"instId\":\"BTC-USDT\",\"last\":\"30000.5\","
+                + "\"bidPx\":\"\",\"askPx\":\"30001\",\"vol24h\":\"1234.5\",\"ts\":\"1700000000000\"},"
+                + "{\"instType\":\"SPOT\",\"instId\":\"DOGE-USDT\",\"last\":\"0.07\","
+                + "\"bidPx\":\"0.069\",\"askPx\":\"0.071\",\"vol24h\":\"99\",\"ts\":\"1700000000000\"}]}"),
+                Map.of("BTC-USDT", "BTC/USDT"));
+        
+        assertThat(prices).hasSize(1);
+        PriceDto btc = prices.get(0);
+        assertThat(btc.getSymbol()).isEqualTo("BTC/USDT");
+        assertThat(btc.getBidPrice()).isNull();
+        assertThat(btc.getAskPrice()).isEqualByComparingTo("30001");
+        assertThat(btc.getLastPrice()).isEqualByComparingTo("30000.5");
+        assertThat(btc.getVolume24h()).isEqualByComparingTo("1234.5");
+    }
+    
+    @Test
+    void kucoinLeavesNullPricesUnsetAndSkipsOtherTickers() throws Exception {
+        List<PriceDto> prices = KUCOIN.read(json("{\"code\":\"200000\",\"data\":{\"time\":1700000000000,"
+                + "\"ticker\":["
+                + "{\"symbol\":\"KCS-USDT\",\"buy\":\"5.1\",\"sell\":\"5.2\",\"last\":\"5.15\"},"
+                + "{\"symbol\":\"ETH-USDT\",\"buy\":null,\"sell\":\"2000.5\",\"last\":\"2000.2\"}]}}"),
+                Map.of("ETH-USDT", "ETH/USDT"));
+        
+        assertThat(prices).hasSize(1);
+        assertThat(prices.get(0).getExchange()).isEqualTo(ExchangeType.KUCOIN);
+        assertThat(prices.get(0).getBidPrice()).isNull();
+        assertThat(prices.get(0).getAskPrice()).isEqualByComparingTo("2000.5");
+    }
+    
+    @Test
+    void bybitKeepsPricesSentBeforeTheSymbol() throws Exception {
+        List<PriceDto> prices = BYBIT.read(json("{\"retCode\":0,\"result\":{\"category\":\"spot\",\"list\":["
+                + "{\"bid1Price\":\"29999.9\",\"ask1Price\":\"30000.1\",\"symbol\":\"BTCUSDT\","
+                + "\"lastPrice\":\"30000\"},"
+                + "{\"bid1Price\":\"1.1\",\"ask1Price\":\"1.2\",\"symbol\":\"ABCUSDT\",\"lastPrice\":\"1.15\"}]}}"),
+                Map.of("BTCUSDT", "BTC/USDT"));
+        
+        assertThat(prices).hasSize(1);
+        PriceDto btc = prices.get(0);
+        assertThat(btc.getSymbol()).isEqualTo("BTC/USDT");
+        assertThat(btc.getBidPrice()).isEqualByComparingTo("29999.9");
+        assertThat(btc.getAskPrice()).isEqualByComparingTo("30000.1");
+        assertThat(btc.getLastPrice()).isEqualByComparingTo("30000");
+    }
+    
+    @Test
+    void skipsObjectsAndArraysSentBeforeTheSymbol() throws Exception {
+        List<PriceDto> prices = BYBIT.read(json("{\"result\":{\"list\":["
+                + "{\"bid1Price\":{\"value\":\"1\",\"scale\":[2]},\"ask1Price\":[\"30000.1\"],"
+                + "\"lastPrice\":\"30000\",\"symbol\":\"BTCUSDT\"},"
+                + "{\"symbol\":\"ETHUSDT\",\"bid1Price\":\"2000\",\"ask1Price\":\"2001\"}]}}"),
+                Map.of("BTCUSDT", "BTC/USDT", "ETHUSDT", "ETH/USDT"));
+        
+        assertThat(prices).extracting(PriceDto::getSymbol).containsExactly("BTC/USDT", "ETH/USDT");
+        assertThat(prices.get(0).getBidPrice()).isNull();
+        assertThat(prices.get(0).getAskPrice()).isNull();
+        assertThat(prices.get(0).getLastPrice()).isEqualByComparingTo("30000");
+        assertThat(prices.get(1).getBidPrice()).isEqualByComparingTo("2000");
+    }
+    
+    @Test
+    void readsNothingWhenThePathIsMissing() throws Exception {
+        List<PriceDto> prices = OKX.read(json("{\"code\":\"50011\",\"msg\":\"Too Many Requests\"}"),
+                Map.of("BTC-USDT", "BTC/USDT"));
+        
+        assertThat(prices).isEmpty();
+    }
+    
+    private static RawJson json(String body) {
+        return new RawJson(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
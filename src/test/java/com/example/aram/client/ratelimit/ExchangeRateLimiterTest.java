@@ -0,0 +1,190 @@
+package com.example.aram.client.ratelimit;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Takes turns from small budgets without sleeping, through {@code tryAcquire} and {@code acquire} with no wait
+ */
+class ExchangeRateLimiterTest {
+    
+    private static final String CLIENT = "test-client";
+    private static final Map<String, Collection<String>> NO_QUERIES = Collections.emptyMap();
+    
+    private final ArbitrageConfig config = new ArbitrageConfig();
+    
+    ExchangeRateLimiterTest() {
+        config.getRateLimit().setEnabled(true);
+        config.getRateLimit().setBurstShare(new BigDecimal("0.5"));
+    }
+    
+    @Test
+    void windowBudgetAllowsItsBurstShareAtOnce() {
+        ExchangeRateLimiter limiter = limiter(RateLimits.builder(ExchangeType.BINANCE, CLIENT)
+                .window("requests", 10, Duration.ofMinutes(1))
+                .otherwise("requests", 1)
+                .build());
+        
+        for (int call = 0; call < 5; call++) {
+            assertThat(tryAcquire(limiter, "/ticker")).as("call %d", call).isTrue();
+        }
+        assertThat(tryAcquire(limiter, "/ticker")).isFalse();
+    }
+    
+    @Test
+    void counterBudgetAllowsItsMaximumAtOnce() {
+        ExchangeRateLimiter limiter = limiter(RateLimits.builder(ExchangeType.KRAKEN, CLIENT)
+                .counter("calls", 3, Duration.ofSeconds(30))
+                .otherwise("calls", 1)
+                .build());
+        
+        for (int call = 0; call < 3; call++) {
+            assertThat(tryAcquire(limiter, "/ticker")).as("call %d", call).isTrue();
+        }
+        assertThat(tryAcquire(limiter, "/ticker")).isFalse();
+    }
+    
+    @Test
+    void chargesEndpointsByWeight() {
+        ExchangeRateLimiter limiter = limiter(RateLimits.builder(ExchangeType.BINANCE, CLIENT)
+                .counter("weight", 10, Duration.ofMinutes(1))
+                .endpoint("GET", "/depth", "weight", 4)
+                .endpoint("GET", "/orders/{id}", "weight", queries -> queries.containsKey("all") ? 3 : 1)
+                .otherwise("weight", 1)
+                .build());
+        
+        assertThat(tryAcquire(limiter, "/depth")).isTrue();
+        assertThat(limiter.tryAcquire(CLIENT, "GET", "/orders/7", Map.of("all", List.of("true")))).isTrue();
+        assertThat(tryAcquire(limiter, "/orders/7")).isTrue();
+        assertThat(tryAcquire(limiter, "/depth")).isFalse();
+        assertThat(tryAcquire(limiter, "/ticker")).isTrue();
+        assertThat(tryAcquire(limiter, "/ticker")).isTrue();
+        assertThat(tryAcquire(limiter, "/ticker")).isFalse();
+    }
+    
+    @Test
+    void givesBackTurnsWhenAnotherBudgetIsFull() {
+        ExchangeRateLimiter limiter = limiter(RateLimits.builder(ExchangeType.COINBASE, CLIENT)
+                .counter("all", 2, Duration.ofMinutes(1))
+                .counter("orders", 1, Duration.ofMinutes(1))
+                .endpoint("POST", "/orders", "all", 1)
+                .endpoint("POST", "/orders", "orders", 1)
+                .otherwise("all", 1)
+                .build());
+        
+        assertThat(limiter.tryAcquire(CLIENT, "POST", "/orders", NO_QUERIES)).isTrue();
+        assertThat(limiter.tryAcquire(CLIENT, "POST", "/orders", NO_QUERIES)).isFalse();
+        
+        // The refused order did not keep its turn in the shared budget
+        assertThat(tryAcquire(limiter, "/ticker")).isTrue();
+        assertThat(tryAcquire(limiter, "/ticker")).isFalse();
+    }
+    
+    @Test
+    void failsACallWhoseTurnIsBeyondTheMaximumWait() {
+        config.getRateLimit().setMaxWait(0L);
+        ExchangeRateLimiter limiter = limiter(oneCall());
+        
+        limiter.acquire(CLIENT, "GET", "/ticker", NO_QUERIES);
+        
+        assertThatThrownBy(() -> limiter.acquire(CLIENT, "GET", "/ticker", NO_QUERIES))
+                .isInstanceOf(RateLimitException.class)
+                .hasMessageContaining("would wait over 0 ms");
+    }
+    
+    @Test
+    void optionalWorkSkipsInsteadOfWaiting() {
+        ExchangeRateLimiter limiter = limiter(oneCall());
+        
+        assertThat(ExchangeRateLimiter.optional(() -> {
+            limiter.acquire(CLIENT, "GET", "/ticker", NO_QUERIES);
+            return true;
+        })).isTrue();
+        
+        assertThatThrownBy(() -> ExchangeRateLimiter.optional(() -> {
+            limiter.acquire(CLIENT, "GET", "/ticker", NO_QUERIES);
+            return true;
+        }))
+                .isInstanceOf(RateLimitException.class)
+                .hasMessageContaining("skipped");
+        assertThat(ExchangeRateLimiter.optional(() -> ExchangeRateLimiter.optional(() -> 1) + 1)).isEqualTo(2);
+    }
+    
+    @Test
+    void rejectionPausesEveryBudgetOfTheExchange() {
+        ExchangeRateLimiter limiter = limiter(RateLimits.builder(ExchangeType.BYBIT, CLIENT)
+                .counter("public", 5, Duration.ofSeconds(1))
+                .counter("private", 5, Duration.ofSeconds(1))
+                .endpoint("POST", "/orders", "private", 1)
+                .otherwise("public", 1)
+                .build());
+        
+        RateLimitException exception = limiter.rejected(ExchangeType.BYBIT,
+                response(Map.of("Retry-After", List.of("30"))));
+        
+        assertThat(exception.getMessage()).contains("paused for 30000 ms");
+        assertThat(tryAcquire(limiter, "/ticker")).isFalse();
+        assertThat(limiter.tryAcquire(CLIENT, "POST", "/orders", NO_QUERIES)).isFalse();
+    }
+    
+    @Test
+    void rejectionWithoutRetryAfterUsesTheBackOff() {
+        config.getRateLimit().setBackOff(1234L);
+        ExchangeRateLimiter limiter = limiter(oneCall());
+        
+        RateLimitException exception = limiter.rejected(ExchangeType.OKX, response(Collections.emptyMap()));
+        
+        assertThat(exception.getMessage()).contains("paused for 1234 ms");
+        assertThat(tryAcquire(limiter, "/ticker")).isFalse();
+    }
+    
+    @Test
+    void letsEverythingThroughWhenDisabledOrUnknown() {
+        ExchangeRateLimiter limiter = limiter(oneCall());
+        
+        assertThat(tryAcquire(limiter, "/ticker")).isTrue();
+        assertThat(limiter.tryAcquire("other-client", "GET", "/ticker", NO_QUERIES)).isTrue();
+        
+        config.getRateLimit().setEnabled(false);
+        assertThat(tryAcquire(limiter, "/ticker")).isTrue();
+        limiter.acquire(CLIENT, "GET", "/ticker", NO_QUERIES);
+    }
+    
+    private ExchangeRateLimiter limiter(RateLimits limits) {
+        return new ExchangeRateLimiter(config, List.of(limits));
+    }
+    
+    private static RateLimits oneCall() {
+        return RateLimits.builder(ExchangeType.OKX, CLIENT)
+                .counter("calls", 1, Duration.ofMinutes(1))
+                .otherwise("calls", 1)
+                .build();
+    }
+    
+    private static boolean tryAcquire(ExchangeRateLimiter limiter, String path) {
+        return limiter.tryAcquire(CLIENT, "GET", path, NO_QUERIES);
+    }
+    
+    private static Response response(Map<String, Collection<String>> headers) {
+        return Response.builder()
+                .request(Request.create(Request.HttpMethod.GET, "http://localhost/api", Collections.emptyMap(),
+                        null, StandardCharsets.UTF_8, null))
+                .status(429)
+                .headers(headers)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.aram.client.stream;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Binance stream client against a local stub WebSocket server
+ */
+class BinanceStreamingClientTest {
+    
+    private final BlockingQueue<String> subscriptions = new LinkedBlockingQueue<>();
+    private final RecordingListener listener = new RecordingListener();
+    private DisposableServer server;
+    private BinanceStreamingClient client;
+    
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.stop();
+        }
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+    
+    @Test
+    void publishesUpdatesAndResubscribesAfterReconnect() throws Exception {
+        // Each session answers the subscription with one update and then closes
+        startServer(subscription -> Flux.just(bookTicker(1, "100.01", "100.02")));
+        startClient();
+        
+        assertThat(subscriptions.poll(5, TimeUnit.SECONDS)).contains("SUBSCRIBE").contains("btcusdt@bookTicker");
+        PriceDto first = listener.quotes.poll(5, TimeUnit.SECONDS);
+        assertThat(first).isNotNull();
+        assertThat(first.getExchange()).isEqualTo(ExchangeType.BINANCE);
+        assertThat(first.getSymbol()).isEqualTo("BTC/USDT");
+        assertThat(first.getBidPrice()).isEqualByComparingTo("100.01");
+        assertThat(first.getAskPrice()).isEqualByComparingTo("100.02");
+        
+        assertThat(subscriptions.poll(5, TimeUnit.SECONDS)).contains("btcusdt@bookTicker");
+        assertThat(listener.quotes.poll(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(listener.resyncs.poll(5, TimeUnit.SECONDS)).isEqualTo("BTC/USDT");
+        assertThat(listener.resyncs.poll(5, TimeUnit.SECONDS)).isEqualTo("BTC/USDT");
+    }
+    
+    @Test
+    void dropsOutOfOrderUpdates() throws Exception {
+        startServer(subscription -> Flux.just(
+                bookTicker(10, "100.10", "100.20"),
+                bookTicker(9, "99.90", "100.00"),
+                bookTicker(11, "100.11", "100.21")));
+        startClient();
+        
+        assertThat(listener.quotes.poll(5, TimeUnit.SECONDS).getBidPrice()).isEqualByComparingTo("100.10");
+        assertThat(listener.quotes.poll(5, TimeUnit.SECONDS).getBidPrice()).isEqualByComparingTo("100.11");
+    }
+    
+    private void startServer(Function<String, Flux<String>> replies) {
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.ws("/ws", (in, out) -> out.sendString(
+                        in.receive().asString()
+                                .doOnNext(subscriptions::add)
+                                .take(1)
+                                .flatMap(replies))))
+                .bindNow();
+    }
+    
+    private void startClient() {
+        ArbitrageConfig config = new ArbitrageConfig();
+        config.getStream().getEndpoints().put(ExchangeType.BINANCE, "ws://localhost:" + server.port() + "/ws");
+        config.getStream().setReconnectMinDelay(50L);
+        config.getStream().setReconnectMaxDelay(200L);
+        client = new BinanceStreamingClient(config);
+        client.start(List.of("BTC/USDT"), listener);
+    }
+    
+    private static String bookTicker(long updateId, String bid, String ask) {
+        return String.format("{\"u\":%d,\"s\":\"BTCUSDT\",\"b\":\"%s\",\"B\":\"1.5\",\"a\":\"%s\",\"A\":\"2.5\"}",
+                updateId, bid, ask);
+    }
+    
+    private static class RecordingListener implements StreamListener {
+        
+        private final BlockingQueue<PriceDto> quotes = new LinkedBlockingQueue<>();
+        private final BlockingQueue<String> resyncs = new LinkedBlockingQueue<>();
+        
+        @Override
+        public void onQuote(PriceDto quote) {
+            quotes.add(quote);
+        }
+        
+        @Override
+        public void onResync(ExchangeType exchangeType, String symbol) {
+            resyncs.add(symbol);
+        }
+    }
+}
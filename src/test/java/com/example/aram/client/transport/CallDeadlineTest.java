@@ -0,0 +1,87 @@
+package com.example.aram.client.transport;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that calls made inside a deadline have their Feign timeouts cut to the time left
+ */
+class CallDeadlineTest {
+    
+    private static final Request.Options OPTIONS = new Request.Options(
+            10, TimeUnit.SECONDS, 10, TimeUnit.SECONDS, true);
+    
+    private final AtomicReference<Request.Options> sent = new AtomicReference<>();
+    private final Client transport = CallDeadline.bound((request, options) -> {
+        sent.set(options);
+        return Response.builder()
+                .request(request)
+                .status(200)
+                .headers(Collections.emptyMap())
+                .body("{}", StandardCharsets.UTF_8)
+                .build();
+    });
+    
+    @Test
+    void leavesTimeoutsAloneWithoutDeadline() throws Exception {
+        transport.execute(request(), OPTIONS);
+        
+        assertThat(sent.get()).isSameAs(OPTIONS);
+    }
+    
+    @Test
+    void cutsTimeoutsToTheTimeLeft() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        
+        CallDeadline.callBefore(deadline, () -> execute(request()));
+        
+        assertThat(sent.get().readTimeoutMillis()).isBetween(1, 500);
+        assertThat(sent.get().connectTimeoutMillis()).isBetween(1, 500);
+        assertThat(sent.get().isFollowRedirects()).isTrue();
+    }
+    
+    @Test
+    void keepsTheEarlierOfNestedDeadlines() {
+        long outer = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+        long inner = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        
+        CallDeadline.callBefore(outer, () -> CallDeadline.callBefore(inner, () -> execute(request())));
+        assertThat(sent.get().readTimeoutMillis()).isBetween(1, 300);
+        
+        execute(request());
+        assertThat(sent.get()).isSameAs(OPTIONS);
+    }
+    
+    @Test
+    void failsCallsMadeAfterTheDeadline() {
+        long deadline = System.nanoTime() - 1;
+        
+        assertThatThrownBy(() -> CallDeadline.callBefore(deadline, () -> execute(request())))
+                .hasCauseInstanceOf(SocketTimeoutException.class);
+        assertThat(sent.get()).isNull();
+    }
+    
+    private Response execute(Request request) {
+        try {
+            return transport.execute(request, OPTIONS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "http://localhost/api", Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, null);
+    }
+}
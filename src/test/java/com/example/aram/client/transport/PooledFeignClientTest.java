@@ -0,0 +1,147 @@
+package com.example.aram.client.transport;
+
+import com.example.aram.client.MockExchangeServer;
+import com.example.aram.client.MockExchangeServer.RecordedRequest;
+import com.example.aram.client.health.ExchangeHealth;
+import com.example.aram.client.hedge.RequestHedging;
+import com.example.aram.client.ratelimit.ExchangeRateLimiter;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.TransportStatsDto;
+import com.example.aram.enums.ExchangeType;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Sends calls through the pooled transport of {@link FeignTransports} to a local mock exchange and checks
+ * what reaches the exchange, what comes back to Feign and how often a connection was reused
+ */
+class PooledFeignClientTest {
+    
+    private static final Request.Options OPTIONS = new Request.Options(
+            1, TimeUnit.SECONDS, 1, TimeUnit.SECONDS, true);
+    
+    private final MockExchangeServer server = new MockExchangeServer();
+    private final ArbitrageConfig config = new ArbitrageConfig();
+    private final FeignTransports transports;
+    private final Client client;
+    
+    PooledFeignClientTest() {
+        config.getTransport().setEnabled(true);
+        config.getTransport().setCompression(false);
+        transports = new FeignTransports(config, new ExchangeHealth(config),
+                new RequestHedging(config, new ExchangeRateLimiter(config, List.of()), mock(ExecutorService.class)));
+        client = transports.client(ExchangeType.BINANCE, OPTIONS);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        transports.shutdown();
+        server.close();
+    }
+    
+    @Test
+    void returnsTheStatusHeadersAndBody() throws Exception {
+        server.reply("GET", "/api/v3/ticker/bookTicker", "{\"symbol\":\"BTCUSDT\"}");
+        
+        Response response = client.execute(request("GET", "/api/v3/ticker/bookTicker?symbol=BTCUSDT",
+                Map.of("X-MBX-APIKEY", List.of("key")), null), OPTIONS);
+        
+        assertThat(response.status()).isEqualTo(200);
+        assertThat(response.headers().get("content-type")).containsExactly("application/json");
+        assertThat(Util.toString(response.body().asReader(StandardCharsets.UTF_8)))
+                .isEqualTo("{\"symbol\":\"BTCUSDT\"}");
+        RecordedRequest recorded = server.takeRequest();
+        assertThat(recorded.getQuery()).isEqualTo("symbol=BTCUSDT");
+        assertThat(recorded.getHeader("X-MBX-APIKEY")).isEqualTo("key");
+    }
+    
+    @Test
+    void passesErrorStatusesToFeign() throws Exception {
+        Response response = client.execute(request("GET", "/missing", Collections.emptyMap(), null), OPTIONS);
+        
+        assertThat(response.status()).isEqualTo(404);
+        assertThat(transports.stats().get(0).getFailures()).isZero();
+    }
+    
+    @Test
+    void sendsTheRequestBody() throws Exception {
+        server.reply("POST", "/api/v3/order", "{}");
+        
+        client.execute(request("POST", "/api/v3/order",
+                Map.of("Content-Type", List.of("application/x-www-form-urlencoded")),
+                "symbol=BTCUSDT&side=BUY"), OPTIONS);
+        
+        RecordedRequest recorded = server.takeRequest();
+        assertThat(recorded.getMethod()).isEqualTo("POST");
+        assertThat(recorded.getBody()).isEqualTo("symbol=BTCUSDT&side=BUY");
+        assertThat(recorded.getHeader("Content-Type")).isEqualTo("application/x-www-form-urlencoded");
+    }
+    
+    @Test
+    void reusesTheKeptAliveConnection() throws Exception {
+        server.reply("GET", "/ticker", "{}");
+        
+        for (int call = 0; call < 3; call++) {
+            client.execute(request("GET", "/ticker", Collections.emptyMap(), null), OPTIONS).close();
+            // The connection goes back to the pool just after the answer is handed over
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        
+        TransportStatsDto stats = transports.stats().get(0);
+        assertThat(stats.getExchange()).isEqualTo(ExchangeType.BINANCE);
+        assertThat(stats.getRequests()).isEqualTo(3);
+        assertThat(stats.getConnectionsOpened()).isEqualTo(1);
+        assertThat(stats.getConnectionsReused()).isEqualTo(2);
+    }
+    
+    @Test
+    void reportsAReadTimeoutAsSocketTimeout() {
+        server.reply("GET", "/ticker", "{}");
+        server.delayNext("GET", "/ticker", Duration.ofMillis(500));
+        Request.Options shortRead = new Request.Options(1, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS, true);
+        
+        assertThatThrownBy(() -> client.execute(request("GET", "/ticker", Collections.emptyMap(), null), shortRead))
+                .isInstanceOf(SocketTimeoutException.class)
+                .hasMessageContaining("Read timed out");
+        assertThat(transports.stats().get(0).getFailures()).isEqualTo(1);
+    }
+    
+    @Test
+    void reportsOtherFailuresAsIOException() {
+        String closed;
+        try (MockExchangeServer gone = new MockExchangeServer()) {
+            closed = gone.url();
+        }
+        Request request = Request.create(Request.HttpMethod.GET, closed + "/ticker", Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, null);
+        
+        assertThatThrownBy(() -> client.execute(request, OPTIONS))
+                .isInstanceOf(IOException.class)
+                .isNotInstanceOf(SocketTimeoutException.class);
+        assertThat(transports.stats().get(0).getFailures()).isEqualTo(1);
+    }
+    
+    private Request request(String method, String path, Map<String, Collection<String>> headers, String body) {
+        return Request.create(Request.HttpMethod.valueOf(method), server.url() + path, headers,
+                body == null ? null : body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.aram.market;
+
+import com.example.aram.enums.ExchangeType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reserves, settles and reconciles balances on one exchange and checks what stays available
+ */
+class BalanceLedgerTest {
+    
+    private final BalanceLedger ledger = new BalanceLedger();
+    
+    @Test
+    void reservesOnlyWhatIsAvailable() {
+        ledger.adjust(ExchangeType.BINANCE, "USDT", new BigDecimal("100"));
+        
+        BalanceLedger.Reservation first = ledger.reserve(ExchangeType.BINANCE, "USDT", new BigDecimal("60"));
+        
+        assertThat(first).isNotNull();
+        assertThat(first.getAmount()).isEqualByComparingTo("60");
+        assertThat(available("USDT")).isEqualByComparingTo("40");
+        assertThat(ledger.reserve(ExchangeType.BINANCE, "USDT", new BigDecimal("41"))).isNull();
+        assertThat(ledger.reserve(ExchangeType.BINANCE, "BTC", BigDecimal.ONE)).isNull();
+        assertThat(ledger.reserve(ExchangeType.KRAKEN, "USDT", BigDecimal.ONE)).isNull();
+        assertThat(ledger.available(ExchangeType.KRAKEN, "USDT")).isEqualByComparingTo("0");
+    }
+    
+    @Test
+    void releaseGivesTheFundsBack() {
+        ledger.adjust(ExchangeType.BINANCE, "USDT", new BigDecimal("100"));
+        BalanceLedger.Reservation reservation = ledger.reserve(ExchangeType.BINANCE, "USDT", new BigDecimal("100"));
+        
+        ledger.release(reservation);
+        
+        assertThat(available("USDT")).isEqualByComparingTo("100");
+    }
+    
+    @Test
+    void settleReplacesTheReservationWithWhatWasSpent() {
+        ledger.adjust(ExchangeType.BINANCE, "USDT", new BigDecimal("100"));
+        BalanceLedger.Reservation reservation = ledger.reserve(ExchangeType.BINANCE, "USDT", new BigDecimal("60"));
+        
+        ledger.settle(reservation, new BigDecimal("45"));
+        
+        assertThat(available("USDT")).isEqualByComparingTo("55");
+        assertThat(ledger.reserve(ExchangeType.BINANCE, "USDT", new BigDecimal("55"))).isNotNull();
+    }
+    
+    @Test
+    void neverShowsANegativeBalance() {
+        ledger.adjust(ExchangeType.BINANCE, "USDT", new BigDecimal("10"));
+        ledger.adjust(ExchangeType.BINANCE, "USDT", new BigDecimal("-15"));
+        
+        assertThat(available("USDT")).isEqualByComparingTo("0");
+        assertThat(ledger.reserve(ExchangeType.BINANCE, "USDT", BigDecimal.ZERO)).isNull();
+    }
+    
+    @Test
+    void reconcileKeepsReservationsAndZeroesCurrenciesLeftOut() {
+        ledger.adjust(ExchangeType.BINANCE, "USDT", new BigDecimal("100"));
+        ledger.adjust(ExchangeType.BINANCE, "ETH", new BigDecimal("2"));
+        ledger.reserve(ExchangeType.BINANCE, "USDT", new BigDecimal("30"));
+        
+        ledger.reconcile(ExchangeType.BINANCE, Map.of("USDT", new BigDecimal("80"), "BTC", new BigDecimal("1")),
+                System.nanoTime());
+        
+        assertThat(available("USDT")).isEqualByComparingTo("50");
+        assertThat(available("BTC")).isEqualByComparingTo("1");
+        assertThat(available("ETH")).isEqualByComparingTo("0");
+    }
+    
+    @Test
+    void reconcileLeavesBalancesChangedByALaterFill() {
+        long fetchStarted = System.nanoTime();
+        ledger.adjust(ExchangeType.BINANCE, "USDT", new BigDecimal("100"));
+        
+        ledger.reconcile(ExchangeType.BINANCE, Map.of("USDT", new BigDecimal("80")), fetchStarted);
+        
+        assertThat(available("USDT")).isEqualByComparingTo("100");
+        
+        ledger.reconcile(ExchangeType.BINANCE, Map.of("USDT", new BigDecimal("80")), System.nanoTime());
+        assertThat(available("USDT")).isEqualByComparingTo("80");
+    }
+    
+    @Test
+    void concurrentReservationsNeverOverdraw() throws Exception {
+        ledger.adjust(ExchangeType.BINANCE, "USDT", new BigDecimal("1000"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int reserved = 0;
+                    for (int i = 0; i < 200; i++) {
+                        if (ledger.reserve(ExchangeType.BINANCE, "USDT", BigDecimal.ONE) != null) {
+                            reserved++;
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get(10, TimeUnit.SECONDS);
+            }
+            
+            assertThat(total).isEqualTo(1000);
+            assertThat(available("USDT")).isEqualByComparingTo("0");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private BigDecimal available(String currency) {
+        return ledger.available(ExchangeType.BINANCE, currency);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.aram.market;
+
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that quote changes reach the listener on the executor, latest quote only and one drain at a time
+ */
+class ConflatedQuoteListenerTest {
+    
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final List<PriceDto> delivered = new ArrayList<>();
+    
+    @Test
+    void onlyRecordsTheQuoteOnTheIngestingThread() {
+        ConflatedQuoteListener listener = new ConflatedQuoteListener(delivered::add, tasks::add);
+        
+        listener.onQuoteChanged(quote(ExchangeType.BINANCE, "BTC/USDT", "100"));
+        
+        assertThat(delivered).isEmpty();
+        assertThat(tasks).hasSize(1);
+    }
+    
+    @Test
+    void deliversOnlyTheLatestQuoteOfEachExchangeAndSymbol() {
+        ConflatedQuoteListener listener = new ConflatedQuoteListener(delivered::add, tasks::add);
+        
+        listener.onQuoteChanged(quote(ExchangeType.BINANCE, "BTC/USDT", "100"));
+        listener.onQuoteChanged(quote(ExchangeType.BINANCE, "BTC/USDT", "101"));
+        listener.onQuoteChanged(quote(ExchangeType.KRAKEN, "BTC/USDT", "99"));
+        runTasks();
+        
+        assertThat(delivered).hasSize(2);
+        assertThat(delivered).extracting(PriceDto::getBidPrice)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactlyInAnyOrder(new BigDecimal("101"), new BigDecimal("99"));
+    }
+    
+    @Test
+    void schedulesOneDrainUntilItCatchesUp() {
+        ConflatedQuoteListener listener = new ConflatedQuoteListener(quote -> {
+            delivered.add(quote);
+            if (delivered.size() == 1) {
+                throw new IllegalStateException("listener failed");
+            }
+        }, tasks::add);
+        
+        listener.onQuoteChanged(quote(ExchangeType.BINANCE, "BTC/USDT", "100"));
+        listener.onQuoteChanged(quote(ExchangeType.BINANCE, "ETH/USDT", "10"));
+        assertThat(tasks).hasSize(1);
+        runTasks();
+        listener.onQuoteChanged(quote(ExchangeType.BINANCE, "BTC/USDT", "102"));
+        
+        assertThat(tasks).hasSize(1);
+        runTasks();
+        assertThat(delivered).hasSize(3);
+    }
+    
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+    
+    private static PriceDto quote(ExchangeType exchange, String symbol, String bid) {
+        return PriceDto.builder()
+                .exchange(exchange)
+                .symbol(symbol)
+                .bidPrice(new BigDecimal(bid))
+                .askPrice(new BigDecimal(bid).add(BigDecimal.ONE))
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.aram.market;
+
+import com.example.aram.enums.ExchangeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Builds BTC/USDT on Binance and Kraken with transfers between them and checks which cycles the searches report
+ */
+class CrossExchangeGraphTest {
+    
+    private static final String SYMBOL = "BTC/USDT";
+    
+    private final CrossExchangeGraph graph = new CrossExchangeGraph();
+    
+    @Test
+    void findsTheBuyTransferSellTransferCycle() {
+        twoExchanges(99, 100, 102, 103);
+        
+        List<CrossExchangeGraph.Cycle> found = searchAll(4, 0);
+        
+        // Buy BTC on Binance at 100, move it to Kraken, sell at 102 and move the USDT back
+        assertThat(found).hasSize(1);
+        CrossExchangeGraph.Cycle cycle = found.get(0);
+        assertThat(cycle.getLogReturn()).isCloseTo(Math.log(102.0 / 100), within(1e-12));
+        assertThat(graph.logReturn(cycle, graph.rates())).isCloseTo(cycle.getLogReturn(), within(1e-12));
+        int transfers = 0;
+        for (int leg = 0; leg < cycle.length(); leg++) {
+            int edge = cycle.edge(leg);
+            int next = cycle.edge((leg + 1) % cycle.length());
+            assertThat(graph.edgeTarget(edge)).isEqualTo(graph.edgeSource(next));
+            if (graph.isTransfer(edge)) {
+                transfers++;
+            } else {
+                assertThat(graph.edgeSymbol(edge)).isEqualTo(SYMBOL);
+                assertThat(graph.isSell(edge)).isEqualTo(graph.nodeExchange(graph.edgeSource(edge))
+                        == ExchangeType.KRAKEN);
+            }
+        }
+        assertThat(transfers).isEqualTo(2);
+    }
+    
+    @Test
+    void respectsTheLegLimitAndNeverChainsTransfers() {
+        twoExchanges(99, 100, 102, 103);
+        
+        assertThat(searchAll(3, 0)).isEmpty();
+        // The only two-leg cycles are a trade and its reverse, or a transfer and its reverse
+        assertThat(searchAll(2, Double.NEGATIVE_INFINITY)).isEmpty();
+    }
+    
+    @Test
+    void searchThroughAnEdgeFindsTheCyclesThatTakeIt() {
+        int kraken = twoExchanges(99, 100, 102, 103);
+        List<CrossExchangeGraph.Cycle> found = new ArrayList<>();
+        
+        graph.searchThrough(kraken, 4, 0, graph.rates(), found);
+        
+        assertThat(found).hasSize(1);
+        assertThat(found.get(0).edge(0)).isEqualTo(kraken);
+        assertThat(found.get(0).getLogReturn()).isCloseTo(Math.log(102.0 / 100), within(1e-12));
+        
+        found.clear();
+        graph.searchThrough(kraken + 1, 4, 0, graph.rates(), found);
+        assertThat(found).isEmpty();
+    }
+    
+    @Test
+    void chargesTakerCostsAndWithdrawalFees() {
+        int binance = graph.addPair(ExchangeType.BINANCE, SYMBOL, "BTC", "USDT", Math.log(1 - 0.001));
+        int kraken = graph.addPair(ExchangeType.KRAKEN, SYMBOL, "BTC", "USDT", Math.log(1 - 0.001));
+        double[] withdrawalLog = new double[ExchangeType.values().length];
+        withdrawalLog[ExchangeType.BINANCE.ordinal()] = Math.log(1 - 0.005);
+        graph.addTransfers(withdrawalLog);
+        graph.update(binance, 99, 100);
+        graph.update(kraken, 102, 103);
+        
+        List<CrossExchangeGraph.Cycle> found = searchAll(4, 0);
+        
+        double expected = Math.log(102.0 / 100 * 0.999 * 0.999 * 0.995);
+        assertThat(found).hasSize(1);
+        assertThat(found.get(0).getLogReturn()).isCloseTo(expected, within(1e-12));
+        assertThat(searchAll(4, expected + 1e-9)).isEmpty();
+    }
+    
+    @Test
+    void skipsUnquotedAndUnpricedEdges() {
+        int binance = graph.addPair(ExchangeType.BINANCE, SYMBOL, "BTC", "USDT", 0);
+        int kraken = graph.addPair(ExchangeType.KRAKEN, SYMBOL, "BTC", "USDT", 0);
+        graph.addTransfers(new double[ExchangeType.values().length]);
+        graph.update(kraken, 102, 103);
+        
+        assertThat(searchAll(4, Double.NEGATIVE_INFINITY)).isEmpty();
+        
+        // Without an ask only the cycle selling on Binance and buying on Kraken can be priced
+        graph.update(binance, 99, 0);
+        List<CrossExchangeGraph.Cycle> found = searchAll(4, Double.NEGATIVE_INFINITY);
+        assertThat(found).hasSize(1);
+        assertThat(found.get(0).getLogReturn()).isCloseTo(Math.log(99.0 / 103), within(1e-12));
+    }
+    
+    @Test
+    void snapshotIsNotAffectedByLaterUpdates() {
+        int kraken = twoExchanges(99, 100, 102, 103);
+        double[] snapshot = graph.snapshot();
+        
+        assertThat(graph.update(kraken, 102, 103)).isFalse();
+        assertThat(graph.update(kraken, 99.5, 100.5)).isTrue();
+        
+        assertThat(snapshot[kraken]).isCloseTo(Math.log(102), within(1e-12));
+        assertThat(graph.rates()[kraken]).isCloseTo(Math.log(99.5), within(1e-12));
+        List<CrossExchangeGraph.Cycle> found = new ArrayList<>();
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            graph.searchFrom(node, 4, 0, snapshot, found);
+        }
+        assertThat(found).hasSize(1);
+        assertThat(searchAll(4, 0)).isEmpty();
+    }
+    
+    @Test
+    void fixesTheTopologyOnceTransfersAreAdded() {
+        int binance = graph.addPair(ExchangeType.BINANCE, SYMBOL, "BTC", "USDT", 0);
+        
+        assertThat(graph.addPair(ExchangeType.BINANCE, SYMBOL, "BTC", "USDT", 0)).isEqualTo(binance);
+        assertThat(graph.addPair(ExchangeType.BINANCE, "USDT/USDT", "USDT", "USDT", 0)).isEqualTo(-1);
+        assertThat(graph.tradeEdge(ExchangeType.BINANCE, SYMBOL)).isEqualTo(binance);
+        assertThat(graph.tradeEdge(ExchangeType.KRAKEN, SYMBOL)).isEqualTo(-1);
+        
+        graph.addTransfers(new double[ExchangeType.values().length]);
+        
+        assertThat(graph.edgeCount()).isEqualTo(2);
+        assertThatThrownBy(() -> graph.addPair(ExchangeType.KRAKEN, SYMBOL, "BTC", "USDT", 0))
+                .isInstanceOf(IllegalStateException.class);
+    }
+    
+    /**
+     * @return id of Kraken's selling edge
+     */
+    private int twoExchanges(double binanceBid, double binanceAsk, double krakenBid, double krakenAsk) {
+        int binance = graph.addPair(ExchangeType.BINANCE, SYMBOL, "BTC", "USDT", 0);
+        int kraken = graph.addPair(ExchangeType.KRAKEN, SYMBOL, "BTC", "USDT", 0);
+        graph.addTransfers(new double[ExchangeType.values().length]);
+        graph.update(binance, binanceBid, binanceAsk);
+        graph.update(kraken, krakenBid, krakenAsk);
+        return kraken;
+    }
+    
+    private List<CrossExchangeGraph.Cycle> searchAll(int maxLegs, double minLogReturn) {
+        List<CrossExchangeGraph.Cycle> found = new ArrayList<>();
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            graph.searchFrom(node, maxLegs, minLogReturn, graph.rates(), found);
+        }
+        return found;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.aram.market;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Builds small currency graphs and checks which triangles they index and report
+ */
+class CurrencyGraphTest {
+    
+    private final CurrencyGraph graph = new CurrencyGraph();
+    
+    @Test
+    void indexesATriangleWhenItsLastPairArrives() {
+        int btcUsdt = graph.addPair("BTC/USDT", "BTC", "USDT");
+        graph.addPair("ETH/BTC", "ETH", "BTC");
+        assertThat(graph.triangleCount()).isZero();
+        
+        graph.addPair("ETH/USDT", "ETH", "USDT");
+        
+        assertThat(graph.triangleCount()).isEqualTo(1);
+        assertThat(graph.addPair("BTC/USDT", "BTC", "USDT")).isEqualTo(btcUsdt);
+        assertThat(graph.addPair("USDT/BTC", "USDT", "BTC")).isEqualTo(-1);
+        assertThat(graph.addPair("USDT/USDT", "USDT", "USDT")).isEqualTo(-1);
+        assertThat(graph.pairCount()).isEqualTo(3);
+        assertThat(graph.pairId("XRP/USDT")).isEqualTo(-1);
+    }
+    
+    @Test
+    void reportsOnlyTheDirectionThatPays() {
+        int btcUsdt = triangle();
+        graph.update(btcUsdt, 30000, 30010);
+        graph.update(graph.pairId("ETH/BTC"), 0.07, 0.0701);
+        graph.update(graph.pairId("ETH/USDT"), 2200, 2201);
+        List<Integer> cycles = new ArrayList<>();
+        List<Double> returns = new ArrayList<>();
+        
+        int found = graph.evaluate(btcUsdt, 0, (cycle, logReturn) -> {
+            cycles.add(cycle);
+            returns.add(logReturn);
+        });
+        
+        // USDT -> BTC at 30010, BTC -> ETH at 0.0701, ETH -> USDT at 2200
+        assertThat(found).isEqualTo(1);
+        double expected = Math.log(2200 / (30010 * 0.0701));
+        assertThat(returns.get(0)).isCloseTo(expected, within(1e-12));
+        assertThat(graph.cycleLogReturn(cycles.get(0))).isCloseTo(expected, within(1e-12));
+        assertThat(graph.cycleLogReturn(cycles.get(0) ^ 1)).isCloseTo(Math.log(0.07 * 30000 / 2201), within(1e-12));
+    }
+    
+    @Test
+    void cycleLegsChainFromCurrencyToCurrency() {
+        triangle();
+        graph.update(graph.pairId("BTC/USDT"), 30000, 30010);
+        graph.update(graph.pairId("ETH/BTC"), 0.07, 0.0701);
+        graph.update(graph.pairId("ETH/USDT"), 2200, 2201);
+        
+        for (int cycle = 0; cycle < 2; cycle++) {
+            double product = 1;
+            Set<String> sources = new HashSet<>();
+            Set<String> symbols = new HashSet<>();
+            for (int leg = 0; leg < 3; leg++) {
+                int edge = graph.cycleEdge(cycle, leg);
+                sources.add(graph.edgeSource(edge));
+                symbols.add(graph.edgeSymbol(edge));
+                product *= graph.isSell(edge) ? graph.edgePrice(edge) : 1 / graph.edgePrice(edge);
+            }
+            assertThat(sources).containsExactlyInAnyOrder("BTC", "ETH", "USDT");
+            assertThat(symbols).containsExactlyInAnyOrder("BTC/USDT", "ETH/BTC", "ETH/USDT");
+            assertThat(Math.log(product)).isCloseTo(graph.cycleLogReturn(cycle), within(1e-12));
+        }
+    }
+    
+    @Test
+    void neverReportsCyclesWithAnUnquotedOrUnpricedLeg() {
+        int btcUsdt = triangle();
+        graph.update(btcUsdt, 30000, 30010);
+        graph.update(graph.pairId("ETH/USDT"), 2200, 2201);
+        
+        assertThat(graph.evaluate(btcUsdt, Double.NEGATIVE_INFINITY, (cycle, logReturn) -> { })).isZero();
+        
+        // Without a bid only the direction that buys ETH with BTC can be priced
+        graph.update(graph.pairId("ETH/BTC"), 0, 0.0701);
+        assertThat(graph.evaluate(btcUsdt, Double.NEGATIVE_INFINITY, (cycle, logReturn) -> { })).isEqualTo(1);
+    }
+    
+    @Test
+    void reportsPriceChangesOnly() {
+        int btcUsdt = triangle();
+        
+        assertThat(graph.update(btcUsdt, 30000, 30010)).isTrue();
+        assertThat(graph.update(btcUsdt, 30000, 30010)).isFalse();
+        assertThat(graph.update(btcUsdt, 30000, 30011)).isTrue();
+    }
+    
+    @Test
+    void evaluatesOnlyTrianglesThroughThePair() {
+        triangle();
+        int solUsdc = graph.addPair("SOL/USDC", "SOL", "USDC");
+        graph.update(solUsdc, 100, 100.1);
+        
+        assertThat(graph.evaluate(solUsdc, Double.NEGATIVE_INFINITY, (cycle, logReturn) -> { })).isZero();
+    }
+    
+    private int triangle() {
+        int btcUsdt = graph.addPair("BTC/USDT", "BTC", "USDT");
+        graph.addPair("ETH/BTC", "ETH", "BTC");
+        graph.addPair("ETH/USDT", "ETH", "USDT");
+        return btcUsdt;
+    }
+}
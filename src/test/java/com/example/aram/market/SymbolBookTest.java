@@ -0,0 +1,88 @@
+package com.example.aram.market;
+
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the bid and ask orderings follow every update of the per-exchange slots
+ */
+class SymbolBookTest {
+    
+    private final SymbolBook book = new SymbolBook(ExchangeType.values().length);
+    
+    @Test
+    void ordersAsksUpAndBidsDown() {
+        update(ExchangeType.BINANCE, "100", "101");
+        update(ExchangeType.KRAKEN, "102", "103");
+        update(ExchangeType.OKX, "99", "100.5");
+        
+        assertThat(book.bestAsk().getExchange()).isEqualTo(ExchangeType.OKX);
+        assertThat(book.bestBid().getExchange()).isEqualTo(ExchangeType.KRAKEN);
+        assertThat(exchanges(true)).containsExactly(ExchangeType.OKX, ExchangeType.BINANCE, ExchangeType.KRAKEN);
+        assertThat(exchanges(false)).containsExactly(ExchangeType.KRAKEN, ExchangeType.BINANCE, ExchangeType.OKX);
+    }
+    
+    @Test
+    void repositionsAQuoteWhenItIsReplaced() {
+        update(ExchangeType.BINANCE, "100", "101");
+        update(ExchangeType.KRAKEN, "102", "103");
+        ScaledQuote previous = update(ExchangeType.BINANCE, "104", "105");
+        
+        assertThat(previous.getPrice().getBidPrice()).isEqualByComparingTo("100");
+        assertThat(book.bestBid().getExchange()).isEqualTo(ExchangeType.BINANCE);
+        assertThat(book.bestAsk().getExchange()).isEqualTo(ExchangeType.KRAKEN);
+        assertThat(exchanges(true)).containsExactly(ExchangeType.KRAKEN, ExchangeType.BINANCE);
+    }
+    
+    @Test
+    void dropsASideTheQuoteNoLongerHas() {
+        update(ExchangeType.BINANCE, "100", "101");
+        update(ExchangeType.COINBASE, "99", "102");
+        update(ExchangeType.BINANCE, null, "101");
+        
+        assertThat(exchanges(false)).containsExactly(ExchangeType.COINBASE);
+        assertThat(exchanges(true)).containsExactly(ExchangeType.BINANCE, ExchangeType.COINBASE);
+        assertThat(book.get(ExchangeType.BINANCE.ordinal()).hasBid()).isFalse();
+    }
+    
+    @Test
+    void comparesPricesBeyondEightDecimalsExactly() {
+        update(ExchangeType.BINANCE, "100.000000001", "100.000000003");
+        update(ExchangeType.BYBIT, "100.000000002", "100.000000002");
+        
+        assertThat(book.bestBid().getExchange()).isEqualTo(ExchangeType.BYBIT);
+        assertThat(book.bestAsk().getExchange()).isEqualTo(ExchangeType.BYBIT);
+    }
+    
+    @Test
+    void hasNoBestPricesWhenEmpty() {
+        assertThat(book.bestBid()).isNull();
+        assertThat(book.bestAsk()).isNull();
+        assertThat(book.copyByAsk(new ScaledQuote[ExchangeType.values().length])).isZero();
+    }
+    
+    private ScaledQuote update(ExchangeType exchange, String bid, String ask) {
+        PriceDto price = PriceDto.builder()
+                .exchange(exchange)
+                .symbol("BTC/USDT")
+                .bidPrice(bid != null ? new BigDecimal(bid) : null)
+                .askPrice(ask != null ? new BigDecimal(ask) : null)
+                .build();
+        return book.update(exchange.ordinal(), ScaledQuote.of(price));
+    }
+    
+    private ExchangeType[] exchanges(boolean byAsk) {
+        ScaledQuote[] quotes = new ScaledQuote[ExchangeType.values().length];
+        int count = byAsk ? book.copyByAsk(quotes) : book.copyByBid(quotes);
+        ExchangeType[] exchanges = new ExchangeType[count];
+        for (int i = 0; i < count; i++) {
+            exchanges[i] = quotes[i].getExchange();
+        }
+        return exchanges;
+    }
+}
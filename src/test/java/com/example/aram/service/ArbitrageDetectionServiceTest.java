@@ -0,0 +1,255 @@
+package com.example.aram.service;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.DetectionStrategy;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.market.FeeSchedule;
+import com.example.aram.market.OrderBook;
+import com.example.aram.market.OrderBookStore;
+import com.example.aram.market.QuoteStore;
+import com.example.aram.model.ArbitrageOpportunity;
+import com.example.aram.repository.ArbitrageOpportunityRepository;
+import com.example.aram.util.ArbitrageCalculator;
+import com.example.aram.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs detection over in-memory quotes, with the repository and fee cache mocked
+ */
+class ArbitrageDetectionServiceTest {
+    
+    private static final String SYMBOL = "BTC/USDT";
+    
+    private final ArbitrageConfig config = new ArbitrageConfig();
+    private final ExchangeFeeCache feeCache = mock(ExchangeFeeCache.class);
+    private final QuoteStore quoteStore = new QuoteStore();
+    private final OrderBookStore orderBookStore = new OrderBookStore(config);
+    private final ArbitrageDetectionService detectionService = new ArbitrageDetectionService(quoteStore,
+            mock(ArbitrageOpportunityRepository.class), new ArbitrageCalculator(), config, feeCache,
+            orderBookStore);
+    
+    @Test
+    void bestPriceWalkFindsTheSamePairsAsPairwise() {
+        Random random = new Random(8);
+        for (int round = 0; round < 2_000; round++) {
+            when(feeCache.current()).thenReturn(randomFees(random));
+            QuoteStore store = new QuoteStore();
+            PriceDto last = null;
+            for (ExchangeType exchange : ExchangeType.values()) {
+                if (random.nextInt(6) > 0) {
+                    last = randomQuote(random, exchange);
+                    store.update(last);
+                }
+            }
+            if (last == null) {
+                continue;
+            }
+            BigDecimal minProfit = BigDecimal.valueOf(random.nextInt(40) - 10, 2);
+            
+            config.setDetectionStrategy(DetectionStrategy.PAIRWISE);
+            List<String> pairwise = pairs(detectionService.findOpportunitiesForQuote(store, last, minProfit));
+            config.setDetectionStrategy(DetectionStrategy.BEST_PRICE);
+            List<String> bestPrice = pairs(detectionService.findOpportunitiesForQuote(store, last, minProfit));
+            
+            assertThat(bestPrice).as("round %d", round).isEqualTo(pairwise);
+        }
+    }
+    
+    @Test
+    void bestPriceWalkScansTheWholeSymbolLikePairwise() {
+        Random random = new Random(80);
+        for (int round = 0; round < 500; round++) {
+            when(feeCache.current()).thenReturn(randomFees(random));
+            QuoteStore store = new QuoteStore();
+            for (ExchangeType exchange : ExchangeType.values()) {
+                store.update(randomQuote(random, exchange));
+            }
+            BigDecimal minProfit = BigDecimal.valueOf(random.nextInt(40), 2);
+            
+            config.setDetectionStrategy(DetectionStrategy.PAIRWISE);
+            List<String> pairwise = pairs(detectWith(store, minProfit));
+            config.setDetectionStrategy(DetectionStrategy.BEST_PRICE);
+            List<String> bestPrice = pairs(detectWith(store, minProfit));
+            
+            assertThat(bestPrice).as("round %d", round).isEqualTo(pairwise);
+        }
+    }
+    
+    @Test
+    void deductsEachLegsCostsFromTheProfit() {
+        enableCosts(1_000, 1_000);
+        quote(ExchangeType.BINANCE, "99", "100", "2", "2");
+        quote(ExchangeType.KRAKEN, "100.5", "101", "0.5", "0.5");
+        
+        List<ArbitrageOpportunity> opportunities = detectionService.detectSimpleArbitrage(SYMBOL, 
+                new BigDecimal("0.25"));
+        
+        assertThat(opportunities).hasSize(1);
+        assertThat(opportunities.get(0).getProfitPercentage()).isEqualByComparingTo("0.30");
+        assertThat(detectionService.detectSimpleArbitrage(SYMBOL, new BigDecimal("0.35"))).isEmpty();
+    }
+    
+    @Test
+    void sizesToTheSmallerTopOfBookQuantity() {
+        enableCosts(1_000, 1_000);
+        quote(ExchangeType.BINANCE, "99", "100", "3", "2");
+        quote(ExchangeType.KRAKEN, "100.5", "101", "0.5", "4");
+        
+        ArbitrageOpportunity opportunity = detectionService.detectSimpleArbitrage(SYMBOL, BigDecimal.ZERO).get(0);
+        
+        // 0.5 bought at 100 plus 0.1% and sold at 100.5 less 0.1%
+        assertThat(opportunity.getVolume()).isEqualByComparingTo("0.5");
+        assertThat(opportunity.getEstimatedProfit()).isEqualByComparingTo("0.14975");
+    }
+    
+    @Test
+    void dropsPairsWhoseNetProfitIsTooSmallForTheirSize() {
+        enableCosts(1_000, 1_000);
+        config.getCosts().setMinNetProfit(new BigDecimal("0.2"));
+        quote(ExchangeType.BINANCE, "99", "100", "2", "2");
+        quote(ExchangeType.KRAKEN, "100.5", "101", "0.5", "0.5");
+        
+        assertThat(detectionService.detectSimpleArbitrage(SYMBOL, BigDecimal.ZERO)).isEmpty();
+        
+        quote(ExchangeType.KRAKEN, "100.5", "101", "2", "2");
+        assertThat(detectionService.detectSimpleArbitrage(SYMBOL, BigDecimal.ZERO)).hasSize(1);
+    }
+    
+    @Test
+    void assumesTheDefaultQuantityWhenNoSizeIsReported() {
+        enableCosts(0, 0);
+        config.getCosts().setDefaultQuantity(new BigDecimal("0.25"));
+        quote(ExchangeType.BINANCE, "99", "100", null, null);
+        quote(ExchangeType.KRAKEN, "102", "103", null, null);
+        
+        ArbitrageOpportunity opportunity = detectionService.detectSimpleArbitrage(SYMBOL, BigDecimal.ZERO).get(0);
+        
+        assertThat(opportunity.getVolume()).isEqualByComparingTo("0.25");
+        assertThat(opportunity.getEstimatedProfit()).isEqualByComparingTo("0.5");
+    }
+    
+    @Test
+    void sizesAgainstCurrentOrderBooks() {
+        enableCosts(0, 0);
+        config.getDepth().setEnabled(true);
+        long now = System.currentTimeMillis();
+        book(ExchangeType.BINANCE, now, false, "100", "1", "101", "2");
+        book(ExchangeType.KRAKEN, now, true, "102", "1.5", "100", "1");
+        quote(ExchangeType.BINANCE, "99", "100", "1", "1");
+        quote(ExchangeType.KRAKEN, "102", "103", "1.5", "1");
+        
+        ArbitrageOpportunity opportunity = detectionService.detectSimpleArbitrage(SYMBOL, BigDecimal.ZERO).get(0);
+        
+        assertThat(opportunity.getVolume()).isEqualByComparingTo("1.5");
+        assertThat(opportunity.getBuyVwap()).isEqualByComparingTo("100.33333333");
+        assertThat(opportunity.getSellVwap()).isEqualByComparingTo("102");
+        assertThat(opportunity.getEstimatedProfit()).isEqualByComparingTo("2.5");
+    }
+    
+    @Test
+    void fallsBackToTopOfBookWhenABookIsStale() {
+        enableCosts(0, 0);
+        config.getDepth().setEnabled(true);
+        long now = System.currentTimeMillis();
+        book(ExchangeType.BINANCE, now - config.getDepth().getMaxAge() - 1_000, false, "100", "1", "101", "2");
+        book(ExchangeType.KRAKEN, now, true, "102", "1.5", "100", "1");
+        quote(ExchangeType.BINANCE, "99", "100", "1", "1");
+        quote(ExchangeType.KRAKEN, "102", "103", "1.5", "1");
+        
+        ArbitrageOpportunity opportunity = detectionService.detectSimpleArbitrage(SYMBOL, BigDecimal.ZERO).get(0);
+        
+        assertThat(opportunity.getVolume()).isEqualByComparingTo("1");
+        assertThat(opportunity.getBuyVwap()).isNull();
+    }
+    
+    /**
+     * Load one side of an exchange's book from price and size pairs, best first
+     */
+    private void book(ExchangeType exchange, long timestamp, boolean bids, String... levels) {
+        OrderBook book = new OrderBook(config.getDepth().getLevels());
+        for (int i = 0; i < levels.length; i += 2) {
+            long price = FixedPoint.toScaled(new BigDecimal(levels[i]));
+            long size = FixedPoint.toScaled(new BigDecimal(levels[i + 1]));
+            if (bids) {
+                book.addBid(price, size);
+            } else {
+                book.addAsk(price, size);
+            }
+        }
+        book.setTimestamp(timestamp);
+        orderBookStore.update(exchange, SYMBOL, book);
+    }
+    
+    private void enableCosts(long binancePpm, long krakenPpm) {
+        config.getCosts().setEnabled(true);
+        long[] costPpm = new long[ExchangeType.values().length];
+        costPpm[ExchangeType.BINANCE.ordinal()] = binancePpm;
+        costPpm[ExchangeType.KRAKEN.ordinal()] = krakenPpm;
+        when(feeCache.current()).thenReturn(new FeeSchedule(costPpm));
+    }
+    
+    private void quote(ExchangeType exchange, String bid, String ask, String bidQuantity, String askQuantity) {
+        quoteStore.update(PriceDto.builder()
+                .exchange(exchange)
+                .symbol(SYMBOL)
+                .bidPrice(new BigDecimal(bid))
+                .askPrice(new BigDecimal(ask))
+                .bidQuantity(bidQuantity != null ? new BigDecimal(bidQuantity) : null)
+                .askQuantity(askQuantity != null ? new BigDecimal(askQuantity) : null)
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+    
+    private List<ArbitrageOpportunity> detectWith(QuoteStore store, BigDecimal minProfit) {
+        for (ExchangeType exchange : ExchangeType.values()) {
+            quoteStore.update(store.getQuote(exchange, SYMBOL));
+        }
+        return detectionService.detectSimpleArbitrage(SYMBOL, minProfit);
+    }
+    
+    /**
+     * Prices around 30000 a few tenths of a percent apart, some with a ninth decimal that forces the BigDecimal
+     * fallback and some missing a side
+     */
+    private static PriceDto randomQuote(Random random, ExchangeType exchange) {
+        BigDecimal mid = BigDecimal.valueOf(3_000_000_000_000L + random.nextInt(20_000_000) * 1_000L, 8);
+        if (random.nextInt(8) == 0) {
+            mid = mid.add(new BigDecimal("0.000000001"));
+        }
+        BigDecimal spread = BigDecimal.valueOf(random.nextInt(1_000_000_000), 8);
+        int side = random.nextInt(12);
+        return PriceDto.builder()
+                .exchange(exchange)
+                .symbol(SYMBOL)
+                .bidPrice(side == 0 ? null : mid.subtract(spread))
+                .askPrice(side == 1 ? null : mid.add(spread))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+    
+    private static FeeSchedule randomFees(Random random) {
+        long[] costPpm = new long[ExchangeType.values().length];
+        for (int i = 0; i < costPpm.length; i++) {
+            costPpm[i] = random.nextBoolean() ? 0 : random.nextInt(2_000);
+        }
+        return new FeeSchedule(costPpm);
+    }
+    
+    private static List<String> pairs(List<ArbitrageOpportunity> opportunities) {
+        return opportunities.stream()
+                .map(o -> o.getBuyExchange() + "->" + o.getSellExchange() + " " + o.getProfitPercentage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
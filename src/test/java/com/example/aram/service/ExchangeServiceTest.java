@@ -0,0 +1,75 @@
+package com.example.aram.service;
+
+import com.example.aram.client.ApiKeyRejectedException;
+import com.example.aram.client.ExchangeClient;
+import com.example.aram.client.ExchangeClientFactory;
+import com.example.aram.client.health.ExchangeHealth;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.market.OrderBookStore;
+import com.example.aram.model.Exchange;
+import com.example.aram.repository.ExchangeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks when the exchange rows holding the API credentials are read again, with the clients mocked
+ */
+class ExchangeServiceTest {
+    
+    private final ArbitrageConfig config = new ArbitrageConfig();
+    private final ExchangeRepository exchangeRepository = mock(ExchangeRepository.class);
+    private final ExchangeClientFactory clientFactory = mock(ExchangeClientFactory.class);
+    private final ExchangeClient client = mock(ExchangeClient.class);
+    private final ExchangeService exchangeService = new ExchangeService(exchangeRepository, clientFactory, config,
+            new OrderBookStore(config), new ExchangeHealth(config), mock(ExecutorService.class));
+    
+    ExchangeServiceTest() {
+        when(clientFactory.getClient(ExchangeType.BINANCE)).thenReturn(Optional.of(client));
+        when(exchangeRepository.findByExchangeType(ExchangeType.BINANCE))
+                .thenReturn(Optional.of(Exchange.builder().exchangeType(ExchangeType.BINANCE).build()));
+        when(client.getBalances(any())).thenReturn(Map.of("USDT", BigDecimal.TEN));
+    }
+    
+    @Test
+    void readsTheCredentialsOnceWhileTheyAreFresh() {
+        exchangeService.fetchBalances(ExchangeType.BINANCE);
+        exchangeService.fetchBalances(ExchangeType.BINANCE);
+        
+        verify(exchangeRepository, times(1)).findByExchangeType(ExchangeType.BINANCE);
+    }
+    
+    @Test
+    void readsTheCredentialsAgainAfterTheRefreshInterval() {
+        config.getExecution().setAccountRefresh(0L);
+        
+        exchangeService.fetchBalances(ExchangeType.BINANCE);
+        exchangeService.fetchBalances(ExchangeType.BINANCE);
+        
+        verify(exchangeRepository, times(2)).findByExchangeType(ExchangeType.BINANCE);
+    }
+    
+    @Test
+    void readsTheCredentialsAgainAfterTheKeyIsRejected() {
+        when(client.getBalances(any()))
+                .thenThrow(new ApiKeyRejectedException("Unauthorized - Invalid API key"))
+                .thenReturn(Map.of());
+        
+        assertThatThrownBy(() -> exchangeService.fetchBalances(ExchangeType.BINANCE))
+                .isInstanceOf(ApiKeyRejectedException.class);
+        exchangeService.fetchBalances(ExchangeType.BINANCE);
+        
+        verify(exchangeRepository, times(2)).findByExchangeType(ExchangeType.BINANCE);
+    }
+}
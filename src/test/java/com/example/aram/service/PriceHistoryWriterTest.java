@@ -0,0 +1,83 @@
+package com.example.aram.service;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.PriceDto;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.model.Price;
+import com.example.aram.repository.PriceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that unchanged quotes are only skipped once the row they repeat has actually been written
+ */
+class PriceHistoryWriterTest {
+    
+    private final PriceRepository priceRepository = mock(PriceRepository.class);
+    private final PriceHistoryWriter writer = new PriceHistoryWriter(priceRepository, config());
+    
+    @SuppressWarnings("unchecked")
+    private final ArgumentCaptor<List<Price>> rows = ArgumentCaptor.forClass(List.class);
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+    
+    @Test
+    void skipsAQuoteRepeatingTheLastWrittenRow() {
+        writer.start();
+        
+        writer.enqueue(quote("100"));
+        verify(priceRepository, timeout(2000)).saveAll(anyList());
+        writer.enqueue(quote("100"));
+        writer.enqueue(quote("101"));
+        
+        verify(priceRepository, timeout(2000).times(2)).saveAll(rows.capture());
+        assertThat(rows.getAllValues().get(1)).extracting(Price::getBidPrice)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("101"));
+    }
+    
+    @Test
+    void writesTheSameQuoteAgainAfterAFailedBatch() {
+        when(priceRepository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(null);
+        writer.start();
+        
+        writer.enqueue(quote("100"));
+        verify(priceRepository, timeout(2000)).saveAll(anyList());
+        writer.enqueue(quote("100"));
+        
+        verify(priceRepository, timeout(2000).times(2)).saveAll(anyList());
+    }
+    
+    private static ArbitrageConfig config() {
+        ArbitrageConfig config = new ArbitrageConfig();
+        config.getPersistence().setFlushInterval(10L);
+        return config;
+    }
+    
+    private static PriceDto quote(String bid) {
+        return PriceDto.builder()
+                .exchange(ExchangeType.BINANCE)
+                .symbol("BTC/USDT")
+                .bidPrice(new BigDecimal(bid))
+                .askPrice(new BigDecimal(bid).add(BigDecimal.ONE))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
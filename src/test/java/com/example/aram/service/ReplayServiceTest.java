@@ -0,0 +1,124 @@
+package com.example.aram.service;
+
+import com.example.aram.archive.TickArchive;
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.ArbitrageOpportunityDto;
+import com.example.aram.dto.ReplayResultDto;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.ReplaySource;
+import com.example.aram.market.FeeSchedule;
+import com.example.aram.market.OrderBookStore;
+import com.example.aram.market.QuoteStore;
+import com.example.aram.model.Price;
+import com.example.aram.repository.ArbitrageOpportunityRepository;
+import com.example.aram.repository.PriceRepository;
+import com.example.aram.util.ArbitrageCalculator;
+import com.example.aram.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replays stored history from the prices table and the tick archive through the real detection code
+ */
+class ReplayServiceTest {
+    
+    private static final String SYMBOL = "BTC/USDT";
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+    
+    @TempDir
+    Path directory;
+    
+    private final ArbitrageConfig config = new ArbitrageConfig();
+    private final PriceRepository priceRepository = mock(PriceRepository.class);
+    private final ExchangeFeeCache feeCache = mock(ExchangeFeeCache.class);
+    private final ArbitrageDetectionService detectionService = new ArbitrageDetectionService(new QuoteStore(),
+            mock(ArbitrageOpportunityRepository.class), new ArbitrageCalculator(), config, feeCache,
+            new OrderBookStore(config));
+    
+    @Test
+    void replaysTheDatabaseOneDayAtATime() {
+        when(feeCache.current()).thenReturn(FeeSchedule.NONE);
+        LocalDateTime crossedAt = DAY.atTime(10, 0, 1);
+        when(priceRepository.findBySymbolAndTimestampBetweenOrderByTimestampAscIdAsc(eq(SYMBOL), any(), any()))
+                .thenReturn(List.of(
+                        price(ExchangeType.BINANCE, "100", "101", DAY.atTime(10, 0)),
+                        price(ExchangeType.KRAKEN, "102", "103", crossedAt),
+                        price(ExchangeType.KRAKEN, "102", "103", DAY.atTime(10, 0, 2))))
+                .thenReturn(List.of());
+        ReplayService replayService = new ReplayService(priceRepository, null, detectionService);
+        
+        ReplayResultDto result = replayService.replay(SYMBOL, DAY.atTime(9, 0), DAY.plusDays(1).atTime(12, 0),
+                new BigDecimal("0.5"), ReplaySource.DATABASE, 10);
+        
+        verify(priceRepository).findBySymbolAndTimestampBetweenOrderByTimestampAscIdAsc(
+                SYMBOL, DAY.atTime(9, 0), DAY.plusDays(1).atStartOfDay().minusNanos(1));
+        verify(priceRepository).findBySymbolAndTimestampBetweenOrderByTimestampAscIdAsc(
+                SYMBOL, DAY.plusDays(1).atStartOfDay(), DAY.plusDays(1).atTime(12, 0));
+        assertThat(result.getTicks()).isEqualTo(3);
+        assertThat(result.getChangedTicks()).isEqualTo(2);
+        assertThat(result.getOpportunityCount()).isEqualTo(1);
+        ArbitrageOpportunityDto opportunity = result.getOpportunities().get(0);
+        assertThat(opportunity.getBuyExchange()).isEqualTo(ExchangeType.BINANCE);
+        assertThat(opportunity.getSellExchange()).isEqualTo(ExchangeType.KRAKEN);
+        assertThat(opportunity.getDetectedAt()).isEqualTo(crossedAt);
+    }
+    
+    @Test
+    void mergesArchivedExchangesInTimestampOrder() throws Exception {
+        when(feeCache.current()).thenReturn(FeeSchedule.NONE);
+        config.getArchive().setDirectory(directory.toString());
+        TickArchive archive = new TickArchive(config, new QuoteStore());
+        archive.append(ExchangeType.BINANCE, SYMBOL, DAY.atTime(10, 0), scaled("100"), scaled("101"), 0, 0);
+        archive.append(ExchangeType.BINANCE, SYMBOL, DAY.atTime(10, 2), scaled("104"), scaled("105"), 0, 0);
+        archive.append(ExchangeType.KRAKEN, SYMBOL, DAY.atTime(10, 1), scaled("102"), scaled("103"), 0, 0);
+        archive.close();
+        ReplayService replayService = new ReplayService(priceRepository, archive, detectionService);
+        
+        ReplayResultDto result = replayService.replay(SYMBOL, DAY.atStartOfDay(), DAY.atTime(23, 59),
+                new BigDecimal("0.5"), ReplaySource.ARCHIVE, 1);
+        
+        // Kraken's tick falls between Binance's two, so each Binance quote is crossed once
+        assertThat(result.getTicks()).isEqualTo(3);
+        assertThat(result.getOpportunityCount()).isEqualTo(2);
+        assertThat(result.getOpportunities()).hasSize(1);
+        assertThat(result.getOpportunities().get(0).getSellExchange()).isEqualTo(ExchangeType.KRAKEN);
+        assertThat(result.getOpportunities().get(0).getDetectedAt()).isEqualTo(DAY.atTime(10, 1));
+    }
+    
+    @Test
+    void rejectsAStartAfterTheEnd() {
+        ReplayService replayService = new ReplayService(priceRepository, null, detectionService);
+        
+        assertThatThrownBy(() -> replayService.replay(SYMBOL, DAY.atTime(12, 0), DAY.atTime(11, 0),
+                BigDecimal.ONE, ReplaySource.DATABASE, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private static Price price(ExchangeType exchange, String bid, String ask, LocalDateTime timestamp) {
+        return Price.builder()
+                .exchangeType(exchange)
+                .symbol(SYMBOL)
+                .bidPrice(new BigDecimal(bid))
+                .askPrice(new BigDecimal(ask))
+                .timestamp(timestamp)
+                .build();
+    }
+    
+    private static long scaled(String value) {
+        return FixedPoint.toScaled(new BigDecimal(value));
+    }
+}
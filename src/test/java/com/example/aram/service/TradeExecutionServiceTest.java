@@ -0,0 +1,261 @@
+package com.example.aram.service;
+
+import com.example.aram.config.ArbitrageConfig;
+import com.example.aram.dto.OrderDto;
+import com.example.aram.enums.ArbitrageType;
+import com.example.aram.enums.ExchangeType;
+import com.example.aram.enums.LegRecoveryPolicy;
+import com.example.aram.enums.OpportunityStatus;
+import com.example.aram.enums.OrderSide;
+import com.example.aram.enums.OrderStatus;
+import com.example.aram.market.BalanceLedger;
+import com.example.aram.model.ArbitrageOpportunity;
+import com.example.aram.model.Trade;
+import com.example.aram.repository.ArbitrageOpportunityRepository;
+import com.example.aram.repository.TradeRepository;
+import com.example.aram.util.ArbitrageCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Places both legs against a mocked exchange service and checks how fills, partial fills and open orders are
+ * judged, recovered and booked
+ */
+class TradeExecutionServiceTest {
+    
+    private static final long OPPORTUNITY_ID = 7L;
+    
+    private final ExchangeService exchangeService = mock(ExchangeService.class);
+    private final TradeRepository tradeRepository = mock(TradeRepository.class);
+    private final ArbitrageOpportunityRepository opportunityRepository = mock(ArbitrageOpportunityRepository.class);
+    private final ArbitrageConfig config = new ArbitrageConfig();
+    private final BalanceLedger balanceLedger = new BalanceLedger();
+    private final ExecutorService legExecutor = Executors.newFixedThreadPool(4);
+    private final ExecutorService persistenceExecutor = Executors.newSingleThreadExecutor();
+    private final TradeExecutionService service = new TradeExecutionService(exchangeService, tradeRepository,
+            opportunityRepository, config, new TransactionTemplate(new NoTransactions()), balanceLedger,
+            mock(BalanceReconciler.class), new ArbitrageCalculator(), legExecutor, persistenceExecutor);
+    
+    private final ArbitrageOpportunity opportunity = ArbitrageOpportunity.builder()
+            .id(OPPORTUNITY_ID)
+            .arbitrageType(ArbitrageType.SIMPLE)
+            .symbol("BTC/USDT")
+            .buyExchange(ExchangeType.BINANCE)
+            .sellExchange(ExchangeType.KRAKEN)
+            .buyPrice(new BigDecimal("100"))
+            .sellPrice(new BigDecimal("101"))
+            .status(OpportunityStatus.DETECTED)
+            .build();
+    
+    @AfterEach
+    void tearDown() {
+        legExecutor.shutdownNow();
+        persistenceExecutor.shutdownNow();
+    }
+    
+    @Test
+    void completesWhenBothOrdersFilled() throws Exception {
+        order(ExchangeType.BINANCE, OrderSide.BUY, "b1", OrderStatus.FILLED, "1");
+        order(ExchangeType.KRAKEN, OrderSide.SELL, "s1", OrderStatus.FILLED, "1");
+        
+        execute("1");
+        
+        assertThat(opportunity.getStatus()).isEqualTo(OpportunityStatus.COMPLETED);
+        assertThat(recordedTrades()).extracting(Trade::getStatus).containsExactly("FILLED", "FILLED");
+    }
+    
+    @Test
+    void unwindsTheFilledLegWhenTheOtherExpired() throws Exception {
+        order(ExchangeType.BINANCE, OrderSide.BUY, "b1", OrderStatus.FILLED, "1");
+        order(ExchangeType.KRAKEN, OrderSide.SELL, "s1", OrderStatus.CANCELED, "0");
+        order(ExchangeType.BINANCE, OrderSide.SELL, "u1", OrderStatus.FILLED, "1");
+        
+        execute("1");
+        
+        assertThat(opportunity.getStatus()).isEqualTo(OpportunityStatus.FAILED);
+        assertThat(opportunity.getExecutionDetails()).contains("unwound 1 of b1 with order u1");
+        List<Trade> trades = recordedTrades();
+        assertThat(trades).extracting(Trade::getStatus).containsExactly("FILLED", "CANCELLED", "FILLED");
+        assertThat(trades.get(1).getExecutedQuantity()).isEqualByComparingTo("0");
+    }
+    
+    @Test
+    void unwindsOnlyWhatThePartialLegLeftOpen() throws Exception {
+        order(ExchangeType.BINANCE, OrderSide.BUY, "b1", OrderStatus.FILLED, "1");
+        order(ExchangeType.KRAKEN, OrderSide.SELL, "s1", OrderStatus.CANCELED, "0.4");
+        order(ExchangeType.BINANCE, OrderSide.SELL, "u1", OrderStatus.FILLED, "0.6");
+        
+        execute("1");
+        
+        verify(exchangeService).executeTrade(eq(ExchangeType.BINANCE), any(), any(), eq(OrderSide.SELL), any(),
+                argThat(quantity -> quantity.compareTo(new BigDecimal("0.6")) == 0));
+        assertThat(recordedTrades()).extracting(Trade::getStatus)
+                .containsExactly("FILLED", "PARTIALLY_FILLED", "FILLED");
+    }
+    
+    @Test
+    void hedgesTheMissingQuantityOfAPartialLeg() throws Exception {
+        config.getExecution().setRecoveryPolicy(LegRecoveryPolicy.HEDGE);
+        order(ExchangeType.BINANCE, OrderSide.BUY, "b1", OrderStatus.FILLED, "1");
+        when(exchangeService.executeTrade(eq(ExchangeType.KRAKEN), any(), any(), eq(OrderSide.SELL), any(), any()))
+                .thenReturn(order("s1", OrderStatus.CANCELED, "0.4"))
+                .thenReturn(order("h1", OrderStatus.FILLED, "0.6"));
+        
+        execute("1");
+        
+        assertThat(opportunity.getStatus()).isEqualTo(OpportunityStatus.COMPLETED);
+        assertThat(opportunity.getExecutionDetails()).contains("hedged on attempt 1 with order h1");
+        verify(exchangeService).executeTrade(eq(ExchangeType.KRAKEN), any(), any(), eq(OrderSide.SELL), any(),
+                argThat(quantity -> quantity.compareTo(new BigDecimal("0.6")) == 0));
+    }
+    
+    @Test
+    void pollsAnOpenOrderUntilItFills() throws Exception {
+        config.getExecution().setOrderPollInterval(10L);
+        order(ExchangeType.BINANCE, OrderSide.BUY, "b1", OrderStatus.NEW, null);
+        order(ExchangeType.KRAKEN, OrderSide.SELL, "s1", OrderStatus.FILLED, "1");
+        when(exchangeService.getOrder(ExchangeType.BINANCE, "BTC/USDT", "b1"))
+                .thenReturn(order("b1", OrderStatus.PARTIALLY_FILLED, "0.5"))
+                .thenReturn(order("b1", OrderStatus.FILLED, "1"));
+        
+        execute("1");
+        
+        assertThat(opportunity.getStatus()).isEqualTo(OpportunityStatus.COMPLETED);
+        verify(exchangeService, atLeastOnce()).getOrder(ExchangeType.BINANCE, "BTC/USDT", "b1");
+    }
+    
+    @Test
+    void leavesAnOrderStillOpenAtTheTimeoutForReview() throws Exception {
+        config.getExecution().setLegTimeout(300L);
+        config.getExecution().setOrderPollInterval(20L);
+        order(ExchangeType.BINANCE, OrderSide.BUY, "b1", OrderStatus.NEW, null);
+        order(ExchangeType.KRAKEN, OrderSide.SELL, "s1", OrderStatus.FILLED, "1");
+        when(exchangeService.getOrder(ExchangeType.BINANCE, "BTC/USDT", "b1"))
+                .thenReturn(order("b1", OrderStatus.PARTIALLY_FILLED, "0.3"));
+        
+        execute("1");
+        
+        assertThat(opportunity.getStatus()).isEqualTo(OpportunityStatus.FAILED);
+        assertThat(opportunity.getExecutionDetails()).contains("Leg outcome unknown");
+        List<Trade> trades = recordedTrades();
+        assertThat(trades.get(0).getStatus()).isEqualTo("UNKNOWN");
+        assertThat(trades.get(0).getExecutedQuantity()).isEqualByComparingTo("0.3");
+    }
+    
+    @Test
+    void booksTheExecutedQuantitiesAtTheirAveragePrices() throws Exception {
+        config.getBalances().setEnabled(true);
+        balanceLedger.reconcile(ExchangeType.BINANCE, Map.of("USDT", new BigDecimal("1000")), System.nanoTime());
+        balanceLedger.reconcile(ExchangeType.KRAKEN, Map.of("BTC", new BigDecimal("1")), System.nanoTime());
+        order(ExchangeType.BINANCE, OrderSide.BUY, "b1", OrderStatus.FILLED, "1");
+        order(ExchangeType.KRAKEN, OrderSide.SELL, "s1", OrderStatus.CANCELED, "0.4");
+        order(ExchangeType.BINANCE, OrderSide.SELL, "u1", OrderStatus.FILLED, "0.6");
+        
+        execute("1");
+        
+        assertThat(balanceLedger.available(ExchangeType.BINANCE, "USDT")).isEqualByComparingTo("960");
+        assertThat(balanceLedger.available(ExchangeType.BINANCE, "BTC")).isEqualByComparingTo("0.4");
+        assertThat(balanceLedger.available(ExchangeType.KRAKEN, "BTC")).isEqualByComparingTo("0.6");
+        assertThat(balanceLedger.available(ExchangeType.KRAKEN, "USDT")).isEqualByComparingTo("40");
+    }
+    
+    @Test
+    void sizesFromTheDefaultAmountWhileTheLedgerIsOff() throws Exception {
+        config.getExecution().setDefaultAmount(new BigDecimal("0.5"));
+        opportunity.setVolume(new BigDecimal("0.3"));
+        order(ExchangeType.BINANCE, OrderSide.BUY, "b1", OrderStatus.FILLED, "0.3");
+        order(ExchangeType.KRAKEN, OrderSide.SELL, "s1", OrderStatus.FILLED, "0.3");
+        
+        execute(null);
+        
+        assertThat(opportunity.getStatus()).isEqualTo(OpportunityStatus.COMPLETED);
+        verify(exchangeService).executeTrade(eq(ExchangeType.BINANCE), any(), any(), eq(OrderSide.BUY), any(),
+                argThat(quantity -> quantity.compareTo(new BigDecimal("0.3")) == 0));
+    }
+    
+    @Test
+    void refusesToAutoExecuteWithoutAWayToSizeTrades() {
+        config.setAutoExecute(true);
+        
+        assertThatThrownBy(service::checkSizing).isInstanceOf(IllegalStateException.class);
+        
+        config.getExecution().setDefaultAmount(new BigDecimal("0.01"));
+        service.checkSizing();
+    }
+    
+    private void execute(String amount) throws InterruptedException {
+        when(opportunityRepository.findById(OPPORTUNITY_ID)).thenReturn(Optional.of(opportunity));
+        if (amount != null) {
+            service.executeArbitrage(OPPORTUNITY_ID, new BigDecimal(amount));
+        } else {
+            service.executeArbitrage(OPPORTUNITY_ID);
+        }
+        persistenceExecutor.shutdown();
+        assertThat(persistenceExecutor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Trade> recordedTrades() {
+        ArgumentCaptor<List<Trade>> trades = ArgumentCaptor.forClass(List.class);
+        verify(tradeRepository).saveAll(trades.capture());
+        return new ArrayList<>(trades.getValue());
+    }
+    
+    private void order(ExchangeType exchange, OrderSide side, String orderId, OrderStatus status, String executed) {
+        when(exchangeService.executeTrade(eq(exchange), any(), any(), eq(side), any(), any()))
+                .thenReturn(order(orderId, status, executed));
+    }
+    
+    private static OrderDto order(String orderId, OrderStatus status, String executed) {
+        return OrderDto.builder()
+                .orderId(orderId)
+                .status(status)
+                .executedQuantity(executed != null ? new BigDecimal(executed) : null)
+                .averagePrice(new BigDecimal("100"))
+                .build();
+    }
+    
+    /**
+     * Runs the callback without a real transaction
+     */
+    private static final class NoTransactions implements PlatformTransactionManager {
+        
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+        
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+        
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.aram.util;
+
+import com.example.aram.market.OrderBook;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the fixed-point profit calculations against the BigDecimal ones, and the walk over order-book depth
+ */
+class ArbitrageCalculatorTest {
+    
+    private final ArbitrageCalculator calculator = new ArbitrageCalculator();
+    
+    @Test
+    void profitPercentageMatchesTheBigDecimalVersion() {
+        Random random = new Random(6);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal buy = price(random);
+            BigDecimal sell = buy.multiply(BigDecimal.valueOf(950 + random.nextInt(100), 3))
+                    .setScale(random.nextInt(FixedPoint.SCALE + 1), RoundingMode.DOWN);
+            
+            long scaled = calculator.calculateProfitPercentage(FixedPoint.toScaled(buy), FixedPoint.toScaled(sell));
+            
+            assertThat(calculator.toProfitPercentage(scaled)).as("%s -> %s", buy, sell)
+                    .isEqualTo(calculator.calculateProfitPercentage(buy, sell));
+        }
+    }
+    
+    @Test
+    void profitPercentageRoundsHalfUpAwayFromZero() {
+        assertThat(percentage("1", "1.00005")).isEqualTo(new BigDecimal("0.0100"));
+        assertThat(percentage("1", "0.99995")).isEqualTo(new BigDecimal("-0.0100"));
+        assertThat(percentage("1", "1.00004999")).isEqualTo(new BigDecimal("0.0000"));
+        assertThat(calculator.toProfitPercentage(calculator.calculateProfitPercentage(0L, FixedPoint.ONE)))
+                .isEqualByComparingTo(BigDecimal.ZERO);
+    }
+    
+    @Test
+    void profitPercentageIsUnrepresentableForMissingPrices() {
+        assertThat(calculator.calculateProfitPercentage(FixedPoint.UNREPRESENTABLE, FixedPoint.ONE))
+                .isEqualTo(FixedPoint.UNREPRESENTABLE);
+        assertThat(calculator.calculateProfitPercentage(FixedPoint.ONE, FixedPoint.UNREPRESENTABLE))
+                .isEqualTo(FixedPoint.UNREPRESENTABLE);
+        assertThat(calculator.calculateProfitPercentage(Long.MAX_VALUE / 2, 1L))
+                .isEqualTo(FixedPoint.UNREPRESENTABLE);
+    }
+    
+    @Test
+    void netProfitPercentageMatchesTheBigDecimalVersion() {
+        Random random = new Random(14);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal buy = price(random);
+            BigDecimal sell = buy.multiply(BigDecimal.valueOf(990 + random.nextInt(30), 3))
+                    .setScale(FixedPoint.SCALE, RoundingMode.DOWN);
+            long buyCost = random.nextInt(5_000);
+            long sellCost = random.nextInt(5_000);
+            
+            long scaled = calculator.calculateNetProfitPercentage(
+                    FixedPoint.toScaled(buy), buyCost, FixedPoint.toScaled(sell), sellCost);
+            
+            assertThat(calculator.toProfitPercentage(scaled)).as("%s -> %s", buy, sell)
+                    .isEqualTo(calculator.calculateNetProfitPercentage(buy, buyCost, sell, sellCost));
+        }
+    }
+    
+    @Test
+    void netProfitPercentageChargesBothLegs() {
+        long buy = FixedPoint.toScaled(new BigDecimal("100"));
+        long sell = FixedPoint.toScaled(new BigDecimal("100.5"));
+        
+        // Buying at 100.1 and selling at 100.3995 earns 0.2992%, rounded to 0.30
+        assertThat(calculator.toProfitPercentage(calculator.calculateNetProfitPercentage(buy, 1_000, sell, 1_000)))
+                .isEqualTo(new BigDecimal("0.3000"));
+        assertThat(calculator.toProfitPercentage(calculator.calculateNetProfitPercentage(buy, 0, sell, 0)))
+                .isEqualTo(new BigDecimal("0.5000"));
+    }
+    
+    @Test
+    void fillsAgainstDepthWhileTheNextUnitStillEarns() {
+        OrderBook asks = book(new String[][] {{"100", "1"}, {"101", "2"}, {"103", "5"}}, false);
+        OrderBook bids = book(new String[][] {{"102", "1.5"}, {"101.5", "1"}, {"100", "10"}}, true);
+        DepthFill fill = new DepthFill();
+        
+        assertThat(calculator.fillAgainstDepth(asks, 0, bids, 0, fill)).isTrue();
+        
+        // 1 at 100 against 102, 0.5 at 101 against 102, then 1 at 101 against 101.5
+        assertThat(FixedPoint.toBigDecimal(fill.getQuantity())).isEqualByComparingTo("2.5");
+        assertThat(FixedPoint.toBigDecimal(fill.getBuyNotional())).isEqualByComparingTo("251.5");
+        assertThat(FixedPoint.toBigDecimal(fill.getSellNotional())).isEqualByComparingTo("254.5");
+        assertThat(FixedPoint.toBigDecimal(fill.getNetProfit())).isEqualByComparingTo("3");
+        assertThat(fill.buyVwap()).isEqualByComparingTo("100.6");
+        assertThat(fill.sellVwap()).isEqualByComparingTo("101.8");
+    }
+    
+    @Test
+    void stopsTheFillWhereCostsEatTheSpread() {
+        OrderBook asks = book(new String[][] {{"100", "1"}, {"101", "2"}, {"103", "5"}}, false);
+        OrderBook bids = book(new String[][] {{"102", "1.5"}, {"101.5", "1"}, {"100", "10"}}, true);
+        DepthFill fill = new DepthFill();
+        
+        calculator.fillAgainstDepth(asks, 1_000, bids, 1_000, fill);
+        assertThat(FixedPoint.toBigDecimal(fill.getQuantity())).isEqualByComparingTo("2.5");
+        assertThat(FixedPoint.toBigDecimal(fill.getNetProfit())).isEqualByComparingTo("2.494");
+        
+        // At 0.3% a leg, 101 bought against 101.5 sold no longer pays
+        calculator.fillAgainstDepth(asks, 3_000, bids, 3_000, fill);
+        assertThat(FixedPoint.toBigDecimal(fill.getQuantity())).isEqualByComparingTo("1.5");
+        assertThat(FixedPoint.toBigDecimal(fill.getNetProfit()))
+                .isEqualByComparingTo(new BigDecimal("153").multiply(new BigDecimal("0.997"))
+                        .subtract(new BigDecimal("150.5").multiply(new BigDecimal("1.003"))));
+    }
+    
+    @Test
+    void findsNoFillWhenTheBooksDoNotCross() {
+        OrderBook asks = book(new String[][] {{"101", "1"}}, false);
+        OrderBook bids = book(new String[][] {{"100", "1"}}, true);
+        DepthFill fill = new DepthFill();
+        
+        assertThat(calculator.fillAgainstDepth(asks, 0, bids, 0, fill)).isFalse();
+        assertThat(fill.getQuantity()).isZero();
+        assertThat(fill.buyVwap()).isNull();
+        assertThat(calculator.fillAgainstDepth(new OrderBook(4), 0, bids, 0, fill)).isFalse();
+    }
+    
+    private BigDecimal percentage(String buy, String sell) {
+        long scaled = calculator.calculateProfitPercentage(FixedPoint.toScaled(new BigDecimal(buy)),
+                FixedPoint.toScaled(new BigDecimal(sell)));
+        BigDecimal expected = calculator.calculateProfitPercentage(new BigDecimal(buy), new BigDecimal(sell));
+        assertThat(calculator.toProfitPercentage(scaled)).isEqualTo(expected);
+        return expected;
+    }
+    
+    /**
+     * Price between 0.00000001 and 100000 with up to 8 decimals
+     */
+    private static BigDecimal price(Random random) {
+        return BigDecimal.valueOf(1 + (long) (random.nextDouble() * 10_000_000_000_000L), FixedPoint.SCALE);
+    }
+    
+    /**
+     * Book with one side filled from price and size pairs, best first
+     */
+    private static OrderBook book(String[][] levels, boolean bids) {
+        OrderBook book = new OrderBook(levels.length);
+        for (String[] level : levels) {
+            long price = FixedPoint.toScaled(new BigDecimal(level[0]));
+            long size = FixedPoint.toScaled(new BigDecimal(level[1]));
+            assertThat(bids ? book.addBid(price, size) : book.addAsk(price, size)).isTrue();
+        }
+        return book;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.aram.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the scaled-long conversions and the allocation-free product against BigDecimal
+ */
+class FixedPointTest {
+    
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+    
+    @Test
+    void convertsExactlyAtEightDecimals() {
+        assertThat(FixedPoint.toScaled(new BigDecimal("1.5"))).isEqualTo(150_000_000L);
+        assertThat(FixedPoint.toScaled(new BigDecimal("0.00000001"))).isEqualTo(1L);
+        assertThat(FixedPoint.toScaled(new BigDecimal("-2"))).isEqualTo(-2 * FixedPoint.ONE);
+        assertThat(FixedPoint.toBigDecimal(123_456_789L)).isEqualTo(new BigDecimal("1.23456789"));
+    }
+    
+    @Test
+    void marksValuesThatDoNotFitAsUnrepresentable() {
+        assertThat(FixedPoint.toScaled(null)).isEqualTo(FixedPoint.UNREPRESENTABLE);
+        assertThat(FixedPoint.toScaled(new BigDecimal("0.000000001"))).isEqualTo(FixedPoint.UNREPRESENTABLE);
+        assertThat(FixedPoint.toScaled(new BigDecimal("1e12"))).isEqualTo(FixedPoint.UNREPRESENTABLE);
+        assertThat(FixedPoint.isRepresentable(FixedPoint.UNREPRESENTABLE)).isFalse();
+        assertThat(FixedPoint.toBigDecimal(FixedPoint.UNREPRESENTABLE)).isNull();
+    }
+    
+    @Test
+    void multipliesLikeBigDecimalRoundedDown() {
+        Random random = new Random(6);
+        for (int i = 0; i < 100_000; i++) {
+            long a = (random.nextLong() >>> 1) >> random.nextInt(63);
+            long b = (random.nextLong() >>> 1) >> random.nextInt(63);
+            BigInteger exact = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                    .divide(BigInteger.valueOf(FixedPoint.ONE));
+            long expected = exact.compareTo(LONG_MAX) <= 0 ? exact.longValue() : FixedPoint.UNREPRESENTABLE;
+            
+            assertThat(FixedPoint.multiply(a, b)).as("%d * %d", a, b).isEqualTo(expected);
+        }
+    }
+    
+    @Test
+    void multipliesAcrossTheHighWord() {
+        long million = FixedPoint.toScaled(new BigDecimal("1000000"));
+        long price = FixedPoint.toScaled(new BigDecimal("30000.12345678"));
+        
+        BigDecimal expected = new BigDecimal("30000123456.78").setScale(FixedPoint.SCALE, RoundingMode.DOWN);
+        assertThat(FixedPoint.toBigDecimal(FixedPoint.multiply(million, price))).isEqualTo(expected);
+        assertThat(FixedPoint.multiply(Long.MAX_VALUE, 2 * FixedPoint.ONE)).isEqualTo(FixedPoint.UNREPRESENTABLE);
+        assertThat(FixedPoint.multiply(-1, FixedPoint.ONE)).isEqualTo(FixedPoint.UNREPRESENTABLE);
+    }
+}